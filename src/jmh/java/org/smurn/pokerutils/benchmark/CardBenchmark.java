@@ -0,0 +1,74 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.HandCategory;
+import org.smurn.pokerutils.Rank;
+
+/**
+ * Throughput of parsing cards and creating hands.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CardBenchmark {
+
+    /** Seven cards in text form. */
+    private String text = "As 7d 3c 2h Kd 9s 4c";
+    /** Cards of a hand. */
+    private List<Card> cards = Card.parse("As Kd 9s 7d 4c");
+    /** Ranks of the hand. */
+    private List<Rank> ranks = Arrays.asList(Rank.Ace, Rank.King, Rank.Nine,
+            Rank.Seven, Rank.Four);
+
+    /**
+     * Parses seven cards.
+     * @return The cards.
+     */
+    @Benchmark
+    public List<Card> parse() {
+        return Card.parse(text);
+    }
+
+    /**
+     * Parses seven cards into a mask without creating objects.
+     * @return Mask of the cards.
+     */
+    @Benchmark
+    public long parseMask() {
+        return Card.parseMask(text);
+    }
+
+    /**
+     * Creates a high card hand.
+     * @return The hand.
+     */
+    @Benchmark
+    public Hand createHand() {
+        return new Hand(HandCategory.HighCard, cards, ranks);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.ranking.CombinedLocator;
+import org.smurn.pokerutils.ranking.FlushLocator;
+import org.smurn.pokerutils.ranking.FourOfAKindLocator;
+import org.smurn.pokerutils.ranking.FullHouseLocator;
+import org.smurn.pokerutils.ranking.HandLocator;
+import org.smurn.pokerutils.ranking.HighCardLocator;
+import org.smurn.pokerutils.ranking.LookupLocator;
+import org.smurn.pokerutils.ranking.PairLocator;
+import org.smurn.pokerutils.ranking.StraightFlushLocator;
+import org.smurn.pokerutils.ranking.StraightLocator;
+import org.smurn.pokerutils.ranking.ThreeOfAKindLocator;
+import org.smurn.pokerutils.ranking.TwoPairLocator;
+
+/**
+ * Throughput of the hand locators on random cards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HandLocatorBenchmark {
+
+    /** Number of prepared inputs, a power of two. */
+    private static final int INPUTS = 1024;
+
+    /** Locator to measure. */
+    @Param({"StraightFlush", "FourOfAKind", "FullHouse", "Flush", "Straight",
+        "ThreeOfAKind", "TwoPair", "Pair", "HighCard", "Combined", "Lookup"})
+    private String locatorName;
+    /** Number of cards per input. */
+    @Param({"5", "6", "7"})
+    private int cardCount;
+    /** The locator. */
+    private HandLocator locator;
+    /** Random inputs. */
+    private List<List<Card>> inputs;
+    /** Index of the next input. */
+    private int next;
+
+    /**
+     * Creates the locator and the inputs.
+     */
+    @Setup
+    public void setUp() {
+        locator = createLocator(locatorName);
+        Random random = new Random(42);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+        inputs = new ArrayList<List<Card>>(INPUTS);
+        for (int i = 0; i < INPUTS; i++) {
+            Collections.shuffle(deck, random);
+            inputs.add(new ArrayList<Card>(deck.subList(0, cardCount)));
+        }
+    }
+
+    /**
+     * Locates the best hand in the next input.
+     * @return The hand, null if the locator found none.
+     */
+    @Benchmark
+    public Hand findBestHand() {
+        next = (next + 1) & (INPUTS - 1);
+        return locator.findBestHand(inputs.get(next));
+    }
+
+    /**
+     * Creates a locator by name.
+     * @param name Category name, "Combined" for the chain of all category
+     * locators or "Lookup" for the {@link LookupLocator}.
+     * @return The locator.
+     */
+    static HandLocator createLocator(final String name) {
+        switch (name) {
+            case "StraightFlush":
+                return new StraightFlushLocator();
+            case "FourOfAKind":
+                return new FourOfAKindLocator();
+            case "FullHouse":
+                return new FullHouseLocator();
+            case "Flush":
+                return new FlushLocator();
+            case "Straight":
+                return new StraightLocator();
+            case "ThreeOfAKind":
+                return new ThreeOfAKindLocator();
+            case "TwoPair":
+                return new TwoPairLocator();
+            case "Pair":
+                return new PairLocator();
+            case "HighCard":
+                return new HighCardLocator();
+            case "Combined":
+                return new CombinedLocator(Arrays.<HandLocator>asList(
+                        new StraightFlushLocator(),
+                        new FourOfAKindLocator(),
+                        new FullHouseLocator(),
+                        new FlushLocator(),
+                        new StraightLocator(),
+                        new ThreeOfAKindLocator(),
+                        new TwoPairLocator(),
+                        new PairLocator(),
+                        new HighCardLocator()));
+            case "Lookup":
+                return new LookupLocator();
+            default:
+                throw new IllegalArgumentException("unknown locator "
+                        + name + ".");
+        }
+    }
+}
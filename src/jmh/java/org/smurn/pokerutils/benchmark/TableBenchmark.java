@@ -0,0 +1,89 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Player;
+import org.smurn.pokerutils.Pot;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.SitDownChange;
+
+/**
+ * Throughput of copying tables and applying changes to them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TableBenchmark {
+
+    /** Number of seats of the table. */
+    @Param({"2", "6", "10"})
+    private int seatCount;
+    /** Sealed table in the middle of a hand, the last seat is empty. */
+    private Table table;
+    /** Change filling the empty seat. */
+    private SitDownChange sitDown;
+
+    /**
+     * Creates the table and the change.
+     */
+    @Setup
+    public void setUp() {
+        Table unsealed = new Table(seatCount);
+        for (int i = 0; i < seatCount - 1; i++) {
+            unsealed.getSeat(i).setPlayer(new Player() {
+            });
+            unsealed.getSeat(i).setStake(1000);
+            unsealed.getSeat(i).setBet(20);
+            unsealed.getSeat(i).getHoleCards().addAll(
+                    Card.parse(i % 2 == 0 ? "As Kd" : "7c 7h"));
+        }
+        Pot pot = new Pot();
+        pot.setAmount(100);
+        unsealed.getPots().add(pot);
+        unsealed.seal();
+        table = unsealed;
+        sitDown = new SitDownChange(new Player() {
+        }, seatCount - 1, 500);
+    }
+
+    /**
+     * Creates an unsealed deep copy of the table.
+     * @return The copy.
+     */
+    @Benchmark
+    public Table copy() {
+        return new Table(table);
+    }
+
+    /**
+     * Lets a player sit down at the empty seat.
+     * @return The table after the change.
+     */
+    @Benchmark
+    public Table sitDown() {
+        return sitDown.apply(table);
+    }
+}
@@ -15,7 +15,9 @@
  */
 package org.smurn.pokerutils;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.commons.lang.NullArgumentException;
 
@@ -128,6 +130,38 @@ public enum Card {
     CK(Suit.Clubs, Rank.King),
     /** Ace of clubs. */
     CA(Suit.Clubs, Rank.Ace);
+    /** Number of ranks. */
+    private static final int RANKS = 13;
+    /** Number of characters a single card is described with. */
+    private static final int CODE_LENGTH = 2;
+    /** All cards indexed by ordinal. */
+    private static final Card[] CARDS = values();
+    /** All cards indexed by {@code suit.ordinal() * 13 + rank.ordinal()}. */
+    private static final Card[] BY_SUIT_AND_RANK = new Card[CARDS.length];
+    /** Rank ordinal for each ASCII character, or -1 if it is no rank. */
+    private static final byte[] RANK_CODES = new byte[128];
+    /** Suit ordinal for each ASCII character, or -1 if it is no suit. */
+    private static final byte[] SUIT_CODES = new byte[128];
+
+    static {
+        for (Card card : CARDS) {
+            BY_SUIT_AND_RANK[card.suit.ordinal() * RANKS
+                    + card.rank.ordinal()] = card;
+        }
+        Arrays.fill(RANK_CODES, (byte) -1);
+        Arrays.fill(SUIT_CODES, (byte) -1);
+        String ranks = "23456789TJQKA";
+        for (int i = 0; i < ranks.length(); i++) {
+            RANK_CODES[ranks.charAt(i)] = (byte) i;
+            RANK_CODES[Character.toLowerCase(ranks.charAt(i))] = (byte) i;
+        }
+        String suits = "SHDC";
+        for (int i = 0; i < suits.length(); i++) {
+            SUIT_CODES[suits.charAt(i)] = (byte) i;
+            SUIT_CODES[Character.toLowerCase(suits.charAt(i))] = (byte) i;
+        }
+    }
+
     /**
      * Suit of this card.
      */
@@ -170,13 +204,47 @@ public enum Card {
      * @return The requested card.
      */
     public static Card getCard(final Suit suit, final Rank rank) {
-        for (Card card : Card.values()) {
-            if (card.suit == suit && card.rank == rank) {
-                return card;
-            }
+        if (suit == null) {
+            throw new NullArgumentException("suit");
+        }
+        if (rank == null) {
+            throw new NullArgumentException("rank");
+        }
+        return BY_SUIT_AND_RANK[suit.ordinal() * RANKS + rank.ordinal()];
+    }
+
+    /**
+     * Returns the card with the given ordinal.
+     * Unlike {@code Card.values()[ordinal]} this does not copy the array
+     * of all cards.
+     * @param ordinal Ordinal of the card, between 0 and 51.
+     * @return The card with {@code card.ordinal() == ordinal}.
+     */
+    public static Card getCard(final int ordinal) {
+        if (ordinal < 0 || ordinal >= CARDS.length) {
+            throw new IllegalArgumentException("no card with ordinal "
+                    + ordinal + ".");
+        }
+        return CARDS[ordinal];
+    }
+
+    /**
+     * Returns the card described by two characters such as "7c".
+     * @param code Rank character followed by the suit character, as
+     * accepted by {@link Rank#parse(char)} and {@link Suit#parse(char)}.
+     * Must not be null.
+     * @return The described card.
+     * @throws IllegalArgumentException If the format is wrong.
+     */
+    public static Card parseCard(final CharSequence code) {
+        if (code == null) {
+            throw new NullArgumentException("code");
+        }
+        if (code.length() != CODE_LENGTH) {
+            throw new IllegalArgumentException("Each card must be "
+                    + "described by two characters. Found '" + code + "'.");
         }
-        throw new AssertionError("Card enum misses the card with suit "
-                + suit + " and rank " + rank + ".");
+        return CARDS[ordinalOf(code.charAt(0), code.charAt(1))];
     }
 
     /**
@@ -191,25 +259,242 @@ public enum Card {
         if (cardsString == null) {
             throw new NullArgumentException("cardsString");
         }
+        int end = trimmedLength(cardsString);
+        List<Card> cards = new ArrayList<Card>((end + 1) / (CODE_LENGTH + 1));
+        for (int pos = 0; pos < end; pos += CODE_LENGTH + 1) {
+            checkSeparator(cardsString, pos, end);
+            cards.add(CARDS[ordinalOf(cardsString.charAt(pos),
+                    cardsString.charAt(pos + 1))]);
+        }
+        return cards;
+    }
+
+    /**
+     * Parses a string of cards into a card mask.
+     * Does not create any objects unless the format is wrong.
+     * @param cards Characters describing cards in the format "7c Ad 9h".
+     * Must not be null.
+     * @return Mask of the cards as described by {@link CardSet#getMask()}.
+     * @throws IllegalArgumentException If the format is wrong or a card
+     * is given more than once.
+     */
+    public static long parseMask(final CharSequence cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        int end = trimmedLength(cards);
+        long mask = 0;
+        for (int pos = 0; pos < end; pos += CODE_LENGTH + 1) {
+            checkSeparator(cards, pos, end);
+            long bit = 1L << ordinalOf(cards.charAt(pos),
+                    cards.charAt(pos + 1));
+            if ((mask & bit) != 0) {
+                throw duplicate(cards.subSequence(pos, pos + CODE_LENGTH));
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    /**
+     * Parses a string of cards into card ordinals.
+     * Does not create any objects unless the format is wrong.
+     * @param cards Characters describing cards in the format "7c Ad 9h".
+     * Must not be null.
+     * @param ordinals Array into which the ordinals of the cards are written,
+     * starting at index 0, same order as in the string. Must not be null and
+     * must be large enough for all cards.
+     * @return Number of cards parsed.
+     * @throws IllegalArgumentException If the format is wrong.
+     */
+    public static int parseOrdinals(final CharSequence cards,
+            final int[] ordinals) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (ordinals == null) {
+            throw new NullArgumentException("ordinals");
+        }
+        int end = trimmedLength(cards);
+        int count = 0;
+        for (int pos = 0; pos < end; pos += CODE_LENGTH + 1) {
+            checkSeparator(cards, pos, end);
+            if (count >= ordinals.length) {
+                throw new IllegalArgumentException("more than "
+                        + ordinals.length + " cards.");
+            }
+            ordinals[count++] = ordinalOf(cards.charAt(pos),
+                    cards.charAt(pos + 1));
+        }
+        return count;
+    }
 
-        ArrayList<Card> cards = new ArrayList<Card>();
-        if (cardsString.isEmpty()) {
-            return cards;
+    /**
+     * Parses ASCII encoded cards into a card mask.
+     * Does not create any objects unless the format is wrong. The position
+     * of the buffer is not changed.
+     * @param buffer Buffer with the cards in the format "7c Ad 9h". Must not
+     * be null.
+     * @param offset Index of the first byte to parse.
+     * @param length Number of bytes to parse.
+     * @return Mask of the cards as described by {@link CardSet#getMask()}.
+     * @throws IllegalArgumentException If the format is wrong or a card
+     * is given more than once.
+     */
+    public static long parseMask(final ByteBuffer buffer, final int offset,
+            final int length) {
+        int end = trimmedLength(buffer, offset, length);
+        long mask = 0;
+        for (int pos = offset; pos < end; pos += CODE_LENGTH + 1) {
+            checkSeparator(buffer, pos, end);
+            long bit = 1L << ordinalOf((char) buffer.get(pos),
+                    (char) buffer.get(pos + 1));
+            if ((mask & bit) != 0) {
+                throw duplicate("" + (char) buffer.get(pos)
+                        + (char) buffer.get(pos + 1));
+            }
+            mask |= bit;
         }
+        return mask;
+    }
 
-        for (String cardStr : cardsString.split(" ")) {
+    /**
+     * Parses ASCII encoded cards into card ordinals.
+     * Does not create any objects unless the format is wrong. The position
+     * of the buffer is not changed.
+     * @param buffer Buffer with the cards in the format "7c Ad 9h". Must not
+     * be null.
+     * @param offset Index of the first byte to parse.
+     * @param length Number of bytes to parse.
+     * @param ordinals Array into which the ordinals of the cards are written,
+     * starting at index 0. Must not be null and must be large enough for all
+     * cards.
+     * @return Number of cards parsed.
+     * @throws IllegalArgumentException If the format is wrong.
+     */
+    public static int parseOrdinals(final ByteBuffer buffer, final int offset,
+            final int length, final int[] ordinals) {
+        if (ordinals == null) {
+            throw new NullArgumentException("ordinals");
+        }
+        int end = trimmedLength(buffer, offset, length);
+        int count = 0;
+        for (int pos = offset; pos < end; pos += CODE_LENGTH + 1) {
+            checkSeparator(buffer, pos, end);
+            if (count >= ordinals.length) {
+                throw new IllegalArgumentException("more than "
+                        + ordinals.length + " cards.");
+            }
+            ordinals[count++] = ordinalOf((char) buffer.get(pos),
+                    (char) buffer.get(pos + 1));
+        }
+        return count;
+    }
+
+    /**
+     * Gets the ordinal of the card described by two characters.
+     * @param rankChar Character describing the rank.
+     * @param suitChar Character describing the suit.
+     * @return Ordinal of the card.
+     * @throws IllegalArgumentException If a character is not valid.
+     */
+    private static int ordinalOf(final char rankChar, final char suitChar) {
+        int rankOrdinal = rankChar < RANK_CODES.length
+                ? RANK_CODES[rankChar] : -1;
+        int suitOrdinal = suitChar < SUIT_CODES.length
+                ? SUIT_CODES[suitChar] : -1;
+        if (rankOrdinal < 0) {
+            // produces the error message
+            Rank.parse(rankChar);
+        }
+        if (suitOrdinal < 0) {
+            Suit.parse(suitChar);
+        }
+        return BY_SUIT_AND_RANK[suitOrdinal * RANKS + rankOrdinal].ordinal();
+    }
 
-            if (cardStr.length() != 2) {
-                throw new IllegalArgumentException("Each card must be "
-                        + "described by two characters. Found '"
-                        + cardStr + "'.");
+    /**
+     * Gets the length of a string without trailing spaces.
+     * @param cards The string.
+     * @return Index after the last character that is not a space.
+     */
+    private static int trimmedLength(final CharSequence cards) {
+        int end = cards.length();
+        while (end > 0 && cards.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Gets the end of a byte range without trailing spaces.
+     * @param buffer The buffer. Must not be null.
+     * @param offset Start of the range.
+     * @param length Length of the range.
+     * @return Index after the last byte that is not a space.
+     */
+    private static int trimmedLength(final ByteBuffer buffer,
+            final int offset, final int length) {
+        if (buffer == null) {
+            throw new NullArgumentException("buffer");
+        }
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IndexOutOfBoundsException("range " + offset + "+"
+                    + length + " outside of buffer.");
+        }
+        int end = offset + length;
+        while (end > offset && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Checks that a card starts at a position and is followed by a space
+     * or the end.
+     * @param cards The string.
+     * @param pos Position at which the card starts.
+     * @param end End of the string.
+     */
+    private static void checkSeparator(final CharSequence cards,
+            final int pos, final int end) {
+        int next = pos + CODE_LENGTH;
+        if (next > end || (next < end && cards.charAt(next) != ' ')) {
+            int tokenEnd = pos;
+            while (tokenEnd < end && cards.charAt(tokenEnd) != ' ') {
+                tokenEnd++;
             }
-            Rank rank = Rank.parse(cardStr.charAt(0));
-            Suit suit = Suit.parse(cardStr.charAt(1));
-            Card card = Card.getCard(suit, rank);
-            cards.add(card);
+            throw new IllegalArgumentException("Each card must be "
+                    + "described by two characters. Found '"
+                    + cards.subSequence(pos, tokenEnd) + "'.");
         }
+    }
 
-        return cards;
+    /**
+     * Checks that a card starts at a position and is followed by a space
+     * or the end.
+     * @param buffer The buffer.
+     * @param pos Position at which the card starts.
+     * @param end End of the range.
+     */
+    private static void checkSeparator(final ByteBuffer buffer,
+            final int pos, final int end) {
+        int next = pos + CODE_LENGTH;
+        if (next > end || (next < end && buffer.get(next) != ' ')) {
+            throw new IllegalArgumentException("Each card must be "
+                    + "described by two characters. Found invalid card at "
+                    + "position " + pos + ".");
+        }
+    }
+
+    /**
+     * Creates the exception thrown if a card is given twice.
+     * @param code Code of the duplicated card.
+     * @return The exception.
+     */
+    private static IllegalArgumentException duplicate(
+            final CharSequence code) {
+        return new IllegalArgumentException("card '" + code
+                + "' is given more than once.");
     }
 }
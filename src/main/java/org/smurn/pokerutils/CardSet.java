@@ -0,0 +1,349 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+
+/**
+ * Set of cards stored as bits of a single {@code long}.
+ * <p>
+ * Card {@code c} is in the set if bit {@code c.ordinal()} of the mask is
+ * set. Since the cards are ordered by suit and then by rank, bits 0 to 12
+ * hold the spades, 13 to 25 the hearts, 26 to 38 the diamonds and 39 to 51
+ * the clubs, each from deuce to ace. The set operations work on the mask
+ * directly, code that has to avoid any allocation can use the static
+ * mask methods and {@link #getMask()}.
+ * </p>
+ */
+@Immutable
+public final class CardSet implements Iterable<Card> {
+
+    /** The empty set. */
+    public static final CardSet EMPTY = new CardSet(0L);
+    /** Number of ranks per suit, which is also the bits used per suit. */
+    private static final int RANKS = 13;
+    /** Mask with the bits of all 52 cards set. */
+    private static final long ALL_MASK = (1L << 52) - 1;
+    /** Mask with the bits of a single suit set. */
+    private static final int SUIT_MASK = (1 << RANKS) - 1;
+    /** The set containing all cards. */
+    public static final CardSet ALL = new CardSet(ALL_MASK);
+    /** All cards indexed by ordinal. */
+    private static final Card[] CARDS = Card.values();
+    /** The cards in this set. */
+    private final long mask;
+
+    /**
+     * Creates an instance.
+     * @param mask Bit mask of the cards.
+     */
+    private CardSet(final long mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Returns the set with the given bit mask.
+     * @param mask Bit mask with bit {@code c.ordinal()} set for each card
+     * {@code c} in the set. Only the lower 52 bits may be set.
+     * @return The card set. Never null.
+     */
+    public static CardSet fromMask(final long mask) {
+        if ((mask & ~ALL_MASK) != 0) {
+            throw new IllegalArgumentException("mask has bits set that "
+                    + "do not belong to a card: " + Long.toHexString(mask));
+        }
+        return new CardSet(mask);
+    }
+
+    /**
+     * Returns the set containing the given cards.
+     * @param cards The cards. Must not be null. Duplicates are ignored.
+     * @return The card set. Never null.
+     */
+    public static CardSet of(final Card... cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        long mask = 0;
+        for (Card card : cards) {
+            mask |= maskOf(card);
+        }
+        return new CardSet(mask);
+    }
+
+    /**
+     * Returns the set containing the given cards.
+     * @param cards The cards. Must not be null. Duplicates are ignored.
+     * @return The card set. Never null.
+     */
+    public static CardSet of(final Collection<Card> cards) {
+        return new CardSet(maskOf(cards));
+    }
+
+    /**
+     * Gets the bit mask of a single card.
+     * @param card The card. Must not be null.
+     * @return Mask with only the bit of the card set.
+     */
+    public static long maskOf(final Card card) {
+        if (card == null) {
+            throw new NullArgumentException("card");
+        }
+        return 1L << card.ordinal();
+    }
+
+    /**
+     * Gets the bit mask of a collection of cards.
+     * @param cards The cards. Must not be null. Duplicates are ignored.
+     * @return Mask with the bits of the cards set.
+     */
+    public static long maskOf(final Collection<Card> cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        long mask = 0;
+        for (Card card : cards) {
+            mask |= maskOf(card);
+        }
+        return mask;
+    }
+
+    /**
+     * Gets the ranks of one suit within a bit mask.
+     * @param mask Bit mask of cards.
+     * @param suit The suit. Must not be null.
+     * @return Mask with bit {@code r.ordinal()} set for each rank {@code r}
+     * of which the card with the given suit is in the mask.
+     */
+    public static int rankMaskOf(final long mask, final Suit suit) {
+        if (suit == null) {
+            throw new NullArgumentException("suit");
+        }
+        return (int) (mask >>> (suit.ordinal() * RANKS)) & SUIT_MASK;
+    }
+
+    /**
+     * Gets the bit mask of this set.
+     * @return Mask with bit {@code c.ordinal()} set for each card {@code c}
+     * in this set.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Gets the ranks of one suit in this set.
+     * @param suit The suit. Must not be null.
+     * @return Mask with bit {@code r.ordinal()} set for each rank {@code r}
+     * of which the card with the given suit is in this set.
+     */
+    public int getRankMask(final Suit suit) {
+        return rankMaskOf(mask, suit);
+    }
+
+    /**
+     * Gets the number of cards in this set.
+     * @return Number of cards, between 0 and 52.
+     */
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Checks if this set is empty.
+     * @return {@code true} if there are no cards in this set.
+     */
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /**
+     * Checks if a card is in this set.
+     * @param card The card. Must not be null.
+     * @return {@code true} if the card is in this set.
+     */
+    public boolean contains(final Card card) {
+        return (mask & maskOf(card)) != 0;
+    }
+
+    /**
+     * Checks if all cards of another set are in this set.
+     * @param other The other set. Must not be null.
+     * @return {@code true} if this set contains all cards of the other set.
+     */
+    public boolean containsAll(final CardSet other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        return (mask & other.mask) == other.mask;
+    }
+
+    /**
+     * Checks if this set has cards in common with another set.
+     * @param other The other set. Must not be null.
+     * @return {@code true} if at least one card is in both sets.
+     */
+    public boolean intersects(final CardSet other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        return (mask & other.mask) != 0;
+    }
+
+    /**
+     * Returns the set of cards that are in this or the other set.
+     * @param other The other set. Must not be null.
+     * @return Union of both sets. Never null.
+     */
+    public CardSet union(final CardSet other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        return new CardSet(mask | other.mask);
+    }
+
+    /**
+     * Returns the set of cards that are in this and the other set.
+     * @param other The other set. Must not be null.
+     * @return Intersection of both sets. Never null.
+     */
+    public CardSet intersection(final CardSet other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        return new CardSet(mask & other.mask);
+    }
+
+    /**
+     * Returns the set of cards that are in this set but not in the other.
+     * @param other The other set. Must not be null.
+     * @return This set without the cards of the other set. Never null.
+     */
+    public CardSet minus(final CardSet other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        return new CardSet(mask & ~other.mask);
+    }
+
+    /**
+     * Returns the set of cards not in this set.
+     * @return All cards that are not in this set. Never null.
+     */
+    public CardSet complement() {
+        return new CardSet(~mask & ALL_MASK);
+    }
+
+    /**
+     * Returns this set with one card added.
+     * @param card The card to add. Must not be null.
+     * @return Set containing the cards of this set and the given card.
+     * Never null.
+     */
+    public CardSet with(final Card card) {
+        return new CardSet(mask | maskOf(card));
+    }
+
+    /**
+     * Returns this set with one card removed.
+     * @param card The card to remove. Must not be null.
+     * @return Set containing the cards of this set except the given card.
+     * Never null.
+     */
+    public CardSet without(final Card card) {
+        return new CardSet(mask & ~maskOf(card));
+    }
+
+    /**
+     * Converts this set into a regular set.
+     * @return Mutable set with the cards of this set. Never null.
+     */
+    public Set<Card> toSet() {
+        EnumSet<Card> set = EnumSet.noneOf(Card.class);
+        for (Card card : this) {
+            set.add(card);
+        }
+        return set;
+    }
+
+    /**
+     * Iterates over the cards in this set, ordered by ordinal.
+     * @return Iterator over the cards. Does not support removal.
+     */
+    @Override
+    public Iterator<Card> iterator() {
+        return new Iterator<Card>() {
+
+            /** Cards not yet returned. */
+            private long remaining = mask;
+
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
+            }
+
+            @Override
+            public Card next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                int ordinal = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return CARDS[ordinal];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("CardSet is "
+                        + "immutable.");
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        return this.mask == ((CardSet) obj).mask;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (mask ^ (mask >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CardSet{");
+        for (Card card : this) {
+            if (builder.length() > "CardSet{".length()) {
+                builder.append(", ");
+            }
+            builder.append(card);
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -26,17 +26,50 @@ import org.apache.commons.lang.NullArgumentException;
 /**
  * Repesents a set of five poker cards.
  * Instances of this class are immutable.
+ * <p>
+ * Hands are ordered by strength: first by category, then by the
+ * lexicographic order of {@link #getRanks()}. Note that this natural
+ * ordering is inconsistent with {@link #equals(Object)}: two hands formed
+ * by different cards compare as equal if they are equally strong.
+ * </p><p>
+ * A hand can also be created from a packed strength value and a card mask,
+ * which is what the table based evaluators produce. Such a hand builds
+ * the sets and lists returned by {@link #getCards()} and
+ * {@link #getRanks()} only when they are first asked for. Comparing them
+ * and reading the category costs no more than comparing two ints.
+ * </p>
  */
-public final class Hand {
+public final class Hand implements Comparable<Hand> {
 
     /** Category of this hand. */
     private final HandCategory category;
-    /** Cards this hand consists of (always 5). */
-    private final Set<Card> cards;
-    /** Ranks to compare hands of the same category. */
-    private final List<Rank> ranks;
+    /** Mask with the bit {@link Card#ordinal()} set for each card. */
+    private final long mask;
+    /**
+     * Category and ranks packed into an int as described in
+     * {@link #Hand(int, long)}, or -1 if the ranks were given as a list.
+     */
+    private final int strength;
+    /** Cards this hand consists of (always 5). Built on first use. */
+    private volatile Set<Card> cards;
+    /** Ranks to compare hands of the same category. Built on first use. */
+    private volatile List<Rank> ranks;
     /** Number of cards a hand has. */
     private static final int CARDS_IN_HAND = 5;
+    /** Number of cards in a deck. */
+    private static final int CARDS_IN_DECK = 52;
+    /** Number of bits used to store a rank in a strength value. */
+    public static final int RANK_BITS = 4;
+    /** Bits of a single rank in a strength value. */
+    public static final int RANK_MASK = (1 << RANK_BITS) - 1;
+    /** Position of the first rank in a strength value. */
+    public static final int FIRST_RANK_SHIFT = 16;
+    /** Position of the category in a strength value. */
+    public static final int CATEGORY_SHIFT = 20;
+    /** All categories, to avoid copying the array on each lookup. */
+    private static final HandCategory[] CATEGORIES = HandCategory.values();
+    /** All ranks, to avoid copying the array on each lookup. */
+    private static final Rank[] RANKS = Rank.values();
 
     /**
      * Creates a hand.
@@ -66,6 +99,52 @@ public final class Hand {
         this.category = category;
         this.cards = Collections.unmodifiableSet(EnumSet.copyOf(cards));
         this.ranks = Collections.unmodifiableList(new ArrayList<Rank>(ranks));
+        this.mask = CardSet.maskOf(this.cards);
+        this.strength = -1;
+    }
+
+    /**
+     * Creates a hand from a packed strength value.
+     * The strength value stores the category in bits 20 and above and
+     * {@link HandCategory#getRankCount()} ranks in four bit blocks below,
+     * the first rank in bits 16 to 19, the second in bits 12 to 15 and so
+     * on. Unused blocks are zero. This is the format of
+     * {@code org.smurn.pokerutils.ranking.HandStrength}.
+     * Note that this constructor does not guarantee that the
+     * hand is valid or even possible.
+     * @param strength Category and ranks of this hand.
+     * @param cards Mask with the bit {@link Card#ordinal()} set for each of
+     * the 5 cards that form this hand, as used by {@link CardSet}.
+     */
+    public Hand(final int strength, final long cards) {
+        int ordinal = strength >>> CATEGORY_SHIFT;
+        if (ordinal >= CATEGORIES.length) {
+            throw new IllegalArgumentException("not a strength value: "
+                    + strength);
+        }
+        HandCategory categoryTmp = CATEGORIES[ordinal];
+        int count = categoryTmp.getRankCount();
+        int unused = (1 << (CATEGORY_SHIFT - count * RANK_BITS)) - 1;
+        if ((strength & unused) != 0) {
+            throw new IllegalArgumentException("not a strength value: "
+                    + strength);
+        }
+        for (int i = 0; i < count; i++) {
+            int shift = FIRST_RANK_SHIFT - i * RANK_BITS;
+            if (((strength >>> shift) & RANK_MASK) >= RANKS.length) {
+                throw new IllegalArgumentException("not a strength value: "
+                        + strength);
+            }
+        }
+        if (Long.bitCount(cards) != CARDS_IN_HAND
+                || cards >>> CARDS_IN_DECK != 0) {
+            throw new IllegalArgumentException("not a mask of 5 cards: "
+                    + cards);
+        }
+
+        this.category = categoryTmp;
+        this.strength = strength;
+        this.mask = cards;
     }
 
     /**
@@ -73,7 +152,17 @@ public final class Hand {
      * @return Immutable set of the 5 cards that form this hand. Never null.
      */
     public Set<Card> getCards() {
-        return cards;
+        Set<Card> result = cards;
+        if (result == null) {
+            // racing threads build equal sets, either one may be kept.
+            EnumSet<Card> set = EnumSet.noneOf(Card.class);
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                set.add(Card.getCard(Long.numberOfTrailingZeros(rest)));
+            }
+            result = Collections.unmodifiableSet(set);
+            cards = result;
+        }
+        return result;
     }
 
     /**
@@ -91,7 +180,69 @@ public final class Hand {
      * this list defines the outcome. Never null.
      */
     public List<Rank> getRanks() {
-        return ranks;
+        List<Rank> result = ranks;
+        if (result == null) {
+            int count = rankCount();
+            List<Rank> list = new ArrayList<Rank>(count);
+            for (int i = 0; i < count; i++) {
+                list.add(rank(i));
+            }
+            result = Collections.unmodifiableList(list);
+            ranks = result;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of ranks without building the list.
+     * @return Size of {@link #getRanks()}.
+     */
+    private int rankCount() {
+        return strength >= 0 ? category.getRankCount() : ranks.size();
+    }
+
+    /**
+     * Gets a rank without building the list.
+     * @param i Position of the rank, between 0 and {@link #rankCount()} - 1.
+     * @return Entry {@code i} of {@link #getRanks()}.
+     */
+    private Rank rank(final int i) {
+        if (strength < 0) {
+            return ranks.get(i);
+        }
+        return RANKS[(strength >>> (FIRST_RANK_SHIFT - i * RANK_BITS))
+                & RANK_MASK];
+    }
+
+    /**
+     * Compares the strength of this hand with another hand.
+     * Does not allocate any objects.
+     * @param other Hand to compare with. Must not be null.
+     * @return A negative value if this hand loses against the other hand,
+     * zero if the hands split the pot and a positive value if this hand wins.
+     */
+    @Override
+    public int compareTo(final Hand other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        if (this.strength >= 0 && other.strength >= 0) {
+            return this.strength - other.strength;
+        }
+        if (this.category != other.category) {
+            return this.category.ordinal() - other.category.ordinal();
+        }
+        int count = this.rankCount();
+        int otherCount = other.rankCount();
+        int size = Math.min(count, otherCount);
+        for (int i = 0; i < size; i++) {
+            Rank rank = this.rank(i);
+            Rank otherRank = other.rank(i);
+            if (rank != otherRank) {
+                return rank.ordinal() - otherRank.ordinal();
+            }
+        }
+        return count - otherCount;
     }
 
     @Override
@@ -103,33 +254,39 @@ public final class Hand {
             return false;
         }
         final Hand other = (Hand) obj;
-        if (this.category != other.category) {
+        if (this.category != other.category || this.mask != other.mask) {
             return false;
         }
-        if (this.cards != other.cards
-                && ( this.cards == null || !this.cards.equals(other.cards) )) {
-            return false;
+        if (this.strength >= 0 && other.strength >= 0) {
+            return this.strength == other.strength;
         }
-        if (this.ranks != other.ranks
-                && ( this.ranks == null || !this.ranks.equals(other.ranks) )) {
+        int count = this.rankCount();
+        if (count != other.rankCount()) {
             return false;
         }
+        for (int i = 0; i < count; i++) {
+            if (this.rank(i) != other.rank(i)) {
+                return false;
+            }
+        }
         return true;
     }
 
     @Override
     public int hashCode() {
         int hash = 5;
-        hash = 89 * hash + ( this.category != null
-                ? this.category.hashCode() : 0 );
-        hash = 89 * hash + ( this.cards != null ? this.cards.hashCode() : 0 );
-        hash = 89 * hash + ( this.ranks != null ? this.ranks.hashCode() : 0 );
+        hash = 89 * hash + this.category.ordinal();
+        hash = 89 * hash + (int) (this.mask ^ (this.mask >>> 32));
+        int count = rankCount();
+        for (int i = 0; i < count; i++) {
+            hash = 89 * hash + rank(i).ordinal();
+        }
         return hash;
     }
 
     @Override
     public String toString() {
-        return "Hand{" + "category=" + category + ", cards=" + cards
-                + ", ranks=" + ranks + '}';
+        return "Hand{" + "category=" + category + ", cards=" + getCards()
+                + ", ranks=" + getRanks() + '}';
     }
 }
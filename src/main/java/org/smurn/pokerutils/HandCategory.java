@@ -24,21 +24,43 @@ package org.smurn.pokerutils;
 public enum HandCategory {
 
     /** Highest card. */
-    HighCard,
+    HighCard(5),
     /** One pair. */
-    Pair,
+    Pair(4),
     /** Two pair. */
-    TwoPair,
+    TwoPair(3),
     /** Three of a kind. */
-    TreeOfAKind,
+    TreeOfAKind(3),
     /** Straight. */
-    Straight,
+    Straight(1),
     /** Flush. */
-    Flush,
+    Flush(5),
     /** Full house. */
-    FullHouse,
+    FullHouse(2),
     /** Four of a kind. */
-    FourOfAKind,
+    FourOfAKind(2),
     /** Staight flush. */
-    StraightFlush
+    StraightFlush(1);
+
+    /** Number of ranks deciding between hands of this category. */
+    private final int rankCount;
+
+    /**
+     * Creates a category.
+     * @param rankCount Number of ranks deciding between hands of this
+     * category.
+     */
+    private HandCategory(final int rankCount) {
+        this.rankCount = rankCount;
+    }
+
+    /**
+     * Gets the number of ranks needed to compare hands of this category.
+     * This is the size of {@link Hand#getRanks()} for the hands found by
+     * the locators, for example 3 for two pair: both pairs and the kicker.
+     * @return Number of ranks, between 1 and 5.
+     */
+    public int getRankCount() {
+        return rankCount;
+    }
 }
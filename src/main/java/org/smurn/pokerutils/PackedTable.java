@@ -0,0 +1,406 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+
+/**
+ * State of a {@link Table} packed into primitive arrays.
+ * <p>
+ * A table with its seats and pots consists of several objects per seat.
+ * This class stores the same information in an {@code int[]} with the
+ * button positions, the stake, bet and flags of each seat and the amount of
+ * each pot, and a {@code long[]} with the cards of each seat and the
+ * participants of each pot as a bit mask. Together with the players of the
+ * seats, a ten seat table needs about 300 bytes in four objects. This is
+ * meant for storing many states, for example in a search tree or cache.
+ * </p><p>
+ * The hole and visible cards of a seat are stored as up to ten card
+ * ordinals of six bits each, so their order is kept. The seat numbers of a
+ * pot are stored as a bit mask, so they are restored in ascending order
+ * without duplicates. Therefore a table can have at most 64 seats.
+ * </p><p>
+ * Equal packed tables describe tables with the same state, which makes
+ * instances suitable as keys of a hash map. Players are compared with
+ * {@link Object#equals(Object)}.
+ * </p>
+ */
+@Immutable
+public final class PackedTable {
+
+    /** Largest number of seats, the bits of a pot's seat mask. */
+    public static final int MAX_SEATS = Long.SIZE;
+    /** Largest number of cards per seat and kind. */
+    public static final int MAX_CARDS = 10;
+    /** Bits per card in a packed card list. */
+    private static final int CARD_BITS = 6;
+    /** Mask of a single card in a packed card list. */
+    private static final long CARD_MASK = (1L << CARD_BITS) - 1;
+    /** All cards indexed by ordinal. */
+    private static final Card[] CARDS = Card.values();
+    /** Position of the dealer seat number in the ints. */
+    private static final int DEALER = 0;
+    /** Position of the small-blind seat number in the ints. */
+    private static final int SMALL_BLIND = 1;
+    /** Position of the big-blind seat number in the ints. */
+    private static final int BIG_BLIND = 2;
+    /** Position of the acting seat number in the ints. */
+    private static final int ACTING = 3;
+    /** Number of ints before those of the seats. */
+    private static final int HEADER_INTS = 4;
+    /** Ints per seat: stake, bet and flags. */
+    private static final int SEAT_INTS = 3;
+    /** Longs per seat: hole cards and visible cards. */
+    private static final int SEAT_LONGS = 2;
+    /** Flag of a seat whose hole cards are visible. */
+    private static final int CARDS_VISIBLE = 1;
+    /** Buttons, seats and then the amount of each pot. */
+    private final int[] ints;
+    /** Cards of each seat and then the seat mask of each pot. */
+    private final long[] longs;
+    /** Player of each seat, {@code null} for empty seats. */
+    private final Player[] players;
+
+    /**
+     * Packs a table.
+     * @param table The table. Must not be {@code null} and must be sealed,
+     * have at most {@link #MAX_SEATS} seats and at most {@link #MAX_CARDS}
+     * hole and visible cards per seat.
+     */
+    public PackedTable(final Table table) {
+        if (table == null) {
+            throw new NullArgumentException("table");
+        }
+        if (!table.isSealed()) {
+            throw new IllegalArgumentException("table is not sealed.");
+        }
+        int seats = table.getSeatCount();
+        if (seats > MAX_SEATS) {
+            throw new IllegalArgumentException("at most " + MAX_SEATS
+                    + " seats supported.");
+        }
+        List<Pot> pots = table.getPots();
+        this.ints = new int[HEADER_INTS + seats * SEAT_INTS + pots.size()];
+        this.longs = new long[seats * SEAT_LONGS + pots.size()];
+        this.players = new Player[seats];
+
+        ints[DEALER] = table.getDealerSeatNr();
+        ints[SMALL_BLIND] = table.getSmallBlindSeatNr();
+        ints[BIG_BLIND] = table.getBigBlindSeatNr();
+        ints[ACTING] = table.getActingSeatNr();
+        for (int i = 0; i < seats; i++) {
+            Seat seat = table.getSeat(i);
+            int offset = HEADER_INTS + i * SEAT_INTS;
+            ints[offset] = seat.getStake();
+            ints[offset + 1] = seat.getBet();
+            ints[offset + 2] = seat.isCardsVisible() ? CARDS_VISIBLE : 0;
+            longs[i * SEAT_LONGS] = packCards(seat.getHoleCards());
+            longs[i * SEAT_LONGS + 1] = packCards(seat.getVisibleCards());
+            players[i] = seat.getPlayer();
+        }
+        for (int i = 0; i < pots.size(); i++) {
+            Pot pot = pots.get(i);
+            long mask = 0;
+            for (Integer seatNr : pot.getSeatNumbers()) {
+                if (seatNr == null || seatNr < 0 || seatNr >= seats) {
+                    throw new IllegalArgumentException("pot " + i
+                            + " refers to seat " + seatNr + ".");
+                }
+                mask |= 1L << seatNr;
+            }
+            ints[HEADER_INTS + seats * SEAT_INTS + i] = pot.getAmount();
+            longs[seats * SEAT_LONGS + i] = mask;
+        }
+    }
+
+    /**
+     * Restores the table.
+     * @return A new sealed table with the packed state. Never {@code null}.
+     */
+    public Table toTable() {
+        int seats = getSeatCount();
+        Table table = new Table(seats);
+        if (seats > 0) {
+            table.setDealerSeatNr(ints[DEALER]);
+            table.setSmallBlindSeatNr(ints[SMALL_BLIND]);
+            table.setBigBlindSeatNr(ints[BIG_BLIND]);
+            table.setActingSeatNr(ints[ACTING]);
+        }
+        for (int i = 0; i < seats; i++) {
+            Seat seat = table.getSeat(i);
+            seat.setPlayer(players[i]);
+            seat.setStake(getStake(i));
+            seat.setBet(getBet(i));
+            seat.setCardsVisible(isCardsVisible(i));
+            seat.getHoleCards().addAll(getHoleCards(i));
+            seat.getVisibleCards().addAll(getVisibleCards(i));
+        }
+        for (int i = 0; i < getPotCount(); i++) {
+            Pot pot = new Pot();
+            pot.setAmount(getPotAmount(i));
+            for (long rest = getPotSeatMask(i); rest != 0;
+                    rest &= rest - 1) {
+                pot.getSeatNumbers().add(Long.numberOfTrailingZeros(rest));
+            }
+            table.getPots().add(pot);
+        }
+        table.seal();
+        return table;
+    }
+
+    /**
+     * Gets the number of seats.
+     * @return Number of seats, non-negative.
+     */
+    public int getSeatCount() {
+        return players.length;
+    }
+
+    /**
+     * Gets the number of pots.
+     * @return Number of pots, non-negative.
+     */
+    public int getPotCount() {
+        return longs.length - players.length * SEAT_LONGS;
+    }
+
+    /**
+     * Gets the seat number with the dealer button.
+     * @return See {@link Table#getDealerSeatNr()}.
+     */
+    public int getDealerSeatNr() {
+        return ints[DEALER];
+    }
+
+    /**
+     * Gets the seat number with the small-blind button.
+     * @return See {@link Table#getSmallBlindSeatNr()}.
+     */
+    public int getSmallBlindSeatNr() {
+        return ints[SMALL_BLIND];
+    }
+
+    /**
+     * Gets the seat number with the big-blind button.
+     * @return See {@link Table#getBigBlindSeatNr()}.
+     */
+    public int getBigBlindSeatNr() {
+        return ints[BIG_BLIND];
+    }
+
+    /**
+     * Gets the seat number who's turn it is to act.
+     * @return See {@link Table#getActingSeatNr()}.
+     */
+    public int getActingSeatNr() {
+        return ints[ACTING];
+    }
+
+    /**
+     * Gets the player sitting at a seat.
+     * @param seatNr Number of the seat.
+     * @return See {@link Seat#getPlayer()}.
+     */
+    public Player getPlayer(final int seatNr) {
+        checkSeat(seatNr);
+        return players[seatNr];
+    }
+
+    /**
+     * Gets the stake of a seat.
+     * @param seatNr Number of the seat.
+     * @return See {@link Seat#getStake()}.
+     */
+    public int getStake(final int seatNr) {
+        checkSeat(seatNr);
+        return ints[HEADER_INTS + seatNr * SEAT_INTS];
+    }
+
+    /**
+     * Gets the bet of a seat.
+     * @param seatNr Number of the seat.
+     * @return See {@link Seat#getBet()}.
+     */
+    public int getBet(final int seatNr) {
+        checkSeat(seatNr);
+        return ints[HEADER_INTS + seatNr * SEAT_INTS + 1];
+    }
+
+    /**
+     * Gets if the hole cards of a seat are visible.
+     * @param seatNr Number of the seat.
+     * @return See {@link Seat#isCardsVisible()}.
+     */
+    public boolean isCardsVisible(final int seatNr) {
+        checkSeat(seatNr);
+        return (ints[HEADER_INTS + seatNr * SEAT_INTS + 2]
+                & CARDS_VISIBLE) != 0;
+    }
+
+    /**
+     * Gets the hole cards of a seat.
+     * @param seatNr Number of the seat.
+     * @return New list with the cards of {@link Seat#getHoleCards()}.
+     */
+    public List<Card> getHoleCards(final int seatNr) {
+        checkSeat(seatNr);
+        return unpackCards(longs[seatNr * SEAT_LONGS]);
+    }
+
+    /**
+     * Gets the hole cards of a seat as a mask.
+     * @param seatNr Number of the seat.
+     * @return Mask of the cards of {@link Seat#getHoleCards()}, as used by
+     * {@link CardSet}.
+     */
+    public long getHoleCardMask(final int seatNr) {
+        checkSeat(seatNr);
+        return toMask(longs[seatNr * SEAT_LONGS]);
+    }
+
+    /**
+     * Gets the visible cards of a seat.
+     * @param seatNr Number of the seat.
+     * @return New list with the cards of {@link Seat#getVisibleCards()}.
+     */
+    public List<Card> getVisibleCards(final int seatNr) {
+        checkSeat(seatNr);
+        return unpackCards(longs[seatNr * SEAT_LONGS + 1]);
+    }
+
+    /**
+     * Gets the visible cards of a seat as a mask.
+     * @param seatNr Number of the seat.
+     * @return Mask of the cards of {@link Seat#getVisibleCards()}, as used
+     * by {@link CardSet}.
+     */
+    public long getVisibleCardMask(final int seatNr) {
+        checkSeat(seatNr);
+        return toMask(longs[seatNr * SEAT_LONGS + 1]);
+    }
+
+    /**
+     * Gets the amount of a pot.
+     * @param potNr Index of the pot.
+     * @return See {@link Pot#getAmount()}.
+     */
+    public int getPotAmount(final int potNr) {
+        checkPot(potNr);
+        return ints[HEADER_INTS + players.length * SEAT_INTS + potNr];
+    }
+
+    /**
+     * Gets the seats participating in a pot.
+     * @param potNr Index of the pot.
+     * @return Mask with the bit of each seat number of
+     * {@link Pot#getSeatNumbers()} set.
+     */
+    public long getPotSeatMask(final int potNr) {
+        checkPot(potNr);
+        return longs[players.length * SEAT_LONGS + potNr];
+    }
+
+    /**
+     * Checks a seat number.
+     * @param seatNr Number of the seat.
+     */
+    private void checkSeat(final int seatNr) {
+        if (seatNr < 0 || seatNr >= players.length) {
+            throw new IllegalArgumentException("No seat with this number.");
+        }
+    }
+
+    /**
+     * Checks a pot number.
+     * @param potNr Index of the pot.
+     */
+    private void checkPot(final int potNr) {
+        if (potNr < 0 || potNr >= getPotCount()) {
+            throw new IllegalArgumentException("No pot with this number.");
+        }
+    }
+
+    /**
+     * Packs a list of cards.
+     * @param cards At most {@link #MAX_CARDS} cards.
+     * @return The ordinal plus one of each card in six bits, the first card
+     * in the lowest bits. Unused bits are zero.
+     */
+    private static long packCards(final List<Card> cards) {
+        if (cards.size() > MAX_CARDS) {
+            throw new IllegalArgumentException("at most " + MAX_CARDS
+                    + " cards per seat supported.");
+        }
+        long packed = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            packed |= (cards.get(i).ordinal() + 1L) << (i * CARD_BITS);
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks a list of cards.
+     * @param packed As returned by {@link #packCards(List)}.
+     * @return The cards.
+     */
+    private static List<Card> unpackCards(final long packed) {
+        List<Card> cards = new ArrayList<Card>();
+        for (long rest = packed; rest != 0; rest >>>= CARD_BITS) {
+            cards.add(CARDS[(int) (rest & CARD_MASK) - 1]);
+        }
+        return cards;
+    }
+
+    /**
+     * Gets the mask of a list of cards.
+     * @param packed As returned by {@link #packCards(List)}.
+     * @return Mask of the cards.
+     */
+    private static long toMask(final long packed) {
+        long mask = 0;
+        for (long rest = packed; rest != 0; rest >>>= CARD_BITS) {
+            mask |= 1L << ((rest & CARD_MASK) - 1);
+        }
+        return mask;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final PackedTable other = (PackedTable) obj;
+        return Arrays.equals(this.ints, other.ints)
+                && Arrays.equals(this.longs, other.longs)
+                && Arrays.equals(this.players, other.players);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 53 * hash + Arrays.hashCode(this.ints);
+        hash = 53 * hash + Arrays.hashCode(this.longs);
+        hash = 53 * hash + Arrays.hashCode(this.players);
+        return hash;
+    }
+}
@@ -49,6 +49,8 @@ public enum Rank {
     King,
     /** Rank of ace (Rank value 12). */
     Ace;
+    /** All ranks indexed by ordinal. */
+    private static final Rank[] RANKS = values();
 
     /**
      * Gets the rank value of this card.
@@ -70,7 +72,7 @@ public enum Rank {
     public static Rank parse(final char c) {
         if (c >= '2' && c <= '9') {
             int ordinal = c - '2';
-            return Rank.values()[ordinal];
+            return RANKS[ordinal];
         } else {
             switch (c) {
                 case 't':
@@ -173,11 +173,13 @@ public final class Seat implements Sealable {
 
     @Override
     public void seal() {
-        this.sealed = true;
-        this.holeCards = Collections.unmodifiableList(
-                new ArrayList<Card>(this.holeCards));
-        this.visibleCards = Collections.unmodifiableList(
-                new ArrayList<Card>(this.visibleCards));
+        if (!this.sealed) {
+            this.sealed = true;
+            this.holeCards = Collections.unmodifiableList(
+                    new ArrayList<Card>(this.holeCards));
+            this.visibleCards = Collections.unmodifiableList(
+                    new ArrayList<Card>(this.visibleCards));
+        }
     }
 
     @Override
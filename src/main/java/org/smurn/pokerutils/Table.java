@@ -16,16 +16,25 @@
 package org.smurn.pokerutils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Poker table state.
  * Stores all information available about a poker table.
+ * <p>
+ * Tables that only differ in a few seats or pots can share the others: a
+ * table created with {@link #copyOnWrite(Table)} refers to the sealed seats
+ * and pots of the original and copies only those passed to
+ * {@link #editSeat(int)} or {@link #editPot(int)}.
+ * </p>
  */
 public final class Table implements Sealable {
 
-    /** All seats of this table. */
+    /** All seats of this table. Entries are replaced by their copies. */
+    private final Seat[] seatArray;
+    /** Immutable view of {@link #seatArray}. */
     private final List<Seat> seats;
     /** All pots on this table. */
     private List<Pot> pots;
@@ -46,11 +55,11 @@ public final class Table implements Sealable {
      * larger than 0.
      */
     public Table(final int numberOfSeats) {
-        List<Seat> seatsTmp = new ArrayList<Seat>(numberOfSeats);
+        this.seatArray = new Seat[numberOfSeats];
         for (int i = 0; i < numberOfSeats; i++) {
-            seatsTmp.add(new Seat());
+            seatArray[i] = new Seat();
         }
-        this.seats = Collections.unmodifiableList(seatsTmp);
+        this.seats = Collections.unmodifiableList(Arrays.asList(seatArray));
         this.pots = new ArrayList<Pot>();
     }
 
@@ -66,11 +75,11 @@ public final class Table implements Sealable {
         }
 
         // copy the seats
-        List<Seat> seatsCopy = new ArrayList<Seat>(table.seats.size());
-        for (Seat seat : table.getSeats()) {
-            seatsCopy.add(new Seat(seat));
+        this.seatArray = new Seat[table.seatArray.length];
+        for (int i = 0; i < seatArray.length; i++) {
+            seatArray[i] = new Seat(table.seatArray[i]);
         }
-        this.seats = Collections.unmodifiableList(seatsCopy);
+        this.seats = Collections.unmodifiableList(Arrays.asList(seatArray));
 
         // copy the pots
         this.pots = new ArrayList<Pot>();
@@ -84,6 +93,45 @@ public final class Table implements Sealable {
         this.dealerSeatNr = table.dealerSeatNr;
     }
 
+    /**
+     * Creates an un-sealed table sharing the seats and pots of another.
+     * @param table Table whose seats and pots are shared. Must not be
+     * {@code null}.
+     * @param pots Pots of the new table.
+     */
+    private Table(final Table table, final List<Pot> pots) {
+        this.seatArray = table.seatArray.clone();
+        this.seats = Collections.unmodifiableList(Arrays.asList(seatArray));
+        this.pots = pots;
+        this.actingSeatNr = table.actingSeatNr;
+        this.bigBlindSeatNr = table.bigBlindSeatNr;
+        this.smallBlindSeatNr = table.smallBlindSeatNr;
+        this.dealerSeatNr = table.dealerSeatNr;
+    }
+
+    /**
+     * Creates an un-sealed table that shares the seats and pots of a sealed
+     * table.
+     * The seats and pots of the created table are the sealed ones of the
+     * given table until they are replaced by an unsealed copy with
+     * {@link #editSeat(int)} or {@link #editPot(int)}. Unlike
+     * {@link #Table(Table)} this costs only as much as the seats and pots
+     * that are actually changed.
+     * @param table Table to share. Must not be {@code null} and must be
+     * sealed.
+     * @return Un-sealed table with the same information stored. Never
+     * {@code null}.
+     */
+    public static Table copyOnWrite(final Table table) {
+        if (table == null) {
+            throw new IllegalArgumentException("table must not be null.");
+        }
+        if (!table.sealed) {
+            throw new IllegalArgumentException("table is not sealed.");
+        }
+        return new Table(table, new ArrayList<Pot>(table.pots));
+    }
+
     /**
      * Gets the number of seats at this table.
      * @return Number of seats at this table. Is non-negative.
@@ -236,6 +284,48 @@ public final class Table implements Sealable {
         return seats.get(seatNr);
     }
 
+    /**
+     * Gets a seat that can be modified.
+     * If the seat is shared with another table, it is replaced by an
+     * unsealed copy first. Seats returned by {@link #getSeat(int)} before
+     * are not affected.
+     * @param seatNr Number of the seat.
+     * @return The unsealed seat at this position. Never {@code null}.
+     */
+    public Seat editSeat(final int seatNr) {
+        if (sealed) {
+            throw new UnsupportedOperationException("table is sealed");
+        }
+        Seat seat = getSeat(seatNr);
+        if (seat.isSealed()) {
+            seat = new Seat(seat);
+            seatArray[seatNr] = seat;
+        }
+        return seat;
+    }
+
+    /**
+     * Gets a pot that can be modified.
+     * If the pot is shared with another table, it is replaced by an
+     * unsealed copy first.
+     * @param potNr Index of the pot in {@link #getPots()}.
+     * @return The unsealed pot at this position. Never {@code null}.
+     */
+    public Pot editPot(final int potNr) {
+        if (sealed) {
+            throw new UnsupportedOperationException("table is sealed");
+        }
+        if (potNr < 0 || potNr >= pots.size()) {
+            throw new IllegalArgumentException("No pot with this number.");
+        }
+        Pot pot = pots.get(potNr);
+        if (pot.isSealed()) {
+            pot = new Pot(pot);
+            pots.set(potNr, pot);
+        }
+        return pot;
+    }
+
     @Override
     public void seal() {
         if (!this.sealed) {
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.io.File;
+import java.io.IOException;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.io.MappedFile;
+
+/**
+ * Bucket of each index, as computed by {@link BucketTableGenerator}.
+ * <p>
+ * The table is memory-mapped, so loading it costs nothing up front and
+ * lookups read the bucket straight from the page cache. The file starts
+ * with four big-endian ints: the magic number, the format version, the
+ * number of buckets and the size of an entry in bytes, followed by the
+ * number of entries as a long. Then follows the bucket of each index as an
+ * unsigned byte if there are at most 256 buckets, otherwise as an unsigned
+ * short.
+ * </p>
+ */
+@ThreadSafe
+public final class BucketTable {
+
+    /** Magic number at the start of each table. */
+    static final int MAGIC = 0x424b5442;
+    /** Version of the file format. */
+    static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 24;
+    /** Largest number of buckets stored in a byte. */
+    static final int MAX_BYTE_BUCKETS = 1 << 8;
+    /** Largest number of buckets. */
+    static final int MAX_BUCKETS = 1 << 16;
+    /** The table including the header. Only read. */
+    private final MappedFile file;
+    /** Number of buckets. */
+    private final int buckets;
+    /** Size of an entry in bytes. */
+    private final int entrySize;
+    /** Number of entries. */
+    private final long size;
+
+    /**
+     * Creates an instance.
+     * @param file The table including the header.
+     * @throws IOException If the file does not contain a valid table.
+     */
+    BucketTable(final MappedFile file) throws IOException {
+        if (file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+            throw new IOException("not a bucket table.");
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IOException("unsupported table version "
+                    + file.getInt(4) + ".");
+        }
+        int bucketsTmp = file.getInt(8);
+        int entrySizeTmp = file.getInt(12);
+        long sizeTmp = file.getLong(16);
+        if (bucketsTmp <= 0 || bucketsTmp > MAX_BUCKETS
+                || entrySizeTmp != entrySize(bucketsTmp) || sizeTmp < 0) {
+            throw new IOException("invalid table header.");
+        }
+        if (file.size() != HEADER_SIZE + sizeTmp * entrySizeTmp) {
+            throw new IOException("table has the wrong size.");
+        }
+        this.file = file;
+        this.buckets = bucketsTmp;
+        this.entrySize = entrySizeTmp;
+        this.size = sizeTmp;
+    }
+
+    /**
+     * Memory-maps a table file.
+     * @param file The file. Must not be null.
+     * @return The table. Never null.
+     * @throws IOException If the file cannot be read or is not a valid
+     * table.
+     */
+    public static BucketTable load(final File file) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        return new BucketTable(MappedFile.open(file));
+    }
+
+    /**
+     * Gets the size of an entry.
+     * @param buckets Number of buckets.
+     * @return Size of an entry in bytes.
+     */
+    static int entrySize(final int buckets) {
+        return buckets <= MAX_BYTE_BUCKETS ? 1 : 2;
+    }
+
+    /**
+     * Gets the number of buckets.
+     * @return Number of buckets, positive.
+     */
+    public int getBucketCount() {
+        return buckets;
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return Number of indices the table has a bucket for.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the bucket of an index.
+     * @param index The index, between 0 and {@link #getSize()} - 1.
+     * @return The bucket, between 0 and {@link #getBucketCount()} - 1.
+     */
+    public int getBucket(final long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("no index " + index + ".");
+        }
+        long offset = HEADER_SIZE + index * entrySize;
+        if (entrySize == 1) {
+            return file.get(offset) & 0xff;
+        }
+        return file.getShort(offset) & 0xffff;
+    }
+}
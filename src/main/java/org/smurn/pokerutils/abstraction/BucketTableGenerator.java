@@ -0,0 +1,396 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.concurrent.SharedPool;
+import org.smurn.pokerutils.io.MappedFile;
+
+/**
+ * Clusters histograms into buckets and writes a {@link BucketTable}.
+ * <p>
+ * Histograms are compared by the earth mover's distance, which for
+ * histograms over ordered bins is the sum of the absolute differences of
+ * their cumulative distributions. The generator therefore stores the
+ * cumulative distribution of each histogram and runs k-means on them with
+ * that distance, each bucket's center being the mean of its members.
+ * </p><p>
+ * Nothing proportional to the number of histograms is kept on the heap.
+ * The cumulative distributions go to a temporary memory-mapped file next
+ * to the table and each k-means iteration streams over it; the bucket of
+ * each index is kept directly in the memory-mapped table. Computing the
+ * histograms and each iteration are spread over a {@link ForkJoinPool}.
+ * </p>
+ */
+@ThreadSafe
+public final class BucketTableGenerator {
+
+    /** Indices per task when computing histograms. */
+    private static final int HISTOGRAM_CHUNK_SIZE = 64;
+    /** Indices per task when assigning buckets. */
+    private static final int ASSIGN_CHUNK_SIZE = 1 << 14;
+    /** Size of a stored cumulative share in bytes. */
+    private static final int FLOAT_SIZE = 4;
+    /** Draws per bucket when looking for distinct initial centers. */
+    private static final int DRAWS_PER_BUCKET = 100;
+    /** Source of the histograms. */
+    private final HistogramSource source;
+    /** Number of buckets. */
+    private final int buckets;
+    /** Largest number of k-means iterations. */
+    private final int iterations;
+    /** Seed choosing the initial centers. */
+    private final long seed;
+    /** Pool running the tasks. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an instance running on the {@link SharedPool}.
+     * @param source Source of the histograms. Must not be null.
+     * @param buckets Number of buckets. Must be between 1 and 65536.
+     * @param iterations Largest number of k-means iterations. Must be
+     * positive.
+     * @param seed Seed choosing the initial centers.
+     */
+    public BucketTableGenerator(final HistogramSource source,
+            final int buckets, final int iterations, final long seed) {
+        this(source, buckets, iterations, seed, SharedPool.get());
+    }
+
+    /**
+     * Creates an instance.
+     * @param source Source of the histograms. Must not be null.
+     * @param buckets Number of buckets. Must be between 1 and 65536.
+     * @param iterations Largest number of k-means iterations. Must be
+     * positive.
+     * @param seed Seed choosing the initial centers.
+     * @param pool Pool to run the tasks in. Must not be null.
+     */
+    public BucketTableGenerator(final HistogramSource source,
+            final int buckets, final int iterations, final long seed,
+            final ForkJoinPool pool) {
+        if (source == null) {
+            throw new NullArgumentException("source");
+        }
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        if (buckets <= 0 || buckets > BucketTable.MAX_BUCKETS) {
+            throw new IllegalArgumentException("require 1 to 65536 "
+                    + "buckets.");
+        }
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("iterations must be "
+                    + "positive.");
+        }
+        this.source = source;
+        this.buckets = buckets;
+        this.iterations = iterations;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Generates the table of a Texas hold'em street.
+     * @param args The street (flop, turn or river), the number of bins, the
+     * number of buckets and the name of the file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("usage: BucketTableGenerator "
+                    + "<flop|turn|river> <bins> <buckets> <file>");
+            System.exit(1);
+        }
+        HandIndexer indexer;
+        if ("flop".equals(args[0])) {
+            indexer = HandIndexer.flop();
+        } else if ("turn".equals(args[0])) {
+            indexer = HandIndexer.turn();
+        } else if ("river".equals(args[0])) {
+            indexer = HandIndexer.river();
+        } else {
+            throw new IllegalArgumentException("unknown street " + args[0]
+                    + ".");
+        }
+        new BucketTableGenerator(new EquityHistograms(indexer,
+                Integer.parseInt(args[1])), Integer.parseInt(args[2]), 100,
+                0).write(new File(args[3]));
+    }
+
+    /**
+     * Computes the histograms, clusters them and writes the table.
+     * @param file File to write. Must not be null. Is replaced if it
+     * exists.
+     * @throws IOException If writing fails.
+     * @throws IllegalArgumentException If there are fewer histograms than
+     * buckets.
+     */
+    public void write(final File file) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        long size = source.getSize();
+        int bins = source.getBins();
+        if (size < buckets) {
+            throw new IllegalArgumentException("fewer histograms than "
+                    + "buckets.");
+        }
+        File temp = File.createTempFile("histograms", ".tmp",
+                file.getAbsoluteFile().getParentFile());
+        try {
+            MappedFile cdfs = MappedFile.create(temp,
+                    size * bins * FLOAT_SIZE);
+            pool.invoke(new HistogramTask(cdfs, bins, 0, size));
+
+            int entrySize = BucketTable.entrySize(buckets);
+            MappedFile table = MappedFile.create(file,
+                    BucketTable.HEADER_SIZE + size * entrySize);
+            double[][] centers = initialCenters(cdfs, bins, size);
+            for (int i = 0; i < iterations; i++) {
+                double[] sums = pool.invoke(new AssignTask(cdfs, table,
+                        centers, i == 0, 0, size));
+                if (i > 0 && sums[buckets * (bins + 1)] == 0) {
+                    break;
+                }
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    double count = sums[buckets * bins + bucket];
+                    // a bucket without members keeps its center.
+                    for (int bin = 0; bin < bins && count > 0; bin++) {
+                        centers[bucket][bin] =
+                                sums[bucket * bins + bin] / count;
+                    }
+                }
+            }
+
+            table.putInt(0, BucketTable.MAGIC);
+            table.putInt(4, BucketTable.VERSION);
+            table.putInt(8, buckets);
+            table.putInt(12, entrySize);
+            table.putLong(16, size);
+            table.force();
+        } finally {
+            if (!temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Chooses random histograms as initial centers, avoiding duplicates
+     * where possible.
+     * @param cdfs Cumulative distribution of each histogram.
+     * @param bins Number of bins.
+     * @param size Number of histograms.
+     * @return Cumulative distribution of each center.
+     */
+    private double[][] initialCenters(final MappedFile cdfs, final int bins,
+            final long size) {
+        Random random = new Random(seed);
+        double[][] centers = new double[buckets][bins];
+        int found = 0;
+        for (int draw = 0; found < buckets; draw++) {
+            long index = (long) (random.nextDouble() * size);
+            read(cdfs, bins, index, centers[found]);
+            boolean duplicate = false;
+            for (int i = 0; i < found && !duplicate; i++) {
+                duplicate = Arrays.equals(centers[i], centers[found]);
+            }
+            if (!duplicate || draw >= DRAWS_PER_BUCKET * buckets) {
+                found++;
+            }
+        }
+        return centers;
+    }
+
+    /**
+     * Reads a cumulative distribution.
+     * @param cdfs Cumulative distribution of each histogram.
+     * @param bins Number of bins.
+     * @param index Index of the histogram.
+     * @param result Receives the cumulative shares.
+     */
+    private static void read(final MappedFile cdfs, final int bins,
+            final long index, final double[] result) {
+        long offset = index * bins * FLOAT_SIZE;
+        for (int bin = 0; bin < bins; bin++) {
+            result[bin] = cdfs.getFloat(offset + bin * FLOAT_SIZE);
+        }
+    }
+
+    /**
+     * Computes and stores the cumulative distributions of a range of
+     * indices, splitting the range until it fits into a chunk.
+     */
+    private final class HistogramTask extends RecursiveAction {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** Receives the cumulative distributions. */
+        private final MappedFile cdfs;
+        /** Number of bins. */
+        private final int bins;
+        /** First index of this task. */
+        private final long from;
+        /** Index after the last one of this task. */
+        private final long to;
+
+        /**
+         * Creates an instance.
+         * @param cdfs Receives the cumulative distributions.
+         * @param bins Number of bins.
+         * @param from First index of this task.
+         * @param to Index after the last one of this task.
+         */
+        HistogramTask(final MappedFile cdfs, final int bins, final long from,
+                final long to) {
+            this.cdfs = cdfs;
+            this.bins = bins;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > HISTOGRAM_CHUNK_SIZE) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new HistogramTask(cdfs, bins, from, middle),
+                        new HistogramTask(cdfs, bins, middle, to));
+                return;
+            }
+            double[] histogram = new double[bins];
+            for (long index = from; index < to; index++) {
+                source.histogram(index, histogram);
+                long offset = index * bins * FLOAT_SIZE;
+                double cumulative = 0;
+                for (int bin = 0; bin < bins; bin++) {
+                    cumulative += histogram[bin];
+                    cdfs.putFloat(offset + bin * FLOAT_SIZE,
+                            (float) cumulative);
+                }
+            }
+        }
+    }
+
+    /**
+     * Assigns a range of indices to their nearest center, splitting the
+     * range until it fits into a chunk. The result holds the sum of the
+     * members' cumulative distributions of each bucket, then the number of
+     * members of each bucket, then the number of indices whose bucket
+     * changed.
+     */
+    private final class AssignTask extends RecursiveTask<double[]> {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** Cumulative distribution of each histogram. */
+        private final MappedFile cdfs;
+        /** Receives the bucket of each index. */
+        private final MappedFile table;
+        /** Cumulative distribution of each center. Only read. */
+        private final double[][] centers;
+        /** If the table holds no buckets yet. */
+        private final boolean first;
+        /** First index of this task. */
+        private final long from;
+        /** Index after the last one of this task. */
+        private final long to;
+
+        /**
+         * Creates an instance.
+         * @param cdfs Cumulative distribution of each histogram.
+         * @param table Receives the bucket of each index.
+         * @param centers Cumulative distribution of each center.
+         * @param first If the table holds no buckets yet.
+         * @param from First index of this task.
+         * @param to Index after the last one of this task.
+         */
+        AssignTask(final MappedFile cdfs, final MappedFile table,
+                final double[][] centers, final boolean first,
+                final long from, final long to) {
+            this.cdfs = cdfs;
+            this.table = table;
+            this.centers = centers;
+            this.first = first;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > ASSIGN_CHUNK_SIZE) {
+                long middle = (from + to) >>> 1;
+                AssignTask right = new AssignTask(cdfs, table, centers,
+                        first, middle, to);
+                right.fork();
+                double[] sums = new AssignTask(cdfs, table, centers, first,
+                        from, middle).compute();
+                double[] rightSums = right.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += rightSums[i];
+                }
+                return sums;
+            }
+
+            int bins = centers[0].length;
+            int entrySize = BucketTable.entrySize(buckets);
+            double[] sums = new double[buckets * (bins + 1) + 1];
+            double[] cdf = new double[bins];
+            for (long index = from; index < to; index++) {
+                read(cdfs, bins, index, cdf);
+                int nearest = 0;
+                double best = Double.MAX_VALUE;
+                for (int bucket = 0; bucket < buckets; bucket++) {
+                    double[] center = centers[bucket];
+                    double distance = 0;
+                    for (int bin = 0; bin < bins && distance < best; bin++) {
+                        distance += Math.abs(cdf[bin] - center[bin]);
+                    }
+                    if (distance < best) {
+                        best = distance;
+                        nearest = bucket;
+                    }
+                }
+
+                long offset = BucketTable.HEADER_SIZE + index * entrySize;
+                int old;
+                if (entrySize == 1) {
+                    old = table.get(offset) & 0xff;
+                    table.put(offset, (byte) nearest);
+                } else {
+                    old = table.getShort(offset) & 0xffff;
+                    table.putShort(offset, (short) nearest);
+                }
+                if (first || old != nearest) {
+                    sums[buckets * (bins + 1)]++;
+                }
+                for (int bin = 0; bin < bins; bin++) {
+                    sums[nearest * bins + bin] += cdf[bin];
+                }
+                sums[buckets * bins + nearest]++;
+            }
+            return sums;
+        }
+    }
+}
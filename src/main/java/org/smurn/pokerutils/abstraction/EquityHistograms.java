@@ -0,0 +1,193 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.util.Arrays;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.equity.Deck;
+import org.smurn.pokerutils.equity.HandRange;
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Histograms of the river equity of hole cards over all completions of the
+ * board.
+ * <p>
+ * For each completion of the board, the equity of the hole cards against
+ * all hole cards the opponent can still hold is calculated. The histogram
+ * counts how many completions fall into each of equally wide equity bins.
+ * On the river there is a single completion, the board itself.
+ * </p><p>
+ * The opponent's final hand only depends on the union of their hole cards
+ * and the completion, not on which cards are which. The histogram
+ * therefore walks the sets of left cards of that size, evaluates each set
+ * once against the board and credits the comparison to every completion
+ * the set contains, while the hero is evaluated once per completion.
+ * </p>
+ */
+@Immutable
+public final class EquityHistograms implements HistogramSource {
+
+    /** Smallest board supported. */
+    private static final int MIN_BOARD_CARDS = 3;
+    /** Locator used to rank the hands. */
+    private static final LookupLocator LOCATOR = new LookupLocator();
+    /** Indexer of the situations. */
+    private final HandIndexer indexer;
+    /** Number of bins. */
+    private final int bins;
+
+    /**
+     * Creates an instance.
+     * @param indexer Indexer of the situations. Must not be null, deal the
+     * 2 hole cards in its first round and 3 to 5 board cards in the
+     * others.
+     * @param bins Number of equity bins. Must be positive.
+     */
+    public EquityHistograms(final HandIndexer indexer, final int bins) {
+        if (indexer == null) {
+            throw new NullArgumentException("indexer");
+        }
+        int last = indexer.getRounds() - 1;
+        int board = indexer.getTotalCardCount(last) - Deck.HOLE_CARDS;
+        if (indexer.getCardCount(0) != Deck.HOLE_CARDS
+                || board < MIN_BOARD_CARDS || board > Deck.BOARD_CARDS) {
+            throw new IllegalArgumentException("require 2 hole cards and "
+                    + "3 to 5 board cards.");
+        }
+        if (bins <= 0) {
+            throw new IllegalArgumentException("bins must be positive.");
+        }
+        this.indexer = indexer;
+        this.bins = bins;
+    }
+
+    @Override
+    public long getSize() {
+        return indexer.getSize();
+    }
+
+    @Override
+    public int getBins() {
+        return bins;
+    }
+
+    @Override
+    public void histogram(final long index, final double[] result) {
+        int[] cards = new int[indexer.getTotalCardCount(
+                indexer.getRounds() - 1)];
+        indexer.unindex(indexer.getRounds() - 1, index, cards);
+        histogram(cards, result);
+    }
+
+    /**
+     * Computes the histogram of hole cards on a board.
+     * @param cards Ordinals of the 2 hole cards followed by those of the
+     * board. Must not be null, contain as many cards as the indexer deals
+     * and no duplicates.
+     * @param result Receives the share of the completions in each bin.
+     * Must not be null and have at least {@link #getBins()} entries.
+     */
+    public void histogram(final int[] cards, final double[] result) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (result == null) {
+            throw new NullArgumentException("result");
+        }
+        if (result.length < bins) {
+            throw new IllegalArgumentException("require room for " + bins
+                    + " bins.");
+        }
+        int total = indexer.getTotalCardCount(indexer.getRounds() - 1);
+        if (cards.length != total) {
+            throw new IllegalArgumentException("require " + total
+                    + " cards.");
+        }
+        long hero = 0;
+        long board = 0;
+        for (int i = 0; i < cards.length; i++) {
+            if (cards[i] < 0 || cards[i] >= Deck.CARDS) {
+                throw new IllegalArgumentException("no card ordinal "
+                        + cards[i] + ".");
+            }
+            long bit = 1L << cards[i];
+            if (((hero | board) & bit) != 0) {
+                throw new IllegalArgumentException("card ordinal "
+                        + cards[i] + " appears twice.");
+            }
+            if (i < Deck.HOLE_CARDS) {
+                hero |= bit;
+            } else {
+                board |= bit;
+            }
+        }
+        long dead = hero | board;
+        int missing = Deck.HOLE_CARDS + Deck.BOARD_CARDS - total;
+
+        // final strength of the hero, wins and ties per completion.
+        int[] heroFinal = new int[HandRange.COMBOS];
+        int[] wins = new int[HandRange.COMBOS];
+        int[] ties = new int[HandRange.COMBOS];
+        long[] runouts = Deck.combinations(dead, missing);
+        for (long runout : runouts) {
+            heroFinal[runoutIndex(runout)] = LOCATOR.evaluate(dead | runout);
+        }
+
+        for (long set : Deck.combinations(dead,
+                missing + Deck.HOLE_CARDS)) {
+            int strength = LOCATOR.evaluate(board | set);
+            for (long first = set; first != 0; first &= first - 1) {
+                long firstBit = first & -first;
+                for (long second = first & (first - 1); second != 0;
+                        second &= second - 1) {
+                    long runout = set & ~(firstBit | second & -second);
+                    int r = runoutIndex(runout);
+                    if (heroFinal[r] > strength) {
+                        wins[r]++;
+                    } else if (heroFinal[r] == strength) {
+                        ties[r]++;
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(result, 0, bins, 0);
+        int left = Deck.CARDS - total - missing;
+        double opponents = left * (left - 1) / 2;
+        for (long runout : runouts) {
+            int r = runoutIndex(runout);
+            double equity = (wins[r] + ties[r] / 2.0) / opponents;
+            result[Math.min((int) (equity * bins), bins - 1)] +=
+                    1.0 / runouts.length;
+        }
+    }
+
+    /**
+     * Gets the index of the cards completing the board.
+     * @param runout Mask of up to 2 cards.
+     * @return Index that is unique among masks with the same number of
+     * cards.
+     */
+    private static int runoutIndex(final long runout) {
+        if (runout == 0) {
+            return 0;
+        }
+        int first = Long.numberOfTrailingZeros(runout);
+        int second = 63 - Long.numberOfLeadingZeros(runout);
+        return first == second ? first : second * (second - 1) / 2 + first;
+    }
+}
@@ -0,0 +1,662 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.util.Arrays;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+
+/**
+ * Maps cards dealt in rounds to dense indices of their suit isomorphism
+ * class.
+ * <p>
+ * Two hands are isomorphic if a permutation of the suits maps one onto the
+ * other, round by round. The order of the cards within a round does not
+ * matter. Isomorphic hands have the same strength and equity, so tables
+ * only need one entry per class. The classes of the hands up to each round
+ * are numbered from 0 to {@link #getSize(int)} - 1 without gaps.
+ * </p><p>
+ * Cards are given by the ordinals of {@link org.smurn.pokerutils.Card},
+ * all cards of the first round first. For Texas hold'em the first round
+ * are the hole cards. If the board is a single round there are 169
+ * classes preflop, 1,286,792 on the flop, 13,960,050 on the turn and
+ * 123,156,254 on the river. Dealing flop, turn and river as separate
+ * rounds keeps apart boards that only differ by which card came on the
+ * turn, which gives 55,190,538 classes on the turn and 2,428,287,420 on
+ * the river.
+ * </p><p>
+ * Each suit's cards are numbered by the combinations of ranks they hold in
+ * each round. Suits holding the same number of cards in each round are
+ * interchangeable; the multiset of their numbers is what the index is made
+ * of, next to the offset of how the cards are spread over the suits. This
+ * follows Waugh, "A Fast and Optimal Hand Isomorphism Algorithm" (2013).
+ * </p>
+ */
+@Immutable
+public final class HandIndexer {
+
+    /** Largest number of rounds. */
+    public static final int MAX_ROUNDS = 4;
+    /** Number of suits. */
+    private static final int SUITS = 4;
+    /** Number of ranks. */
+    private static final int RANKS = 13;
+    /** Bits of the number of cards a suit holds in one round. */
+    private static final int ROUND_BITS = 4;
+    /** Bits of the numbers of cards a suit holds in all rounds. */
+    private static final int SUIT_BITS = ROUND_BITS * MAX_ROUNDS;
+    /** Mask of the number of cards in one round. */
+    private static final int ROUND_MASK = (1 << ROUND_BITS) - 1;
+    /** Mask of the numbers of cards of one suit. */
+    private static final long SUIT_MASK = (1L << SUIT_BITS) - 1;
+    /** Largest number of hands supported, to keep all counts exact. */
+    private static final double MAX_HANDS = 1L << 53;
+    /** Binomial coefficients of up to 13 elements. */
+    private static final int[][] BINOMIAL = createBinomials();
+    /** Number of cards dealt in each round. */
+    private final int[] cardsPerRound;
+    /** Position of the first card of each round, then the total. */
+    private final int[] roundStart;
+    /**
+     * Sorted configurations for the hands up to each round. A configuration
+     * holds the numbers of cards of each suit in descending order.
+     */
+    private final long[][] configurations;
+    /** First index of each configuration, then the total, per round. */
+    private final long[][] offsets;
+
+    /**
+     * Creates an indexer.
+     * @param cardsPerRound Number of cards dealt in each round. Must not be
+     * null, have 1 to 4 rounds with at least one card each and at most 52
+     * cards in total.
+     * @throws IllegalArgumentException If there are so many hands that the
+     * indices could overflow.
+     */
+    public HandIndexer(final int... cardsPerRound) {
+        if (cardsPerRound == null) {
+            throw new NullArgumentException("cardsPerRound");
+        }
+        if (cardsPerRound.length < 1 || cardsPerRound.length > MAX_ROUNDS) {
+            throw new IllegalArgumentException("require 1 to 4 rounds.");
+        }
+        this.cardsPerRound = cardsPerRound.clone();
+        this.roundStart = new int[cardsPerRound.length + 1];
+        double hands = 1;
+        for (int round = 0; round < cardsPerRound.length; round++) {
+            if (cardsPerRound[round] < 1) {
+                throw new IllegalArgumentException("each round needs at "
+                        + "least one card.");
+            }
+            roundStart[round + 1] = roundStart[round] + cardsPerRound[round];
+            if (roundStart[round + 1] > SUITS * RANKS) {
+                throw new IllegalArgumentException("more than 52 cards.");
+            }
+            for (int i = 0; i < cardsPerRound[round]; i++) {
+                hands *= (double) (SUITS * RANKS - roundStart[round] - i)
+                        / (i + 1);
+            }
+        }
+        if (hands > MAX_HANDS) {
+            throw new IllegalArgumentException("too many hands to index.");
+        }
+
+        this.configurations = new long[cardsPerRound.length][];
+        this.offsets = new long[cardsPerRound.length][];
+        for (int round = 0; round < cardsPerRound.length; round++) {
+            SortedSet<Long> found = new TreeSet<Long>();
+            enumerate(round, 0, 0, cardsPerRound[0], new int[SUITS],
+                    new int[SUITS], found);
+            configurations[round] = new long[found.size()];
+            offsets[round] = new long[found.size() + 1];
+            int c = 0;
+            for (long configuration : found) {
+                configurations[round][c] = configuration;
+                offsets[round][c + 1] = offsets[round][c]
+                        + configurationSize(configuration, round);
+                c++;
+            }
+        }
+    }
+
+    /**
+     * Creates an indexer for the hole cards of Texas hold'em.
+     * @return Indexer with one round of 2 cards.
+     */
+    public static HandIndexer preflop() {
+        return new HandIndexer(2);
+    }
+
+    /**
+     * Creates an indexer for hole cards and flop of Texas hold'em.
+     * @return Indexer with rounds of 2 and 3 cards.
+     */
+    public static HandIndexer flop() {
+        return new HandIndexer(2, 3);
+    }
+
+    /**
+     * Creates an indexer for hole cards and turn board of Texas hold'em.
+     * @return Indexer with rounds of 2 and 4 cards.
+     */
+    public static HandIndexer turn() {
+        return new HandIndexer(2, 4);
+    }
+
+    /**
+     * Creates an indexer for hole cards and full board of Texas hold'em.
+     * @return Indexer with rounds of 2 and 5 cards.
+     */
+    public static HandIndexer river() {
+        return new HandIndexer(2, 5);
+    }
+
+    /**
+     * Gets the number of rounds.
+     * @return Number of rounds, between 1 and 4.
+     */
+    public int getRounds() {
+        return cardsPerRound.length;
+    }
+
+    /**
+     * Gets the number of cards dealt in a round.
+     * @param round Index of the round, starting at 0.
+     * @return Number of cards.
+     */
+    public int getCardCount(final int round) {
+        return cardsPerRound[round];
+    }
+
+    /**
+     * Gets the number of cards dealt up to and including a round.
+     * @param round Index of the round, starting at 0.
+     * @return Number of cards.
+     */
+    public int getTotalCardCount(final int round) {
+        return roundStart[round + 1];
+    }
+
+    /**
+     * Gets the number of isomorphism classes of the hands up to a round.
+     * @param round Index of the round, starting at 0.
+     * @return Number of indices.
+     */
+    public long getSize(final int round) {
+        long[] roundOffsets = offsets[round];
+        return roundOffsets[roundOffsets.length - 1];
+    }
+
+    /**
+     * Gets the number of isomorphism classes of complete hands.
+     * @return Number of indices of the last round.
+     */
+    public long getSize() {
+        return getSize(cardsPerRound.length - 1);
+    }
+
+    /**
+     * Calculates the index of a complete hand.
+     * @param cards Card ordinals, round by round. Must not be null and
+     * contain at least the cards of all rounds, without duplicates.
+     * @return Index between 0 and {@link #getSize()} - 1.
+     */
+    public long index(final int[] cards) {
+        return index(cards, cardsPerRound.length - 1, null);
+    }
+
+    /**
+     * Calculates the index of the hand up to each round.
+     * @param cards Card ordinals, round by round. Must not be null and
+     * contain at least the cards of all rounds, without duplicates.
+     * @param indices Receives the index of the hand up to round {@code i}
+     * at index {@code i}. Must not be null and have an entry per round.
+     * @return Index of the complete hand.
+     */
+    public long index(final int[] cards, final long[] indices) {
+        if (indices == null) {
+            throw new NullArgumentException("indices");
+        }
+        if (indices.length < cardsPerRound.length) {
+            throw new IllegalArgumentException("require an index per "
+                    + "round.");
+        }
+        return index(cards, cardsPerRound.length - 1, indices);
+    }
+
+    /**
+     * Calculates the index of the hand up to a round.
+     * @param cards Card ordinals, round by round. Must not be null and
+     * contain at least the cards up to the round, without duplicates.
+     * @param round Index of the last round to include.
+     * @return Index between 0 and {@code getSize(round)} - 1.
+     */
+    public long index(final int[] cards, final int round) {
+        if (round < 0 || round >= cardsPerRound.length) {
+            throw new IndexOutOfBoundsException("no round " + round + ".");
+        }
+        return index(cards, round, null);
+    }
+
+    /**
+     * Calculates the index of the hand up to a round.
+     * @param cards Card ordinals, round by round.
+     * @param round Index of the last round to include.
+     * @param indices Receives the index up to each round, or null.
+     * @return Index of the hand up to the round.
+     */
+    private long index(final int[] cards, final int round,
+            final long[] indices) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cards.length < roundStart[round + 1]) {
+            throw new IllegalArgumentException("require "
+                    + roundStart[round + 1] + " cards.");
+        }
+        // per suit: cards of all earlier rounds, numbers of cards per
+        // round, number of the held rank combinations and its radix.
+        int[] used = new int[SUITS];
+        int[] keys = new int[SUITS];
+        long[] numbers = new long[SUITS];
+        long[] radices = {1, 1, 1, 1};
+        int[] dealt = new int[SUITS];
+        long result = 0;
+        for (int r = 0; r <= round; r++) {
+            Arrays.fill(dealt, 0);
+            for (int i = roundStart[r]; i < roundStart[r + 1]; i++) {
+                int card = cards[i];
+                if (card < 0 || card >= SUITS * RANKS) {
+                    throw new IllegalArgumentException("no card ordinal "
+                            + card + ".");
+                }
+                int suit = card / RANKS;
+                int bit = 1 << (card % RANKS);
+                if (((used[suit] | dealt[suit]) & bit) != 0) {
+                    throw new IllegalArgumentException("card ordinal "
+                            + card + " appears twice.");
+                }
+                dealt[suit] |= bit;
+            }
+            for (int suit = 0; suit < SUITS; suit++) {
+                int count = Integer.bitCount(dealt[suit]);
+                int left = RANKS - Integer.bitCount(used[suit]);
+                keys[suit] |= count << shift(r);
+                numbers[suit] += radices[suit]
+                        * colex(dealt[suit], used[suit]);
+                radices[suit] *= BINOMIAL[left][count];
+                used[suit] |= dealt[suit];
+            }
+            result = combine(r, keys, numbers);
+            if (indices != null) {
+                indices[r] = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Combines the numbers of the suits to the index of the hand.
+     * @param round Index of the last round included.
+     * @param keys Numbers of cards per round of each suit.
+     * @param numbers Number of the rank combinations of each suit.
+     * @return Index of the hand.
+     */
+    private long combine(final int round, final int[] keys,
+            final long[] numbers) {
+        // suits by descending key, suits with the same key by descending
+        // number. Suits with the same key and number are identical.
+        int[] order = {0, 1, 2, 3};
+        for (int i = 1; i < SUITS; i++) {
+            int suit = order[i];
+            int j = i;
+            while (j > 0 && (keys[order[j - 1]] < keys[suit]
+                    || keys[order[j - 1]] == keys[suit]
+                    && numbers[order[j - 1]] < numbers[suit])) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = suit;
+        }
+        long configuration = 0;
+        for (int suit : order) {
+            configuration = configuration << SUIT_BITS | keys[suit];
+        }
+        int c = Arrays.binarySearch(configurations[round], configuration);
+
+        long result = 0;
+        long radix = 1;
+        int start = 0;
+        while (start < SUITS) {
+            int key = keys[order[start]];
+            int end = start + 1;
+            while (end < SUITS && keys[order[end]] == key) {
+                end++;
+            }
+            // multiset of the numbers in the group, ascending.
+            long number = 0;
+            for (int i = 0; i < end - start; i++) {
+                number += binomial(numbers[order[end - 1 - i]] + i, i + 1);
+            }
+            result += radix * number;
+            radix *= binomial(suitSize(key, round) + end - start - 1,
+                    end - start);
+            start = end;
+        }
+        return offsets[round][c] + result;
+    }
+
+    /**
+     * Gets a representative of the hands with an index.
+     * @param index Index of the complete hand, between 0 and
+     * {@link #getSize()} - 1.
+     * @return Card ordinals of one of the hands with that index, round by
+     * round.
+     */
+    public int[] unindex(final long index) {
+        int[] cards = new int[roundStart[cardsPerRound.length]];
+        unindex(cardsPerRound.length - 1, index, cards);
+        return cards;
+    }
+
+    /**
+     * Gets a representative of the hands up to a round with an index.
+     * Within a round, the cards are ordered by suit and rank.
+     * @param round Index of the last round to include.
+     * @param index Index of the hand, between 0 and
+     * {@code getSize(round)} - 1.
+     * @param cards Receives the card ordinals of one of the hands with
+     * that index, round by round. Must not be null and have room for the
+     * cards up to the round.
+     */
+    public void unindex(final int round, final long index,
+            final int[] cards) {
+        if (round < 0 || round >= cardsPerRound.length) {
+            throw new IndexOutOfBoundsException("no round " + round + ".");
+        }
+        if (index < 0 || index >= getSize(round)) {
+            throw new IndexOutOfBoundsException("no index " + index + ".");
+        }
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cards.length < roundStart[round + 1]) {
+            throw new IllegalArgumentException("require room for "
+                    + roundStart[round + 1] + " cards.");
+        }
+        long[] roundOffsets = offsets[round];
+        int c = Arrays.binarySearch(roundOffsets, index);
+        if (c < 0) {
+            c = -c - 2;
+        }
+        long configuration = configurations[round][c];
+        int[] keys = new int[SUITS];
+        for (int suit = 0; suit < SUITS; suit++) {
+            keys[suit] = (int) (configuration
+                    >>> (SUIT_BITS * (SUITS - 1 - suit)) & SUIT_MASK);
+        }
+
+        long rest = index - roundOffsets[c];
+        long[] numbers = new long[SUITS];
+        int start = 0;
+        while (start < SUITS) {
+            int end = start + 1;
+            while (end < SUITS && keys[end] == keys[start]) {
+                end++;
+            }
+            int size = end - start;
+            long suitSize = suitSize(keys[start], round);
+            long groupSize = binomial(suitSize + size - 1, size);
+            long number = rest % groupSize;
+            rest /= groupSize;
+            // largest element first, it goes to the first suit.
+            for (int i = size - 1; i >= 0; i--) {
+                long element = largestBelow(number, i + 1, i,
+                        suitSize - 1 + i);
+                number -= binomial(element, i + 1);
+                numbers[end - 1 - i] = element - i;
+            }
+            start = end;
+        }
+
+        int[] position = roundStart.clone();
+        for (int suit = 0; suit < SUITS; suit++) {
+            int used = 0;
+            long number = numbers[suit];
+            for (int r = 0; r <= round; r++) {
+                int count = keys[suit] >>> shift(r) & ROUND_MASK;
+                int left = RANKS - Integer.bitCount(used);
+                int dealt = uncolex((int) (number % BINOMIAL[left][count]),
+                        count, used);
+                number /= BINOMIAL[left][count];
+                for (int rank = 0; rank < RANKS; rank++) {
+                    if ((dealt & (1 << rank)) != 0) {
+                        cards[position[r]++] = suit * RANKS + rank;
+                    }
+                }
+                used |= dealt;
+            }
+        }
+    }
+
+    /**
+     * Collects the configurations of the hands up to a round.
+     * @param round Index of the last round to include.
+     * @param r Round currently being distributed.
+     * @param suit Suit currently being distributed.
+     * @param left Cards of the round not yet distributed.
+     * @param keys Numbers of cards per round of each suit so far.
+     * @param totals Number of cards of each suit so far.
+     * @param found Receives the configurations.
+     */
+    private void enumerate(final int round, final int r, final int suit,
+            final int left, final int[] keys, final int[] totals,
+            final SortedSet<Long> found) {
+        if (suit == SUITS - 1) {
+            if (totals[suit] + left > RANKS) {
+                return;
+            }
+            keys[suit] += left << shift(r);
+            totals[suit] += left;
+            if (r == round) {
+                int[] sorted = keys.clone();
+                Arrays.sort(sorted);
+                long configuration = 0;
+                for (int i = SUITS - 1; i >= 0; i--) {
+                    configuration = configuration << SUIT_BITS | sorted[i];
+                }
+                found.add(configuration);
+            } else {
+                enumerate(round, r + 1, 0, cardsPerRound[r + 1], keys,
+                        totals, found);
+            }
+            keys[suit] -= left << shift(r);
+            totals[suit] -= left;
+            return;
+        }
+        for (int count = 0; count <= left
+                && totals[suit] + count <= RANKS; count++) {
+            keys[suit] += count << shift(r);
+            totals[suit] += count;
+            enumerate(round, r, suit + 1, left - count, keys, totals, found);
+            keys[suit] -= count << shift(r);
+            totals[suit] -= count;
+        }
+    }
+
+    /**
+     * Calculates the number of hands of a configuration, up to isomorphism.
+     * @param configuration The configuration.
+     * @param round Index of the last round included.
+     * @return Number of indices of the configuration.
+     */
+    private long configurationSize(final long configuration,
+            final int round) {
+        long result = 1;
+        int start = 0;
+        while (start < SUITS) {
+            int key = (int) (configuration
+                    >>> (SUIT_BITS * (SUITS - 1 - start)) & SUIT_MASK);
+            int end = start + 1;
+            while (end < SUITS && (configuration
+                    >>> (SUIT_BITS * (SUITS - 1 - end)) & SUIT_MASK) == key) {
+                end++;
+            }
+            result *= binomial(suitSize(key, round) + end - start - 1,
+                    end - start);
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the number of rank combinations a suit can hold.
+     * @param key Numbers of cards per round of the suit.
+     * @param round Index of the last round included.
+     * @return Number of ways to choose the ranks in each round.
+     */
+    private static long suitSize(final int key, final int round) {
+        long result = 1;
+        int used = 0;
+        for (int r = 0; r <= round; r++) {
+            int count = key >>> shift(r) & ROUND_MASK;
+            result *= BINOMIAL[RANKS - used][count];
+            used += count;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the position of the number of cards of a round in a key.
+     * Earlier rounds are more significant.
+     * @param round Index of the round.
+     * @return Shift of the number.
+     */
+    private static int shift(final int round) {
+        return ROUND_BITS * (MAX_ROUNDS - 1 - round);
+    }
+
+    /**
+     * Numbers a set of ranks among the sets of the same size that avoid
+     * the used ranks.
+     * @param ranks Mask of the ranks.
+     * @param used Mask of ranks that cannot be in the set.
+     * @return Number of the set in colexicographic order.
+     */
+    private static int colex(final int ranks, final int used) {
+        int result = 0;
+        int element = 1;
+        int rest = ranks;
+        while (rest != 0) {
+            int rank = Integer.numberOfTrailingZeros(rest);
+            int position = rank - Integer.bitCount(used & ((1 << rank) - 1));
+            result += BINOMIAL[position][element++];
+            rest &= rest - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Inverse of {@link #colex(int, int)}.
+     * @param number Number of the set.
+     * @param count Number of ranks in the set.
+     * @param used Mask of ranks that cannot be in the set.
+     * @return Mask of the ranks.
+     */
+    private static int uncolex(final int number, final int count,
+            final int used) {
+        int rest = number;
+        int positions = 0;
+        for (int element = count; element > 0; element--) {
+            int position = element - 1;
+            while (BINOMIAL[position + 1][element] <= rest) {
+                position++;
+            }
+            rest -= BINOMIAL[position][element];
+            positions |= 1 << position;
+        }
+        // the n-th free rank for each position n.
+        int result = 0;
+        int free = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            if ((used & (1 << rank)) == 0) {
+                if ((positions & (1 << free)) != 0) {
+                    result |= 1 << rank;
+                }
+                free++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the largest n with a binomial coefficient below a limit.
+     * @param limit The limit.
+     * @param k Lower argument of the binomial coefficient.
+     * @param low Smallest n to consider, its coefficient must not exceed
+     * the limit.
+     * @param high Largest n to consider.
+     * @return Largest n between low and high with C(n, k) &lt;= limit.
+     */
+    private static long largestBelow(final long limit, final int k,
+            final long low, final long high) {
+        long from = low;
+        long to = high;
+        while (from < to) {
+            long middle = (from + to + 1) >>> 1;
+            if (binomial(middle, k) <= limit) {
+                from = middle;
+            } else {
+                to = middle - 1;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Calculates a binomial coefficient.
+     * @param n Number of elements.
+     * @param k Number of elements to choose, small.
+     * @return The binomial coefficient, 0 if k is larger than n.
+     */
+    private static long binomial(final long n, final int k) {
+        if (k > n) {
+            return 0;
+        }
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a table of binomial coefficients.
+     * @return C(n, k) at [n][k] for n and k up to 13.
+     */
+    private static int[][] createBinomials() {
+        int[][] result = new int[RANKS + 1][RANKS + 2];
+        for (int n = 0; n <= RANKS; n++) {
+            result[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                result[n][k] = result[n - 1][k - 1] + result[n - 1][k];
+            }
+        }
+        return result;
+    }
+}
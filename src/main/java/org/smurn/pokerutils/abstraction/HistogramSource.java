@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+/**
+ * Computes a histogram for each of a dense range of indices.
+ * <p>
+ * Implementations have to be thread-safe, {@link BucketTableGenerator}
+ * computes the histograms of different indices concurrently.
+ * </p>
+ */
+public interface HistogramSource {
+
+    /**
+     * Gets the number of histograms.
+     * @return Number of indices, positive.
+     */
+    long getSize();
+
+    /**
+     * Gets the number of bins of each histogram.
+     * @return Number of bins, positive.
+     */
+    int getBins();
+
+    /**
+     * Computes a histogram.
+     * @param index Index of the histogram, between 0 and
+     * {@link #getSize()} - 1.
+     * @param result Receives the share of each bin. Has at least
+     * {@link #getBins()} entries. The shares must add up to one.
+     */
+    void histogram(long index, double[] result);
+}
@@ -101,9 +101,9 @@ public final class GetUpChange implements Change {
             throw new IncompatibleTableException("On the seat " + this.seatNr
                     + " are cards.");
         }
-        Table after = new Table(table);
+        Table after = Table.copyOnWrite(table);
 
-        Seat afterSeat = after.getSeat(this.seatNr);
+        Seat afterSeat = after.editSeat(this.seatNr);
         afterSeat.setPlayer(null);
         afterSeat.setStake(0);
 
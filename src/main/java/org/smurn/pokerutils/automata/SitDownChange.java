@@ -100,9 +100,9 @@ public final class SitDownChange implements Change {
         }
 
 
-        Table after = new Table(table);
+        Table after = Table.copyOnWrite(table);
 
-        Seat afterSeat = after.getSeat(this.seatNr);
+        Seat afterSeat = after.editSeat(this.seatNr);
         afterSeat.setPlayer(this.player);
         afterSeat.setStake(this.stake);
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The pool used by the parallel calculators when no pool is given.
+ * <p>
+ * A pool owns a worker thread per processor until it is shut down.
+ * Calculators created without a pool therefore share this one instead of
+ * each starting their own. It is created on first use and never shut
+ * down; its workers are daemon threads and do not keep the JVM alive.
+ * </p>
+ */
+public final class SharedPool {
+
+    /**
+     * Utility class without instances.
+     */
+    private SharedPool() {
+    }
+
+    /**
+     * Gets the shared pool.
+     * @return The pool using all processors. Never {@code null}, always
+     * the same instance.
+     */
+    public static ForkJoinPool get() {
+        return Holder.POOL;
+    }
+
+    /**
+     * Creates the pool when {@link SharedPool#get()} is first called.
+     */
+    private static final class Holder {
+
+        /** The shared pool. */
+        static final ForkJoinPool POOL = new ForkJoinPool();
+
+        /**
+         * Holder without instances.
+         */
+        private Holder() {
+        }
+    }
+}
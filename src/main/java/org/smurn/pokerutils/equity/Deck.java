@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+/**
+ * Card counts of Texas hold'em and enumeration of the cards left in the
+ * deck.
+ * <p>
+ * Cards are given as bit masks as described by
+ * {@link org.smurn.pokerutils.CardSet#getMask()}, so the enumerations can
+ * be used by calculators that work on masks without converting cards.
+ * </p>
+ */
+public final class Deck {
+
+    /** Number of cards in a deck. */
+    public static final int CARDS = 52;
+    /** Number of hole cards per player. */
+    public static final int HOLE_CARDS = 2;
+    /** Number of cards on a complete board. */
+    public static final int BOARD_CARDS = 5;
+
+    /**
+     * Prevents instances.
+     */
+    private Deck() {
+    }
+
+    /**
+     * Gets the cards that are not in a mask.
+     * @param dead Mask of the cards already dealt.
+     * @return Ordinals of the other cards in ascending order.
+     */
+    public static int[] cardsNotIn(final long dead) {
+        int[] deck = new int[CARDS - Long.bitCount(dead)];
+        int size = 0;
+        for (int card = 0; card < CARDS; card++) {
+            if ((dead & (1L << card)) == 0) {
+                deck[size++] = card;
+            }
+        }
+        return deck;
+    }
+
+    /**
+     * Enumerates all sets of a given number of cards that are not in a
+     * mask.
+     * @param dead Mask of the cards already dealt.
+     * @param size Number of cards in each set. Must not be negative.
+     * @return Mask of each set, in lexicographic order of the card
+     * ordinals. A single empty mask if {@code size} is zero.
+     */
+    public static long[] combinations(final long dead, final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative.");
+        }
+        int[] deck = cardsNotIn(dead);
+        long count = 1;
+        for (int i = 0; i < size; i++) {
+            count = count * (deck.length - i) / (i + 1);
+        }
+        long[] result = new long[(int) count];
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        for (int index = 0; index < result.length; index++) {
+            long mask = 0;
+            for (int position : positions) {
+                mask |= 1L << deck[position];
+            }
+            result[index] = mask;
+            // advance to the next combination in lexicographic order.
+            int i = size - 1;
+            while (i >= 0 && positions[i] == deck.length - size + i) {
+                i--;
+            }
+            if (i >= 0) {
+                positions[i]++;
+                for (int j = i + 1; j < size; j++) {
+                    positions[j] = positions[j - 1] + 1;
+                }
+            }
+        }
+        return result;
+    }
+}
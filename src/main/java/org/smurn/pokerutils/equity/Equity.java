@@ -0,0 +1,136 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Result of an equity calculation.
+ * <p>
+ * All numbers are counted in boards. For sampled results each trial
+ * counts as one board, for enumerated results a board may stand for several
+ * equivalent ones and is counted with that weight. The counts are integers,
+ * so results do not depend on the order in which boards were evaluated.
+ * </p>
+ */
+@Immutable
+public final class Equity {
+
+    /** Number of boards counted. */
+    private final long boards;
+    /** Boards won alone, per player. */
+    private final long[] wins;
+    /**
+     * Boards split, per player and number of winners. {@code ties[p][k]} is
+     * the number of boards on which player {@code p} splits with
+     * {@code k - 1} other players.
+     */
+    private final long[][] ties;
+
+    /**
+     * Creates an instance.
+     * @param boards Number of boards counted.
+     * @param wins Boards won alone, per player. Not copied.
+     * @param ties Boards split per player and number of winners. Not copied.
+     */
+    Equity(final long boards, final long[] wins, final long[][] ties) {
+        this.boards = boards;
+        this.wins = wins;
+        this.ties = ties;
+    }
+
+    /**
+     * Gets the number of players.
+     * @return Number of players.
+     */
+    public int getPlayerCount() {
+        return wins.length;
+    }
+
+    /**
+     * Gets the number of boards counted.
+     * @return Number of boards, including the weights of enumerated boards.
+     */
+    public long getBoards() {
+        return boards;
+    }
+
+    /**
+     * Gets the number of boards a player wins alone.
+     * @param player Index of the player.
+     * @return Number of boards.
+     */
+    public long getWins(final int player) {
+        return wins[player];
+    }
+
+    /**
+     * Gets the number of boards on which a player splits the pot.
+     * @param player Index of the player.
+     * @return Number of boards.
+     */
+    public long getTies(final int player) {
+        long sum = 0;
+        for (long count : ties[player]) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the probability that a player wins alone.
+     * @param player Index of the player.
+     * @return Probability between 0 and 1.
+     */
+    public double getWinProbability(final int player) {
+        return (double) wins[player] / boards;
+    }
+
+    /**
+     * Gets the probability that a player splits the pot.
+     * @param player Index of the player.
+     * @return Probability between 0 and 1.
+     */
+    public double getTieProbability(final int player) {
+        return (double) getTies(player) / boards;
+    }
+
+    /**
+     * Gets the share of the pot a player wins on average.
+     * A split pot counts with the share the player gets.
+     * @param player Index of the player.
+     * @return Equity between 0 and 1. The equities of all players sum up
+     * to 1.
+     */
+    public double getEquity(final int player) {
+        double share = wins[player];
+        for (int winners = 2; winners < ties[player].length; winners++) {
+            share += (double) ties[player][winners] / winners;
+        }
+        return share / boards;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Equity{boards=");
+        builder.append(boards);
+        for (int player = 0; player < wins.length; player++) {
+            builder.append(", ").append(player).append('=')
+                    .append(getEquity(player));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Counts wins and ties over a number of boards.
+ * Instances are not thread safe, each task uses its own counter and the
+ * counters are added up at the end.
+ */
+final class EquityCounter {
+
+    /** Locator used to rank the hands. */
+    private final LookupLocator locator;
+    /** The matchup being evaluated. */
+    private final Matchup matchup;
+    /** Number of boards counted. */
+    private long boards;
+    /** Boards won alone, per player. */
+    private final long[] wins;
+    /** Boards split, per player and number of winners. */
+    private final long[][] ties;
+    /** Scratch space for the strength of each player. */
+    private final int[] strengths;
+
+    /**
+     * Creates an instance with all counts zero.
+     * @param locator Locator used to rank the hands.
+     * @param matchup The matchup being evaluated.
+     */
+    EquityCounter(final LookupLocator locator, final Matchup matchup) {
+        this.locator = locator;
+        this.matchup = matchup;
+        int players = matchup.getPlayerCount();
+        this.wins = new long[players];
+        this.ties = new long[players][players + 1];
+        this.strengths = new int[players];
+    }
+
+    /**
+     * Evaluates a complete board and counts the outcome.
+     * @param board Card mask of the five board cards.
+     * @param weight Number of boards this board stands for.
+     */
+    void count(final long board, final long weight) {
+        int players = strengths.length;
+        int best = -1;
+        int winners = 0;
+        for (int player = 0; player < players; player++) {
+            int strength = locator.evaluate(
+                    matchup.getHoleCards(player) | board);
+            strengths[player] = strength;
+            if (strength > best) {
+                best = strength;
+                winners = 1;
+            } else if (strength == best) {
+                winners++;
+            }
+        }
+        for (int player = 0; player < players; player++) {
+            if (strengths[player] == best) {
+                if (winners == 1) {
+                    wins[player] += weight;
+                } else {
+                    ties[player][winners] += weight;
+                }
+            }
+        }
+        boards += weight;
+    }
+
+    /**
+     * Adds the counts of another counter to this one.
+     * @param other Counter for the same matchup.
+     */
+    void add(final EquityCounter other) {
+        boards += other.boards;
+        for (int player = 0; player < wins.length; player++) {
+            wins[player] += other.wins[player];
+            for (int winners = 0; winners < ties[player].length; winners++) {
+                ties[player][winners] += other.ties[player][winners];
+            }
+        }
+    }
+
+    /**
+     * Creates the result from the current counts.
+     * @return The result.
+     */
+    Equity toEquity() {
+        long[][] tiesCopy = new long[ties.length][];
+        for (int player = 0; player < ties.length; player++) {
+            tiesCopy[player] = ties[player].clone();
+        }
+        return new Equity(boards, wins.clone(), tiesCopy);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.concurrent.SharedPool;
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Calculates exact equities by enumerating every possible board.
+ * <p>
+ * Boards that are equivalent under a permutation of the suits that leaves
+ * the hole cards, the known board and the dead cards unchanged have the
+ * same outcome. Only one board per such class is evaluated and counted
+ * with the size of the class. The result is identical to a plain
+ * enumeration. Heads-up hands of the same suit pattern, such as
+ * {@code AsAh} against {@code KsKh}, need a quarter of the evaluations.
+ * </p><p>
+ * The boards are split by their lowest card and the parts run in a
+ * {@link ForkJoinPool}.
+ * </p>
+ */
+@ThreadSafe
+public final class ExhaustiveEquityCalculator {
+
+    /** Pool running the enumeration. */
+    private final ForkJoinPool pool;
+    /** Locator used to rank the hands. */
+    private final LookupLocator locator = new LookupLocator();
+
+    /**
+     * Creates an instance running on the {@link SharedPool}.
+     */
+    public ExhaustiveEquityCalculator() {
+        this(SharedPool.get());
+    }
+
+    /**
+     * Creates an instance.
+     * @param pool Pool to run the enumeration in. Must not be null.
+     */
+    public ExhaustiveEquityCalculator(final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates the exact equities of the players.
+     * @param holeCards Hole cards per player. Must not be null, 2 to 10
+     * players with 2 cards each.
+     * @param board Known board cards. Must not be null, at most 5 cards.
+     * @param dead Cards that cannot be dealt to the board, for example
+     * folded hole cards. Must not be null.
+     * @return Equities of the players, counted over all possible boards.
+     * Never null.
+     */
+    public Equity calculate(final List<CardSet> holeCards,
+            final CardSet board, final CardSet dead) {
+        Matchup matchup = new Matchup(holeCards, board, dead);
+        long[] invariant = new long[matchup.getPlayerCount() + 2];
+        for (int player = 0; player < matchup.getPlayerCount(); player++) {
+            invariant[player] = matchup.getHoleCards(player);
+        }
+        invariant[invariant.length - 2] = matchup.getBoard();
+        invariant[invariant.length - 1] = dead.getMask();
+        SuitSymmetry symmetry = new SuitSymmetry(invariant);
+
+        if (matchup.getMissingCards() == 0) {
+            EquityCounter counter = new EquityCounter(locator, matchup);
+            counter.count(matchup.getBoard(), 1);
+            return counter.toEquity();
+        }
+        int[] deck = matchup.copyDeck();
+        int firstCards = deck.length - matchup.getMissingCards() + 1;
+        return pool.invoke(new FirstCardTask(matchup, symmetry, deck, 0,
+                firstCards)).toEquity();
+    }
+
+    /**
+     * Enumerates the boards whose lowest new card lies in a range of
+     * the deck.
+     */
+    private final class FirstCardTask extends RecursiveTask<EquityCounter> {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The matchup being evaluated. */
+        private final Matchup matchup;
+        /** Symmetry of the matchup. */
+        private final SuitSymmetry symmetry;
+        /** Cards that may be dealt, ascending. Only read. */
+        private final int[] deck;
+        /** First deck index of this task. */
+        private final int from;
+        /** Deck index after the last one of this task. */
+        private final int to;
+
+        /**
+         * Creates an instance.
+         * @param matchup The matchup being evaluated.
+         * @param symmetry Symmetry of the matchup.
+         * @param deck Cards that may be dealt, ascending.
+         * @param from First deck index of this task.
+         * @param to Deck index after the last one of this task.
+         */
+        FirstCardTask(final Matchup matchup, final SuitSymmetry symmetry,
+                final int[] deck, final int from, final int to) {
+            this.matchup = matchup;
+            this.symmetry = symmetry;
+            this.deck = deck;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected EquityCounter compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                FirstCardTask right = new FirstCardTask(matchup, symmetry,
+                        deck, middle, to);
+                right.fork();
+                EquityCounter counter = new FirstCardTask(matchup, symmetry,
+                        deck, from, middle).compute();
+                counter.add(right.join());
+                return counter;
+            }
+            EquityCounter counter = new EquityCounter(locator, matchup);
+            enumerate(counter, matchup.getBoard() | 1L << deck[from],
+                    from + 1, matchup.getMissingCards() - 1);
+            return counter;
+        }
+
+        /**
+         * Enumerates all completions of a board.
+         * @param counter Counter to record the outcomes in.
+         * @param board Card mask of the board so far.
+         * @param start First deck index that may still be dealt.
+         * @param missing Number of cards still to deal.
+         */
+        private void enumerate(final EquityCounter counter, final long board,
+                final int start, final int missing) {
+            if (missing == 0) {
+                int weight = symmetry.weight(board);
+                if (weight > 0) {
+                    counter.count(board, weight);
+                }
+                return;
+            }
+            for (int i = start; i <= deck.length - missing; i++) {
+                enumerate(counter, board | 1L << deck[i], i + 1, missing - 1);
+            }
+        }
+    }
+}
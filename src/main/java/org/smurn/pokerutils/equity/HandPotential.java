@@ -0,0 +1,97 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Hand strength and hand potential of hole cards against a range.
+ * <p>
+ * The hand strength is the share of the opponent's hole cards the hero
+ * beats on the current board, ties counting half. The positive potential
+ * is the probability that the hero ends up ahead if currently behind, the
+ * negative potential the probability of ending up behind if currently
+ * ahead. Ties count half in both.
+ * </p>
+ */
+@Immutable
+public final class HandPotential {
+
+    /** Hand strength. */
+    private final double handStrength;
+    /** Positive potential. */
+    private final double positivePotential;
+    /** Negative potential. */
+    private final double negativePotential;
+
+    /**
+     * Creates an instance.
+     * @param handStrength Hand strength between 0 and 1.
+     * @param positivePotential Positive potential between 0 and 1.
+     * @param negativePotential Negative potential between 0 and 1.
+     */
+    HandPotential(final double handStrength, final double positivePotential,
+            final double negativePotential) {
+        this.handStrength = handStrength;
+        this.positivePotential = positivePotential;
+        this.negativePotential = negativePotential;
+    }
+
+    /**
+     * Gets the hand strength on the current board.
+     * @return Probability between 0 and 1 that the hero is currently
+     * ahead, ties counting half.
+     */
+    public double getHandStrength() {
+        return handStrength;
+    }
+
+    /**
+     * Gets the positive potential.
+     * @return Probability between 0 and 1 that the hero is ahead on the
+     * river if currently behind. 0 if the hero is never behind.
+     */
+    public double getPositivePotential() {
+        return positivePotential;
+    }
+
+    /**
+     * Gets the negative potential.
+     * @return Probability between 0 and 1 that the hero is behind on the
+     * river if currently ahead. 0 if the hero is never ahead.
+     */
+    public double getNegativePotential() {
+        return negativePotential;
+    }
+
+    /**
+     * Gets the effective hand strength.
+     * This is the probability of being ahead now and staying ahead plus
+     * the probability of being behind now and getting ahead.
+     * @return Value between 0 and 1.
+     */
+    public double getEffectiveHandStrength() {
+        return handStrength * (1 - negativePotential)
+                + (1 - handStrength) * positivePotential;
+    }
+
+    @Override
+    public String toString() {
+        return "HandPotential{hs=" + handStrength + ", ppot="
+                + positivePotential + ", npot=" + negativePotential
+                + ", ehs=" + getEffectiveHandStrength() + "}";
+    }
+}
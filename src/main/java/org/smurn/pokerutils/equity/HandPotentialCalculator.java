@@ -0,0 +1,376 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.concurrent.SharedPool;
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Calculates the hand strength and hand potential of hole cards against an
+ * opponent range by full enumeration.
+ * <p>
+ * The opponent's hole cards and the missing board cards are all taken
+ * from the cards left in the deck. Instead of evaluating every opponent
+ * hole cards on every completion of the board, each set of the left cards
+ * that holds both is evaluated once: on the flop a set of 4 cards stands
+ * for the 6 ways to split it into opponent hole cards and turn and river.
+ * This needs about 180,000 evaluations on the flop and 15,000 on the turn
+ * instead of 1.2 million and 48,000. The sets are spread over a
+ * {@link ForkJoinPool}.
+ * </p>
+ */
+@ThreadSafe
+public final class HandPotentialCalculator {
+
+    /** Index of the hero being ahead. */
+    private static final int AHEAD = 0;
+    /** Index of a tie. */
+    private static final int TIED = 1;
+    /** Index of the hero being behind. */
+    private static final int BEHIND = 2;
+    /** Number of outcomes. */
+    private static final int OUTCOMES = 3;
+    /** Smallest board the potential can be calculated for. */
+    private static final int MIN_BOARD_CARDS = 3;
+    /** Largest number of cards in an enumerated set. */
+    private static final int MAX_SET = 4;
+    /** Locator used to rank the hands. */
+    private static final LookupLocator LOCATOR = new LookupLocator();
+    /** Pool running the enumeration. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an instance running on the {@link SharedPool}.
+     */
+    public HandPotentialCalculator() {
+        this(SharedPool.get());
+    }
+
+    /**
+     * Creates an instance.
+     * @param pool Pool to run the enumeration in. Must not be null.
+     */
+    public HandPotentialCalculator(final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates the hand strength and potential against all hole cards.
+     * @param holeCards Hole cards of the hero. Must not be null and contain
+     * 2 cards.
+     * @param board The board. Must not be null, contain 3 to 5 cards and
+     * none of the hole cards.
+     * @return Strength and potential of the hole cards. Never null.
+     */
+    public HandPotential calculate(final CardSet holeCards,
+            final CardSet board) {
+        return calculate(holeCards, board, HandRange.all());
+    }
+
+    /**
+     * Calculates the hand strength and potential against a range.
+     * @param holeCards Hole cards of the hero. Must not be null and contain
+     * 2 cards.
+     * @param board The board. Must not be null, contain 3 to 5 cards and
+     * none of the hole cards.
+     * @param opponent Range of the opponent. Must not be null. Hole cards
+     * sharing a card with the hero or the board are ignored.
+     * @return Strength and potential of the hole cards. Never null. On the
+     * river both potentials are 0.
+     * @throws IllegalArgumentException If the range has no hole cards that
+     * fit with the hero's and the board.
+     */
+    public HandPotential calculate(final CardSet holeCards,
+            final CardSet board, final HandRange opponent) {
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (opponent == null) {
+            throw new NullArgumentException("opponent");
+        }
+        if (holeCards.size() != Deck.HOLE_CARDS) {
+            throw new IllegalArgumentException("require 2 hole cards.");
+        }
+        if (board.size() < MIN_BOARD_CARDS
+                || board.size() > Deck.BOARD_CARDS) {
+            throw new IllegalArgumentException("require a board of 3 to 5 "
+                    + "cards.");
+        }
+        if ((holeCards.getMask() & board.getMask()) != 0) {
+            throw new IllegalArgumentException("hole cards and board share "
+                    + "a card.");
+        }
+        Position position = new Position(holeCards.getMask(),
+                board.getMask(), opponent);
+
+        double[] current = new double[OUTCOMES];
+        for (int index = 0; index < HandRange.COMBOS; index++) {
+            if (position.status[index] >= 0) {
+                current[position.status[index]] +=
+                        opponent.getWeight(index);
+            }
+        }
+        double total = current[AHEAD] + current[TIED] + current[BEHIND];
+        if (total <= 0) {
+            throw new IllegalArgumentException("the range has no hole cards "
+                    + "that fit with the hero's and the board.");
+        }
+        double strength = (current[AHEAD] + current[TIED] / 2) / total;
+
+        double[] counts = pool.invoke(new SetTask(position, 0,
+                position.deck.length - position.setSize + 1));
+        double ppot = potential(counts, BEHIND, AHEAD);
+        double npot = potential(counts, AHEAD, BEHIND);
+        return new HandPotential(strength, ppot, npot);
+    }
+
+    /**
+     * Calculates the probability that an outcome turns into the other one.
+     * @param counts Weight of each pair of current and final outcome,
+     * followed by the weight of each current outcome.
+     * @param from The current outcome.
+     * @param to The final outcome.
+     * @return Probability between 0 and 1, ties counting half. 0 if the
+     * outcome never happens.
+     */
+    private static double potential(final double[] counts, final int from,
+            final int to) {
+        double changed = counts[from * OUTCOMES + to]
+                + counts[from * OUTCOMES + TIED] / 2
+                + counts[TIED * OUTCOMES + to] / 2;
+        double possible = counts[OUTCOMES * OUTCOMES + from]
+                + counts[OUTCOMES * OUTCOMES + TIED] / 2;
+        return possible > 0 ? changed / possible : 0;
+    }
+
+    /**
+     * Compares two strengths.
+     * @param hero Strength of the hero.
+     * @param opponent Strength of the opponent.
+     * @return The outcome for the hero.
+     */
+    private static int compare(final int hero, final int opponent) {
+        if (hero > opponent) {
+            return AHEAD;
+        }
+        return hero == opponent ? TIED : BEHIND;
+    }
+
+    /**
+     * Everything known about the hero before enumerating. Only read after
+     * construction.
+     */
+    private static final class Position {
+
+        /** Mask of the board. */
+        final long board;
+        /** Ordinals of the cards left in the deck, ascending. */
+        final int[] deck;
+        /** Number of cards in each enumerated set. */
+        final int setSize;
+        /** Range of the opponent. */
+        final HandRange opponent;
+        /**
+         * Current outcome against each hole cards, -1 for those colliding
+         * with the hero or the board.
+         */
+        final int[] status;
+        /** Final strength of the hero by index of the board completion. */
+        final int[] heroFinal;
+
+        /**
+         * Evaluates the hero and the opponent's hole cards on the current
+         * board and the hero on each completion of the board.
+         * @param hero Mask of the hero's hole cards.
+         * @param board Mask of the board.
+         * @param opponent Range of the opponent.
+         */
+        Position(final long hero, final long board,
+                final HandRange opponent) {
+            this.board = board;
+            this.opponent = opponent;
+            long dead = hero | board;
+            deck = Deck.cardsNotIn(dead);
+            setSize = Deck.HOLE_CARDS + Deck.BOARD_CARDS
+                    - Long.bitCount(board);
+
+            int heroCurrent = LOCATOR.evaluate(dead);
+            status = new int[HandRange.COMBOS];
+            for (int index = 0; index < HandRange.COMBOS; index++) {
+                long mask = HandRange.getMask(index);
+                status[index] = (mask & dead) != 0 ? -1 : compare(
+                        heroCurrent, LOCATOR.evaluate(board | mask));
+            }
+
+            heroFinal = new int[HandRange.COMBOS];
+            switch (setSize - Deck.HOLE_CARDS) {
+                case 0:
+                    heroFinal[0] = heroCurrent;
+                    break;
+                case 1:
+                    for (int card : deck) {
+                        heroFinal[card] = LOCATOR.evaluate(dead | 1L << card);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < deck.length; i++) {
+                        for (int j = i + 1; j < deck.length; j++) {
+                            heroFinal[HandRange.getIndex(deck[i], deck[j])] =
+                                    LOCATOR.evaluate(dead | 1L << deck[i]
+                                    | 1L << deck[j]);
+                        }
+                    }
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Enumerates the sets of left cards starting at a range of deck
+     * positions, splitting the range until it is a single position.
+     */
+    private static final class SetTask extends RecursiveTask<double[]> {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The hero's position. */
+        private final Position position;
+        /** Deck position of the first card of the first sets. */
+        private final int from;
+        /** Deck position after the first card of the last sets. */
+        private final int to;
+
+        /**
+         * Creates an instance.
+         * @param position The hero's position.
+         * @param from Deck position of the first card of the first sets.
+         * @param to Deck position after the first card of the last sets.
+         */
+        SetTask(final Position position, final int from, final int to) {
+            this.position = position;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SetTask right = new SetTask(position, middle, to);
+                right.fork();
+                double[] counts = new SetTask(position, from, middle)
+                        .compute();
+                double[] rightCounts = right.join();
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += rightCounts[i];
+                }
+                return counts;
+            }
+
+            // weight per current and final outcome, then per current one.
+            double[] counts = new double[OUTCOMES * OUTCOMES + OUTCOMES];
+            int[] deck = position.deck;
+            int size = position.setSize;
+            int[] positions = new int[size];
+            int[] cards = new int[size];
+            int[] pairs = new int[MAX_SET * MAX_SET];
+            for (int i = 0; i < size; i++) {
+                positions[i] = from + i;
+            }
+            // all sets whose first card is at deck position from.
+            while (positions[0] == from) {
+                long set = 0;
+                for (int i = 0; i < size; i++) {
+                    cards[i] = deck[positions[i]];
+                    set |= 1L << cards[i];
+                }
+                accumulate(cards, set, pairs, counts);
+
+                int i = size - 1;
+                while (i > 0 && positions[i] == deck.length - size + i) {
+                    i--;
+                }
+                positions[i]++;
+                for (int j = i + 1; j < size; j++) {
+                    positions[j] = positions[j - 1] + 1;
+                }
+            }
+            return counts;
+        }
+
+        /**
+         * Adds the outcomes of all ways to split a set into opponent hole
+         * cards and board completion.
+         * @param cards Ordinals of the cards in the set, ascending.
+         * @param set Mask of the cards in the set.
+         * @param pairs Scratch space receiving the index of the hole cards
+         * made of the cards at positions {@code i < j} at
+         * {@code i * MAX_SET + j}.
+         * @param counts Weight per current and final outcome, then per
+         * current outcome.
+         */
+        private void accumulate(final int[] cards, final long set,
+                final int[] pairs, final double[] counts) {
+            int size = cards.length;
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    pairs[i * MAX_SET + j] =
+                            HandRange.getIndex(cards[i], cards[j]);
+                }
+            }
+            int strength = -1;
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    int index = pairs[i * MAX_SET + j];
+                    double weight = position.opponent.getWeight(index);
+                    if (weight <= 0) {
+                        continue;
+                    }
+                    if (strength < 0) {
+                        strength = LOCATOR.evaluate(position.board | set);
+                    }
+                    // index of the cards left for the board, as used by
+                    // Position#heroFinal.
+                    int runout;
+                    if (size == Deck.HOLE_CARDS) {
+                        runout = 0;
+                    } else if (size == Deck.HOLE_CARDS + 1) {
+                        runout = cards[size * (size - 1) / 2 - i - j];
+                    } else {
+                        int first = i == 0 ? (j == 1 ? 2 : 1) : 0;
+                        int second = size * (size - 1) / 2 - i - j - first;
+                        runout = pairs[first * MAX_SET + second];
+                    }
+                    int current = position.status[index];
+                    int last = compare(position.heroFinal[runout], strength);
+                    counts[current * OUTCOMES + last] += weight;
+                    counts[OUTCOMES * OUTCOMES + current] += weight;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.Rank;
+
+/**
+ * Weighted set of hole cards a player may hold.
+ * <p>
+ * Each of the 1326 possible hole cards has a weight between 0 and 1, the
+ * relative likelihood that the player holds them. Ranges are usually
+ * parsed from the common notation, a comma separated list of:
+ * </p>
+ * <ul>
+ * <li>classes as parsed by {@link HoleCardClass#parse(CharSequence)}, for
+ * example "AKs", "AKo" or "TT", and "AK" for both suited and off-suit,</li>
+ * <li>a class followed by '+': "TT+" are all pairs from tens up, "ATs+"
+ * are ATs, AJs, AQs and AKs,</li>
+ * <li>two classes joined by '-': "TT-77" are the pairs from sevens to
+ * tens, "A5s-A2s" the suited aces with a kicker from two to five and
+ * "76s-54s" the suited connectors 76s, 65s and 54s,</li>
+ * <li>specific hole cards such as "AsKd".</li>
+ * </ul>
+ * <p>
+ * Each entry may end with ':' and a weight, "AKo:0.5" for example.
+ * Entries without a weight have weight 1. Later entries override the
+ * weights of earlier ones.
+ * </p>
+ */
+@Immutable
+public final class HandRange {
+
+    /** Number of different hole cards. */
+    public static final int COMBOS = 52 * 51 / 2;
+    /** Number of ranks. */
+    private static final int RANKS = 13;
+    /** Card mask of each hole cards index. */
+    private static final long[] COMBO_MASKS = new long[COMBOS];
+
+    static {
+        for (int second = 1; second < 52; second++) {
+            for (int first = 0; first < second; first++) {
+                COMBO_MASKS[getIndex(first, second)] =
+                        1L << first | 1L << second;
+            }
+        }
+    }
+
+    /** Weight per hole cards index. */
+    private final double[] weights;
+
+    /**
+     * Creates an instance.
+     * @param weights Weight per hole cards index. Is not copied.
+     */
+    private HandRange(final double[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Creates the range of all hole cards, each with weight 1.
+     * @return The range. Never null.
+     */
+    public static HandRange all() {
+        double[] weights = new double[COMBOS];
+        Arrays.fill(weights, 1.0);
+        return new HandRange(weights);
+    }
+
+    /**
+     * Creates a range of hole cards with weight 1.
+     * @param holeCards The hole cards. Must not be null and contain sets
+     * of 2 cards each.
+     * @return The range. Never null.
+     */
+    public static HandRange of(final CardSet... holeCards) {
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        double[] weights = new double[COMBOS];
+        for (CardSet cards : holeCards) {
+            weights[getIndex(cards)] = 1.0;
+        }
+        return new HandRange(weights);
+    }
+
+    /**
+     * Parses a range.
+     * @param notation Comma separated entries as described in the class
+     * documentation. Must not be null.
+     * @return The range. Never null.
+     * @throws IllegalArgumentException If the notation is invalid.
+     */
+    public static HandRange parse(final String notation) {
+        if (notation == null) {
+            throw new NullArgumentException("notation");
+        }
+        double[] weights = new double[COMBOS];
+        for (String entry : notation.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                if (notation.trim().isEmpty()) {
+                    continue;
+                }
+                throw new IllegalArgumentException("empty entry in range '"
+                        + notation + "'.");
+            }
+            double weight = 1.0;
+            int colon = trimmed.indexOf(':');
+            if (colon >= 0) {
+                weight = parseWeight(trimmed.substring(colon + 1).trim());
+                trimmed = trimmed.substring(0, colon).trim();
+            }
+            for (CardSet cards : parseEntry(trimmed)) {
+                weights[getIndex(cards)] = weight;
+            }
+        }
+        return new HandRange(weights);
+    }
+
+    /**
+     * Gets the weight of hole cards.
+     * @param holeCards The hole cards. Must not be null and contain 2
+     * cards.
+     * @return Weight between 0 and 1, 0 if the cards are not in the range.
+     */
+    public double getWeight(final CardSet holeCards) {
+        return weights[getIndex(holeCards)];
+    }
+
+    /**
+     * Gets the number of hole cards with a positive weight.
+     * @return Number of hole cards in the range.
+     */
+    public int size() {
+        int size = 0;
+        for (double weight : weights) {
+            if (weight > 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Gets the hole cards with a positive weight.
+     * @return Immutable list of the hole cards. Never null.
+     */
+    public List<CardSet> getCombos() {
+        List<CardSet> combos = new ArrayList<CardSet>();
+        for (int index = 0; index < COMBOS; index++) {
+            if (weights[index] > 0) {
+                combos.add(CardSet.fromMask(COMBO_MASKS[index]));
+            }
+        }
+        return Collections.unmodifiableList(combos);
+    }
+
+    /**
+     * Removes all hole cards containing one of the given cards.
+     * @param cards Cards known to be elsewhere, for example the board. Must
+     * not be null.
+     * @return This range without the blocked hole cards. Never null.
+     */
+    public HandRange without(final CardSet cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        double[] result = weights.clone();
+        for (int index = 0; index < COMBOS; index++) {
+            if ((COMBO_MASKS[index] & cards.getMask()) != 0) {
+                result[index] = 0;
+            }
+        }
+        return new HandRange(result);
+    }
+
+    /**
+     * Gets the weight of hole cards by index.
+     * @param index Index of the hole cards.
+     * @return Weight between 0 and 1.
+     */
+    double getWeight(final int index) {
+        return weights[index];
+    }
+
+    /**
+     * Gets the index of hole cards.
+     * @param first Ordinal of one card.
+     * @param second Ordinal of the other card, larger than {@code first}.
+     * @return Index between 0 and 1325.
+     */
+    static int getIndex(final int first, final int second) {
+        return second * (second - 1) / 2 + first;
+    }
+
+    /**
+     * Gets the index of hole cards.
+     * @param holeCards The hole cards. Must not be null and contain 2
+     * cards.
+     * @return Index between 0 and 1325.
+     */
+    static int getIndex(final CardSet holeCards) {
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        if (holeCards.size() != 2) {
+            throw new IllegalArgumentException("require 2 hole cards.");
+        }
+        long mask = holeCards.getMask();
+        int first = Long.numberOfTrailingZeros(mask);
+        int second = 63 - Long.numberOfLeadingZeros(mask);
+        return getIndex(first, second);
+    }
+
+    /**
+     * Gets the card mask of hole cards.
+     * @param index Index of the hole cards.
+     * @return Mask of the two cards.
+     */
+    static long getMask(final int index) {
+        return COMBO_MASKS[index];
+    }
+
+    /**
+     * Parses a weight.
+     * @param text The weight.
+     * @return The weight between 0 and 1.
+     */
+    private static double parseWeight(final String text) {
+        double weight;
+        try {
+            weight = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid weight '" + text
+                    + "'.", e);
+        }
+        if (!(weight >= 0 && weight <= 1)) {
+            throw new IllegalArgumentException("weight " + text
+                    + " is not between 0 and 1.");
+        }
+        return weight;
+    }
+
+    /**
+     * Parses a single entry without weight.
+     * @param entry The entry.
+     * @return The hole cards of the entry.
+     */
+    private static List<CardSet> parseEntry(final String entry) {
+        List<CardSet> result = new ArrayList<CardSet>();
+        if (entry.length() == 4 && Character.isLetter(entry.charAt(1))
+                && Character.isLetter(entry.charAt(3))) {
+            Card first = Card.parseCard(entry.substring(0, 2));
+            Card second = Card.parseCard(entry.substring(2, 4));
+            if (first == second) {
+                throw new IllegalArgumentException("invalid hole cards '"
+                        + entry + "'.");
+            }
+            result.add(CardSet.of(first, second));
+            return result;
+        }
+
+        int dash = entry.indexOf('-');
+        if (dash >= 0) {
+            Pattern top = Pattern.parse(entry.substring(0, dash).trim());
+            Pattern bottom = Pattern.parse(entry.substring(dash + 1).trim());
+            if (top.kind != bottom.kind
+                    || (top.high == top.low) != (bottom.high == bottom.low)) {
+                throw new IllegalArgumentException("both ends of '" + entry
+                        + "' must be of the same kind.");
+            }
+            if (top.high < bottom.high
+                    || (top.high == bottom.high && top.low < bottom.low)) {
+                return parseEntry(entry.substring(dash + 1).trim() + "-"
+                        + entry.substring(0, dash).trim());
+            }
+            int highStep = top.high - bottom.high;
+            int lowStep = top.low - bottom.low;
+            if (highStep != 0 && highStep != lowStep) {
+                throw new IllegalArgumentException("the ranks of '" + entry
+                        + "' must change in step.");
+            }
+            for (int i = 0; i <= lowStep; i++) {
+                int high = highStep == 0 ? top.high : top.high - i;
+                top.add(high, top.low - i, result);
+            }
+            return result;
+        }
+
+        if (entry.endsWith("+")) {
+            Pattern pattern = Pattern.parse(
+                    entry.substring(0, entry.length() - 1));
+            if (pattern.high == pattern.low) {
+                for (int rank = pattern.low; rank < RANKS; rank++) {
+                    pattern.add(rank, rank, result);
+                }
+            } else {
+                for (int rank = pattern.low; rank < pattern.high; rank++) {
+                    pattern.add(pattern.high, rank, result);
+                }
+            }
+            return result;
+        }
+
+        Pattern pattern = Pattern.parse(entry);
+        pattern.add(pattern.high, pattern.low, result);
+        return result;
+    }
+
+    /**
+     * Two ranks with a suit requirement, such as "AK", "AKs" or "TT".
+     */
+    private static final class Pattern {
+
+        /** Both suited and off-suit hole cards. */
+        static final char ANY = ' ';
+        /** Higher rank ordinal. */
+        private final int high;
+        /** Lower rank ordinal, equal to the higher for pairs. */
+        private final int low;
+        /** 's', 'o' or {@link #ANY}. */
+        private final char kind;
+
+        /**
+         * Creates an instance.
+         * @param high Higher rank ordinal.
+         * @param low Lower rank ordinal.
+         * @param kind 's', 'o' or {@link #ANY}.
+         */
+        Pattern(final int high, final int low, final char kind) {
+            this.high = high;
+            this.low = low;
+            this.kind = kind;
+        }
+
+        /**
+         * Parses a pattern.
+         * @param text Two ranks, optionally followed by 's' or 'o'.
+         * @return The pattern.
+         */
+        static Pattern parse(final String text) {
+            if (text.length() == 2 && text.charAt(0) != text.charAt(1)) {
+                int a = Rank.parse(text.charAt(0)).ordinal();
+                int b = Rank.parse(text.charAt(1)).ordinal();
+                return new Pattern(Math.max(a, b), Math.min(a, b), ANY);
+            }
+            HoleCardClass holeCardClass = HoleCardClass.parse(text);
+            return new Pattern(holeCardClass.getHighRank().ordinal(),
+                    holeCardClass.getLowRank().ordinal(),
+                    holeCardClass.isPair() ? ANY
+                    : holeCardClass.isSuited() ? 's' : 'o');
+        }
+
+        /**
+         * Adds the hole cards matching this pattern's suit requirement.
+         * @param highRank Higher rank ordinal.
+         * @param lowRank Lower rank ordinal.
+         * @param result Receives the hole cards.
+         */
+        void add(final int highRank, final int lowRank,
+                final List<CardSet> result) {
+            // uses the class index layout of a starting hand chart.
+            if (highRank == lowRank) {
+                result.addAll(HoleCardClass.get(highRank * RANKS + highRank)
+                        .getCombos());
+                return;
+            }
+            if (kind != 'o') {
+                result.addAll(HoleCardClass.get(highRank * RANKS + lowRank)
+                        .getCombos());
+            }
+            if (kind != 's') {
+                result.addAll(HoleCardClass.get(lowRank * RANKS + highRank)
+                        .getCombos());
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.Rank;
+import org.smurn.pokerutils.Suit;
+
+/**
+ * One of the 169 classes of hold'em hole cards that are equivalent before
+ * the flop, such as "AKs", "AKo" or "TT".
+ * <p>
+ * The classes are numbered the way a 13 by 13 starting hand chart is laid
+ * out: suited hands have the index {@code high * 13 + low}, off-suit hands
+ * {@code low * 13 + high} and pairs {@code rank * 13 + rank}, where the
+ * ranks are the rank values.
+ * </p>
+ */
+@Immutable
+public final class HoleCardClass {
+
+    /** Number of ranks. */
+    private static final int RANKS = 13;
+    /** Number of classes. */
+    public static final int COUNT = RANKS * RANKS;
+    /** All classes by index. */
+    private static final HoleCardClass[] CLASSES = new HoleCardClass[COUNT];
+
+    static {
+        for (int index = 0; index < COUNT; index++) {
+            CLASSES[index] = new HoleCardClass(index);
+        }
+    }
+
+    /** Index of this class. */
+    private final int index;
+    /** Higher rank. */
+    private final Rank high;
+    /** Lower rank, same as the higher one for pairs. */
+    private final Rank low;
+    /** True if both cards have the same suit. */
+    private final boolean suited;
+    /** All hole cards of this class. */
+    private final List<CardSet> combos;
+
+    /**
+     * Creates an instance.
+     * @param index Index of the class.
+     */
+    private HoleCardClass(final int index) {
+        this.index = index;
+        int row = index / RANKS;
+        int column = index % RANKS;
+        this.suited = row > column;
+        this.high = Rank.values()[Math.max(row, column)];
+        this.low = Rank.values()[Math.min(row, column)];
+
+        List<CardSet> combosTmp = new ArrayList<CardSet>();
+        for (Suit first : Suit.values()) {
+            for (Suit second : Suit.values()) {
+                boolean matches = suited ? first == second : first != second;
+                if (matches && (high != low
+                        || first.ordinal() < second.ordinal())) {
+                    combosTmp.add(CardSet.of(Card.getCard(first, high),
+                            Card.getCard(second, low)));
+                }
+            }
+        }
+        this.combos = Collections.unmodifiableList(combosTmp);
+    }
+
+    /**
+     * Gets the class with the given index.
+     * @param index Index between 0 and 168.
+     * @return The class. Never null.
+     */
+    public static HoleCardClass get(final int index) {
+        if (index < 0 || index >= COUNT) {
+            throw new IllegalArgumentException("no hole card class with "
+                    + "index " + index + ".");
+        }
+        return CLASSES[index];
+    }
+
+    /**
+     * Gets the class of two hole cards.
+     * @param first First hole card. Must not be null.
+     * @param second Second hole card. Must not be null and not the same
+     * as the first.
+     * @return The class. Never null.
+     */
+    public static HoleCardClass of(final Card first, final Card second) {
+        if (first == null) {
+            throw new NullArgumentException("first");
+        }
+        if (second == null) {
+            throw new NullArgumentException("second");
+        }
+        if (first == second) {
+            throw new IllegalArgumentException("hole cards must differ.");
+        }
+        int a = first.getRank().ordinal();
+        int b = second.getRank().ordinal();
+        int high = Math.max(a, b);
+        int low = Math.min(a, b);
+        if (first.getSuit() == second.getSuit()) {
+            return CLASSES[high * RANKS + low];
+        }
+        return CLASSES[low * RANKS + high];
+    }
+
+    /**
+     * Gets the class of two hole cards.
+     * @param holeCards The two hole cards. Must not be null.
+     * @return The class. Never null.
+     */
+    public static HoleCardClass of(final CardSet holeCards) {
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        if (holeCards.size() != 2) {
+            throw new IllegalArgumentException("require 2 hole cards.");
+        }
+        long mask = holeCards.getMask();
+        Card first = Card.getCard(Long.numberOfTrailingZeros(mask));
+        Card second = Card.getCard(Long.numberOfTrailingZeros(
+                mask & (mask - 1)));
+        return of(first, second);
+    }
+
+    /**
+     * Parses a class in the usual notation.
+     * @param notation Two rank characters, followed by 's' for suited or
+     * 'o' for off-suit hands. Pairs have no suffix. For example "AKs", "72o"
+     * or "TT". Must not be null.
+     * @return The class. Never null.
+     * @throws IllegalArgumentException If the format is wrong.
+     */
+    public static HoleCardClass parse(final CharSequence notation) {
+        if (notation == null) {
+            throw new NullArgumentException("notation");
+        }
+        if (notation.length() < 2 || notation.length() > 3) {
+            throw new IllegalArgumentException("invalid hole card class '"
+                    + notation + "'.");
+        }
+        int a = Rank.parse(notation.charAt(0)).ordinal();
+        int b = Rank.parse(notation.charAt(1)).ordinal();
+        int high = Math.max(a, b);
+        int low = Math.min(a, b);
+        if (notation.length() == 2) {
+            if (a != b) {
+                throw new IllegalArgumentException("'" + notation + "' needs "
+                        + "an 's' or 'o' suffix.");
+            }
+            return CLASSES[a * RANKS + a];
+        }
+        char suffix = Character.toLowerCase(notation.charAt(2));
+        if (a == b || (suffix != 's' && suffix != 'o')) {
+            throw new IllegalArgumentException("invalid hole card class '"
+                    + notation + "'.");
+        }
+        if (suffix == 's') {
+            return CLASSES[high * RANKS + low];
+        }
+        return CLASSES[low * RANKS + high];
+    }
+
+    /**
+     * Gets the index of this class.
+     * @return Index between 0 and 168.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the higher rank of this class.
+     * @return The higher rank. Never null.
+     */
+    public Rank getHighRank() {
+        return high;
+    }
+
+    /**
+     * Gets the lower rank of this class.
+     * @return The lower rank, equal to the higher one for pairs. Never null.
+     */
+    public Rank getLowRank() {
+        return low;
+    }
+
+    /**
+     * Checks if this is a pair.
+     * @return {@code true} for pairs.
+     */
+    public boolean isPair() {
+        return high == low;
+    }
+
+    /**
+     * Checks if both cards have the same suit.
+     * @return {@code true} for suited hands.
+     */
+    public boolean isSuited() {
+        return suited;
+    }
+
+    /**
+     * Gets all hole cards of this class.
+     * @return Immutable list of 6 (pairs), 4 (suited) or 12 (off-suit)
+     * hole cards. Never null.
+     */
+    public List<CardSet> getCombos() {
+        return combos;
+    }
+
+    @Override
+    public String toString() {
+        String ranks = "23456789TJQKA";
+        StringBuilder builder = new StringBuilder(3);
+        builder.append(ranks.charAt(high.ordinal()));
+        builder.append(ranks.charAt(low.ordinal()));
+        if (!isPair()) {
+            builder.append(suited ? 's' : 'o');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.List;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+
+/**
+ * Validated input of an equity calculation, stored as card masks.
+ */
+final class Matchup {
+
+    /** Minimal number of players. */
+    static final int MIN_PLAYERS = 2;
+    /** Maximal number of players. */
+    static final int MAX_PLAYERS = 10;
+    /** Hole card mask per player. */
+    private final long[] holeCards;
+    /** Mask of the known board cards. */
+    private final long board;
+    /** Ordinals of the cards that may still be dealt to the board. */
+    private final int[] deck;
+
+    /**
+     * Creates an instance.
+     * @param holeCards Hole cards per player. Must not be null, 2 to 10
+     * players with 2 cards each.
+     * @param board Known board cards. Must not be null, at most 5 cards.
+     * @param dead Cards that cannot be dealt. Must not be null.
+     */
+    Matchup(final List<CardSet> holeCards, final CardSet board,
+            final CardSet dead) {
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (dead == null) {
+            throw new NullArgumentException("dead");
+        }
+        if (holeCards.size() < MIN_PLAYERS
+                || holeCards.size() > MAX_PLAYERS) {
+            throw new IllegalArgumentException("require 2 to 10 players, "
+                    + "got " + holeCards.size() + ".");
+        }
+        if (board.size() > Deck.BOARD_CARDS) {
+            throw new IllegalArgumentException("board has more than 5 "
+                    + "cards.");
+        }
+
+        this.holeCards = new long[holeCards.size()];
+        long used = board.getMask();
+        for (int player = 0; player < this.holeCards.length; player++) {
+            CardSet hole = holeCards.get(player);
+            if (hole == null) {
+                throw new NullArgumentException("holeCards[" + player + "]");
+            }
+            if (hole.size() != Deck.HOLE_CARDS) {
+                throw new IllegalArgumentException("player " + player
+                        + " must have 2 hole cards.");
+            }
+            if ((used & hole.getMask()) != 0) {
+                throw new IllegalArgumentException("hole cards of player "
+                        + player + " are used more than once.");
+            }
+            used |= hole.getMask();
+            this.holeCards[player] = hole.getMask();
+        }
+        if (dead.intersects(CardSet.fromMask(used))) {
+            throw new IllegalArgumentException("dead cards are in use.");
+        }
+        used |= dead.getMask();
+
+        this.board = board.getMask();
+        CardSet remaining = CardSet.fromMask(used).complement();
+        if (remaining.size() < getMissingCards()) {
+            throw new IllegalArgumentException("not enough cards left to "
+                    + "complete the board.");
+        }
+        this.deck = new int[remaining.size()];
+        int i = 0;
+        for (long rest = remaining.getMask(); rest != 0; rest &= rest - 1) {
+            deck[i++] = Long.numberOfTrailingZeros(rest);
+        }
+    }
+
+    /**
+     * Gets the number of players.
+     * @return Number of players.
+     */
+    int getPlayerCount() {
+        return holeCards.length;
+    }
+
+    /**
+     * Gets the hole cards of a player.
+     * @param player Index of the player.
+     * @return Card mask of the hole cards.
+     */
+    long getHoleCards(final int player) {
+        return holeCards[player];
+    }
+
+    /**
+     * Gets the known board cards.
+     * @return Card mask of the board.
+     */
+    long getBoard() {
+        return board;
+    }
+
+    /**
+     * Gets the number of board cards still to be dealt.
+     * @return Number of missing board cards.
+     */
+    int getMissingCards() {
+        return Deck.BOARD_CARDS - Long.bitCount(board);
+    }
+
+    /**
+     * Gets the cards that may still be dealt to the board.
+     * @return New array with the card ordinals, ascending.
+     */
+    int[] copyDeck() {
+        return deck.clone();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.concurrent.SharedPool;
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Estimates equities by dealing random boards.
+ * <p>
+ * The trials are split into blocks of fixed size. Each block draws from
+ * its own random stream derived from the seed and the block number, and
+ * the blocks are spread over a {@link ForkJoinPool}. The outcome is
+ * therefore the same for a given seed, no matter how many threads run
+ * the blocks or in which order.
+ * </p>
+ */
+@ThreadSafe
+public final class MonteCarloEquityCalculator {
+
+    /** Number of trials per block. */
+    private static final int BLOCK_SIZE = 1 << 14;
+    /** Pool running the blocks. */
+    private final ForkJoinPool pool;
+    /** Locator used to rank the hands. */
+    private final LookupLocator locator = new LookupLocator();
+
+    /**
+     * Creates an instance running on the {@link SharedPool}.
+     */
+    public MonteCarloEquityCalculator() {
+        this(SharedPool.get());
+    }
+
+    /**
+     * Creates an instance.
+     * @param pool Pool to run the trials in. Must not be null.
+     */
+    public MonteCarloEquityCalculator(final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Estimates the equities of the players.
+     * @param holeCards Hole cards per player. Must not be null, 2 to 10
+     * players with 2 cards each.
+     * @param board Known board cards. Must not be null, at most 5 cards.
+     * @param dead Cards that cannot be dealt to the board, for example
+     * folded hole cards. Must not be null.
+     * @param trials Number of boards to deal. Must be positive.
+     * @param seed Seed of the random boards.
+     * @return Equities of the players. Never null.
+     */
+    public Equity calculate(final List<CardSet> holeCards,
+            final CardSet board, final CardSet dead, final long trials,
+            final long seed) {
+        if (trials <= 0) {
+            throw new IllegalArgumentException("trials must be positive.");
+        }
+        Matchup matchup = new Matchup(holeCards, board, dead);
+        long blocks = (trials + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        EquityCounter counter = pool.invoke(
+                new BlockTask(matchup, trials, seed, 0, blocks));
+        return counter.toEquity();
+    }
+
+    /**
+     * Runs a range of blocks, splitting it until single blocks remain.
+     */
+    private final class BlockTask extends RecursiveTask<EquityCounter> {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The matchup being evaluated. */
+        private final Matchup matchup;
+        /** Total number of trials of the calculation. */
+        private final long trials;
+        /** Seed of the calculation. */
+        private final long seed;
+        /** First block of this task. */
+        private final long from;
+        /** Block after the last block of this task. */
+        private final long to;
+
+        /**
+         * Creates an instance.
+         * @param matchup The matchup being evaluated.
+         * @param trials Total number of trials of the calculation.
+         * @param seed Seed of the calculation.
+         * @param from First block of this task.
+         * @param to Block after the last block of this task.
+         */
+        BlockTask(final Matchup matchup, final long trials, final long seed,
+                final long from, final long to) {
+            this.matchup = matchup;
+            this.trials = trials;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected EquityCounter compute() {
+            if (to - from > 1) {
+                long middle = (from + to) >>> 1;
+                BlockTask right = new BlockTask(matchup, trials, seed,
+                        middle, to);
+                right.fork();
+                EquityCounter counter = new BlockTask(matchup, trials, seed,
+                        from, middle).compute();
+                counter.add(right.join());
+                return counter;
+            }
+
+            EquityCounter counter = new EquityCounter(locator, matchup);
+            SplitMixRandom random = new SplitMixRandom(seed, from);
+            int[] deck = matchup.copyDeck();
+            int missing = matchup.getMissingCards();
+            long count = Math.min(BLOCK_SIZE, trials - from * BLOCK_SIZE);
+            for (long trial = 0; trial < count; trial++) {
+                // partial Fisher-Yates shuffle of the first missing cards.
+                long board = matchup.getBoard();
+                for (int i = 0; i < missing; i++) {
+                    int j = i + random.nextInt(deck.length - i);
+                    int card = deck[j];
+                    deck[j] = deck[i];
+                    deck[i] = card;
+                    board |= 1L << card;
+                }
+                counter.count(board, 1);
+            }
+            return counter;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+
+/**
+ * Precomputed preflop equities of hole card classes against each other.
+ * <p>
+ * The table is a file written by {@link PreflopEquityTableGenerator}. It is
+ * memory-mapped, so loading it costs nothing up front and lookups read the
+ * equity straight from the page cache. The file starts with four
+ * big-endian ints: the magic number, the format version, the number of
+ * players and the number of classes. Then follows one float per
+ * combination of classes, the equity of the first player, with the class
+ * index of the first player varying slowest. The generator currently only
+ * writes heads-up tables. The whole table has to fit into one mapped
+ * buffer, which limits it to {@link #MAX_PLAYERS} players.
+ * </p>
+ */
+@ThreadSafe
+public final class PreflopEquityTable {
+
+    /** Magic number at the start of each table. */
+    static final int MAGIC = 0x50455154;
+    /** Version of the file format. */
+    static final int VERSION = 1;
+    /**
+     * Maximum number of players per matchup. Four players would already
+     * need 169^4 entries, more than one mapped buffer can address.
+     */
+    public static final int MAX_PLAYERS = 3;
+    /** Size of the header in bytes. */
+    private static final int HEADER_SIZE = 16;
+    /** Size of an entry in bytes. */
+    private static final int ENTRY_SIZE = 4;
+    /** The table including the header. Only absolute reads are used. */
+    private final ByteBuffer buffer;
+    /** Number of players per matchup. */
+    private final int players;
+
+    /**
+     * Creates an instance.
+     * @param buffer The table including the header.
+     * @throws IOException If the buffer does not contain a valid table,
+     * including tables for more than {@link #MAX_PLAYERS} players.
+     */
+    PreflopEquityTable(final ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE
+                || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a preflop equity table.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported table version "
+                    + buffer.getInt(4) + ".");
+        }
+        int playersTmp = buffer.getInt(8);
+        if (playersTmp < Matchup.MIN_PLAYERS
+                || playersTmp > MAX_PLAYERS
+                || buffer.getInt(12) != HoleCardClass.COUNT) {
+            throw new IOException("invalid table header.");
+        }
+        long entries = 1;
+        for (int i = 0; i < playersTmp; i++) {
+            entries *= HoleCardClass.COUNT;
+        }
+        if (buffer.capacity() != HEADER_SIZE + entries * ENTRY_SIZE) {
+            throw new IOException("table has the wrong size.");
+        }
+        this.buffer = buffer;
+        this.players = playersTmp;
+    }
+
+    /**
+     * Memory-maps a table file.
+     * @param file The file. Must not be null.
+     * @return The table. Never null.
+     * @throws IOException If the file cannot be read or is not a valid
+     * table, including tables for more than {@link #MAX_PLAYERS} players.
+     */
+    public static PreflopEquityTable load(final File file)
+            throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            // the mapping stays valid after the channel is closed.
+            return new PreflopEquityTable(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Gets the number of players per matchup.
+     * @return Number of players, 2 for heads-up tables.
+     */
+    public int getPlayerCount() {
+        return players;
+    }
+
+    /**
+     * Gets the equity of one class against another in a heads-up table.
+     * @param hero Class of the player whose equity is returned. Must not be
+     * null.
+     * @param villain Class of the opponent. Must not be null.
+     * @return Equity of the hero between 0 and 1.
+     */
+    public double getEquity(final HoleCardClass hero,
+            final HoleCardClass villain) {
+        if (hero == null) {
+            throw new NullArgumentException("hero");
+        }
+        if (villain == null) {
+            throw new NullArgumentException("villain");
+        }
+        if (players != 2) {
+            throw new IllegalArgumentException("table is for " + players
+                    + " players.");
+        }
+        int index = hero.getIndex() * HoleCardClass.COUNT
+                + villain.getIndex();
+        return buffer.getFloat(HEADER_SIZE + index * ENTRY_SIZE);
+    }
+
+    /**
+     * Gets the equity of the class of one pair of hole cards against the
+     * class of another in a heads-up table.
+     * The result is the average over the classes, the actual suits of the
+     * given cards are ignored.
+     * @param hero Hole cards of the player whose equity is returned. Must
+     * not be null and contain 2 cards.
+     * @param villain Hole cards of the opponent. Must not be null and
+     * contain 2 cards.
+     * @return Equity of the hero between 0 and 1.
+     */
+    public double getEquity(final CardSet hero, final CardSet villain) {
+        return getEquity(HoleCardClass.of(hero), HoleCardClass.of(villain));
+    }
+
+    /**
+     * Gets the equity of the first class in a matchup.
+     * @param classes Class of each player. Must not be null and have as
+     * many entries as the table has players.
+     * @return Equity of the first player between 0 and 1.
+     */
+    public double getEquity(final HoleCardClass... classes) {
+        if (classes == null) {
+            throw new NullArgumentException("classes");
+        }
+        if (classes.length != players) {
+            throw new IllegalArgumentException("table is for " + players
+                    + " players.");
+        }
+        long index = 0;
+        for (HoleCardClass holeCardClass : classes) {
+            if (holeCardClass == null) {
+                throw new NullArgumentException("classes");
+            }
+            index = index * HoleCardClass.COUNT + holeCardClass.getIndex();
+        }
+        return buffer.getFloat((int) (HEADER_SIZE + index * ENTRY_SIZE));
+    }
+}
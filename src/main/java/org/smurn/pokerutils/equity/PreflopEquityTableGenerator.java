@@ -0,0 +1,243 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+
+/**
+ * Calculates the heads-up equities of all pairs of hole card classes and
+ * writes them in the format read by {@link PreflopEquityTable}.
+ * <p>
+ * The equity of one class against another is the average over all
+ * combinations of hole cards of both classes that do not share a card.
+ * Combinations that only differ by a permutation of the suits have the
+ * same equity and are calculated once. With exhaustive enumeration the
+ * full table takes in the order of an hour on a single core, so it is
+ * meant to be generated once with {@link #main(String[])} and shipped as
+ * a file. Estimating each matchup with a few Monte Carlo trials is much
+ * faster and good enough for tests.
+ * </p>
+ */
+public final class PreflopEquityTableGenerator {
+
+    /** Calculator used if the equities are enumerated, otherwise null. */
+    private final ExhaustiveEquityCalculator exhaustive;
+    /** Calculator used if the equities are estimated, otherwise null. */
+    private final MonteCarloEquityCalculator monteCarlo;
+    /** Trials per matchup if the equities are estimated. */
+    private final long trials;
+    /** Seed of the Monte Carlo trials. */
+    private final long seed;
+
+    /**
+     * Creates a generator calculating exact equities.
+     * @param calculator Calculator enumerating the boards. Must not be
+     * null.
+     */
+    public PreflopEquityTableGenerator(
+            final ExhaustiveEquityCalculator calculator) {
+        if (calculator == null) {
+            throw new NullArgumentException("calculator");
+        }
+        this.exhaustive = calculator;
+        this.monteCarlo = null;
+        this.trials = 0;
+        this.seed = 0;
+    }
+
+    /**
+     * Creates a generator estimating the equities.
+     * @param calculator Calculator dealing random boards. Must not be null.
+     * @param trials Number of boards to deal per combination of hole cards.
+     * Must be positive.
+     * @param seed Seed of the random boards.
+     */
+    public PreflopEquityTableGenerator(
+            final MonteCarloEquityCalculator calculator, final long trials,
+            final long seed) {
+        if (calculator == null) {
+            throw new NullArgumentException("calculator");
+        }
+        if (trials <= 0) {
+            throw new IllegalArgumentException("trials must be positive.");
+        }
+        this.exhaustive = null;
+        this.monteCarlo = calculator;
+        this.trials = trials;
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the exact table.
+     * @param args The name of the file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: PreflopEquityTableGenerator <file>");
+            System.exit(1);
+        }
+        new PreflopEquityTableGenerator(new ExhaustiveEquityCalculator())
+                .write(new File(args[0]));
+    }
+
+    /**
+     * Calculates the equity of one class against another.
+     * @param hero Class of the hole cards whose equity is calculated. Must
+     * not be null.
+     * @param villain Class of the opponent's hole cards. Must not be null.
+     * @return Equity of the hero between 0 and 1.
+     */
+    public double calculate(final HoleCardClass hero,
+            final HoleCardClass villain) {
+        if (hero == null) {
+            throw new NullArgumentException("hero");
+        }
+        if (villain == null) {
+            throw new NullArgumentException("villain");
+        }
+
+        // Count the combinations per suit-isomorphic representative.
+        Map<List<CardSet>, Integer> representatives =
+                new LinkedHashMap<List<CardSet>, Integer>();
+        for (CardSet heroCards : hero.getCombos()) {
+            for (CardSet villainCards : villain.getCombos()) {
+                if (heroCards.intersects(villainCards)) {
+                    continue;
+                }
+                List<CardSet> key = canonical(heroCards.getMask(),
+                        villainCards.getMask());
+                Integer count = representatives.get(key);
+                representatives.put(key, count == null ? 1 : count + 1);
+            }
+        }
+
+        double sum = 0;
+        int combinations = 0;
+        for (Map.Entry<List<CardSet>, Integer> entry
+                : representatives.entrySet()) {
+            sum += entry.getValue() * calculate(entry.getKey());
+            combinations += entry.getValue();
+        }
+        return sum / combinations;
+    }
+
+    /**
+     * Calculates all equities and writes the table.
+     * @param out Stream to write to. Must not be null. Is not closed.
+     * @throws IOException If writing fails.
+     */
+    public void write(final OutputStream out) throws IOException {
+        if (out == null) {
+            throw new NullArgumentException("out");
+        }
+        int count = HoleCardClass.COUNT;
+        float[] equities = new float[count * count];
+        for (int hero = 0; hero < count; hero++) {
+            // a class against itself is symmetric.
+            equities[hero * count + hero] = 0.5f;
+            for (int villain = hero + 1; villain < count; villain++) {
+                double equity = calculate(HoleCardClass.get(hero),
+                        HoleCardClass.get(villain));
+                // heads-up the equities of both players add up to one.
+                equities[hero * count + villain] = (float) equity;
+                equities[villain * count + hero] = (float) (1 - equity);
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(out));
+        data.writeInt(PreflopEquityTable.MAGIC);
+        data.writeInt(PreflopEquityTable.VERSION);
+        data.writeInt(2);
+        data.writeInt(count);
+        for (float equity : equities) {
+            data.writeFloat(equity);
+        }
+        data.flush();
+    }
+
+    /**
+     * Calculates all equities and writes the table to a file.
+     * @param file File to write. Must not be null. Is replaced if it
+     * exists.
+     * @throws IOException If writing fails.
+     */
+    public void write(final File file) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            write(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Calculates the equity of a single combination of hole cards.
+     * @param holeCards Hole cards of the hero and the villain.
+     * @return Equity of the hero.
+     */
+    private double calculate(final List<CardSet> holeCards) {
+        Equity equity;
+        if (exhaustive != null) {
+            equity = exhaustive.calculate(holeCards, CardSet.EMPTY,
+                    CardSet.EMPTY);
+        } else {
+            equity = monteCarlo.calculate(holeCards, CardSet.EMPTY,
+                    CardSet.EMPTY, trials, seed);
+        }
+        return equity.getEquity(0);
+    }
+
+    /**
+     * Finds the representative of a combination of hole cards under suit
+     * permutations.
+     * @param hero Mask of the hero's hole cards.
+     * @param villain Mask of the villain's hole cards.
+     * @return The permuted hole cards with the smallest hero mask and,
+     * among those, the smallest villain mask.
+     */
+    private static List<CardSet> canonical(final long hero,
+            final long villain) {
+        long bestHero = Long.MAX_VALUE;
+        long bestVillain = Long.MAX_VALUE;
+        for (int[] permutation : SuitSymmetry.permutations()) {
+            long permutedHero = SuitSymmetry.permute(hero, permutation);
+            long permutedVillain = SuitSymmetry.permute(villain, permutation);
+            if (permutedHero < bestHero || (permutedHero == bestHero
+                    && permutedVillain < bestVillain)) {
+                bestHero = permutedHero;
+                bestVillain = permutedVillain;
+            }
+        }
+        return Arrays.asList(CardSet.fromMask(bestHero),
+                CardSet.fromMask(bestVillain));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * Result of a range against range equity calculation, seen by the hero.
+ * <p>
+ * Every combination of hero hole cards, villain hole cards and board that
+ * do not share a card counts with the product of both hole card weights.
+ * </p>
+ */
+@Immutable
+public final class RangeEquity {
+
+    /** Weight of the combinations the hero wins. */
+    private final double wins;
+    /** Weight of the combinations that are split. */
+    private final double ties;
+    /** Weight of all combinations. */
+    private final double total;
+
+    /**
+     * Creates an instance.
+     * @param wins Weight of the combinations the hero wins.
+     * @param ties Weight of the combinations that are split.
+     * @param total Weight of all combinations, positive.
+     */
+    RangeEquity(final double wins, final double ties, final double total) {
+        this.wins = wins;
+        this.ties = ties;
+        this.total = total;
+    }
+
+    /**
+     * Gets the probability that the hero wins.
+     * @return Probability between 0 and 1.
+     */
+    public double getWinProbability() {
+        return wins / total;
+    }
+
+    /**
+     * Gets the probability that the pot is split.
+     * @return Probability between 0 and 1.
+     */
+    public double getTieProbability() {
+        return ties / total;
+    }
+
+    /**
+     * Gets the probability that the villain wins.
+     * @return Probability between 0 and 1.
+     */
+    public double getLossProbability() {
+        return (total - wins - ties) / total;
+    }
+
+    /**
+     * Gets the hero's share of the pot on average.
+     * @return Equity between 0 and 1. The villain's equity is one minus
+     * this value.
+     */
+    public double getEquity() {
+        return (wins + ties / 2) / total;
+    }
+
+    @Override
+    public String toString() {
+        return "RangeEquity{win=" + getWinProbability() + ", tie="
+                + getTieProbability() + ", equity=" + getEquity() + "}";
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.concurrent.SharedPool;
+
+/**
+ * Calculates the exact equity of one hand range against another.
+ * <p>
+ * All completions of the board are enumerated. For each completion the
+ * hole cards of both ranges are evaluated once and compared with a
+ * {@link RiverShowdown}, which handles card removal exactly. The
+ * completions are spread over a {@link ForkJoinPool}.
+ * </p><p>
+ * On the river this takes a few milliseconds even for two full ranges.
+ * Every unknown board card multiplies the work by the number of cards
+ * left, preflop calculations of wide ranges are therefore better done with
+ * {@link PreflopEquityTable} or by sampling.
+ * </p>
+ */
+@ThreadSafe
+public final class RangeEquityCalculator {
+
+    /** Number of board completions evaluated by one task. */
+    private static final int CHUNK_SIZE = 16;
+    /** Pool running the completions. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an instance running on the {@link SharedPool}.
+     */
+    public RangeEquityCalculator() {
+        this(SharedPool.get());
+    }
+
+    /**
+     * Creates an instance.
+     * @param pool Pool to run the completions in. Must not be null.
+     */
+    public RangeEquityCalculator(final ForkJoinPool pool) {
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates the equity of the hero's range against the villain's.
+     * @param hero Range of the hero. Must not be null.
+     * @param villain Range of the villain. Must not be null.
+     * @param board Known board cards. Must not be null, at most 5 cards.
+     * @return The equity of the hero. Never null.
+     * @throws IllegalArgumentException If the ranges have no hole cards
+     * that fit together and with the board.
+     */
+    public RangeEquity calculate(final HandRange hero,
+            final HandRange villain, final CardSet board) {
+        if (hero == null) {
+            throw new NullArgumentException("hero");
+        }
+        if (villain == null) {
+            throw new NullArgumentException("villain");
+        }
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (board.size() > Deck.BOARD_CARDS) {
+            throw new IllegalArgumentException("board has more than 5 "
+                    + "cards.");
+        }
+        long[] runouts = Deck.combinations(board.getMask(),
+                Deck.BOARD_CARDS - board.size());
+
+        double[] totals = pool.invoke(new RunoutTask(hero, villain,
+                board.getMask(), runouts, 0, runouts.length));
+        if (totals[2] <= 0) {
+            throw new IllegalArgumentException("the ranges have no hole "
+                    + "cards that fit together and with the board.");
+        }
+        return new RangeEquity(totals[0], totals[1], totals[2]);
+    }
+
+    /**
+     * Evaluates a range of board completions, splitting it until it fits
+     * into a chunk.
+     */
+    private final class RunoutTask extends RecursiveTask<double[]> {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** Range of the hero. */
+        private final HandRange hero;
+        /** Range of the villain. */
+        private final HandRange villain;
+        /** Mask of the known board cards. */
+        private final long board;
+        /** Cards added by each completion. Only read. */
+        private final long[] runouts;
+        /** First completion of this task. */
+        private final int from;
+        /** Completion after the last one of this task. */
+        private final int to;
+
+        /**
+         * Creates an instance.
+         * @param hero Range of the hero.
+         * @param villain Range of the villain.
+         * @param board Mask of the known board cards.
+         * @param runouts Cards added by each completion.
+         * @param from First completion of this task.
+         * @param to Completion after the last one of this task.
+         */
+        RunoutTask(final HandRange hero, final HandRange villain,
+                final long board, final long[] runouts, final int from,
+                final int to) {
+            this.hero = hero;
+            this.villain = villain;
+            this.board = board;
+            this.runouts = runouts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = (from + to) >>> 1;
+                RunoutTask right = new RunoutTask(hero, villain, board,
+                        runouts, middle, to);
+                right.fork();
+                double[] totals = new RunoutTask(hero, villain, board,
+                        runouts, from, middle).compute();
+                double[] rightTotals = right.join();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += rightTotals[i];
+                }
+                return totals;
+            }
+
+            // wins, ties and total weight of the hero.
+            double[] totals = new double[3];
+            for (int r = from; r < to; r++) {
+                new RiverShowdown(board | runouts[r], hero, villain)
+                        .accumulate(hero, villain, totals);
+            }
+            return totals;
+        }
+    }
+}
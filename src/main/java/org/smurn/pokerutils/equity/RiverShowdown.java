@@ -0,0 +1,205 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.Arrays;
+import net.jcip.annotations.Immutable;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.ranking.LookupLocator;
+
+/**
+ * Showdowns of hole cards on a complete board.
+ * <p>
+ * All hole cards that do not collide with the board are evaluated once and
+ * sorted by strength. A range against range comparison is then a single
+ * sweep from the weakest to the strongest hole cards: the villain weight
+ * below the current strength is what the hero beats, the weight at the
+ * current strength is what the hero ties with. Blockers are handled by also
+ * keeping these sums per card and subtracting the villain hole cards
+ * that share a card with the hero's. This costs O(n log n) for sorting
+ * and O(n) per comparison instead of O(n&sup2;) pairwise comparisons.
+ * </p>
+ */
+@Immutable
+public final class RiverShowdown {
+
+    /** Bits of a combination index in a sort key. */
+    private static final int INDEX_BITS = 11;
+    /** Mask of a combination index in a sort key. */
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    /** Locator used to rank the hands. */
+    private static final LookupLocator LOCATOR = new LookupLocator();
+    /** Combination indices by increasing strength. */
+    private final int[] order;
+    /** Strength of each entry of {@link #order}. */
+    private final int[] strengths;
+
+    /**
+     * Evaluates all hole cards on a board.
+     * @param board The complete board. Must not be null and have 5 cards.
+     */
+    public RiverShowdown(final CardSet board) {
+        this(checkBoard(board), HandRange.all(), HandRange.all());
+    }
+
+    /**
+     * Evaluates the hole cards of two ranges on a board.
+     * @param board Mask of the 5 board cards.
+     * @param hero A range.
+     * @param villain Another range.
+     */
+    RiverShowdown(final long board, final HandRange hero,
+            final HandRange villain) {
+        long[] keys = new long[HandRange.COMBOS];
+        int size = 0;
+        for (int index = 0; index < HandRange.COMBOS; index++) {
+            long mask = HandRange.getMask(index);
+            if ((mask & board) == 0 && (hero.getWeight(index) > 0
+                    || villain.getWeight(index) > 0)) {
+                long strength = LOCATOR.evaluate(board | mask);
+                keys[size++] = strength << INDEX_BITS | index;
+            }
+        }
+        Arrays.sort(keys, 0, size);
+        order = new int[size];
+        strengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) keys[i] & INDEX_MASK;
+            strengths[i] = (int) (keys[i] >>> INDEX_BITS);
+        }
+    }
+
+    /**
+     * Checks a board.
+     * @param board The board.
+     * @return Its mask.
+     */
+    private static long checkBoard(final CardSet board) {
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (board.size() != Deck.BOARD_CARDS) {
+            throw new IllegalArgumentException("require a board of 5 "
+                    + "cards.");
+        }
+        return board.getMask();
+    }
+
+    /**
+     * Calculates the equity of one range against another on this board.
+     * @param hero Range of the hero. Must not be null.
+     * @param villain Range of the villain. Must not be null.
+     * @return The equity of the hero. Never null.
+     * @throws IllegalArgumentException If the ranges have no hole cards
+     * that fit together and with the board.
+     */
+    public RangeEquity calculate(final HandRange hero,
+            final HandRange villain) {
+        if (hero == null) {
+            throw new NullArgumentException("hero");
+        }
+        if (villain == null) {
+            throw new NullArgumentException("villain");
+        }
+        double[] totals = new double[3];
+        accumulate(hero, villain, totals);
+        if (totals[2] <= 0) {
+            throw new IllegalArgumentException("the ranges have no hole "
+                    + "cards that fit together and with the board.");
+        }
+        return new RangeEquity(totals[0], totals[1], totals[2]);
+    }
+
+    /**
+     * Adds the weights of the showdowns between two ranges.
+     * Hole cards not evaluated by this instance are ignored.
+     * @param hero Range of the hero.
+     * @param villain Range of the villain.
+     * @param totals Receives the weight the hero wins at index 0, ties at
+     * index 1 and the weight of all showdowns at index 2.
+     */
+    void accumulate(final HandRange hero, final HandRange villain,
+            final double[] totals) {
+        // villain weight of all hole cards, in total and per card.
+        double all = 0;
+        double[] allPerCard = new double[Deck.CARDS];
+        for (int index : order) {
+            double weight = villain.getWeight(index);
+            all += weight;
+            addPerCard(allPerCard, index, weight);
+        }
+
+        // villain weight below and at the current strength.
+        double below = 0;
+        double[] belowPerCard = new double[Deck.CARDS];
+        double[] samePerCard = new double[Deck.CARDS];
+        int start = 0;
+        while (start < order.length) {
+            int end = start;
+            double same = 0;
+            while (end < order.length && strengths[end] == strengths[start]) {
+                double weight = villain.getWeight(order[end]);
+                same += weight;
+                addPerCard(samePerCard, order[end], weight);
+                end++;
+            }
+
+            for (int i = start; i < end; i++) {
+                int index = order[i];
+                double heroWeight = hero.getWeight(index);
+                if (heroWeight <= 0) {
+                    continue;
+                }
+                long mask = HandRange.getMask(index);
+                int first = Long.numberOfTrailingZeros(mask);
+                int second = 63 - Long.numberOfLeadingZeros(mask);
+                // the villain holding the same cards is subtracted twice.
+                double self = villain.getWeight(index);
+                totals[0] += heroWeight * (below - belowPerCard[first]
+                        - belowPerCard[second]);
+                totals[1] += heroWeight * (same - samePerCard[first]
+                        - samePerCard[second] + self);
+                totals[2] += heroWeight * (all - allPerCard[first]
+                        - allPerCard[second] + self);
+            }
+
+            for (int i = start; i < end; i++) {
+                int index = order[i];
+                addPerCard(belowPerCard, index, villain.getWeight(index));
+                // only this strength contributed, clearing is exact.
+                long mask = HandRange.getMask(index);
+                samePerCard[Long.numberOfTrailingZeros(mask)] = 0;
+                samePerCard[63 - Long.numberOfLeadingZeros(mask)] = 0;
+            }
+            below += same;
+            start = end;
+        }
+    }
+
+    /**
+     * Adds a weight to both cards of hole cards.
+     * @param perCard Weight per card ordinal.
+     * @param index Index of the hole cards.
+     * @param weight The weight to add.
+     */
+    private static void addPerCard(final double[] perCard, final int index,
+            final double weight) {
+        long mask = HandRange.getMask(index);
+        perCard[Long.numberOfTrailingZeros(mask)] += weight;
+        perCard[63 - Long.numberOfLeadingZeros(mask)] += weight;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+/**
+ * Small, fast pseudo random generator (SplitMix64).
+ * Unlike {@link java.util.Random} it has no synchronization overhead and
+ * independent streams can be derived from a seed and a stream number, which
+ * keeps parallel sampling reproducible.
+ */
+final class SplitMixRandom {
+
+    /** Increment of the state per generated number. */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+    /** Current state. */
+    private long state;
+
+    /**
+     * Creates the generator for one stream of a seed.
+     * @param seed The seed.
+     * @param stream Number of the stream.
+     */
+    SplitMixRandom(final long seed, final long stream) {
+        this.state = mix(seed + stream * GAMMA);
+    }
+
+    /**
+     * Generates the next 64 random bits.
+     * @return Random value.
+     */
+    long nextLong() {
+        state += GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Generates a random number in a range.
+     * Uses the multiply-shift reduction, the bias is below
+     * {@code bound / 2^32} which is negligible for card dealing.
+     * @param bound Upper bound (exclusive). Must be positive.
+     * @return Random value between 0 and {@code bound - 1}.
+     */
+    int nextInt(final int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Scrambles the bits of a value.
+     * @param value The value.
+     * @return Scrambled value.
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Permutations of the suits that leave a set of card masks unchanged.
+ * <p>
+ * Hand strengths do not depend on the suits themselves, only on which
+ * cards share a suit. If a permutation of the suits maps every player's
+ * hole cards, the board and the dead cards onto themselves, it maps each
+ * possible board completion onto one with exactly the same outcome. Such
+ * boards only need to be evaluated once.
+ * </p>
+ */
+final class SuitSymmetry {
+
+    /** Number of suits. */
+    private static final int SUITS = 4;
+    /** Number of ranks, which is also the bits per suit in a card mask. */
+    private static final int RANKS = 13;
+    /** Bits of a single suit in a card mask. */
+    private static final long SUIT_MASK = (1L << RANKS) - 1;
+    /** All 24 permutations, the identity first. */
+    private static final int[][] ALL = createAll();
+    /** Permutations leaving the masks unchanged, without the identity. */
+    private final int[][] permutations;
+
+    /**
+     * Finds the permutations leaving all given masks unchanged.
+     * @param masks Card masks that have to be mapped onto themselves.
+     */
+    SuitSymmetry(final long... masks) {
+        List<int[]> found = new ArrayList<int[]>();
+        for (int i = 1; i < ALL.length; i++) {
+            boolean invariant = true;
+            for (long mask : masks) {
+                if (permute(mask, ALL[i]) != mask) {
+                    invariant = false;
+                    break;
+                }
+            }
+            if (invariant) {
+                found.add(ALL[i]);
+            }
+        }
+        this.permutations = found.toArray(new int[found.size()][]);
+    }
+
+    /**
+     * Gets the number of permutations, including the identity.
+     * @return Size of the symmetry group.
+     */
+    int getSize() {
+        return permutations.length + 1;
+    }
+
+    /**
+     * Calculates how many masks a mask stands for.
+     * A mask is canonical if no permutation maps it to a smaller mask.
+     * Evaluating only the canonical masks, each with its weight, gives the
+     * same counts as evaluating all masks.
+     * @param mask Card mask.
+     * @return Size of the orbit of the mask if it is canonical, 0 if it is
+     * not.
+     */
+    int weight(final long mask) {
+        int stabilizer = 1;
+        for (int[] permutation : permutations) {
+            long permuted = permute(mask, permutation);
+            if (permuted < mask) {
+                return 0;
+            }
+            if (permuted == mask) {
+                stabilizer++;
+            }
+        }
+        return getSize() / stabilizer;
+    }
+
+    /**
+     * Applies a suit permutation to a card mask.
+     * @param mask Card mask.
+     * @param permutation New suit ordinal for each suit ordinal.
+     * @return The permuted mask.
+     */
+    static long permute(final long mask, final int[] permutation) {
+        long result = 0;
+        for (int suit = 0; suit < SUITS; suit++) {
+            result |= ((mask >>> (suit * RANKS)) & SUIT_MASK)
+                    << (permutation[suit] * RANKS);
+        }
+        return result;
+    }
+
+    /**
+     * Gets all permutations of the suits.
+     * @return All 24 permutations, the identity first. Must not be
+     * modified.
+     */
+    static int[][] permutations() {
+        return ALL;
+    }
+
+    /**
+     * Creates all permutations of the suits.
+     * @return All permutations, the identity first.
+     */
+    private static int[][] createAll() {
+        List<int[]> all = new ArrayList<int[]>();
+        for (int a = 0; a < SUITS; a++) {
+            for (int b = 0; b < SUITS; b++) {
+                for (int c = 0; c < SUITS; c++) {
+                    int d = SUITS * (SUITS - 1) / 2 - a - b - c;
+                    if (a != b && a != c && b != c) {
+                        all.add(new int[]{a, b, c, d});
+                    }
+                }
+            }
+        }
+        return all.toArray(new int[all.size()][]);
+    }
+}
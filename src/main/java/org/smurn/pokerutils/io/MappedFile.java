@@ -0,0 +1,257 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import org.apache.commons.lang.NullArgumentException;
+
+/**
+ * A memory-mapped file that may be larger than a single buffer.
+ * <p>
+ * The file is mapped in segments of 1 GiB. Values are accessed at absolute
+ * offsets which have to be a multiple of the value's size, so no value
+ * spans two segments. Only absolute reads and writes are used, threads may
+ * access different offsets concurrently.
+ * </p><p>
+ * Readers of records that may span a segment boundary can map the
+ * segments themselves with {@link #map(FileChannel, FileChannel.MapMode,
+ * long, int)}, letting each segment overlap the next one.
+ * </p>
+ */
+public final class MappedFile {
+
+    /** Bits of an offset within a segment. */
+    public static final int SEGMENT_BITS = 30;
+    /** Mask of an offset within a segment. */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+    /** The segments. */
+    private final MappedByteBuffer[] segments;
+    /** Size of the file in bytes. */
+    private final long size;
+
+    /**
+     * Maps a file.
+     * @param file The file.
+     * @param size Size of the file in bytes, the file is extended if it is
+     * shorter. Ignored if read-only.
+     * @param writable If the file is mapped for writing.
+     * @throws IOException If the file cannot be mapped.
+     */
+    private MappedFile(final File file, final long size,
+            final boolean writable) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative.");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file,
+                writable ? "rw" : "r");
+        try {
+            if (writable) {
+                raf.setLength(size);
+            }
+            FileChannel channel = raf.getChannel();
+            this.size = channel.size();
+            this.segments = map(channel, writable
+                    ? FileChannel.MapMode.READ_WRITE
+                    : FileChannel.MapMode.READ_ONLY, this.size, 0);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Maps a file in segments of 1 GiB.
+     * The mapping stays valid after the channel is closed.
+     * @param channel Channel of the file. Must not be {@code null}.
+     * @param mode How the file is mapped. Must not be {@code null}.
+     * @param size Number of bytes to map from the start of the file. Must
+     * not be negative.
+     * @param overlap Number of bytes each segment extends into the next
+     * one. Must not be negative.
+     * @return Segment {@code i} starts at offset
+     * {@code i << SEGMENT_BITS}. At least one segment, which is empty if
+     * the size is 0.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static MappedByteBuffer[] map(final FileChannel channel,
+            final FileChannel.MapMode mode, final long size,
+            final int overlap) throws IOException {
+        if (channel == null) {
+            throw new NullArgumentException("channel");
+        }
+        if (mode == null) {
+            throw new NullArgumentException("mode");
+        }
+        if (size < 0 || overlap < 0) {
+            throw new IllegalArgumentException(
+                    "size and overlap must not be negative.");
+        }
+        int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        MappedByteBuffer[] segments = new MappedByteBuffer[Math.max(count,
+                1)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            segments[i] = channel.map(mode, start, Math.min(size - start,
+                    (1L << SEGMENT_BITS) + overlap));
+        }
+        return segments;
+    }
+
+    /**
+     * Creates or replaces a file and maps it for writing.
+     * @param file The file. Must not be {@code null}.
+     * @param size Size of the file in bytes. Must not be negative.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be created.
+     */
+    public static MappedFile create(final File file, final long size)
+            throws IOException {
+        return new MappedFile(file, size, true);
+    }
+
+    /**
+     * Maps an existing file for reading.
+     * @param file The file. Must not be {@code null}.
+     * @return The mapped file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static MappedFile open(final File file) throws IOException {
+        return new MappedFile(file, 0, false);
+    }
+
+    /**
+     * Gets the size of the file.
+     * @return Size in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Reads a byte.
+     * @param offset Offset in the file.
+     * @return The byte.
+     */
+    public byte get(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get(
+                (int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Writes a byte.
+     * @param offset Offset in the file.
+     * @param value The byte.
+     */
+    public void put(final long offset, final byte value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].put(
+                (int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Reads a short.
+     * @param offset Offset in the file, a multiple of 2.
+     * @return The short.
+     */
+    public short getShort(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getShort(
+                (int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Writes a short.
+     * @param offset Offset in the file, a multiple of 2.
+     * @param value The short.
+     */
+    public void putShort(final long offset, final short value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].putShort(
+                (int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Reads an int.
+     * @param offset Offset in the file, a multiple of 4.
+     * @return The int.
+     */
+    public int getInt(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getInt(
+                (int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Writes an int.
+     * @param offset Offset in the file, a multiple of 4.
+     * @param value The int.
+     */
+    public void putInt(final long offset, final int value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].putInt(
+                (int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Reads a long.
+     * @param offset Offset in the file, a multiple of 8.
+     * @return The long.
+     */
+    public long getLong(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getLong(
+                (int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Writes a long.
+     * @param offset Offset in the file, a multiple of 8.
+     * @param value The long.
+     */
+    public void putLong(final long offset, final long value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].putLong(
+                (int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Reads a float.
+     * @param offset Offset in the file, a multiple of 4.
+     * @return The float.
+     */
+    public float getFloat(final long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getFloat(
+                (int) (offset & SEGMENT_MASK));
+    }
+
+    /**
+     * Writes a float.
+     * @param offset Offset in the file, a multiple of 4.
+     * @param value The float.
+     */
+    public void putFloat(final long offset, final float value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].putFloat(
+                (int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Writes all changes to the storage device.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+}
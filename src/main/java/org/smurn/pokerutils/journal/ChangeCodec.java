@@ -0,0 +1,52 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.smurn.pokerutils.automata.Change;
+
+/**
+ * Writes and reads one kind of change in journals.
+ * <p>
+ * The tag of the change is written by {@link ChangeCodecs}, a codec only
+ * writes the content of the change. Once journals have been written the
+ * format of a codec must not change anymore.
+ * </p>
+ * @param <T> Type of the change.
+ */
+public interface ChangeCodec<T extends Change> {
+
+    /**
+     * Writes a change.
+     * @param change The change. Never {@code null}.
+     * @param out Stream to write to.
+     * @param players Codec for players within the change.
+     * @throws IOException If writing fails.
+     */
+    void write(T change, DataOutput out, PlayerCodec players)
+            throws IOException;
+
+    /**
+     * Reads a change.
+     * @param in Stream to read from.
+     * @param players Codec for players within the change.
+     * @return The change. Never {@code null}.
+     * @throws IOException If reading fails or the data is invalid.
+     */
+    T read(DataInput in, PlayerCodec players) throws IOException;
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.automata.Change;
+import org.smurn.pokerutils.automata.GetUpChange;
+import org.smurn.pokerutils.automata.SitDownChange;
+
+/**
+ * Codecs of the kinds of changes that can be written to journals.
+ * <p>
+ * Each change is written as the tag of its class followed by what its codec
+ * writes. The changes of this library are registered by the constructor
+ * with the tags below {@link #FIRST_CUSTOM_TAG}, new kinds of changes can
+ * be added with {@link #register(int, Class, ChangeCodec)}. Tags are part
+ * of the file format and must not be reassigned once journals have been
+ * written.
+ * </p><p>
+ * Register all codecs before the instance is passed to a writer or reader.
+ * After that it is only read and may be shared between threads.
+ * </p>
+ */
+public final class ChangeCodecs {
+
+    /** Tag of {@link SitDownChange}. */
+    public static final int SIT_DOWN_TAG = 1;
+    /** Tag of {@link GetUpChange}. */
+    public static final int GET_UP_TAG = 2;
+    /** Smallest tag available for changes outside of this library. */
+    public static final int FIRST_CUSTOM_TAG = 64;
+    /** Codec of each tag. */
+    private final Map<Integer, ChangeCodec<?>> byTag =
+            new HashMap<Integer, ChangeCodec<?>>();
+    /** Tag of each change class. */
+    private final Map<Class<?>, Integer> tags =
+            new HashMap<Class<?>, Integer>();
+
+    /**
+     * Creates an instance with the codecs of the changes of this library.
+     */
+    public ChangeCodecs() {
+        register(SIT_DOWN_TAG, SitDownChange.class, new SitDownChangeCodec());
+        register(GET_UP_TAG, GetUpChange.class, new GetUpChangeCodec());
+    }
+
+    /**
+     * Registers the codec of a kind of change.
+     * @param <T> Type of the change.
+     * @param tag Tag written before each change of this kind. Must be
+     * positive and not yet in use.
+     * @param type Class of the change. Must not be {@code null} or
+     * registered already. Changes are looked up by their exact class.
+     * @param codec Codec of the change. Must not be {@code null}.
+     */
+    public <T extends Change> void register(final int tag,
+            final Class<T> type, final ChangeCodec<T> codec) {
+        if (type == null) {
+            throw new NullArgumentException("type");
+        }
+        if (codec == null) {
+            throw new NullArgumentException("codec");
+        }
+        if (tag <= 0) {
+            throw new IllegalArgumentException("tag must be positive.");
+        }
+        if (byTag.containsKey(tag)) {
+            throw new IllegalArgumentException("tag " + tag
+                    + " is already in use.");
+        }
+        if (tags.containsKey(type)) {
+            throw new IllegalArgumentException(type.getName()
+                    + " is already registered.");
+        }
+        byTag.put(tag, codec);
+        tags.put(type, tag);
+    }
+
+    /**
+     * Writes a change with its tag.
+     * @param change The change. Must not be {@code null} and of a
+     * registered class.
+     * @param out Stream to write to. Must not be {@code null}.
+     * @param players Codec for players. Must not be {@code null}.
+     * @throws IOException If writing fails.
+     */
+    public void write(final Change change, final DataOutput out,
+            final PlayerCodec players) throws IOException {
+        if (change == null) {
+            throw new NullArgumentException("change");
+        }
+        if (out == null) {
+            throw new NullArgumentException("out");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        Integer tag = tags.get(change.getClass());
+        if (tag == null) {
+            throw new IllegalArgumentException("no codec registered for "
+                    + change.getClass().getName() + ".");
+        }
+        Varint.write(out, tag);
+        write(byTag.get(tag), change, out, players);
+    }
+
+    /**
+     * Writes a change with a codec of its class.
+     * @param <T> Type of the change.
+     * @param codec The codec registered for the class of the change.
+     * @param change The change.
+     * @param out Stream to write to.
+     * @param players Codec for players.
+     * @throws IOException If writing fails.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Change> void write(final ChangeCodec<T> codec,
+            final Change change, final DataOutput out,
+            final PlayerCodec players) throws IOException {
+        // register() guarantees that the codec belongs to the class.
+        codec.write((T) change, out, players);
+    }
+
+    /**
+     * Reads a change with its tag.
+     * @param in Stream to read from. Must not be {@code null}.
+     * @param players Codec for players. Must not be {@code null}.
+     * @return The change. Never {@code null}.
+     * @throws IOException If reading fails, the tag is unknown or the
+     * change is invalid.
+     */
+    public Change read(final DataInput in, final PlayerCodec players)
+            throws IOException {
+        if (in == null) {
+            throw new NullArgumentException("in");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        int tag = Varint.read(in);
+        ChangeCodec<?> codec = byTag.get(tag);
+        if (codec == null) {
+            throw new IOException("unknown change tag " + tag + ".");
+        }
+        try {
+            return codec.read(in, players);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid change with tag " + tag + ".", e);
+        }
+    }
+}
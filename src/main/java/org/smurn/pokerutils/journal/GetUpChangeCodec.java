@@ -0,0 +1,47 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import net.jcip.annotations.Immutable;
+import org.smurn.pokerutils.Player;
+import org.smurn.pokerutils.automata.GetUpChange;
+
+/**
+ * Writes {@link GetUpChange}s: the player, the seat number and the stake.
+ */
+@Immutable
+final class GetUpChangeCodec implements ChangeCodec<GetUpChange> {
+
+    @Override
+    public void write(final GetUpChange change, final DataOutput out,
+            final PlayerCodec players) throws IOException {
+        players.write(change.getPlayer(), out);
+        Varint.write(out, change.getSeatNr());
+        Varint.write(out, change.getStake());
+    }
+
+    @Override
+    public GetUpChange read(final DataInput in, final PlayerCodec players)
+            throws IOException {
+        Player player = players.read(in);
+        int seatNr = Varint.read(in);
+        int stake = Varint.read(in);
+        return new GetUpChange(player, seatNr, stake);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Layout of journal files.
+ * <p>
+ * A journal starts with two big-endian ints, the magic number and the
+ * format version. Then follows one record per change: the length of the
+ * body as a {@link Varint}, the body and the CRC-32 of the body as an int.
+ * The body is the change as written by {@link ChangeCodecs}. A record that
+ * is cut short at the end of the file was not completely written and is
+ * ignored.
+ * </p>
+ */
+final class JournalFormat {
+
+    /** Magic number at the start of each journal. */
+    static final int MAGIC = 0x504a4e4c;
+    /** Version of the file format. */
+    static final int VERSION = 1;
+    /** Size of the header in bytes. */
+    static final int HEADER_SIZE = 8;
+    /** Size of the checksum after each body. */
+    static final int CRC_SIZE = 4;
+    /** Largest body accepted when reading, to detect corrupt lengths. */
+    static final int MAX_BODY_SIZE = 1 << 20;
+
+    /**
+     * Utility class without instances.
+     */
+    private JournalFormat() {
+    }
+
+    /**
+     * Reads the checksum of the record that ends at an offset.
+     * Together with the offset it tells apart journals that were written
+     * at the same path one after the other.
+     * @param file The journal, its file pointer is moved.
+     * @param offset Offset after a complete record or
+     * {@link #HEADER_SIZE}.
+     * @return The checksum of the record, 0 for the header.
+     * @throws IOException If the file cannot be read.
+     */
+    static int checksumBefore(final RandomAccessFile file, final long offset)
+            throws IOException {
+        if (offset <= HEADER_SIZE) {
+            return 0;
+        }
+        file.seek(offset - CRC_SIZE);
+        return file.readInt();
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.Change;
+
+/**
+ * Streams the changes of a journal written by {@link JournalWriter}.
+ * <p>
+ * The changes are read one by one in the order they were appended, only
+ * the current record is held in memory. A record at the end of the file
+ * that was not completely written, for example because the process
+ * crashed while appending it, is treated as the end of the journal. So is
+ * an empty record that no valid record follows: appended records always
+ * hold a change, but a file system may leave zeros at the end of a file
+ * after a crash. Empty records followed by valid ones are corrupt.
+ * </p>
+ */
+@NotThreadSafe
+public final class JournalReader implements Closeable {
+
+    /** The records. */
+    private final DataInputStream in;
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs;
+    /** Codec of the players. */
+    private final PlayerCodec players;
+    /** Returned by {@link #readRecord()} for a corrupt record. */
+    private static final byte[] CORRUPT = new byte[0];
+    /** Checksum of the current body. */
+    private final CRC32 crc = new CRC32();
+    /** Offset after the last complete record. */
+    private long position;
+    /** Number of records read. */
+    private long sequence;
+    /** Checksum of the last record read. */
+    private int lastChecksum;
+    /** If the journal ended within a record. */
+    private boolean truncated;
+    /** If corrupt records at the end are treated as a torn record. */
+    private boolean recoverTail;
+    /** Size of the last valid record including its framing. */
+    private int recordSize;
+    /** Why the last corrupt record is corrupt. */
+    private String corruption;
+    /** If the last corrupt record is empty. */
+    private boolean empty;
+    /** If the next record follows the last corrupt one. */
+    private boolean resumable;
+
+    /**
+     * Opens a journal.
+     * @param file The journal. Must not be {@code null}.
+     * @param codecs Codecs of the changes in the journal. Must not be
+     * {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @throws IOException If the file cannot be read or is not a journal.
+     */
+    public JournalReader(final File file, final ChangeCodecs codecs,
+            final PlayerCodec players) throws IOException {
+        this(open(file), codecs, players);
+    }
+
+    /**
+     * Reads a journal from a stream.
+     * @param in The journal starting with the header. Must not be
+     * {@code null}. Closed with this reader.
+     * @param codecs Codecs of the changes in the journal. Must not be
+     * {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @throws IOException If the stream does not contain a journal.
+     */
+    public JournalReader(final InputStream in, final ChangeCodecs codecs,
+            final PlayerCodec players) throws IOException {
+        if (in == null) {
+            throw new NullArgumentException("in");
+        }
+        if (codecs == null) {
+            throw new NullArgumentException("codecs");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        this.in = new DataInputStream(in instanceof BufferedInputStream
+                ? in : new BufferedInputStream(in));
+        this.codecs = codecs;
+        this.players = players;
+        try {
+            readHeader();
+        } catch (IOException e) {
+            this.in.close();
+            throw e;
+        }
+        this.position = JournalFormat.HEADER_SIZE;
+    }
+
+    /**
+     * Reads and checks the header.
+     * @throws IOException If the stream does not contain a journal.
+     */
+    private void readHeader() throws IOException {
+        try {
+            if (in.readInt() != JournalFormat.MAGIC) {
+                throw new IOException("not a journal.");
+            }
+            int version = in.readInt();
+            if (version != JournalFormat.VERSION) {
+                throw new IOException("unsupported journal version "
+                        + version + ".");
+            }
+        } catch (EOFException e) {
+            throw new IOException("not a journal.", e);
+        }
+    }
+
+    /**
+     * Opens a file.
+     * @param file The file.
+     * @return Stream of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    private static InputStream open(final File file) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Reads the next change.
+     * @return The change or {@code null} at the end of the journal.
+     * @throws IOException If reading fails or the journal is corrupt.
+     */
+    public Change next() throws IOException {
+        long start = position;
+        byte[] body = readBody();
+        if (body == null) {
+            return null;
+        }
+        return decode(body, start, codecs, players);
+    }
+
+    /**
+     * Decodes the body of a record.
+     * @param body The body.
+     * @param offset Offset of the record, for error messages.
+     * @param codecs Codecs of the changes.
+     * @param players Codec of the players.
+     * @return The change.
+     * @throws IOException If the body is not a valid change.
+     */
+    static Change decode(final byte[] body, final long offset,
+            final ChangeCodecs codecs, final PlayerCodec players)
+            throws IOException {
+        DataInputStream bodyIn = new DataInputStream(
+                new ByteArrayInputStream(body));
+        Change change;
+        try {
+            change = codecs.read(bodyIn, players);
+        } catch (EOFException e) {
+            throw new IOException("change at offset " + offset
+                    + " is incomplete.", e);
+        }
+        if (bodyIn.available() != 0) {
+            throw new IOException("change at offset " + offset
+                    + " has trailing bytes.");
+        }
+        return change;
+    }
+
+    /**
+     * Skips the next change without decoding it.
+     * The record is still checked against its checksum.
+     * @return {@code false} at the end of the journal.
+     * @throws IOException If reading fails or the journal is corrupt.
+     */
+    public boolean skip() throws IOException {
+        return readBody() != null;
+    }
+
+    /**
+     * Applies all remaining changes to a table.
+     * @param table Table to apply the next change to. Must not be
+     * {@code null} and must be sealed.
+     * @return Table after the last change. Never {@code null}.
+     * @throws IOException If reading fails or the journal is corrupt.
+     * @throws org.smurn.pokerutils.automata.IncompatibleTableException If a
+     * change cannot be applied.
+     */
+    public Table replay(final Table table) throws IOException {
+        if (table == null) {
+            throw new NullArgumentException("table");
+        }
+        Table current = table;
+        for (Change change = next(); change != null; change = next()) {
+            current = change.apply(current);
+        }
+        return current;
+    }
+
+    /**
+     * Continues reading at a known record boundary.
+     * Only valid before the first record is read.
+     * @param offset Offset of the record, as returned by
+     * {@link #getPosition()} by an earlier reader of the journal.
+     * @param recordSequence Sequence number of the record.
+     * @throws IOException If the journal is shorter than the offset.
+     */
+    void seek(final long offset, final long recordSequence)
+            throws IOException {
+        if (sequence != 0 || position != JournalFormat.HEADER_SIZE
+                || offset < position || recordSequence < 0) {
+            throw new IllegalStateException("cannot seek to " + offset
+                    + ".");
+        }
+        long rest = offset - position;
+        while (rest > 0) {
+            long skipped = in.skip(rest);
+            if (skipped <= 0) {
+                throw new IOException("journal is shorter than " + offset
+                        + " bytes.");
+            }
+            rest -= skipped;
+        }
+        this.position = offset;
+        this.sequence = recordSequence;
+    }
+
+    /**
+     * Treats corrupt records at the end of the journal like a record that
+     * was cut short.
+     * <p>
+     * A crash while appending can leave a complete length followed by
+     * garbage. If no valid record follows a corrupt one, the journal ends
+     * before the corrupt record and {@link #isTruncated()} returns true.
+     * If the length of a corrupt record is unreadable, no later record can
+     * be found and it is treated as the end as well. Corrupt records that
+     * are followed by a valid one still fail.
+     * </p>
+     */
+    void recoverTail() {
+        this.recoverTail = true;
+    }
+
+    /**
+     * Gets the number of changes read or skipped so far.
+     * @return Sequence number of the next change, starting at 0.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the offset after the last complete record read.
+     * @return Offset in bytes from the start of the journal.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the checksum of the last record read or skipped.
+     * @return The checksum, 0 if no record was read.
+     */
+    int getLastChecksum() {
+        return lastChecksum;
+    }
+
+    /**
+     * Checks if the journal ended within a record.
+     * @return True if the last record was cut short.
+     */
+    boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Reads the next record.
+     * @return The body of the record or {@code null} at the end.
+     * @throws IOException If reading fails or the journal is corrupt.
+     */
+    private byte[] readBody() throws IOException {
+        if (truncated) {
+            return null;
+        }
+        byte[] body = readRecord();
+        if (body != CORRUPT) {
+            if (body != null) {
+                position += recordSize;
+                sequence++;
+            }
+            return body;
+        }
+        String error = "record at offset " + position + " " + corruption
+                + ".";
+        if (!recoverTail && !empty) {
+            throw new IOException(error);
+        }
+        // the journal only ends here if no valid record follows.
+        while (resumable) {
+            body = readRecord();
+            if (body == null) {
+                break;
+            }
+            if (body != CORRUPT) {
+                throw new IOException(error);
+            }
+        }
+        truncated = true;
+        return null;
+    }
+
+    /**
+     * Reads a record without advancing {@link #position}.
+     * @return The body, {@code null} at the end or {@link #CORRUPT} if
+     * the record is corrupt. The end within a record sets
+     * {@link #truncated}.
+     * @throws IOException If reading fails.
+     */
+    private byte[] readRecord() throws IOException {
+        int length = 0;
+        int lengthBytes = 0;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                truncated = lengthBytes > 0;
+                return null;
+            }
+            length |= (b & 0x7f) << (7 * lengthBytes);
+            lengthBytes++;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            if (lengthBytes == Varint.MAX_BYTES) {
+                return corrupt("has an invalid length", false);
+            }
+        }
+        if (length < 0 || length > JournalFormat.MAX_BODY_SIZE) {
+            return corrupt("has an invalid length", false);
+        }
+        byte[] body = new byte[length];
+        int checksum;
+        try {
+            in.readFully(body);
+            checksum = in.readInt();
+        } catch (EOFException e) {
+            truncated = true;
+            return null;
+        }
+        // the CRC of no bytes is 0, so zeros would pass the check.
+        if (length == 0) {
+            corrupt("is empty", true);
+            empty = true;
+            return CORRUPT;
+        }
+        crc.reset();
+        crc.update(body, 0, length);
+        if ((int) crc.getValue() != checksum) {
+            return corrupt("has a checksum mismatch", true);
+        }
+        lastChecksum = checksum;
+        recordSize = lengthBytes + length + JournalFormat.CRC_SIZE;
+        return body;
+    }
+
+    /**
+     * Remembers a corrupt record.
+     * @param reason Why the record is corrupt.
+     * @param next If the stream is at the start of the next record.
+     * @return {@link #CORRUPT}.
+     */
+    private byte[] corrupt(final String reason, final boolean next) {
+        corruption = reason;
+        empty = false;
+        resumable = next;
+        return CORRUPT;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
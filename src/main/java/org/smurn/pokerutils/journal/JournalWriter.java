@@ -0,0 +1,263 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.automata.Change;
+
+/**
+ * Appends changes to a journal file.
+ * <p>
+ * Appended changes are collected in memory and written to the file with a
+ * single write followed by an fsync once {@code syncInterval} changes are
+ * pending, when {@link #sync()} is called and when the writer is closed. A
+ * crash loses at most the changes appended since the last sync, the
+ * journal stays readable. Larger intervals trade durability of the last
+ * changes for fewer disk flushes.
+ * </p><p>
+ * Opening an existing journal continues it. A record that was cut short by
+ * a crash is removed first, as are corrupt records that no valid record
+ * follows, such as garbage or zeros a crash left at the end of the file.
+ * </p>
+ */
+@NotThreadSafe
+public final class JournalWriter implements Closeable {
+
+    /** The journal file. */
+    private final RandomAccessFile file;
+    /** Channel of the file, positioned at the end. */
+    private final FileChannel channel;
+    /** Stream writing to the channel. */
+    private final OutputStream fileOut;
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs;
+    /** Codec of the players. */
+    private final PlayerCodec players;
+    /** Number of changes after which the pending ones are synced. */
+    private final int syncInterval;
+    /** Records not yet written to the file. */
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    /** Stream writing to {@link #pending}. */
+    private final DataOutputStream pendingOut =
+            new DataOutputStream(pending);
+    /** Body of the record being appended. */
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    /** Stream writing to {@link #body}. */
+    private final DataOutputStream bodyOut = new DataOutputStream(body);
+    /** Checksum of the body. */
+    private final CRC32 crc = new CRC32();
+    /** Number of changes in {@link #pending}. */
+    private int pendingCount;
+    /** Number of changes in the journal, including the pending ones. */
+    private long sequence;
+    /** Checksum of the last record, 0 if there is none. */
+    private int lastChecksum;
+    /** If this writer has been closed. */
+    private boolean closed;
+
+    /**
+     * Opens a journal for appending, creating it if it does not exist.
+     * @param file The journal. Must not be {@code null}.
+     * @param codecs Codecs of the changes. Must not be {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @param syncInterval Number of changes written and synced together.
+     * Must be positive.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    public JournalWriter(final File file, final ChangeCodecs codecs,
+            final PlayerCodec players, final int syncInterval)
+            throws IOException {
+        this(file, codecs, players, syncInterval, JournalFormat.HEADER_SIZE,
+                0);
+    }
+
+    /**
+     * Opens a journal for appending, starting the search for its end at a
+     * known record boundary.
+     * @param file The journal.
+     * @param codecs Codecs of the changes.
+     * @param players Codec of the players.
+     * @param syncInterval Number of changes written and synced together.
+     * @param offset Offset of a complete record or of the end of the
+     * journal. Ignored if the journal is empty.
+     * @param offsetSequence Sequence number of the record at the offset.
+     * @throws IOException If the file cannot be opened or is not a journal.
+     */
+    JournalWriter(final File file, final ChangeCodecs codecs,
+            final PlayerCodec players, final int syncInterval,
+            final long offset, final long offsetSequence)
+            throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        if (codecs == null) {
+            throw new NullArgumentException("codecs");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "syncInterval must be positive.");
+        }
+        long end = 0;
+        if (file.length() > 0) {
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                reader.recoverTail();
+                reader.seek(offset, offsetSequence);
+                while (reader.skip()) {
+                    continue;
+                }
+                end = reader.getPosition();
+                sequence = reader.getSequence();
+            } finally {
+                reader.close();
+            }
+        }
+        this.codecs = codecs;
+        this.players = players;
+        this.syncInterval = syncInterval;
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.fileOut = Channels.newOutputStream(channel);
+        try {
+            if (end == 0) {
+                channel.truncate(0);
+                pendingOut.writeInt(JournalFormat.MAGIC);
+                pendingOut.writeInt(JournalFormat.VERSION);
+                flush();
+            } else {
+                channel.truncate(end);
+                lastChecksum = JournalFormat.checksumBefore(this.file, end);
+                channel.position(end);
+            }
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a change.
+     * The change is written to the file once {@code syncInterval} changes
+     * are pending.
+     * @param change The change. Must not be {@code null} and have a codec
+     * registered.
+     * @throws IOException If writing fails.
+     */
+    public void append(final Change change) throws IOException {
+        if (change == null) {
+            throw new NullArgumentException("change");
+        }
+        if (closed) {
+            throw new IllegalStateException("writer is closed.");
+        }
+        body.reset();
+        codecs.write(change, bodyOut, players);
+        crc.reset();
+        crc.update(body.toByteArray());
+        Varint.write(pendingOut, body.size());
+        body.writeTo(pendingOut);
+        lastChecksum = (int) crc.getValue();
+        pendingOut.writeInt(lastChecksum);
+        pendingCount++;
+        sequence++;
+        if (pendingCount >= syncInterval) {
+            sync();
+        }
+    }
+
+    /**
+     * Writes the pending changes to the file and waits until they are on
+     * the storage device.
+     * @throws IOException If writing fails.
+     */
+    public void sync() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("writer is closed.");
+        }
+        if (pending.size() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the pending bytes and forces them to the storage device.
+     * @throws IOException If writing fails.
+     */
+    private void flush() throws IOException {
+        pending.writeTo(fileOut);
+        pending.reset();
+        pendingCount = 0;
+        channel.force(false);
+    }
+
+    /**
+     * Gets the number of changes in the journal.
+     * @return Number of changes including those not yet synced, which is
+     * the sequence number of the next change.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the checksum of the last record, including pending ones.
+     * @return The checksum, 0 if the journal has no records.
+     */
+    int getLastChecksum() {
+        return lastChecksum;
+    }
+
+    /**
+     * Gets the size the journal will have once the pending changes are
+     * written.
+     * @return Offset after the last appended record.
+     * @throws IOException If the file position cannot be read.
+     */
+    long getPosition() throws IOException {
+        return channel.position() + pending.size();
+    }
+
+    /**
+     * Syncs the pending changes and closes the file.
+     * Further calls are ignored.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                sync();
+            } finally {
+                closed = true;
+                file.close();
+            }
+        }
+    }
+}
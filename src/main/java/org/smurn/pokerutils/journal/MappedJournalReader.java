@@ -0,0 +1,570 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.Change;
+import org.smurn.pokerutils.io.MappedFile;
+
+/**
+ * Random access to the changes of a journal by their sequence number.
+ * <p>
+ * The journal is memory-mapped in segments of 1 GiB. Each segment extends
+ * past its end by the size of the largest record, so every record can be
+ * read from the segment it starts in. A sparse index holds the offset of
+ * every {@code indexInterval}-th change, finding a change skips at most
+ * {@code indexInterval - 1} records by their length alone.
+ * </p><p>
+ * The index is kept in the file {@code name.index} next to the journal
+ * {@code name}. Each entry also holds the checksum of the record before
+ * it, entries that do not match the journal, for example because it was
+ * truncated or replaced, are dropped. Past the last entry the index is
+ * extended lazily: records are only scanned, and checked against their
+ * checksums, up to the change requested, so opening a journal without an
+ * index reads none of its records. {@link #getSize()} scans to the end.
+ * If the index grew, it is written when the reader is closed and the
+ * directory is writable.
+ * </p><p>
+ * {@link #getTable(long, Table)} starts from the newest snapshot written by
+ * {@link TableJournal} that is not past the requested change and replays
+ * the changes from there.
+ * </p>
+ */
+@NotThreadSafe
+public final class MappedJournalReader implements Closeable {
+
+    /** Default number of changes per index entry. */
+    public static final int DEFAULT_INDEX_INTERVAL = 1024;
+    /** Magic number at the start of each index. */
+    static final int INDEX_MAGIC = 0x50494458;
+    /** Version of the index format. */
+    static final int INDEX_VERSION = 2;
+    /** Suffix of index files. */
+    private static final String INDEX_SUFFIX = ".index";
+    /** Suffix of indices being written. */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Bits of an offset within a segment. */
+    private static final int SEGMENT_BITS = MappedFile.SEGMENT_BITS;
+    /** Size of an index entry, the offset and the checksum before it. */
+    private static final int ENTRY_SIZE = 8 + 4;
+    /** Size of the largest record. */
+    private static final int MAX_RECORD_SIZE = Varint.MAX_BYTES
+            + JournalFormat.MAX_BODY_SIZE + JournalFormat.CRC_SIZE;
+    /** The journal. */
+    private final File file;
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs;
+    /** Codec of the players. */
+    private final PlayerCodec players;
+    /** Number of changes per index entry. */
+    private final int indexInterval;
+    /** Checksum of the bodies. */
+    private final CRC32 crc = new CRC32();
+    /** Size of the journal file. */
+    private final long size;
+    /** The mapped segments, {@code null} once closed. */
+    private MappedByteBuffer[] segments;
+    /** Offset of change {@code i * indexInterval} at entry {@code i}. */
+    private long[] index;
+    /** Number of used entries of {@link #index}. */
+    private int indexSize;
+    /** Number of entries read from the index file. */
+    private int loadedSize;
+    /** Number of changes scanned so far. */
+    private long scanned;
+    /** Offset of the change after the scanned ones. */
+    private long scanEnd;
+    /** If the scan reached the end of the journal. */
+    private boolean complete;
+
+    /**
+     * Opens a journal.
+     * @param file The journal. Must not be {@code null}.
+     * @param codecs Codecs of the changes in the journal. Must not be
+     * {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @throws IOException If the file cannot be mapped or is not a journal.
+     */
+    public MappedJournalReader(final File file, final ChangeCodecs codecs,
+            final PlayerCodec players) throws IOException {
+        this(file, codecs, players, DEFAULT_INDEX_INTERVAL);
+    }
+
+    /**
+     * Opens a journal.
+     * @param file The journal. Must not be {@code null}.
+     * @param codecs Codecs of the changes in the journal. Must not be
+     * {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @param indexInterval Number of changes per index entry. Must be
+     * positive.
+     * @throws IOException If the file cannot be mapped or is not a journal.
+     */
+    MappedJournalReader(final File file, final ChangeCodecs codecs,
+            final PlayerCodec players, final int indexInterval)
+            throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        if (codecs == null) {
+            throw new NullArgumentException("codecs");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        if (indexInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "indexInterval must be positive.");
+        }
+        this.file = file;
+        this.codecs = codecs;
+        this.players = players;
+        this.indexInterval = indexInterval;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            this.size = channel.size();
+            this.segments = MappedFile.map(channel,
+                    FileChannel.MapMode.READ_ONLY, size, MAX_RECORD_SIZE);
+        } finally {
+            raf.close();
+        }
+        if (size < JournalFormat.HEADER_SIZE
+                || segments[0].getInt(0) != JournalFormat.MAGIC) {
+            throw new IOException("not a journal.");
+        }
+        if (segments[0].getInt(4) != JournalFormat.VERSION) {
+            throw new IOException("unsupported journal version "
+                    + segments[0].getInt(4) + ".");
+        }
+
+        long[] loaded = loadIndex();
+        index = Arrays.copyOf(loaded, Math.max(loaded.length, 16));
+        indexSize = loaded.length;
+        if (indexSize == 0) {
+            index[indexSize++] = JournalFormat.HEADER_SIZE;
+        }
+        loadedSize = loaded.length;
+        scanned = (long) (indexSize - 1) * indexInterval;
+        scanEnd = index[indexSize - 1];
+    }
+
+    /**
+     * Gets the number of changes in the journal.
+     * The first call scans the records after the last index entry.
+     * @return Number of complete changes. A change cut short at the end of
+     * the journal is not counted.
+     * @throws IOException If the journal is corrupt.
+     */
+    public long getSize() throws IOException {
+        checkOpen();
+        scanTo(Long.MAX_VALUE);
+        return scanned;
+    }
+
+    /**
+     * Reads a change.
+     * @param sequence Sequence number of the change, between 0 and
+     * {@link #getSize()} - 1.
+     * @return The change. Never {@code null}.
+     * @throws IOException If the journal is corrupt.
+     */
+    public Change getChange(final long sequence) throws IOException {
+        checkOpen();
+        if (sequence >= 0) {
+            scanTo(sequence + 1);
+        }
+        if (sequence < 0 || sequence >= scanned) {
+            throw new IndexOutOfBoundsException("no change " + sequence
+                    + ".");
+        }
+        return readChange(offsetOf(sequence));
+    }
+
+    /**
+     * Reconstructs the table before a change.
+     * @param sequence Number of changes to apply, between 0 and
+     * {@link #getSize()}.
+     * @param initial Table before the first change of the journal. Must not
+     * be {@code null} and must be sealed.
+     * @return The table after the changes 0 to {@code sequence - 1}. Never
+     * {@code null}.
+     * @throws IOException If the journal is corrupt.
+     * @throws org.smurn.pokerutils.automata.IncompatibleTableException If a
+     * change cannot be applied.
+     */
+    public Table getTable(final long sequence, final Table initial)
+            throws IOException {
+        checkOpen();
+        if (initial == null) {
+            throw new NullArgumentException("initial");
+        }
+        if (!initial.isSealed()) {
+            throw new IllegalArgumentException("initial is not sealed.");
+        }
+        if (sequence >= 0) {
+            scanTo(sequence);
+        }
+        if (sequence < 0 || sequence > scanned) {
+            throw new IndexOutOfBoundsException("no change " + sequence
+                    + ".");
+        }
+        long current = 0;
+        long offset = JournalFormat.HEADER_SIZE;
+        Table table = initial;
+        Snapshot snapshot = new SnapshotStore(file, players).findLatest(
+                sequence, scanEnd);
+        if (snapshot != null
+                && offsetOf(snapshot.getSequence()) == snapshot.getOffset()) {
+            current = snapshot.getSequence();
+            offset = snapshot.getOffset();
+            table = snapshot.getTable();
+        }
+        for (; current < sequence; current++) {
+            table = readChange(offset).apply(table);
+            offset = skipRecord(offset);
+        }
+        return table;
+    }
+
+    /**
+     * Finds the offset of a change.
+     * @param sequence Sequence number, between 0 and the number of
+     * scanned changes.
+     * @return Offset of the change.
+     * @throws IOException If the journal is corrupt.
+     */
+    private long offsetOf(final long sequence) throws IOException {
+        int entry = (int) (sequence / indexInterval);
+        long offset = index[entry];
+        for (long i = (long) entry * indexInterval; i < sequence; i++) {
+            offset = skipRecord(offset);
+        }
+        return offset;
+    }
+
+    /**
+     * Gets a buffer positioned at an offset.
+     * @param offset Offset before the end of the journal.
+     * @return Buffer reaching until at least the end of the record at the
+     * offset or the end of the journal.
+     */
+    private ByteBuffer at(final long offset) {
+        int segment = (int) (offset >>> SEGMENT_BITS);
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.position((int) (offset - ((long) segment << SEGMENT_BITS)));
+        return buffer;
+    }
+
+    /**
+     * Reads the length of a record.
+     * @param buffer Buffer positioned at the record, left positioned at the
+     * body.
+     * @param offset Offset of the record, for error messages.
+     * @return Length of the body or -1 if the journal ends within it.
+     * @throws IOException If the length is invalid.
+     */
+    private static int readLength(final ByteBuffer buffer, final long offset)
+            throws IOException {
+        int length = 0;
+        for (int i = 0; i < Varint.MAX_BYTES; i++) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int b = buffer.get() & 0xff;
+            length |= (b & 0x7f) << (7 * i);
+            if ((b & 0x80) == 0) {
+                if (length < 0 || length > JournalFormat.MAX_BODY_SIZE) {
+                    break;
+                }
+                return length;
+            }
+        }
+        throw new IOException("corrupt record at offset " + offset + ".");
+    }
+
+    /**
+     * Finds the record after another one.
+     * @param offset Offset of a record.
+     * @return Offset of the next record, -1 if the record at the given
+     * offset is not complete.
+     * @throws IOException If the length of the record is invalid.
+     */
+    private long skipRecord(final long offset) throws IOException {
+        if (offset >= size) {
+            return -1;
+        }
+        ByteBuffer buffer = at(offset);
+        int start = buffer.position();
+        int length = readLength(buffer, offset);
+        if (length < 0) {
+            return -1;
+        }
+        long next = offset + (buffer.position() - start) + length
+                + JournalFormat.CRC_SIZE;
+        return next <= size ? next : -1;
+    }
+
+    /**
+     * Reads a complete record.
+     * @param offset Offset of the record.
+     * @return The change.
+     * @throws IOException If the record is corrupt.
+     */
+    private Change readChange(final long offset) throws IOException {
+        return JournalReader.decode(readBody(offset), offset, codecs,
+                players);
+    }
+
+    /**
+     * Reads the body of a complete record and checks its checksum.
+     * @param offset Offset of the record.
+     * @return The body.
+     * @throws IOException If the record is corrupt.
+     */
+    private byte[] readBody(final long offset) throws IOException {
+        ByteBuffer buffer = at(offset);
+        byte[] body = new byte[readLength(buffer, offset)];
+        buffer.get(body);
+        int checksum = buffer.getInt();
+        crc.reset();
+        crc.update(body, 0, body.length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("checksum mismatch in record at offset "
+                    + offset + ".");
+        }
+        return body;
+    }
+
+    /**
+     * Gets the checksum of the record that ends at an offset.
+     * @param offset Offset after a complete record or of the first record.
+     * @return The checksum, 0 for the header.
+     */
+    private int checksumBefore(final long offset) {
+        if (offset <= JournalFormat.HEADER_SIZE) {
+            return 0;
+        }
+        return at(offset - JournalFormat.CRC_SIZE).getInt();
+    }
+
+    /**
+     * Extends the index until a number of changes is scanned or the end of
+     * the journal is reached. The scanned records are checked against
+     * their checksums.
+     * @param sequence Number of changes to scan.
+     * @throws IOException If the journal is corrupt.
+     */
+    private void scanTo(final long sequence) throws IOException {
+        while (!complete && scanned < sequence) {
+            long next = skipRecord(scanEnd);
+            if (next < 0 || readBody(scanEnd).length == 0
+                    && isTail(next, scanEnd)) {
+                complete = true;
+                return;
+            }
+            scanEnd = next;
+            scanned++;
+            if (scanned % indexInterval == 0) {
+                if (indexSize == index.length) {
+                    index = Arrays.copyOf(index, indexSize * 2);
+                }
+                index[indexSize++] = scanEnd;
+            }
+        }
+    }
+
+    /**
+     * Checks that an empty record is at the end of the journal.
+     * Like {@link JournalReader}, empty records that no valid record
+     * follows end the journal, they are zeros left by a crash.
+     * @param offset Offset after the empty record.
+     * @param empty Offset of the empty record, for error messages.
+     * @return True if no valid record follows.
+     * @throws IOException If a valid record follows the empty one.
+     */
+    private boolean isTail(final long offset, final long empty)
+            throws IOException {
+        long current = offset;
+        while (true) {
+            long next;
+            try {
+                next = skipRecord(current);
+            } catch (IOException e) {
+                // no later record can be found.
+                return true;
+            }
+            if (next < 0) {
+                return true;
+            }
+            ByteBuffer buffer = at(current);
+            byte[] body = new byte[readLength(buffer, current)];
+            buffer.get(body);
+            crc.reset();
+            crc.update(body, 0, body.length);
+            if (body.length > 0 && (int) crc.getValue() == buffer.getInt()) {
+                throw new IOException("record at offset " + empty
+                        + " is empty.");
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Gets the file of the index.
+     * @return The file.
+     */
+    private File getIndexFile() {
+        return new File(file.getAbsoluteFile().getParentFile(),
+                file.getName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Reads the index file.
+     * @return The usable entries, empty if there are none.
+     */
+    private long[] loadIndex() {
+        File indexFile = getIndexFile();
+        long length = indexFile.length();
+        if (length < 4 * 4 + JournalFormat.CRC_SIZE
+                || length > Integer.MAX_VALUE) {
+            return new long[0];
+        }
+        byte[] bytes = new byte[(int) length];
+        try {
+            DataInputStream in = new DataInputStream(
+                    new FileInputStream(indexFile));
+            try {
+                in.readFully(bytes);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return new long[0];
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        crc.reset();
+        crc.update(bytes, 0, bytes.length - JournalFormat.CRC_SIZE);
+        if (buffer.getInt(bytes.length - JournalFormat.CRC_SIZE)
+                != (int) crc.getValue()
+                || buffer.getInt() != INDEX_MAGIC
+                || buffer.getInt() != INDEX_VERSION
+                || buffer.getInt() != indexInterval) {
+            return new long[0];
+        }
+        int entries = buffer.getInt();
+        if (entries < 0 || entries != (bytes.length - 4 * 4
+                - JournalFormat.CRC_SIZE) / ENTRY_SIZE) {
+            return new long[0];
+        }
+        long[] result = new long[entries];
+        int usable = 0;
+        for (int i = 0; i < entries; i++) {
+            long offset = buffer.getLong();
+            int checksum = buffer.getInt();
+            boolean valid = i == 0 ? offset == JournalFormat.HEADER_SIZE
+                    : offset > result[i - 1];
+            // a journal cut short by its writer or replaced by another one
+            // loses the entries that no longer follow its records.
+            if (!valid || offset > size
+                    || checksum != checksumBefore(offset)) {
+                break;
+            }
+            result[i] = offset;
+            usable++;
+        }
+        return Arrays.copyOf(result, usable);
+    }
+
+    /**
+     * Writes the index file.
+     * Failures are ignored, the index only saves time.
+     */
+    private void saveIndex() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(indexInterval);
+            out.writeInt(indexSize);
+            for (int i = 0; i < indexSize; i++) {
+                out.writeLong(index[i]);
+                out.writeInt(checksumBefore(index[i]));
+            }
+            crc.reset();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+
+            File indexFile = getIndexFile();
+            File temp = new File(indexFile.getPath() + TEMP_SUFFIX);
+            FileOutputStream fileOut = new FileOutputStream(temp);
+            try {
+                bytes.writeTo(fileOut);
+            } finally {
+                fileOut.close();
+            }
+            if (!temp.renameTo(indexFile)) {
+                indexFile.delete();
+                if (!temp.renameTo(indexFile)) {
+                    temp.delete();
+                }
+            }
+        } catch (IOException e) {
+            // the journal can still be read, the next reader scans again.
+            return;
+        }
+    }
+
+    /**
+     * Checks that this reader has not been closed.
+     */
+    private void checkOpen() {
+        if (segments == null) {
+            throw new IllegalStateException("reader is closed.");
+        }
+    }
+
+    /**
+     * Writes the index if it grew and drops the references to the mapping,
+     * which is unmapped once it is garbage collected.
+     * Further calls are ignored.
+     */
+    @Override
+    public void close() {
+        if (segments != null && indexSize > loadedSize) {
+            saveIndex();
+        }
+        segments = null;
+    }
+}
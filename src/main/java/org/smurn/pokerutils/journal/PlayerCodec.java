@@ -0,0 +1,48 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.smurn.pokerutils.Player;
+
+/**
+ * Writes and reads players in journals.
+ * <p>
+ * Typically a player is written as an identifier that the application can
+ * resolve when reading, for example with {@link Varint}. Implementations
+ * must be able to read what they wrote.
+ * </p>
+ */
+public interface PlayerCodec {
+
+    /**
+     * Writes a player.
+     * @param player The player. Never {@code null}.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    void write(Player player, DataOutput out) throws IOException;
+
+    /**
+     * Reads a player.
+     * @param in Stream to read from.
+     * @return The player. Must not be {@code null}.
+     * @throws IOException If reading fails or the data is invalid.
+     */
+    Player read(DataInput in) throws IOException;
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import net.jcip.annotations.Immutable;
+import org.smurn.pokerutils.Table;
+
+/**
+ * State of a table after a number of changes of a journal.
+ */
+@Immutable
+final class Snapshot {
+
+    /** Number of changes applied. */
+    private final long sequence;
+    /** Offset of the first change not applied in the journal. */
+    private final long offset;
+    /** Checksum of the record before the offset, 0 if there is none. */
+    private final int checksum;
+    /** The sealed table. */
+    private final Table table;
+
+    /**
+     * Creates an instance.
+     * @param sequence Number of changes applied.
+     * @param offset Offset of the first change not applied in the journal.
+     * @param checksum Checksum of the record before the offset, 0 if
+     * there is none.
+     * @param table The sealed table.
+     */
+    Snapshot(final long sequence, final long offset, final int checksum,
+            final Table table) {
+        this.sequence = sequence;
+        this.offset = offset;
+        this.checksum = checksum;
+        this.table = table;
+    }
+
+    /**
+     * Gets the number of changes applied.
+     * @return Sequence number of the first change not applied.
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets where the changes not applied start.
+     * @return Offset of the first change not applied in the journal.
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the checksum of the last change applied, which identifies the
+     * journal the snapshot belongs to.
+     * @return Checksum of the record before the offset, 0 if there is
+     * none.
+     */
+    int getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Gets the table.
+     * @return The sealed table after the changes.
+     */
+    Table getTable() {
+        return table;
+    }
+}
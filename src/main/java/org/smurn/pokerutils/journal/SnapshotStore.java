@@ -0,0 +1,262 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.smurn.pokerutils.Table;
+
+/**
+ * Snapshot files next to a journal.
+ * <p>
+ * The snapshot after {@code n} changes of the journal {@code name} is
+ * stored in the file {@code name.n.snapshot} in the same directory. It
+ * holds two big-endian ints, the magic number and the format version, the
+ * sequence number and the journal offset of the next change as longs, the
+ * checksum of the journal record before that offset as an int, the table
+ * as written by {@link TableCodec} and the CRC-32 of everything before it
+ * as an int. Snapshots are written to a temporary file that is renamed
+ * once it is on the storage device, so a crash leaves no partial snapshot
+ * behind.
+ * </p><p>
+ * A journal may be deleted and a new one started under the same name.
+ * Its snapshots are told apart from the old ones by the checksum of the
+ * record they were taken after, and writing a snapshot deletes all with a
+ * higher sequence number, since those cannot belong to the journal.
+ * </p>
+ */
+final class SnapshotStore {
+
+    /** Magic number at the start of each snapshot. */
+    static final int MAGIC = 0x50534e50;
+    /** Version of the file format. */
+    static final int VERSION = 2;
+    /** Suffix of snapshot files. */
+    private static final String SUFFIX = ".snapshot";
+    /** Suffix of snapshots being written. */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** Size of the checksum. */
+    private static final int CRC_SIZE = 4;
+    /** The journal. */
+    private final File journal;
+    /** Directory of the journal. */
+    private final File directory;
+    /** Start of the names of the snapshots. */
+    private final String prefix;
+    /** Codec of the players. */
+    private final PlayerCodec players;
+
+    /**
+     * Creates an instance.
+     * @param journal The journal the snapshots belong to.
+     * @param players Codec of the players.
+     */
+    SnapshotStore(final File journal, final PlayerCodec players) {
+        File parent = journal.getAbsoluteFile().getParentFile();
+        this.journal = journal;
+        this.directory = parent;
+        this.prefix = journal.getName() + ".";
+        this.players = players;
+    }
+
+    /**
+     * Gets the file of a snapshot.
+     * @param sequence Number of changes applied.
+     * @return The file.
+     */
+    File getFile(final long sequence) {
+        return new File(directory, prefix + sequence + SUFFIX);
+    }
+
+    /**
+     * Writes a snapshot and deletes older ones and those of an earlier
+     * journal with a higher sequence number.
+     * @param snapshot The snapshot.
+     * @param keep Number of snapshots to keep, at least 1.
+     * @throws IOException If writing fails.
+     */
+    void write(final Snapshot snapshot, final int keep) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(snapshot.getSequence());
+        out.writeLong(snapshot.getOffset());
+        out.writeInt(snapshot.getChecksum());
+        TableCodec.write(snapshot.getTable(), out, players);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        File file = getFile(snapshot.getSequence());
+        File temp = new File(directory, file.getName() + TEMP_SUFFIX);
+        FileOutputStream fileOut = new FileOutputStream(temp);
+        try {
+            bytes.writeTo(fileOut);
+            fileOut.getChannel().force(false);
+        } finally {
+            fileOut.close();
+        }
+        if (!temp.renameTo(file)) {
+            file.delete();
+            if (!temp.renameTo(file)) {
+                throw new IOException("cannot rename " + temp + " to "
+                        + file + ".");
+            }
+        }
+        List<Long> sequences = list();
+        int newer = sequences.indexOf(snapshot.getSequence()) + 1;
+        for (int i = newer; i < sequences.size(); i++) {
+            getFile(sequences.get(i)).delete();
+        }
+        for (int i = 0; i < newer - keep; i++) {
+            getFile(sequences.get(i)).delete();
+        }
+    }
+
+    /**
+     * Reads the newest usable snapshot.
+     * Snapshots that cannot be read or belong to a different journal are
+     * skipped.
+     * @param maxSequence Largest sequence number of interest.
+     * @param maxOffset Size of the journal, snapshots beyond it belong to
+     * a different journal.
+     * @return The snapshot or {@code null} if there is none.
+     */
+    Snapshot findLatest(final long maxSequence, final long maxOffset) {
+        List<Long> sequences = list();
+        for (int i = sequences.size() - 1; i >= 0; i--) {
+            long sequence = sequences.get(i);
+            if (sequence > maxSequence) {
+                continue;
+            }
+            try {
+                Snapshot snapshot = read(sequence);
+                if (snapshot.getOffset() <= maxOffset
+                        && isOfJournal(snapshot)) {
+                    return snapshot;
+                }
+            } catch (IOException e) {
+                // try the next older one.
+                continue;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that the journal holds the record a snapshot was taken after.
+     * @param snapshot The snapshot, its offset within the journal.
+     * @return True if the checksum of the record matches.
+     * @throws IOException If the journal cannot be read.
+     */
+    private boolean isOfJournal(final Snapshot snapshot) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(journal, "r");
+        try {
+            return JournalFormat.checksumBefore(file, snapshot.getOffset())
+                    == snapshot.getChecksum();
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Reads a snapshot.
+     * @param sequence Number of changes applied.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read or is corrupt.
+     */
+    Snapshot read(final long sequence) throws IOException {
+        File file = getFile(sequence);
+        long length = file.length();
+        if (length < CRC_SIZE || length > Integer.MAX_VALUE) {
+            throw new IOException("invalid snapshot " + file + ".");
+        }
+        byte[] bytes = new byte[(int) length];
+        InputStream fileIn = new BufferedInputStream(
+                new FileInputStream(file));
+        try {
+            new DataInputStream(fileIn).readFully(bytes);
+        } finally {
+            fileIn.close();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - CRC_SIZE);
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(bytes));
+        in.skipBytes(bytes.length - CRC_SIZE);
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("checksum mismatch in " + file + ".");
+        }
+        in = new DataInputStream(new ByteArrayInputStream(bytes, 0,
+                bytes.length - CRC_SIZE));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != sequence) {
+                throw new IOException("invalid snapshot " + file + ".");
+            }
+            long offset = in.readLong();
+            int checksum = in.readInt();
+            Table table = TableCodec.read(in, players);
+            return new Snapshot(sequence, offset, checksum, table);
+        } catch (EOFException e) {
+            throw new IOException("invalid snapshot " + file + ".", e);
+        }
+    }
+
+    /**
+     * Lists the snapshots.
+     * @return Sequence numbers of the snapshots, ascending.
+     */
+    List<Long> list() {
+        List<Long> sequences = new ArrayList<Long>();
+        String[] names = directory.list();
+        if (names == null) {
+            return sequences;
+        }
+        for (String name : names) {
+            if (name.startsWith(prefix) && name.endsWith(SUFFIX)) {
+                String number = name.substring(prefix.length(),
+                        name.length() - SUFFIX.length());
+                try {
+                    long sequence = Long.parseLong(number);
+                    if (sequence >= 0) {
+                        sequences.add(sequence);
+                    }
+                } catch (NumberFormatException e) {
+                    // not a snapshot of this journal.
+                    continue;
+                }
+            }
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
+}
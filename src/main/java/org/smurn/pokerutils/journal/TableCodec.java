@@ -0,0 +1,170 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Player;
+import org.smurn.pokerutils.Pot;
+import org.smurn.pokerutils.Seat;
+import org.smurn.pokerutils.Table;
+
+/**
+ * Writes and reads complete tables.
+ * <p>
+ * A table is written as the number of seats, the four button positions as
+ * ints and then each seat: a byte of flags, the player if there is one,
+ * stake, bet, hole cards and visible cards. Then follow the pots with their
+ * amount and seat numbers. Counts, chips and seat numbers are
+ * {@link Varint}s, cards a byte with their ordinal.
+ * </p>
+ */
+final class TableCodec {
+
+    /** Flag of a seat with a player. */
+    private static final int HAS_PLAYER = 1;
+    /** Flag of a seat whose hole cards are visible. */
+    private static final int CARDS_VISIBLE = 2;
+    /** All cards indexed by ordinal. */
+    private static final Card[] CARDS = Card.values();
+
+    /**
+     * Utility class without instances.
+     */
+    private TableCodec() {
+    }
+
+    /**
+     * Writes a table.
+     * @param table The table.
+     * @param out Stream to write to.
+     * @param players Codec of the players.
+     * @throws IOException If writing fails.
+     */
+    static void write(final Table table, final DataOutput out,
+            final PlayerCodec players) throws IOException {
+        Varint.write(out, table.getSeatCount());
+        out.writeInt(table.getDealerSeatNr());
+        out.writeInt(table.getSmallBlindSeatNr());
+        out.writeInt(table.getBigBlindSeatNr());
+        out.writeInt(table.getActingSeatNr());
+        for (Seat seat : table.getSeats()) {
+            int flags = (seat.getPlayer() != null ? HAS_PLAYER : 0)
+                    | (seat.isCardsVisible() ? CARDS_VISIBLE : 0);
+            out.writeByte(flags);
+            if (seat.getPlayer() != null) {
+                players.write(seat.getPlayer(), out);
+            }
+            Varint.write(out, seat.getStake());
+            Varint.write(out, seat.getBet());
+            writeCards(seat.getHoleCards(), out);
+            writeCards(seat.getVisibleCards(), out);
+        }
+        Varint.write(out, table.getPots().size());
+        for (Pot pot : table.getPots()) {
+            Varint.write(out, pot.getAmount());
+            Varint.write(out, pot.getSeatNumbers().size());
+            for (int seatNr : pot.getSeatNumbers()) {
+                Varint.write(out, seatNr);
+            }
+        }
+    }
+
+    /**
+     * Reads a table.
+     * @param in Stream to read from.
+     * @param players Codec of the players.
+     * @return The sealed table.
+     * @throws IOException If reading fails or the table is invalid.
+     */
+    static Table read(final DataInput in, final PlayerCodec players)
+            throws IOException {
+        try {
+            Table table = new Table(Varint.read(in));
+            int dealer = in.readInt();
+            int smallBlind = in.readInt();
+            int bigBlind = in.readInt();
+            int acting = in.readInt();
+            if (table.getSeatCount() > 0) {
+                table.setDealerSeatNr(dealer);
+                table.setSmallBlindSeatNr(smallBlind);
+                table.setBigBlindSeatNr(bigBlind);
+                table.setActingSeatNr(acting);
+            }
+            for (Seat seat : table.getSeats()) {
+                int flags = in.readUnsignedByte();
+                if ((flags & HAS_PLAYER) != 0) {
+                    seat.setPlayer(players.read(in));
+                }
+                seat.setCardsVisible((flags & CARDS_VISIBLE) != 0);
+                seat.setStake(Varint.read(in));
+                seat.setBet(Varint.read(in));
+                readCards(in, seat.getHoleCards());
+                readCards(in, seat.getVisibleCards());
+            }
+            int potCount = Varint.read(in);
+            for (int i = 0; i < potCount; i++) {
+                Pot pot = new Pot();
+                pot.setAmount(Varint.read(in));
+                int seatCount = Varint.read(in);
+                for (int j = 0; j < seatCount; j++) {
+                    pot.getSeatNumbers().add(Varint.read(in));
+                }
+                table.getPots().add(pot);
+            }
+            table.seal();
+            return table;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid table.", e);
+        }
+    }
+
+    /**
+     * Writes a list of cards.
+     * @param cards The cards.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    private static void writeCards(final List<Card> cards,
+            final DataOutput out) throws IOException {
+        Varint.write(out, cards.size());
+        for (Card card : cards) {
+            out.writeByte(card.ordinal());
+        }
+    }
+
+    /**
+     * Reads a list of cards.
+     * @param in Stream to read from.
+     * @param cards Receives the cards.
+     * @throws IOException If reading fails or a card is invalid.
+     */
+    private static void readCards(final DataInput in, final List<Card> cards)
+            throws IOException {
+        int count = Varint.read(in);
+        for (int i = 0; i < count; i++) {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= CARDS.length) {
+                throw new IOException("no card with ordinal " + ordinal
+                        + ".");
+            }
+            cards.add(CARDS[ordinal]);
+        }
+    }
+}
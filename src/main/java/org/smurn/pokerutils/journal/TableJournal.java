@@ -0,0 +1,231 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.Change;
+
+/**
+ * Journal of a table with periodic snapshots of its state.
+ * <p>
+ * Each applied change is appended to the journal. Every
+ * {@code snapshotInterval} changes the table is written to a snapshot file
+ * next to the journal, see {@link #snapshot()}. When a journal is opened
+ * again, the table is restored from the latest snapshot and only the
+ * changes after it are replayed, so recovery reads at most about
+ * {@code snapshotInterval} changes however long the session has been
+ * running. The last two snapshots are kept, older ones are deleted. A
+ * snapshot is only used if the journal still holds the change it was
+ * taken after, snapshots left behind by a deleted journal are ignored.
+ * </p>
+ */
+@NotThreadSafe
+public final class TableJournal implements Closeable {
+
+    /** Number of snapshots kept. */
+    private static final int KEEP_SNAPSHOTS = 2;
+    /** Appends the changes. */
+    private final JournalWriter writer;
+    /** Snapshots of the journal. */
+    private final SnapshotStore snapshots;
+    /** Number of changes between two snapshots. */
+    private final int snapshotInterval;
+    /** The current table. */
+    private Table table;
+
+    /**
+     * Opens a journal, creating it if it does not exist.
+     * @param file The journal. Must not be {@code null}.
+     * @param initial Table before the first change of the journal. Must not
+     * be {@code null} and must be sealed.
+     * @param codecs Codecs of the changes. Must not be {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @param syncInterval Number of changes written and synced together,
+     * see {@link JournalWriter}. Must be positive.
+     * @param snapshotInterval Number of changes after which a snapshot is
+     * written. Must be positive.
+     * @throws IOException If the journal cannot be read or written.
+     * @throws org.smurn.pokerutils.automata.IncompatibleTableException If a
+     * change of the journal cannot be applied.
+     */
+    public TableJournal(final File file, final Table initial,
+            final ChangeCodecs codecs, final PlayerCodec players,
+            final int syncInterval, final int snapshotInterval)
+            throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        if (snapshotInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "snapshotInterval must be positive.");
+        }
+        if (syncInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "syncInterval must be positive.");
+        }
+        this.snapshots = new SnapshotStore(file, players);
+        Snapshot end = recover(file, initial, codecs, players, snapshots);
+        this.writer = new JournalWriter(file, codecs, players, syncInterval,
+                end.getOffset(), end.getSequence());
+        this.snapshotInterval = snapshotInterval;
+        this.table = end.getTable();
+    }
+
+    /**
+     * Restores the table of a journal without opening it for writing.
+     * @param file The journal. Must not be {@code null}.
+     * @param initial Table before the first change of the journal. Must not
+     * be {@code null} and must be sealed.
+     * @param codecs Codecs of the changes. Must not be {@code null}.
+     * @param players Codec of the players. Must not be {@code null}.
+     * @return The table after the last change of the journal. Never
+     * {@code null}.
+     * @throws IOException If the journal cannot be read.
+     * @throws org.smurn.pokerutils.automata.IncompatibleTableException If a
+     * change of the journal cannot be applied.
+     */
+    public static Table recover(final File file, final Table initial,
+            final ChangeCodecs codecs, final PlayerCodec players)
+            throws IOException {
+        return recover(file, initial, codecs, players,
+                new SnapshotStore(file, players)).getTable();
+    }
+
+    /**
+     * Restores the table of a journal from the latest snapshot and the
+     * changes after it.
+     * @param file The journal.
+     * @param initial Table before the first change of the journal.
+     * @param codecs Codecs of the changes.
+     * @param players Codec of the players.
+     * @param snapshots Snapshots of the journal.
+     * @return State after the last complete change of the journal.
+     * @throws IOException If the journal cannot be read.
+     */
+    private static Snapshot recover(final File file, final Table initial,
+            final ChangeCodecs codecs, final PlayerCodec players,
+            final SnapshotStore snapshots) throws IOException {
+        if (file == null) {
+            throw new NullArgumentException("file");
+        }
+        if (initial == null) {
+            throw new NullArgumentException("initial");
+        }
+        if (!initial.isSealed()) {
+            throw new IllegalArgumentException("initial is not sealed.");
+        }
+        if (codecs == null) {
+            throw new NullArgumentException("codecs");
+        }
+        if (players == null) {
+            throw new NullArgumentException("players");
+        }
+        long length = file.length();
+        if (length == 0) {
+            return new Snapshot(0, JournalFormat.HEADER_SIZE, 0, initial);
+        }
+        Snapshot start = snapshots.findLatest(Long.MAX_VALUE, length);
+        if (start == null) {
+            start = new Snapshot(0, JournalFormat.HEADER_SIZE, 0, initial);
+        }
+        JournalReader reader = new JournalReader(file, codecs, players);
+        try {
+            // end where the writer will truncate a torn tail.
+            reader.recoverTail();
+            reader.seek(start.getOffset(), start.getSequence());
+            Table end = reader.replay(start.getTable());
+            int checksum = reader.getSequence() == start.getSequence()
+                    ? start.getChecksum() : reader.getLastChecksum();
+            return new Snapshot(reader.getSequence(), reader.getPosition(),
+                    checksum, end);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Applies a change to the table and appends it to the journal.
+     * A change that cannot be applied is not appended.
+     * @param change The change. Must not be {@code null} and have a codec
+     * registered.
+     * @return The table after the change. Never {@code null}.
+     * @throws IOException If writing fails.
+     * @throws org.smurn.pokerutils.automata.IncompatibleTableException If
+     * the change cannot be applied to the table.
+     */
+    public Table apply(final Change change) throws IOException {
+        if (change == null) {
+            throw new NullArgumentException("change");
+        }
+        Table after = change.apply(table);
+        writer.append(change);
+        table = after;
+        if (writer.getSequence() % snapshotInterval == 0) {
+            snapshot();
+        }
+        return after;
+    }
+
+    /**
+     * Syncs the journal and writes a snapshot of the current table.
+     * @throws IOException If writing fails.
+     */
+    public void snapshot() throws IOException {
+        writer.sync();
+        snapshots.write(new Snapshot(writer.getSequence(),
+                writer.getPosition(), writer.getLastChecksum(), table),
+                KEEP_SNAPSHOTS);
+    }
+
+    /**
+     * Gets the current table.
+     * @return The sealed table after the last change. Never {@code null}.
+     */
+    public Table getTable() {
+        return table;
+    }
+
+    /**
+     * Gets the number of changes in the journal.
+     * @return Sequence number of the next change.
+     */
+    public long getSequence() {
+        return writer.getSequence();
+    }
+
+    /**
+     * Writes the pending changes to the storage device.
+     * @throws IOException If writing fails.
+     */
+    public void sync() throws IOException {
+        writer.sync();
+    }
+
+    /**
+     * Syncs the pending changes and closes the journal.
+     * Further calls are ignored.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
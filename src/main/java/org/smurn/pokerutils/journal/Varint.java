@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes non-negative ints in as few bytes as possible.
+ * <p>
+ * Each byte holds seven bits of the value, least significant first, and
+ * has its highest bit set if more bytes follow. Values below 128 need a
+ * single byte, seat numbers and most stakes need one or two.
+ * </p>
+ */
+public final class Varint {
+
+    /** Bits of the value per byte. */
+    private static final int BITS = 7;
+    /** Bits of the value in a byte. */
+    private static final int VALUE_MASK = (1 << BITS) - 1;
+    /** Bit of a byte that is followed by more bytes. */
+    private static final int MORE = 1 << BITS;
+    /** Largest number of bytes of a value. */
+    static final int MAX_BYTES = 5;
+    /** Largest last byte of a value that fits in an int. */
+    private static final int LAST_MAX = Integer.MAX_VALUE >>> (BITS * 4);
+
+    /**
+     * Utility class without instances.
+     */
+    private Varint() {
+    }
+
+    /**
+     * Writes a value.
+     * @param out Stream to write to.
+     * @param value The value. Must be non-negative.
+     * @throws IOException If writing fails.
+     */
+    public static void write(final DataOutput out, final int value)
+            throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must be non-negative.");
+        }
+        int rest = value;
+        while (rest >= MORE) {
+            out.writeByte(rest & VALUE_MASK | MORE);
+            rest >>>= BITS;
+        }
+        out.writeByte(rest);
+    }
+
+    /**
+     * Reads a value.
+     * @param in Stream to read from.
+     * @return The value, non-negative.
+     * @throws IOException If reading fails or the value is invalid.
+     */
+    public static int read(final DataInput in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < MAX_BYTES; i++) {
+            int b = in.readUnsignedByte();
+            if (i == MAX_BYTES - 1 && b > LAST_MAX) {
+                break;
+            }
+            value |= (b & VALUE_MASK) << (i * BITS);
+            if ((b & MORE) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("invalid varint.");
+    }
+}
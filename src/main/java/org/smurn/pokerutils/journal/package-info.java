@@ -0,0 +1,38 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Persistence of change sequences.
+ * <p>
+ * A journal is a file with the {@link org.smurn.pokerutils.automata.Change}
+ * objects of a session in a compact binary form, appended one by one by a
+ * {@link org.smurn.pokerutils.journal.JournalWriter} and streamed back by a
+ * {@link org.smurn.pokerutils.journal.JournalReader}. Applying them in order
+ * to the initial table restores the state of the session.
+ * </p><p>
+ * Each kind of change is written by a
+ * {@link org.smurn.pokerutils.journal.ChangeCodec} registered with a tag in
+ * {@link org.smurn.pokerutils.journal.ChangeCodecs}. Players carry no data
+ * of their own, so the application decides how they are written with a
+ * {@link org.smurn.pokerutils.journal.PlayerCodec}.
+ * </p><p>
+ * A {@link org.smurn.pokerutils.journal.TableJournal} keeps the current
+ * table along with the journal and writes snapshots of it, so reopening a
+ * long journal only replays the changes after the latest snapshot. A
+ * {@link org.smurn.pokerutils.journal.MappedJournalReader} finds any change
+ * of a journal by its sequence number without reading the ones before.
+ * </p>
+ */
+package org.smurn.pokerutils.journal;
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Hand;
+
+/**
+ * Base of the category locators, which all work on a {@link CardAnalysis}.
+ * <p>
+ * Called directly, a locator analyses the cards itself.
+ * {@link CombinedLocator} analyses them once and passes the analysis to
+ * each locator in its sequence.
+ * </p><p>
+ * The class is public so that {@link #findBestHand(Collection)} can be
+ * called through reflection on the public locators. It cannot be extended
+ * outside of this package.
+ * </p>
+ */
+public abstract class AnalyzingLocator implements HandLocator {
+
+    /**
+     * Creates a locator.
+     */
+    protected AnalyzingLocator() {
+    }
+
+    @Override
+    public final Hand findBestHand(final Collection<Card> cards) {
+        return findBestHand(analyze(cards));
+    }
+
+    /**
+     * Finds the best hand in analysed cards.
+     * @param analysis The analysed cards, at least 5.
+     * @return The best hand of this locator's category, or null if there is
+     * none.
+     */
+    abstract Hand findBestHand(CardAnalysis analysis);
+
+    /**
+     * Checks and analyses cards.
+     * @param cards The available cards. Must not be null, must contain at
+     * least 5 cards.
+     * @return The analysis. Never null.
+     */
+    static CardAnalysis analyze(final Collection<Card> cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cards.size() < 5) {
+            throw new IllegalArgumentException("require at least 5 cards.");
+        }
+        return new CardAnalysis(cards);
+    }
+
+    /**
+     * Adds kickers to a hand until it has 5 cards.
+     * @param hand The cards of the hand so far.
+     * @param cards Cards to take the kickers from.
+     * @param from Index of the first kicker candidate.
+     * @param to Index after the last kicker candidate.
+     */
+    static void addKickers(final List<Card> hand, final Card[] cards,
+            final int from, final int to) {
+        for (int i = from; i < to && hand.size() < 5; i++) {
+            hand.add(cards[i]);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Collection;
+import org.smurn.pokerutils.Card;
+
+/**
+ * Cards prepared once for all category locators.
+ * <p>
+ * The cards are ordered twice with a counting sort: by decreasing rank and
+ * by suit and then decreasing rank. Both orders are stable, so among cards
+ * of the same rank the one given first comes first, exactly like sorting
+ * the cards with a comparator. Along with the orders, the number of cards
+ * and the position of the first card of each rank and each suit are kept.
+ * </p><p>
+ * {@link CombinedLocator} creates one analysis and passes it to every
+ * category locator instead of letting each of them sort the cards again.
+ * </p>
+ */
+final class CardAnalysis {
+
+    /** Number of ranks. */
+    private static final int RANKS = HandStrength.RANKS;
+    /** Number of suits. */
+    private static final int SUITS = 4;
+    /** All cards, ordered by decreasing rank. */
+    private final Card[] byRank;
+    /** Number of cards per rank ordinal. */
+    private final int[] rankCounts = new int[RANKS];
+    /** Index in {@link #byRank} of the first card per rank ordinal. */
+    private final int[] rankStarts = new int[RANKS];
+    /** All cards, ordered by suit and then by decreasing rank. */
+    private final Card[] bySuit;
+    /** Number of cards per suit ordinal. */
+    private final int[] suitCounts = new int[SUITS];
+    /** Index in {@link #bySuit} of the first card per suit ordinal. */
+    private final int[] suitStarts = new int[SUITS];
+    /** Bit mask of the rank ordinals of the cards. */
+    private final int rankMask;
+
+    /**
+     * Analyses the cards.
+     * @param cards The cards. Must not be null and not contain null.
+     */
+    CardAnalysis(final Collection<Card> cards) {
+        Card[] input = cards.toArray(new Card[cards.size()]);
+        int mask = 0;
+        for (Card card : input) {
+            rankCounts[card.getRank().ordinal()]++;
+            suitCounts[card.getSuit().ordinal()]++;
+            mask |= 1 << card.getRank().ordinal();
+        }
+        this.rankMask = mask;
+
+        int start = 0;
+        for (int rank = RANKS - 1; rank >= 0; rank--) {
+            rankStarts[rank] = start;
+            start += rankCounts[rank];
+        }
+        byRank = new Card[input.length];
+        int[] next = rankStarts.clone();
+        for (Card card : input) {
+            byRank[next[card.getRank().ordinal()]++] = card;
+        }
+
+        start = 0;
+        for (int suit = 0; suit < SUITS; suit++) {
+            suitStarts[suit] = start;
+            start += suitCounts[suit];
+        }
+        // distributing the rank order keeps it within each suit.
+        bySuit = new Card[input.length];
+        next = suitStarts.clone();
+        for (Card card : byRank) {
+            bySuit[next[card.getSuit().ordinal()]++] = card;
+        }
+    }
+
+    /**
+     * Gets the number of cards.
+     * @return Number of cards, including duplicates.
+     */
+    int size() {
+        return byRank.length;
+    }
+
+    /**
+     * Gets the cards ordered by decreasing rank.
+     * @return The cards. Must not be modified.
+     */
+    Card[] getByRank() {
+        return byRank;
+    }
+
+    /**
+     * Gets the cards ordered by suit and then by decreasing rank.
+     * @return The cards. Must not be modified.
+     */
+    Card[] getBySuit() {
+        return bySuit;
+    }
+
+    /**
+     * Gets the number of cards of a rank.
+     * @param rank Rank ordinal.
+     * @return Number of cards.
+     */
+    int getRankCount(final int rank) {
+        return rankCounts[rank];
+    }
+
+    /**
+     * Gets the position of the first card of a rank.
+     * @param rank Rank ordinal.
+     * @return Index in {@link #getByRank()}.
+     */
+    int getRankStart(final int rank) {
+        return rankStarts[rank];
+    }
+
+    /**
+     * Gets the number of cards of a suit.
+     * @param suit Suit ordinal.
+     * @return Number of cards.
+     */
+    int getSuitCount(final int suit) {
+        return suitCounts[suit];
+    }
+
+    /**
+     * Gets the position of the first card of a suit.
+     * @param suit Suit ordinal.
+     * @return Index in {@link #getBySuit()}.
+     */
+    int getSuitStart(final int suit) {
+        return suitStarts[suit];
+    }
+
+    /**
+     * Gets the ranks present.
+     * @return Mask with bit {@code r.ordinal()} set for each rank {@code r}
+     * of which there is at least one card.
+     */
+    int getRankMask() {
+        return rankMask;
+    }
+
+    /**
+     * Finds the highest rank with a minimum number of cards.
+     * @param count Minimum number of cards.
+     * @return Rank ordinal, -1 if no rank has enough cards.
+     */
+    int highestRank(final int count) {
+        for (int rank = RANKS - 1; rank >= 0; rank--) {
+            if (rankCounts[rank] >= count) {
+                return rank;
+            }
+        }
+        return -1;
+    }
+}
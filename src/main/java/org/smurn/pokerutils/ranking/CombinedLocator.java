@@ -19,12 +19,20 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 
 /**
  * A hand locator that makes use of a sequence of other locators.
+ * <p>
+ * The sequence is copied on construction and never changes afterwards, and
+ * the cards are analyzed into per-call scratch space. An instance can
+ * therefore be shared by any number of threads as long as the locators in
+ * the sequence can, which holds for all locators of this package.
+ * </p>
  */
+@ThreadSafe
 public final class CombinedLocator implements HandLocator {
 
     /** Locators used. */
@@ -50,8 +58,18 @@ public final class CombinedLocator implements HandLocator {
      */
     @Override
     public Hand findBestHand(final Collection<Card> cards) {
+        // the category locators share one analysis of the cards.
+        CardAnalysis analysis = null;
         for (HandLocator locator : locators) {
-            Hand hand = locator.findBestHand(cards);
+            Hand hand;
+            if (locator instanceof AnalyzingLocator) {
+                if (analysis == null) {
+                    analysis = AnalyzingLocator.analyze(cards);
+                }
+                hand = ((AnalyzingLocator) locator).findBestHand(analysis);
+            } else {
+                hand = locator.findBestHand(cards);
+            }
             if (hand != null) {
                 return hand;
             }
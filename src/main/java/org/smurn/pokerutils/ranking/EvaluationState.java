@@ -0,0 +1,234 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+
+/**
+ * Cards dealt so far, kept in the form {@link LookupLocator} evaluates.
+ * <p>
+ * Cards are added one at a time as they are dealt, for example the hole
+ * cards, then the flop, the turn and the river. Besides the card mask the
+ * state keeps the ranks held at least once, twice, three and four times,
+ * updated with a few bit operations per card. Evaluating the state only
+ * has to look for straights and flushes in the card mask, the rank
+ * counts of all earlier streets are carried over. The strength is cached
+ * until the cards change.
+ * </p><p>
+ * A game tree search can build the state of the board once, then
+ * {@link #copy()} it per branch or player. Copying only copies a few
+ * primitive fields.
+ * </p>
+ */
+@NotThreadSafe
+public final class EvaluationState {
+
+    /** Number of ranks, which is also the bits per suit in a card mask. */
+    private static final int RANKS = HandStrength.RANKS;
+    /** Number of suits. */
+    private static final int SUITS = 4;
+    /** Bits of the rank mask of a suit. */
+    private static final int SUIT_MASK = (1 << RANKS) - 1;
+    /** Bit mask of all cards as described by {@link CardSet#getMask()}. */
+    private long mask;
+    /** Ranks held at least once. */
+    private int ranks;
+    /** Ranks held at least twice. */
+    private int pairs;
+    /** Ranks held at least three times. */
+    private int trips;
+    /** Ranks held four times. */
+    private int quads;
+    /** Cached strength, -1 if it has to be calculated again. */
+    private int strength;
+
+    /**
+     * Creates a state without any cards.
+     */
+    public EvaluationState() {
+        this.strength = -1;
+    }
+
+    /**
+     * Creates a copy of a state.
+     * @param other State to copy. Must not be null.
+     */
+    public EvaluationState(final EvaluationState other) {
+        if (other == null) {
+            throw new NullArgumentException("other");
+        }
+        this.mask = other.mask;
+        this.ranks = other.ranks;
+        this.pairs = other.pairs;
+        this.trips = other.trips;
+        this.quads = other.quads;
+        this.strength = other.strength;
+    }
+
+    /**
+     * Creates a copy of this state.
+     * Changes to the copy do not affect this state and vice versa.
+     * @return The copy. Never null.
+     */
+    public EvaluationState copy() {
+        return new EvaluationState(this);
+    }
+
+    /**
+     * Adds a card.
+     * @param card The card. Must not be null and not already be added.
+     * @return This state.
+     */
+    public EvaluationState add(final Card card) {
+        if (card == null) {
+            throw new NullArgumentException("card");
+        }
+        return add(card.ordinal());
+    }
+
+    /**
+     * Adds a card by its ordinal.
+     * This method does not allocate any objects.
+     * @param ordinal Ordinal of the card, between 0 and 51. The card must
+     * not already be added.
+     * @return This state.
+     */
+    public EvaluationState add(final int ordinal) {
+        if (ordinal < 0 || ordinal >= SUITS * RANKS) {
+            throw new IllegalArgumentException("no card with ordinal "
+                    + ordinal + ".");
+        }
+        long bit = 1L << ordinal;
+        if ((mask & bit) != 0) {
+            throw new IllegalArgumentException("card "
+                    + Card.getCard(ordinal) + " is already added.");
+        }
+        mask |= bit;
+        int rank = 1 << (ordinal % RANKS);
+        if ((trips & rank) != 0) {
+            quads |= rank;
+        } else if ((pairs & rank) != 0) {
+            trips |= rank;
+        } else if ((ranks & rank) != 0) {
+            pairs |= rank;
+        } else {
+            ranks |= rank;
+        }
+        strength = -1;
+        return this;
+    }
+
+    /**
+     * Adds several cards.
+     * @param cards The cards. Must not be null, none of them may already be
+     * added.
+     * @return This state.
+     */
+    public EvaluationState addAll(final CardSet cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if ((mask & cards.getMask()) != 0) {
+            throw new IllegalArgumentException("cards "
+                    + cards.intersection(CardSet.fromMask(mask))
+                    + " are already added.");
+        }
+        long remaining = cards.getMask();
+        while (remaining != 0) {
+            add(Long.numberOfTrailingZeros(remaining));
+            remaining &= remaining - 1;
+        }
+        return this;
+    }
+
+    /**
+     * Removes a card, for example to undo a deal while walking a game tree.
+     * @param card The card. Must not be null and must have been added.
+     * @return This state.
+     */
+    public EvaluationState remove(final Card card) {
+        if (card == null) {
+            throw new NullArgumentException("card");
+        }
+        int ordinal = card.ordinal();
+        long bit = 1L << ordinal;
+        if ((mask & bit) == 0) {
+            throw new IllegalArgumentException("card " + card
+                    + " was not added.");
+        }
+        mask &= ~bit;
+        int rank = 1 << (ordinal % RANKS);
+        if ((quads & rank) != 0) {
+            quads &= ~rank;
+        } else if ((trips & rank) != 0) {
+            trips &= ~rank;
+        } else if ((pairs & rank) != 0) {
+            pairs &= ~rank;
+        } else {
+            ranks &= ~rank;
+        }
+        strength = -1;
+        return this;
+    }
+
+    /**
+     * Gets the number of cards added.
+     * @return Number of cards.
+     */
+    public int size() {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Gets the bit mask of the cards added.
+     * @return Mask as described by {@link CardSet#getMask()}.
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Gets the cards added.
+     * @return The cards. Never null.
+     */
+    public CardSet getCards() {
+        return CardSet.fromMask(mask);
+    }
+
+    /**
+     * Gets the strength of the best hand in the cards added.
+     * This method does not allocate any objects.
+     * @return Strength value as described by {@link HandStrength}.
+     * @throws IllegalStateException If less than 5 cards were added.
+     */
+    public int getStrength() {
+        if (strength < 0) {
+            if (size() < HandStrength.CARDS_IN_HAND) {
+                throw new IllegalStateException("require at least 5 "
+                        + "cards.");
+            }
+            strength = LookupLocator.evaluate((int) mask & SUIT_MASK,
+                    (int) (mask >>> RANKS) & SUIT_MASK,
+                    (int) (mask >>> (2 * RANKS)) & SUIT_MASK,
+                    (int) (mask >>> (3 * RANKS)) & SUIT_MASK,
+                    ranks, pairs, trips, quads);
+        }
+        return strength;
+    }
+}
@@ -16,11 +16,9 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,75 +27,32 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best flush hand in a set of cards.
  */
-public final class FlushLocator implements HandLocator {
+@ThreadSafe
+public final class FlushLocator extends AnalyzingLocator {
 
-    @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        // sort cards by suit and then by rank
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>()  {
+    /** Number of suits. */
+    private static final int SUITS = 4;
 
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                if (o1.getSuit() != o2.getSuit()) {
-                    return o1.getSuit().ordinal() - o2.getSuit().ordinal();
-                } else {
-                    return o2.getRank().getRankValue()
-                            - o1.getRank().getRankValue();
-                }
-            }
-        });
-
-        // find all flushes within the cards, remember where they started.
-        List<Integer> candidates = new ArrayList<Integer>();
-        int lastStart = 0;
-        for (int i = 1; i < cardsCopy.size(); i++) {
-            if (cardsCopy.get(lastStart).getSuit()
-                    == cardsCopy.get(i).getSuit()) {
-                if (i - lastStart + 1 == 5) {
-                    // we found a flush
-                    candidates.add(lastStart);
+    @Override
+    Hand findBestHand(final CardAnalysis analysis) {
+        // the candidates are the five highest cards of each suit with at
+        // least five cards, the highest ranks win, the first suit on a tie.
+        Card[] cards = analysis.getBySuit();
+        int start = -1;
+        for (int suit = 0; suit < SUITS; suit++) {
+            if (analysis.getSuitCount(suit) >= 5) {
+                int candidate = analysis.getSuitStart(suit);
+                if (start < 0 || isHigher(cards, candidate, start)) {
+                    start = candidate;
                 }
-            } else {
-                lastStart = i;
             }
         }
 
-        if (candidates.isEmpty()) {
+        if (start < 0) {
             return null;
         }
 
-        // compare the candidates by rank from highest to lowest
-        for (int offset = 0; offset < 5; offset++) {
-            Rank bestRank = cardsCopy.get(candidates.get(0) + offset).getRank();
-            for (int i = 1; i < candidates.size();) {
-                Rank rank = cardsCopy.get(candidates.get(i) + offset).getRank();
-                if (rank.getRankValue() > bestRank.getRankValue()) {
-                    bestRank = rank;
-                    for (int j = i - 1; j >= 0; j--) {
-                        candidates.remove(j);
-                    }
-                    i = 1;
-                } else if (rank.getRankValue() < bestRank.getRankValue()) {
-                    candidates.remove(i);
-                } else {
-                    i++;
-                }
-            }
-        }
-
-        int start = candidates.get(0);
-
-        List<Card> bestCards = new ArrayList<Card>();
-        bestCards.addAll(cardsCopy.subList(start, start + 5));
+        List<Card> bestCards = Arrays.asList(cards).subList(start, start + 5);
 
         List<Rank> bestRanks = new ArrayList<Rank>();
         for (int i = 0; i < bestCards.size(); i++) {
@@ -106,4 +61,23 @@ public final class FlushLocator implements HandLocator {
 
         return new Hand(HandCategory.Flush, bestCards, bestRanks);
     }
+
+    /**
+     * Compares two flushes by rank from highest to lowest.
+     * @param cards Cards ordered by suit and decreasing rank.
+     * @param candidate Index of the first card of one flush.
+     * @param best Index of the first card of the other flush.
+     * @return {@code true} if the first flush is higher.
+     */
+    private static boolean isHigher(final Card[] cards, final int candidate,
+            final int best) {
+        for (int offset = 0; offset < 5; offset++) {
+            int rank = cards[candidate + offset].getRank().getRankValue();
+            int bestRank = cards[best + offset].getRank().getRankValue();
+            if (rank != bestRank) {
+                return rank > bestRank;
+            }
+        }
+        return false;
+    }
 }
@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,61 +26,28 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best four-of-a-kind hand within a set of cards.
  */
-public final class FourOfAKindLocator implements HandLocator {
+@ThreadSafe
+public final class FourOfAKindLocator extends AnalyzingLocator {
 
     @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        // sort cards by rank
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>() {
-
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                        - o1.getRank().getRankValue();
-            }
-        });
-
-        // find the highest pair
-
-        int firstCard = -1;
-        for (int i = 3; i < cardsCopy.size(); i++) {
-            if (cardsCopy.get(i - 3).getRank() == cardsCopy.get(i - 2).getRank()
-                    && cardsCopy.get(i - 2).getRank()
-                    == cardsCopy.get(i - 1).getRank()
-                    && cardsCopy.get(i - 1).getRank()
-                    == cardsCopy.get(i).getRank()) {
-
-                if (firstCard < 0) {
-                    firstCard = i - 3;
-                }
-            }
-        }
-
-        if (firstCard < 0) {
+    Hand findBestHand(final CardAnalysis analysis) {
+        int rank = analysis.highestRank(4);
+        if (rank < 0) {
             return null; // no four-of-a-kind
         }
-
-        // we found the highest four-of-a-kind, construct hand.
+        // the highest four-of-a-kind, the first four cards of its rank.
+        Card[] cards = analysis.getByRank();
+        int firstCard = analysis.getRankStart(rank);
 
         List<Card> bestCards = new ArrayList<Card>();
-        bestCards.add(cardsCopy.get(firstCard)); // card of four-of-a-kind
-        bestCards.add(cardsCopy.get(firstCard + 1)); // card of four-of-a-kind
-        bestCards.add(cardsCopy.get(firstCard + 2)); // card of four-of-a-kind
-        bestCards.add(cardsCopy.get(firstCard + 3)); // card of four-of-a-kind
-        // kickers higher than pair
-        bestCards.addAll(cardsCopy.subList(0, firstCard));
-        // kickers lower than pair
-        bestCards.addAll(cardsCopy.subList(firstCard + 4, cardsCopy.size()));
-        bestCards = bestCards.subList(0, 5);
+        bestCards.add(cards[firstCard]); // card of four-of-a-kind
+        bestCards.add(cards[firstCard + 1]); // card of four-of-a-kind
+        bestCards.add(cards[firstCard + 2]); // card of four-of-a-kind
+        bestCards.add(cards[firstCard + 3]); // card of four-of-a-kind
+        // kickers higher than four-of-a-kind
+        addKickers(bestCards, cards, 0, firstCard);
+        // kickers lower than four-of-a-kind
+        addKickers(bestCards, cards, firstCard + 4, cards.length);
 
         List<Rank> bestRanks = new ArrayList<Rank>();
         bestRanks.add(bestCards.get(0).getRank()); // rank of the four-of-a-kind
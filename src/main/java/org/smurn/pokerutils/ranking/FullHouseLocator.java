@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,61 +26,27 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best full-house hand in a set of cards.
  */
-public final class FullHouseLocator implements HandLocator {
+@ThreadSafe
+public final class FullHouseLocator extends AnalyzingLocator {
 
-    @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        // sort cards by rank
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>() {
-
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                        - o1.getRank().getRankValue();
-            }
-        });
+    /** Number of ranks. */
+    private static final int RANKS = HandStrength.RANKS;
 
+    @Override
+    Hand findBestHand(final CardAnalysis analysis) {
         // find the highest three-of-a-kind
-        int startThreeOfAKind = -1;
-        for (int i = 2; i < cardsCopy.size(); i++) {
-            if (cardsCopy.get(i - 2).getRank() == cardsCopy.get(i - 1).getRank()
-                    && cardsCopy.get(i - 1).getRank()
-                     == cardsCopy.get(i).getRank()) {
-                if (startThreeOfAKind < 0) {
-                    startThreeOfAKind = i - 2;
-                }
-            }
-        }
-
-        if (startThreeOfAKind < 0) {
+        int tripRank = analysis.highestRank(3);
+        if (tripRank < 0) {
             return null;
         }
+        int startThreeOfAKind = analysis.getRankStart(tripRank);
 
-        // find the highest pair
+        // find the highest pair among the remaining cards
         int startPair = -1;
-        for (int i = 0; i < cardsCopy.size() - 1; i++) {
-            if (i == startThreeOfAKind) {
-                i += 3;
-            }
-            if (i + 1 == startThreeOfAKind) {
-                i += 4;
-            }
-            if (i < cardsCopy.size() - 1) {
-                if (cardsCopy.get(i).getRank()
-                         == cardsCopy.get(i + 1).getRank()) {
-                    if (startPair < 0) {
-                        startPair = i;
-                    }
-                }
+        for (int rank = RANKS - 1; rank >= 0 && startPair < 0; rank--) {
+            int used = rank == tripRank ? 3 : 0;
+            if (analysis.getRankCount(rank) - used >= 2) {
+                startPair = analysis.getRankStart(rank) + used;
             }
         }
 
@@ -91,13 +54,13 @@ public final class FullHouseLocator implements HandLocator {
             return null;
         }
 
-
+        Card[] cards = analysis.getByRank();
         List<Card> bestCards = new ArrayList<Card>();
-        bestCards.add(cardsCopy.get(startThreeOfAKind)); // card of ToK
-        bestCards.add(cardsCopy.get(startThreeOfAKind + 1)); // card of ToK
-        bestCards.add(cardsCopy.get(startThreeOfAKind + 2)); // card of ToK
-        bestCards.add(cardsCopy.get(startPair)); // card of pair
-        bestCards.add(cardsCopy.get(startPair + 1)); // card of pair
+        bestCards.add(cards[startThreeOfAKind]); // card of ToK
+        bestCards.add(cards[startThreeOfAKind + 1]); // card of ToK
+        bestCards.add(cards[startThreeOfAKind + 2]); // card of ToK
+        bestCards.add(cards[startPair]); // card of pair
+        bestCards.add(cards[startPair + 1]); // card of pair
 
         List<Rank> bestRanks = new ArrayList<Rank>();
         bestRanks.add(bestCards.get(0).getRank()); // rank of the ToK
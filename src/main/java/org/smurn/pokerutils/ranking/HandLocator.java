@@ -22,6 +22,11 @@ import org.smurn.pokerutils.Hand;
 /**
  * Finds the best hand in a set of cards.
  * The exact definition of 'best' depends on the implementation.
+ * <p>
+ * Implementations should be thread-safe so that a single instance can be
+ * shared by all threads, keeping any working memory local to a call and
+ * any tables immutable. All implementations in this package are.
+ * </p>
  */
 public interface HandLocator {
 
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.HandCategory;
+import org.smurn.pokerutils.Rank;
+import org.smurn.pokerutils.Suit;
+
+/**
+ * Packs the information needed to compare hands into a single {@code int}.
+ * <p>
+ * A strength value stores the {@link HandCategory} in bits 20 to 23 and
+ * the ranks of {@link Hand#getRanks()} in four bit blocks below, the first
+ * rank in bits 16 to 19, the second in bits 12 to 15 and so on. Unused
+ * blocks are zero. For hands found by the locators of this package, the
+ * stronger hand has the larger strength value and equally strong hands have
+ * equal values.
+ * </p><p>
+ * The cards that form the hand are not part of the strength value. They
+ * can be restored with {@link #toHand(int, Collection)} from the cards the
+ * strength was calculated from.
+ * </p>
+ */
+public final class HandStrength {
+
+    /** Number of ranks. */
+    static final int RANKS = 13;
+    /** Number of cards a hand has. */
+    static final int CARDS_IN_HAND = 5;
+    /** Number of bits used to store a rank. */
+    static final int RANK_BITS = Hand.RANK_BITS;
+    /** Bits of a single rank. */
+    static final int RANK_MASK = Hand.RANK_MASK;
+    /** Position of the first (most influential) rank. */
+    static final int FIRST_RANK_SHIFT = Hand.FIRST_RANK_SHIFT;
+    /** Position of the category. */
+    static final int CATEGORY_SHIFT = Hand.CATEGORY_SHIFT;
+    /**
+     * Number of cards per stored rank for each category, indexed by
+     * {@link HandCategory#ordinal()}. Straights are handled separately since
+     * they only store the highest rank.
+     */
+    private static final int[][] CARDS_PER_RANK = {
+        {1, 1, 1, 1, 1},
+        {2, 1, 1, 1},
+        {2, 2, 1},
+        {3, 1, 1},
+        {1},
+        {1, 1, 1, 1, 1},
+        {3, 2},
+        {4, 1},
+        {1}
+    };
+
+    /**
+     * Utility class without instances.
+     */
+    private HandStrength() {
+    }
+
+    /**
+     * Calculates the strength value of a category and ranks.
+     * @param category Category of the hand. Must not be null.
+     * @param ranks Ranks as returned by {@link Hand#getRanks()}. Must not be
+     * null and must not contain more than 5 ranks.
+     * @return Strength value.
+     */
+    public static int valueOf(final HandCategory category,
+            final List<Rank> ranks) {
+        if (category == null) {
+            throw new NullArgumentException("category");
+        }
+        if (ranks == null) {
+            throw new NullArgumentException("ranks");
+        }
+        if (ranks.size() > CARDS_IN_HAND) {
+            throw new IllegalArgumentException("at most 5 ranks allowed.");
+        }
+        int strength = pack(category, 0);
+        for (int i = 0; i < ranks.size(); i++) {
+            strength |= ranks.get(i).ordinal()
+                    << (FIRST_RANK_SHIFT - i * RANK_BITS);
+        }
+        return strength;
+    }
+
+    /**
+     * Calculates the strength value of a hand.
+     * @param hand The hand. Must not be null and must not have more than
+     * 5 ranks.
+     * @return Strength value.
+     */
+    public static int valueOf(final Hand hand) {
+        if (hand == null) {
+            throw new NullArgumentException("hand");
+        }
+        return valueOf(hand.getCategory(), hand.getRanks());
+    }
+
+    /**
+     * Gets the category stored in a strength value.
+     * @param strength Strength value.
+     * @return Category of the hand. Never null.
+     */
+    public static HandCategory getCategory(final int strength) {
+        int ordinal = strength >>> CATEGORY_SHIFT;
+        if (ordinal >= HandCategory.values().length) {
+            throw new IllegalArgumentException("not a strength value: "
+                    + strength);
+        }
+        return HandCategory.values()[ordinal];
+    }
+
+    /**
+     * Gets the ranks stored in a strength value.
+     * The number of ranks is the one the locators of this package produce
+     * for the category.
+     * @param strength Strength value.
+     * @return Ranks as they would be returned by {@link Hand#getRanks()}.
+     * Never null.
+     */
+    public static List<Rank> getRanks(final int strength) {
+        HandCategory category = getCategory(strength);
+        int count = category.getRankCount();
+        List<Rank> ranks = new ArrayList<Rank>(count);
+        for (int i = 0; i < count; i++) {
+            ranks.add(Rank.values()[rank(strength, i)]);
+        }
+        return ranks;
+    }
+
+    /**
+     * Gets a rank stored in a strength value.
+     * @param strength Strength value.
+     * @param i Position of the rank, 0 for the most influential one.
+     * @return Ordinal of the rank.
+     */
+    private static int rank(final int strength, final int i) {
+        return (strength >>> (FIRST_RANK_SHIFT - i * RANK_BITS)) & RANK_MASK;
+    }
+
+    /**
+     * Builds the hand described by a strength value.
+     * Where several cards of the same rank qualify, the ones appearing
+     * first in the given collection are used, which is what the locators
+     * of this package do as well.
+     * @param strength Strength value of the best hand within the cards.
+     * @param cards Cards from which the strength was calculated. Must not
+     * be null.
+     * @return The hand, backed by the strength value and the mask of its
+     * cards. Never null.
+     * @throws IllegalArgumentException If the cards do not contain the
+     * hand described by the strength value.
+     */
+    public static Hand toHand(final int strength,
+            final Collection<Card> cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        HandCategory category = getCategory(strength);
+
+        int[] needed = new int[RANKS];
+        if (category == HandCategory.Straight
+                || category == HandCategory.StraightFlush) {
+            int high = rank(strength, 0);
+            if (high < CARDS_IN_HAND - 1 || high >= RANKS) {
+                throw new IllegalArgumentException("not a strength value: "
+                        + strength);
+            }
+            for (int i = 0; i < CARDS_IN_HAND; i++) {
+                needed[high - i] = 1;
+            }
+        } else {
+            int[] cardsPerRank = CARDS_PER_RANK[category.ordinal()];
+            for (int i = 0; i < cardsPerRank.length; i++) {
+                int rank = rank(strength, i);
+                if (rank >= RANKS) {
+                    throw new IllegalArgumentException(
+                            "not a strength value: " + strength);
+                }
+                needed[rank] += cardsPerRank[i];
+            }
+        }
+
+        Suit suit = null;
+        if (category == HandCategory.Flush
+                || category == HandCategory.StraightFlush) {
+            suit = findSuit(cards, needed);
+            if (suit == null) {
+                throw new IllegalArgumentException("cards do not contain the "
+                        + "hand " + category + " " + getRanks(strength)
+                        + ".");
+            }
+        }
+
+        // the hand only keeps the mask, the card set is built if asked for.
+        long mask = 0;
+        int found = 0;
+        for (Card card : cards) {
+            int rank = card.getRank().ordinal();
+            if (needed[rank] > 0 && (suit == null || card.getSuit() == suit)) {
+                mask |= 1L << card.ordinal();
+                needed[rank]--;
+                found++;
+            }
+        }
+        if (found != CARDS_IN_HAND) {
+            throw new IllegalArgumentException("cards do not contain the "
+                    + "hand " + category + " " + getRanks(strength) + ".");
+        }
+
+        return new Hand(strength, mask);
+    }
+
+    /**
+     * Finds the first suit in which all needed ranks are available.
+     * @param cards The available cards.
+     * @param needed Number of cards needed per rank.
+     * @return The suit, or null if there is none.
+     */
+    private static Suit findSuit(final Collection<Card> cards,
+            final int[] needed) {
+        int required = 0;
+        for (int rank = 0; rank < RANKS; rank++) {
+            if (needed[rank] > 0) {
+                required |= 1 << rank;
+            }
+        }
+        int[] suitMasks = new int[Suit.values().length];
+        for (Card card : cards) {
+            suitMasks[card.getSuit().ordinal()] |=
+                    1 << card.getRank().ordinal();
+        }
+        for (Suit suit : Suit.values()) {
+            if ((suitMasks[suit.ordinal()] & required) == required) {
+                return suit;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Combines a category with packed ranks into a strength value.
+     * @param category Category of the hand.
+     * @param ranks Packed ranks.
+     * @return Strength value.
+     */
+    static int pack(final HandCategory category, final int ranks) {
+        return category.ordinal() << CATEGORY_SHIFT | ranks;
+    }
+}
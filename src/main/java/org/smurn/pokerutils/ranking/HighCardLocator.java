@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,33 +26,18 @@ import org.smurn.pokerutils.Rank;
 /**
  * Locates the best high-card hand in a set of cards.
  */
-public final class HighCardLocator implements HandLocator {
+@ThreadSafe
+public final class HighCardLocator extends AnalyzingLocator {
 
     /**
      * Returns the best high-card hand in a set of cards.
-     * @param cards The available cards. Must not be null.
+     * @param analysis The available cards.
      * @return The best hand that can be made with the given cards. Never null.
      */
     @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>()   {
-
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                         - o1.getRank().getRankValue();
-            }
-        });
-
-        List<Card> bestCards = cardsCopy.subList(0, 5);
+    Hand findBestHand(final CardAnalysis analysis) {
+        List<Card> bestCards = new ArrayList<Card>();
+        addKickers(bestCards, analysis.getByRank(), 0, analysis.size());
         List<Rank> bestRanks = new ArrayList<Rank>();
         for (Card card : bestCards) {
             bestRanks.add(card.getRank());
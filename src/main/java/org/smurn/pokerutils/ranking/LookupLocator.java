@@ -0,0 +1,554 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Collection;
+import java.util.List;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.HandCategory;
+
+/**
+ * Locates the best hand of any category using precomputed lookup tables.
+ * <p>
+ * The result is the same as the one of a {@link CombinedLocator} running
+ * the nine category locators from {@link StraightFlushLocator} down to
+ * {@link HighCardLocator}. Instead of sorting the cards once per category,
+ * the cards are reduced to one 13 bit rank mask per suit. Pairs, trips and
+ * quads are found with bit operations on those masks, straights and kickers
+ * are read from tables indexed by a rank mask.
+ * </p><p>
+ * The tables are filled once when the class is initialized and only read
+ * afterwards, all other working memory is local to a call. Instances hold
+ * no state at all and can be shared by any number of threads.
+ * </p><p>
+ * The given cards must not contain duplicates.
+ * </p>
+ */
+@ThreadSafe
+public final class LookupLocator implements HandLocator {
+
+    /** Number of ranks, which is also the number of bits of a rank mask. */
+    private static final int RANKS = HandStrength.RANKS;
+    /** Number of suits. */
+    private static final int SUITS = 4;
+    /** Bits of all 52 cards in a card mask. */
+    private static final long ALL_CARDS = (1L << (SUITS * RANKS)) - 1;
+    /** Number of cards a hand has. */
+    private static final int CARDS_IN_HAND = HandStrength.CARDS_IN_HAND;
+    /** Number of bits used to store a rank in a strength value. */
+    private static final int RANK_BITS = HandStrength.RANK_BITS;
+    /** Position of the first rank in a strength value. */
+    private static final int FIRST_RANK_SHIFT = HandStrength.FIRST_RANK_SHIFT;
+    /** Number of different rank masks. */
+    private static final int MASKS = 1 << RANKS;
+    /** Bits of a single suit in a card mask. */
+    private static final int SUIT_MASK = (1 << RANKS) - 1;
+    /** Rank mask of five consecutive ranks, starting with the lowest. */
+    private static final int STRAIGHT_MASK = 0x1F;
+    /**
+     * Highest rank of the best straight in a rank mask, or -1 if the mask
+     * contains no straight.
+     */
+    private static final byte[] STRAIGHTS = new byte[MASKS];
+    /**
+     * The five highest ranks in a rank mask, stored the same way as the
+     * ranks of a strength value. Masks with less than five ranks leave the
+     * lower positions zero.
+     */
+    private static final int[] TOP_FIVE = new int[MASKS];
+
+    static {
+        for (int mask = 0; mask < MASKS; mask++) {
+            STRAIGHTS[mask] = -1;
+            for (int high = RANKS - 1; high >= CARDS_IN_HAND - 1; high--) {
+                int straight = STRAIGHT_MASK << (high - CARDS_IN_HAND + 1);
+                if ((mask & straight) == straight) {
+                    STRAIGHTS[mask] = (byte) high;
+                    break;
+                }
+            }
+
+            int packed = 0;
+            int shift = FIRST_RANK_SHIFT;
+            for (int rank = RANKS - 1; rank >= 0 && shift >= 0; rank--) {
+                if ((mask & (1 << rank)) != 0) {
+                    packed |= rank << shift;
+                    shift -= RANK_BITS;
+                }
+            }
+            TOP_FIVE[mask] = packed;
+        }
+    }
+
+    /**
+     * Returns the best hand in a set of cards.
+     * @param cards The available cards. Must not be null, must contain
+     * at least 5 cards and no card more than once.
+     * @return The best hand that can be made with the given cards. Never null.
+     */
+    @Override
+    public Hand findBestHand(final Collection<Card> cards) {
+        return HandStrength.toHand(evaluate(cards), cards);
+    }
+
+    /**
+     * Calculates the strength of the best hand in a set of cards.
+     * This gives the same result as {@code HandStrength.valueOf(
+     * findBestHand(cards))} without creating the hand.
+     * @param cards The available cards. Must not be null, must contain
+     * at least 5 cards and no card more than once.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    public int evaluate(final Collection<Card> cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cards.size() < CARDS_IN_HAND) {
+            throw new IllegalArgumentException("require at least 5 cards.");
+        }
+
+        int spades = 0;
+        int hearts = 0;
+        int diamonds = 0;
+        int clubs = 0;
+        for (Card card : cards) {
+            int bit = 1 << card.getRank().ordinal();
+            int before;
+            switch (card.getSuit()) {
+                case Spades:
+                    before = spades;
+                    spades |= bit;
+                    break;
+                case Hearts:
+                    before = hearts;
+                    hearts |= bit;
+                    break;
+                case Diamonds:
+                    before = diamonds;
+                    diamonds |= bit;
+                    break;
+                default:
+                    before = clubs;
+                    clubs |= bit;
+                    break;
+            }
+            if ((before & bit) != 0) {
+                throw new IllegalArgumentException("card " + card
+                        + " is given more than once.");
+            }
+        }
+
+        return evaluate(spades, hearts, diamonds, clubs);
+    }
+
+    /**
+     * Calculates the strength of the best hand in a set of cards.
+     * @param cards The available cards. Must not be null, must contain
+     * at least 5 cards.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    public int evaluate(final CardSet cards) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        return evaluate(cards.getMask());
+    }
+
+    /**
+     * Calculates the strength of the best hand in a card mask.
+     * This method does not allocate any objects.
+     * @param cards Bit mask of the available cards as described by
+     * {@link CardSet#getMask()}. Must contain at least 5 cards and no bits
+     * above the last card.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    public int evaluate(final long cards) {
+        if (Long.bitCount(cards) < CARDS_IN_HAND) {
+            throw new IllegalArgumentException("require at least 5 cards.");
+        }
+        if ((cards & ~ALL_CARDS) != 0) {
+            throw new IllegalArgumentException("not a mask of cards: "
+                    + cards);
+        }
+        return evaluateMask(cards);
+    }
+
+    /**
+     * Calculates the strengths of many hands given as card masks.
+     * This method does not allocate any objects.
+     * @param hands Bit mask of the cards of each hand as described by
+     * {@link CardSet#getMask()}. Must not be null, each mask must contain
+     * at least 5 cards.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least as long as {@code hands}.
+     */
+    public void evaluateAll(final long[] hands, final int[] strengths) {
+        if (hands == null) {
+            throw new NullArgumentException("hands");
+        }
+        evaluateAll(hands, 0, hands.length, strengths);
+    }
+
+    /**
+     * Calculates the strengths of a range of hands given as card masks.
+     * This method does not allocate any objects.
+     * @param hands Bit mask of the cards of each hand as described by
+     * {@link CardSet#getMask()}. Must not be null, each mask in the range
+     * must contain at least 5 cards.
+     * @param from Index of the first hand to evaluate.
+     * @param to Index after the last hand to evaluate.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least {@code to} long. Entries
+     * outside of the range are not changed.
+     */
+    public void evaluateAll(final long[] hands, final int from, final int to,
+            final int[] strengths) {
+        if (hands == null) {
+            throw new NullArgumentException("hands");
+        }
+        checkRange(from, to, hands.length, strengths);
+        for (int i = from; i < to; i++) {
+            long cards = hands[i];
+            if (Long.bitCount(cards) < CARDS_IN_HAND
+                    || (cards & ~ALL_CARDS) != 0) {
+                throw new IllegalArgumentException("hand " + i
+                        + " is not a mask of at least 5 cards.");
+            }
+            strengths[i] = evaluateMask(cards);
+        }
+    }
+
+    /**
+     * Calculates the strengths of many hands given as card ordinals.
+     * This method does not allocate any objects.
+     * @param cards Ordinals of the cards of all hands, hand {@code i} is
+     * stored from index {@code i * cardsPerHand} on. Must not be null.
+     * Its length must be a multiple of {@code cardsPerHand}.
+     * @param cardsPerHand Number of cards per hand, at least 5. No card
+     * may be used twice within a hand.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least have one entry per hand.
+     */
+    public void evaluateAll(final int[] cards, final int cardsPerHand,
+            final int[] strengths) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cardsPerHand < CARDS_IN_HAND) {
+            throw new IllegalArgumentException("require at least 5 cards "
+                    + "per hand.");
+        }
+        if (cards.length % cardsPerHand != 0) {
+            throw new IllegalArgumentException("number of cards is not a "
+                    + "multiple of " + cardsPerHand + ".");
+        }
+        evaluateAll(cards, cardsPerHand, 0, cards.length / cardsPerHand,
+                strengths);
+    }
+
+    /**
+     * Calculates the strengths of a range of hands given as card ordinals.
+     * This method does not allocate any objects.
+     * @param cards Ordinals of the cards of all hands, hand {@code i} is
+     * stored from index {@code i * cardsPerHand} on. Must not be null.
+     * @param cardsPerHand Number of cards per hand, at least 5. No card
+     * may be used twice within a hand.
+     * @param from Index of the first hand to evaluate.
+     * @param to Index after the last hand to evaluate.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least {@code to} long. Entries
+     * outside of the range are not changed.
+     */
+    public void evaluateAll(final int[] cards, final int cardsPerHand,
+            final int from, final int to, final int[] strengths) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (cardsPerHand < CARDS_IN_HAND) {
+            throw new IllegalArgumentException("require at least 5 cards "
+                    + "per hand.");
+        }
+        checkRange(from, to, cards.length / cardsPerHand, strengths);
+        for (int i = from; i < to; i++) {
+            long mask = 0;
+            for (int j = i * cardsPerHand; j < (i + 1) * cardsPerHand; j++) {
+                int ordinal = cards[j];
+                if (ordinal < 0 || ordinal >= SUITS * RANKS) {
+                    throw new IllegalArgumentException("hand " + i
+                            + " has an invalid card ordinal " + ordinal
+                            + ".");
+                }
+                long bit = 1L << ordinal;
+                if ((mask & bit) != 0) {
+                    throw new IllegalArgumentException("hand " + i
+                            + " contains a card more than once.");
+                }
+                mask |= bit;
+            }
+            strengths[i] = evaluateMask(mask);
+        }
+    }
+
+    /**
+     * Checks the range of a batch evaluation.
+     * @param from Index of the first hand.
+     * @param to Index after the last hand.
+     * @param hands Number of hands in the input.
+     * @param strengths Array receiving the strengths.
+     */
+    private static void checkRange(final int from, final int to,
+            final int hands, final int[] strengths) {
+        if (strengths == null) {
+            throw new NullArgumentException("strengths");
+        }
+        if (from < 0 || from > to || to > hands) {
+            throw new IndexOutOfBoundsException("invalid range [" + from
+                    + ", " + to + ") for " + hands + " hands.");
+        }
+        if (to > strengths.length) {
+            throw new IllegalArgumentException("strengths has room for "
+                    + strengths.length + " hands only.");
+        }
+    }
+
+    /**
+     * Calculates the strength of the best hand in a card mask without
+     * checking the number of cards.
+     * @param cards Bit mask of the available cards.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    static int evaluateMask(final long cards) {
+        return evaluate((int) cards & SUIT_MASK,
+                (int) (cards >>> RANKS) & SUIT_MASK,
+                (int) (cards >>> (2 * RANKS)) & SUIT_MASK,
+                (int) (cards >>> (3 * RANKS)) & SUIT_MASK);
+    }
+
+    /**
+     * Calculates the strength of the best hand.
+     * @param spades Rank mask of the spade cards.
+     * @param hearts Rank mask of the heart cards.
+     * @param diamonds Rank mask of the diamond cards.
+     * @param clubs Rank mask of the club cards.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    static int evaluate(final int spades, final int hearts,
+            final int diamonds, final int clubs) {
+        return evaluate(spades, hearts, diamonds, clubs,
+                spades | hearts | diamonds | clubs,
+                (spades & hearts) | (diamonds & clubs)
+                | ((spades | hearts) & (diamonds | clubs)),
+                (spades & hearts & (diamonds | clubs))
+                | (diamonds & clubs & (spades | hearts)),
+                spades & hearts & diamonds & clubs);
+    }
+
+    /**
+     * Calculates the strength of the best hand from rank masks that are
+     * already known, such as those kept by {@link EvaluationState}.
+     * @param spades Rank mask of the spade cards.
+     * @param hearts Rank mask of the heart cards.
+     * @param diamonds Rank mask of the diamond cards.
+     * @param clubs Rank mask of the club cards.
+     * @param ranks Ranks held at least once.
+     * @param pairs Ranks held at least twice.
+     * @param trips Ranks held at least three times.
+     * @param quads Ranks held four times.
+     * @return Strength value of the best hand, see {@link HandStrength}.
+     */
+    static int evaluate(final int spades, final int hearts,
+            final int diamonds, final int clubs, final int ranks,
+            final int pairs, final int trips, final int quads) {
+
+        int straightFlush = Math.max(
+                Math.max(STRAIGHTS[spades], STRAIGHTS[hearts]),
+                Math.max(STRAIGHTS[diamonds], STRAIGHTS[clubs]));
+        if (straightFlush >= 0) {
+            return HandStrength.pack(HandCategory.StraightFlush,
+                    straightFlush << FIRST_RANK_SHIFT);
+        }
+
+        if (quads != 0) {
+            int quad = highest(quads);
+            int kicker = highest(ranks & ~(1 << quad));
+            return HandStrength.pack(HandCategory.FourOfAKind,
+                    quad << FIRST_RANK_SHIFT
+                    | kicker << (FIRST_RANK_SHIFT - RANK_BITS));
+        }
+
+        // quads are excluded above, so trips hold exactly three cards.
+        if (trips != 0) {
+            int trip = highest(trips);
+            int otherPairs = pairs & ~(1 << trip);
+            if (otherPairs != 0) {
+                return HandStrength.pack(HandCategory.FullHouse,
+                        trip << FIRST_RANK_SHIFT
+                        | highest(otherPairs)
+                        << (FIRST_RANK_SHIFT - RANK_BITS));
+            }
+        }
+
+        int flush = Math.max(
+                Math.max(flush(spades), flush(hearts)),
+                Math.max(flush(diamonds), flush(clubs)));
+        if (flush >= 0) {
+            return HandStrength.pack(HandCategory.Flush, flush);
+        }
+
+        int straight = STRAIGHTS[ranks];
+        if (straight >= 0) {
+            return HandStrength.pack(HandCategory.Straight,
+                    straight << FIRST_RANK_SHIFT);
+        }
+
+        if (trips != 0) {
+            int trip = highest(trips);
+            return HandStrength.pack(HandCategory.TreeOfAKind,
+                    trip << FIRST_RANK_SHIFT
+                    | (TOP_FIVE[ranks & ~(1 << trip)] >>> RANK_BITS)
+                    & 0xFF00);
+        }
+
+        if (pairs != 0) {
+            int high = highest(pairs);
+            int rest = pairs & ~(1 << high);
+            if (rest != 0) {
+                int low = highest(rest);
+                int kicker = highest(ranks & ~(1 << high) & ~(1 << low));
+                return HandStrength.pack(HandCategory.TwoPair,
+                        high << FIRST_RANK_SHIFT
+                        | low << (FIRST_RANK_SHIFT - RANK_BITS)
+                        | kicker << (FIRST_RANK_SHIFT - 2 * RANK_BITS));
+            }
+            return HandStrength.pack(HandCategory.Pair,
+                    high << FIRST_RANK_SHIFT
+                    | (TOP_FIVE[ranks & ~(1 << high)] >>> RANK_BITS)
+                    & 0xFFF0);
+        }
+
+        return HandStrength.pack(HandCategory.HighCard, TOP_FIVE[ranks]);
+    }
+
+    /**
+     * Gets the ranks of a flush within the cards of one suit.
+     * @param suitMask Rank mask of the cards of a suit.
+     * @return The five highest ranks, or -1 if there are not enough cards for
+     * a flush.
+     */
+    private static int flush(final int suitMask) {
+        if (Integer.bitCount(suitMask) < CARDS_IN_HAND) {
+            return -1;
+        }
+        return TOP_FIVE[suitMask];
+    }
+
+    /**
+     * Gets the highest rank in a rank mask.
+     * @param mask Rank mask with at least one rank set.
+     * @return Value of the highest rank.
+     */
+    private static int highest(final int mask) {
+        return Integer.SIZE - 1 - Integer.numberOfLeadingZeros(mask);
+    }
+
+    /**
+     * Finds the winners of a showdown.
+     * The board is split into the rank masks of its suits once, each seat
+     * then only adds the ranks of its hole cards to them.
+     * @param board The community cards. Must not be null.
+     * @param holeCards Hole cards per seat. Must not be null. Entries may
+     * be null for seats that do not take part. Together with the board each
+     * entry must contain at least 5 cards. No card may be used twice.
+     * @return Outcome of the showdown. Never null.
+     */
+    public Showdown rankShowdown(final CardSet board,
+            final CardSet... holeCards) {
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        long boardMask = board.getMask();
+        int spades = (int) boardMask & SUIT_MASK;
+        int hearts = (int) (boardMask >>> RANKS) & SUIT_MASK;
+        int diamonds = (int) (boardMask >>> (2 * RANKS)) & SUIT_MASK;
+        int clubs = (int) (boardMask >>> (3 * RANKS)) & SUIT_MASK;
+        long used = boardMask;
+        int[] strengths = new int[holeCards.length];
+        for (int seat = 0; seat < holeCards.length; seat++) {
+            if (holeCards[seat] == null) {
+                strengths[seat] = -1;
+                continue;
+            }
+            long hole = holeCards[seat].getMask();
+            if ((used & hole) != 0) {
+                throw new IllegalArgumentException("hole cards of seat "
+                        + seat + " are used more than once.");
+            }
+            if (Long.bitCount(boardMask | hole) < CARDS_IN_HAND) {
+                throw new IllegalArgumentException("require at least 5 "
+                        + "cards.");
+            }
+            used |= hole;
+            strengths[seat] = evaluate(spades | (int) hole & SUIT_MASK,
+                    hearts | (int) (hole >>> RANKS) & SUIT_MASK,
+                    diamonds | (int) (hole >>> (2 * RANKS)) & SUIT_MASK,
+                    clubs | (int) (hole >>> (3 * RANKS)) & SUIT_MASK);
+        }
+        return new Showdown(strengths);
+    }
+
+    /**
+     * Finds the winners of a showdown.
+     * @param board The community cards. Must not be null.
+     * @param holeCards Hole cards per seat. Must not be null. Entries may
+     * be null for seats that do not take part. Together with the board each
+     * entry must contain at least 5 cards. No card may be used twice.
+     * @return Outcome of the showdown. Never null.
+     * @see #rankShowdown(CardSet, CardSet[])
+     */
+    public Showdown rankShowdown(final Collection<Card> board,
+            final List<? extends Collection<Card>> holeCards) {
+        if (board == null) {
+            throw new NullArgumentException("board");
+        }
+        if (holeCards == null) {
+            throw new NullArgumentException("holeCards");
+        }
+        CardSet[] holeSets = new CardSet[holeCards.size()];
+        for (int seat = 0; seat < holeSets.length; seat++) {
+            Collection<Card> hole = holeCards.get(seat);
+            if (hole != null) {
+                holeSets[seat] = CardSet.of(hole);
+                if (holeSets[seat].size() != hole.size()) {
+                    throw new IllegalArgumentException("hole cards of seat "
+                            + seat + " contain a card more than once.");
+                }
+            }
+        }
+        CardSet boardSet = CardSet.of(board);
+        if (boardSet.size() != board.size()) {
+            throw new IllegalArgumentException("board contains a card more "
+                    + "than once.");
+        }
+        return rankShowdown(boardSet, holeSets);
+    }
+}
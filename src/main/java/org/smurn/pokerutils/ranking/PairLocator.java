@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,54 +26,26 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best pair hand.
  */
-public final class PairLocator implements HandLocator {
+@ThreadSafe
+public final class PairLocator extends AnalyzingLocator {
 
     @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        // sort cards by rank
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>()       {
-
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                         - o1.getRank().getRankValue();
-            }
-        });
-
-        // find the highest pair
-
-        int firstCardOfPair = -1;
-        for (int i = 1; i < cardsCopy.size(); i++) {
-            if (cardsCopy.get(i - 1).getRank() == cardsCopy.get(i).getRank()) {
-                if (firstCardOfPair < 0) {
-                    firstCardOfPair = i - 1;
-                }
-            }
-        }
-
-        if (firstCardOfPair < 0) {
+    Hand findBestHand(final CardAnalysis analysis) {
+        int rank = analysis.highestRank(2);
+        if (rank < 0) {
             return null; // no pair
         }
-        // we found the highest pair, construct hand.
+        // the highest pair, the first two cards of its rank.
+        Card[] cards = analysis.getByRank();
+        int firstCardOfPair = analysis.getRankStart(rank);
 
         List<Card> bestCards = new ArrayList<Card>();
-        bestCards.add(cardsCopy.get(firstCardOfPair));         // card of pair
-        bestCards.add(cardsCopy.get(firstCardOfPair + 1));     // card of pair
+        bestCards.add(cards[firstCardOfPair]);         // card of pair
+        bestCards.add(cards[firstCardOfPair + 1]);     // card of pair
         // kickers higher than pair
-        bestCards.addAll(cardsCopy.subList(0, firstCardOfPair));
+        addKickers(bestCards, cards, 0, firstCardOfPair);
         // kickers lower than pair
-        bestCards.addAll(cardsCopy.subList(firstCardOfPair + 2,
-                cardsCopy.size()));
-        bestCards = bestCards.subList(0, 5);
+        addKickers(bestCards, cards, firstCardOfPair + 2, cards.length);
 
         List<Rank> bestRanks = new ArrayList<Rank>();
         bestRanks.add(bestCards.get(0).getRank()); // rank of the pair
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang.NullArgumentException;
+import org.smurn.pokerutils.concurrent.SharedPool;
+
+/**
+ * Evaluates large batches of hands on a {@link ForkJoinPool}.
+ * <p>
+ * The hands are split in halves until a range holds at most the configured
+ * chunk size, and each chunk is evaluated with
+ * {@link LookupLocator#evaluateAll(long[], int, int, int[])}. Evaluation
+ * needs no working memory beyond a few local variables and every chunk
+ * writes its own range of the result array, so the workers share no
+ * mutable state. Idle workers steal the unsplit halves of busy ones.
+ * </p>
+ */
+@ThreadSafe
+public final class ParallelEvaluator {
+
+    /** Default number of hands evaluated by one task. */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 14;
+    /** Pool running the chunks. */
+    private final ForkJoinPool pool;
+    /** Maximum number of hands evaluated by one task. */
+    private final int chunkSize;
+    /** Locator evaluating the chunks. */
+    private final LookupLocator locator = new LookupLocator();
+
+    /**
+     * Creates an instance on the {@link SharedPool} with the
+     * default chunk size.
+     */
+    public ParallelEvaluator() {
+        this(SharedPool.get(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an instance.
+     * @param pool Pool to run the chunks in. Must not be null.
+     * @param chunkSize Maximum number of hands evaluated by one task. Must
+     * be positive. Smaller chunks balance the load better, larger ones
+     * have less overhead.
+     */
+    public ParallelEvaluator(final ForkJoinPool pool, final int chunkSize) {
+        if (pool == null) {
+            throw new NullArgumentException("pool");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be "
+                    + "positive.");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the maximum number of hands evaluated by one task.
+     * @return The chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Calculates the strengths of many hands given as card masks.
+     * @param hands Bit mask of the cards of each hand as described by
+     * {@link org.smurn.pokerutils.CardSet#getMask()}. Must not be null,
+     * each mask must contain at least 5 cards.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least as long as {@code hands}.
+     * @see LookupLocator#evaluateAll(long[], int[])
+     */
+    public void evaluateAll(final long[] hands, final int[] strengths) {
+        if (hands == null) {
+            throw new NullArgumentException("hands");
+        }
+        if (strengths == null) {
+            throw new NullArgumentException("strengths");
+        }
+        if (strengths.length < hands.length) {
+            throw new IllegalArgumentException("strengths has room for "
+                    + strengths.length + " hands only.");
+        }
+        pool.invoke(new ChunkTask(hands, null, 0, strengths, 0,
+                hands.length));
+    }
+
+    /**
+     * Calculates the strengths of many hands given as card ordinals.
+     * @param cards Ordinals of the cards of all hands, hand {@code i} is
+     * stored from index {@code i * cardsPerHand} on. Must not be null.
+     * Its length must be a multiple of {@code cardsPerHand}.
+     * @param cardsPerHand Number of cards per hand, at least 5. No card
+     * may be used twice within a hand.
+     * @param strengths Receives the strength of hand {@code i} at index
+     * {@code i}. Must not be null and at least have one entry per hand.
+     * @see LookupLocator#evaluateAll(int[], int, int[])
+     */
+    public void evaluateAll(final int[] cards, final int cardsPerHand,
+            final int[] strengths) {
+        if (cards == null) {
+            throw new NullArgumentException("cards");
+        }
+        if (strengths == null) {
+            throw new NullArgumentException("strengths");
+        }
+        if (cardsPerHand < HandStrength.CARDS_IN_HAND) {
+            throw new IllegalArgumentException("require at least 5 cards "
+                    + "per hand.");
+        }
+        if (cards.length % cardsPerHand != 0) {
+            throw new IllegalArgumentException("number of cards is not a "
+                    + "multiple of " + cardsPerHand + ".");
+        }
+        int hands = cards.length / cardsPerHand;
+        if (strengths.length < hands) {
+            throw new IllegalArgumentException("strengths has room for "
+                    + strengths.length + " hands only.");
+        }
+        pool.invoke(new ChunkTask(null, cards, cardsPerHand, strengths, 0,
+                hands));
+    }
+
+    /**
+     * Evaluates a range of hands, splitting it until it fits into a chunk.
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** Hands as card masks, null if given as ordinals. */
+        private final long[] masks;
+        /** Hands as card ordinals, null if given as masks. */
+        private final int[] ordinals;
+        /** Number of ordinals per hand. */
+        private final int cardsPerHand;
+        /** Receives the strengths. */
+        private final int[] strengths;
+        /** First hand of this task. */
+        private final int from;
+        /** Hand after the last hand of this task. */
+        private final int to;
+
+        /**
+         * Creates an instance.
+         * @param masks Hands as card masks, null if given as ordinals.
+         * @param ordinals Hands as card ordinals, null if given as masks.
+         * @param cardsPerHand Number of ordinals per hand.
+         * @param strengths Receives the strengths.
+         * @param from First hand of this task.
+         * @param to Hand after the last hand of this task.
+         */
+        ChunkTask(final long[] masks, final int[] ordinals,
+                final int cardsPerHand, final int[] strengths,
+                final int from, final int to) {
+            this.masks = masks;
+            this.ordinals = ordinals;
+            this.cardsPerHand = cardsPerHand;
+            this.strengths = strengths;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(masks, ordinals, cardsPerHand,
+                        strengths, from, middle),
+                        new ChunkTask(masks, ordinals, cardsPerHand,
+                        strengths, middle, to));
+            } else if (masks != null) {
+                locator.evaluateAll(masks, from, to, strengths);
+            } else {
+                locator.evaluateAll(ordinals, cardsPerHand, from, to,
+                        strengths);
+            }
+        }
+    }
+}
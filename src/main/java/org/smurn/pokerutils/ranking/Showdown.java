@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import net.jcip.annotations.Immutable;
+
+/**
+ * Outcome of a showdown between several seats.
+ * Seats are identified by their index in the hole cards passed to
+ * {@link LookupLocator#rankShowdown(org.smurn.pokerutils.CardSet,
+ * org.smurn.pokerutils.CardSet[])}. Seats without hole cards do not take
+ * part in the showdown.
+ */
+@Immutable
+public final class Showdown {
+
+    /** Strength value per seat, -1 for seats not taking part. */
+    private final int[] strengths;
+    /** Place per seat, 0 for the winners, -1 for seats not taking part. */
+    private final int[] places;
+    /** Seats with place 0. */
+    private final List<Integer> winners;
+
+    /**
+     * Creates an instance.
+     * @param strengths Strength value per seat, -1 for seats not taking
+     * part. The array is not copied and must not be modified afterwards.
+     */
+    Showdown(final int[] strengths) {
+        this.strengths = strengths;
+        this.places = new int[strengths.length];
+        List<Integer> winnersTmp = new ArrayList<Integer>();
+        for (int seat = 0; seat < strengths.length; seat++) {
+            if (strengths[seat] < 0) {
+                places[seat] = -1;
+                continue;
+            }
+            // place is the number of distinct strengths beating this seat.
+            int place = 0;
+            for (int other = 0; other < strengths.length; other++) {
+                if (strengths[other] > strengths[seat]
+                        && !hasEarlierEqual(other)) {
+                    place++;
+                }
+            }
+            places[seat] = place;
+            if (place == 0) {
+                winnersTmp.add(seat);
+            }
+        }
+        this.winners = Collections.unmodifiableList(winnersTmp);
+    }
+
+    /**
+     * Checks if the strength of a seat also appears at an earlier seat.
+     * @param seat Index of the seat.
+     * @return {@code true} if an earlier seat has the same strength.
+     */
+    private boolean hasEarlierEqual(final int seat) {
+        for (int other = 0; other < seat; other++) {
+            if (strengths[other] == strengths[seat]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of seats, including those not taking part.
+     * @return Number of seats.
+     */
+    public int getSeatCount() {
+        return strengths.length;
+    }
+
+    /**
+     * Gets the strength of the best hand of a seat.
+     * @param seat Index of the seat.
+     * @return Strength value as described by {@link HandStrength}, or -1 if
+     * the seat does not take part.
+     */
+    public int getStrength(final int seat) {
+        return strengths[seat];
+    }
+
+    /**
+     * Gets the place of a seat.
+     * Seats with equally strong hands share the same place. The next
+     * weaker hand gets the next place, so places have no gaps.
+     * @param seat Index of the seat.
+     * @return 0 for the winners, 1 for the second best hands and so on,
+     * -1 if the seat does not take part.
+     */
+    public int getPlace(final int seat) {
+        return places[seat];
+    }
+
+    /**
+     * Checks if a seat has one of the best hands.
+     * @param seat Index of the seat.
+     * @return {@code true} if the seat wins or splits the pot.
+     */
+    public boolean isWinner(final int seat) {
+        return places[seat] == 0;
+    }
+
+    /**
+     * Gets the seats with the best hand.
+     * @return Immutable list of the winning seats in ascending order. Never
+     * null, empty only if no seat takes part.
+     */
+    public List<Integer> getWinners() {
+        return winners;
+    }
+
+    /**
+     * Checks if the pot is split between several seats.
+     * @return {@code true} if more than one seat has the best hand.
+     */
+    public boolean isTie() {
+        return winners.size() > 1;
+    }
+}
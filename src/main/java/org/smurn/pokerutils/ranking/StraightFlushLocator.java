@@ -16,52 +16,43 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
+import org.smurn.pokerutils.Rank;
 import org.smurn.pokerutils.Suit;
 
 /**
  * Find the best straight flush in a set of cards.
  */
-public final class StraightFlushLocator implements HandLocator {
+@ThreadSafe
+public final class StraightFlushLocator extends AnalyzingLocator {
 
     @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        StraightLocator locator = new StraightLocator();
-        Hand bestHand = null;
+    Hand findBestHand(final CardAnalysis analysis) {
+        List<Card> bestCards = null;
 
         for (Suit suit : Suit.values()) {
-            List<Card> suitedCards = new ArrayList<Card>();
-            for (Card card : cards) {
-                if (card.getSuit() == suit) {
-                    suitedCards.add(card);
-                }
-            }
-            if (suitedCards.size() >= 5) {
-                Hand hand = locator.findBestHand(suitedCards);
-                if (hand != null && ( bestHand == null
-                        || bestHand.getRanks().get(0).getRankValue()
-                         < hand.getRanks().get(0).getRankValue() )) {
-                    bestHand = hand;
+            int count = analysis.getSuitCount(suit.ordinal());
+            if (count >= 5) {
+                int start = analysis.getSuitStart(suit.ordinal());
+                List<Card> cards = StraightLocator.findStraight(
+                        analysis.getBySuit(), start, start + count);
+                if (cards != null && (bestCards == null
+                        || bestCards.get(0).getRank().getRankValue()
+                         < cards.get(0).getRank().getRankValue())) {
+                    bestCards = cards;
                 }
             }
         }
 
-        if (bestHand == null) {
+        if (bestCards == null) {
             return null;
         }
-        return new Hand(HandCategory.StraightFlush, bestHand.getCards(),
-                bestHand.getRanks());
+        List<Rank> bestRanks = new ArrayList<Rank>();
+        bestRanks.add(bestCards.get(0).getRank());
+        return new Hand(HandCategory.StraightFlush, bestCards, bestRanks);
     }
 }
@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,58 +26,58 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best straight hand in a set of cards.
  */
-public final class StraightLocator implements HandLocator {
+@ThreadSafe
+public final class StraightLocator extends AnalyzingLocator {
 
     @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
+    Hand findBestHand(final CardAnalysis analysis) {
+        int ranks = analysis.getRankMask();
+        if ((ranks & ranks >>> 1 & ranks >>> 2 & ranks >>> 3 & ranks >>> 4)
+                == 0) {
+            return null; // no five consecutive ranks
         }
 
-        // sort cards by rank
+        List<Card> bestCards = findStraight(analysis.getByRank(), 0,
+                analysis.size());
 
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>() {
+        List<Rank> bestRanks = new ArrayList<Rank>();
+        bestRanks.add(bestCards.get(0).getRank());
 
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                         - o1.getRank().getRankValue();
-            }
-        });
+        return new Hand(HandCategory.Straight, bestCards, bestRanks);
+    }
 
-        // find the highest straight
+    /**
+     * Finds the highest straight in cards ordered by decreasing rank.
+     * Of several cards with the same rank the first one is used.
+     * @param cards The cards, ordered by decreasing rank.
+     * @param from Index of the first card to consider.
+     * @param to Index after the last card to consider, larger than
+     * {@code from}.
+     * @return The five cards of the straight, starting with the highest,
+     * or null if there is no straight.
+     */
+    static List<Card> findStraight(final Card[] cards, final int from,
+            final int to) {
         List<Card> bestCards = new ArrayList<Card>();
-        int lastRank = cardsCopy.get(0).getRank().getRankValue();
-        bestCards.add(cardsCopy.get(0));
+        int lastRank = cards[from].getRank().getRankValue();
+        bestCards.add(cards[from]);
 
-        for (int i = 1; i < cardsCopy.size(); i++) {
-            int rank = cardsCopy.get(i).getRank().getRankValue();
+        for (int i = from + 1; i < to; i++) {
+            int rank = cards[i].getRank().getRankValue();
             if (lastRank != rank) { // else we ignore this card.
                 if (lastRank != rank + 1) {
                     // the sequence has ended, we start a new one.
                     bestCards.clear();
                 }
-                bestCards.add(cardsCopy.get(i));
+                bestCards.add(cards[i]);
                 lastRank = rank;
 
                 if (bestCards.size() == 5) {
                     // we found our straight.
-                    break;  // get out of the for loop.
+                    return bestCards;
                 }
             }
         }
-
-        if (bestCards.size() != 5) {
-            return null;
-        }
-
-        List<Rank> bestRanks = new ArrayList<Rank>();
-        bestRanks.add(bestCards.get(0).getRank());
-
-        return new Hand(HandCategory.Straight, bestCards, bestRanks);
+        return null;
     }
 }
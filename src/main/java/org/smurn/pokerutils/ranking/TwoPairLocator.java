@@ -16,11 +16,8 @@
 package org.smurn.pokerutils.ranking;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.lang.NullArgumentException;
+import net.jcip.annotations.ThreadSafe;
 import org.smurn.pokerutils.Card;
 import org.smurn.pokerutils.Hand;
 import org.smurn.pokerutils.HandCategory;
@@ -29,43 +26,26 @@ import org.smurn.pokerutils.Rank;
 /**
  * Finds the best two-pair hand in a set of cards.
  */
-public final class TwoPairLocator implements HandLocator {
+@ThreadSafe
+public final class TwoPairLocator extends AnalyzingLocator {
 
-    @Override
-    public Hand findBestHand(final Collection<Card> cards) {
-        if (cards == null) {
-            throw new NullArgumentException("cards");
-        }
-        if (cards.size() < 5) {
-            throw new IllegalArgumentException("require at least 5 cards.");
-        }
-
-        // sort cards by rank
-
-        List<Card> cardsCopy = new ArrayList<Card>(cards);
-        Collections.sort(cardsCopy, new Comparator<Card>() {
-
-            @Override
-            public int compare(final Card o1, final Card o2) {
-                return o2.getRank().getRankValue()
-                       - o1.getRank().getRankValue();
-            }
-        });
-
-        // find the highest pair
+    /** Number of ranks. */
+    private static final int RANKS = HandStrength.RANKS;
 
+    @Override
+    Hand findBestHand(final CardAnalysis analysis) {
+        // find the two highest pairs, four cards of a rank make two pairs.
         int firstPair = -1;
         int secondPair = -1;
-        for (int i = 0; i < cardsCopy.size() - 1; i++) {
-            if (cardsCopy.get(i).getRank() == cardsCopy.get(i + 1).getRank()) {
-                // found a pair
+        for (int rank = RANKS - 1; rank >= 0 && secondPair < 0; rank--) {
+            int start = analysis.getRankStart(rank);
+            int count = analysis.getRankCount(rank);
+            for (int i = 0; i + 1 < count && secondPair < 0; i += 2) {
                 if (firstPair < 0) {
-                    firstPair = i;
-                } else if (secondPair < 0) {
-                    secondPair = i;
+                    firstPair = start + i;
+                } else {
+                    secondPair = start + i;
                 }
-                i++; // the next card cannot be the beginning of a pair since
-                // it is used for this pair.
             }
         }
 
@@ -75,18 +55,18 @@ public final class TwoPairLocator implements HandLocator {
 
         // we found the highest two-pair, construct hand.
 
+        Card[] cards = analysis.getByRank();
         List<Card> bestCards = new ArrayList<Card>();
-        bestCards.add(cardsCopy.get(firstPair)); // card of high pair
-        bestCards.add(cardsCopy.get(firstPair + 1)); // card of high pair
-        bestCards.add(cardsCopy.get(secondPair)); // card of low pair
-        bestCards.add(cardsCopy.get(secondPair + 1)); // card of low pair
+        bestCards.add(cards[firstPair]); // card of high pair
+        bestCards.add(cards[firstPair + 1]); // card of high pair
+        bestCards.add(cards[secondPair]); // card of low pair
+        bestCards.add(cards[secondPair + 1]); // card of low pair
         // kickers higher than high pair
-        bestCards.addAll(cardsCopy.subList(0, firstPair));
+        addKickers(bestCards, cards, 0, firstPair);
         // kickers between pairs
-        bestCards.addAll(cardsCopy.subList(firstPair + 1, secondPair));
+        addKickers(bestCards, cards, firstPair + 2, secondPair);
         // kickers after low pair
-        bestCards.addAll(cardsCopy.subList(secondPair + 1, cardsCopy.size()));
-        bestCards = bestCards.subList(0, 5);
+        addKickers(bestCards, cards, secondPair + 2, cards.length);
 
         List<Rank> bestRanks = new ArrayList<Rank>();
         bestRanks.add(bestCards.get(0).getRank()); // rank of the high pair
@@ -18,6 +18,10 @@
  * Hand ranking algorithms.
  * <p>
  * Contains the algorithms to rank and compare poker hands.
+ * </p><p>
+ * The locators and evaluators are thread-safe: one instance can be shared
+ * by all threads of an application. {@link EvaluationState} is the only
+ * mutable class and belongs to a single thread.
  * </p>
  */
 package org.smurn.pokerutils.ranking;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CardSet}.
+ */
+public class CardSetTest {
+
+    @Test
+    public void maskUsesOrdinal() {
+        CardSet set = CardSet.of(Card.S2, Card.H2, Card.CA);
+        assertEquals(1L | 1L << 13 | 1L << 51, set.getMask());
+    }
+
+    @Test
+    public void fromCollection() {
+        CardSet set = CardSet.of(Card.parse("As 7d 7d"));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(Card.SA));
+        assertTrue(set.contains(Card.D7));
+        assertFalse(set.contains(Card.H7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromInvalidMask() {
+        CardSet.fromMask(1L << 52);
+    }
+
+    @Test
+    public void union() {
+        CardSet a = CardSet.of(Card.SA, Card.D7);
+        CardSet b = CardSet.of(Card.D7, Card.C2);
+        assertEquals(CardSet.of(Card.SA, Card.D7, Card.C2), a.union(b));
+    }
+
+    @Test
+    public void intersection() {
+        CardSet a = CardSet.of(Card.SA, Card.D7);
+        CardSet b = CardSet.of(Card.D7, Card.C2);
+        assertEquals(CardSet.of(Card.D7), a.intersection(b));
+        assertTrue(a.intersects(b));
+    }
+
+    @Test
+    public void minus() {
+        CardSet a = CardSet.of(Card.SA, Card.D7);
+        CardSet b = CardSet.of(Card.D7, Card.C2);
+        assertEquals(CardSet.of(Card.SA), a.minus(b));
+    }
+
+    @Test
+    public void complement() {
+        CardSet set = CardSet.of(Card.SA).complement();
+        assertEquals(51, set.size());
+        assertFalse(set.contains(Card.SA));
+        assertEquals(CardSet.ALL, set.with(Card.SA));
+    }
+
+    @Test
+    public void withAndWithout() {
+        CardSet set = CardSet.EMPTY.with(Card.HK).with(Card.DQ);
+        assertEquals(CardSet.of(Card.DQ), set.without(Card.HK));
+        assertTrue(set.containsAll(CardSet.of(Card.DQ)));
+        assertFalse(set.containsAll(CardSet.of(Card.DQ, Card.D2)));
+    }
+
+    @Test
+    public void iteratesByOrdinal() {
+        CardSet set = CardSet.of(Card.CA, Card.S3, Card.H9);
+        List<Card> cards = new ArrayList<Card>();
+        for (Card card : set) {
+            cards.add(card);
+        }
+        assertEquals(Arrays.asList(Card.S3, Card.H9, Card.CA), cards);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iteratorIsReadOnly() {
+        Iterator<Card> iterator = CardSet.of(Card.CA).iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test
+    public void toSet() {
+        CardSet set = CardSet.of(Card.CA, Card.S3);
+        assertEquals(EnumSet.of(Card.CA, Card.S3), set.toSet());
+    }
+
+    @Test
+    public void rankMask() {
+        CardSet set = CardSet.of(Card.D2, Card.DA, Card.H5);
+        assertEquals(1 | 1 << 12, set.getRankMask(Suit.Diamonds));
+        assertEquals(1 << 3, set.getRankMask(Suit.Hearts));
+        assertEquals(0, set.getRankMask(Suit.Clubs));
+    }
+
+    @Test
+    public void equality() {
+        assertEquals(CardSet.of(Card.D2, Card.DA), CardSet.of(Card.DA, Card.D2));
+        assertEquals(CardSet.of(Card.D2, Card.DA).hashCode(),
+                CardSet.of(Card.DA, Card.D2).hashCode());
+        assertFalse(CardSet.of(Card.D2).equals(CardSet.of(Card.DA)));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.smurn.pokerutils;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 import org.junit.Test;
 import java.util.Arrays;
@@ -92,4 +93,118 @@ public class CardTest {
     public void parseFormatException() {
         Card.parse("As,2c");
     }
+
+    /**
+     * Lookup by suit and rank matches the enum for all cards.
+     */
+    @Test
+    public void getCardAll() {
+        for (Card card : Card.values()) {
+            assertThat(Card.getCard(card.getSuit(), card.getRank()), is(card));
+            assertThat(Card.getCard(card.ordinal()), is(card));
+        }
+    }
+
+    /**
+     * Lookup by ordinal out of range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void getCardInvalidOrdinal() {
+        Card.getCard(52);
+    }
+
+    /**
+     * Parsing a single two character code.
+     */
+    @Test
+    public void parseCard() {
+        assertThat(Card.parseCard("tH"), is(Card.HT));
+    }
+
+    /**
+     * Parsing a code with wrong length.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseCardTooLong() {
+        Card.parseCard("Th ");
+    }
+
+    /**
+     * Trailing spaces are ignored.
+     */
+    @Test
+    public void parseTrailingSpaces() {
+        List<Card> cards = Card.parse("As 2c  ");
+        assertThat(cards, equalTo(Arrays.asList(Card.SA, Card.C2)));
+    }
+
+    /**
+     * Two spaces between cards are not allowed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseDoubleSpace() {
+        Card.parse("As  2c");
+    }
+
+    /**
+     * Parsing into a mask.
+     */
+    @Test
+    public void parseMask() {
+        StringBuilder builder = new StringBuilder("As 2c 7d");
+        assertThat(Card.parseMask(builder),
+                is(CardSet.of(Card.SA, Card.C2, Card.D7).getMask()));
+    }
+
+    /**
+     * Duplicates are rejected when parsing into a mask.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMaskDuplicate() {
+        Card.parseMask("As 2c As");
+    }
+
+    /**
+     * Parsing into ordinals.
+     */
+    @Test
+    public void parseOrdinals() {
+        int[] ordinals = new int[7];
+        int count = Card.parseOrdinals("As 2c", ordinals);
+        assertThat(count, is(2));
+        assertThat(ordinals[0], is(Card.SA.ordinal()));
+        assertThat(ordinals[1], is(Card.C2.ordinal()));
+    }
+
+    /**
+     * Parsing into too small an array.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseOrdinalsTooMany() {
+        Card.parseOrdinals("As 2c 3c", new int[2]);
+    }
+
+    /**
+     * Parsing from a byte buffer.
+     */
+    @Test
+    public void parseBuffer() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap("xx Kh 9s\n".getBytes("US-ASCII"));
+        int[] ordinals = new int[2];
+        assertThat(Card.parseOrdinals(buffer, 3, 5, ordinals), is(2));
+        assertThat(ordinals[0], is(Card.HK.ordinal()));
+        assertThat(ordinals[1], is(Card.S9.ordinal()));
+        assertThat(Card.parseMask(buffer, 3, 5),
+                is(CardSet.of(Card.HK, Card.S9).getMask()));
+        assertThat(buffer.position(), is(0));
+    }
+
+    /**
+     * Invalid characters in a byte buffer.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseBufferInvalid() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap("Kh 9x".getBytes("US-ASCII"));
+        Card.parseMask(buffer, 0, 5);
+    }
 }
@@ -41,5 +41,96 @@ public class HandTest extends EqualsHashCodeTestCase{
                 Arrays.asList(Card.C9, Card.C5, Card.CA, Card.CK, Card.CT), 
                 Arrays.asList(Rank.Ace, Rank.Seven));
     }
-    
+
+    public void testCompareCategory() {
+        Hand pair = new Hand(HandCategory.Pair,
+                Card.parse("Ah Ad Kh Qd 8c"),
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Queen, Rank.Eight));
+        Hand twoPair = new Hand(HandCategory.TwoPair,
+                Card.parse("2h 2d 3h 3d 4c"),
+                Arrays.asList(Rank.Three, Rank.Two, Rank.Four));
+        assertTrue(pair.compareTo(twoPair) < 0);
+        assertTrue(twoPair.compareTo(pair) > 0);
+    }
+
+    public void testCompareRanks() {
+        Hand high = new Hand(HandCategory.Pair,
+                Card.parse("Ah Ad Kh Qd 8c"),
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Queen, Rank.Eight));
+        Hand low = new Hand(HandCategory.Pair,
+                Card.parse("As Ac Ks Qs 7c"),
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Queen, Rank.Seven));
+        assertTrue(high.compareTo(low) > 0);
+        assertTrue(low.compareTo(high) < 0);
+    }
+
+    public void testCompareSplit() {
+        Hand first = new Hand(HandCategory.Straight,
+                Card.parse("5h 6d 7h 8d 9c"),
+                Arrays.asList(Rank.Nine));
+        Hand second = new Hand(HandCategory.Straight,
+                Card.parse("5s 6s 7s 8s 9h"),
+                Arrays.asList(Rank.Nine));
+        assertEquals(0, first.compareTo(second));
+    }
+
+    public void testPackedMatchesList() {
+        // pair of aces with king, queen and eight.
+        Hand packed = new Hand(0x1cba6 << 4,
+                CardSet.maskOf(Card.parse("Ah Ad Kh Qd 8c")));
+        Hand list = new Hand(HandCategory.Pair,
+                Card.parse("Ah Ad Kh Qd 8c"),
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Queen, Rank.Eight));
+        assertEquals(HandCategory.Pair, packed.getCategory());
+        assertEquals(list.getCards(), packed.getCards());
+        assertEquals(list.getRanks(), packed.getRanks());
+        assertEquals(list, packed);
+        assertEquals(packed, list);
+        assertEquals(list.hashCode(), packed.hashCode());
+        assertEquals(0, packed.compareTo(list));
+        assertSame(packed.getCards(), packed.getCards());
+        assertSame(packed.getRanks(), packed.getRanks());
+    }
+
+    public void testComparePacked() {
+        long cards = CardSet.maskOf(Card.parse("5h 6d 7h 8d 9c"));
+        Hand nineHigh = new Hand(0x47 << 16, cards);
+        Hand tenHigh = new Hand(0x48 << 16, cards);
+        Hand pair = new Hand(0x1cba6 << 4, cards);
+        Hand list = new Hand(HandCategory.Straight,
+                Card.parse("5s 6s 7s 8s 9h"), Arrays.asList(Rank.Ten));
+        assertTrue(nineHigh.compareTo(tenHigh) < 0);
+        assertTrue(tenHigh.compareTo(nineHigh) > 0);
+        assertTrue(pair.compareTo(nineHigh) < 0);
+        assertEquals(0, tenHigh.compareTo(list));
+        assertTrue(nineHigh.compareTo(list) < 0);
+        assertFalse(tenHigh.equals(list));
+    }
+
+    public void testPackedInvalidCategory() {
+        try {
+            new Hand(9 << 20, 0x1fL);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testPackedUnusedRanks() {
+        try {
+            new Hand(0x47 << 16 | 1, 0x1fL);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testPackedCardCount() {
+        try {
+            new Hand(0x47 << 16, 0xfL);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
 }
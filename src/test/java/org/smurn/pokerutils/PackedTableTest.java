@@ -0,0 +1,155 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link PackedTable}.
+ */
+public class PackedTableTest {
+
+    /**
+     * Creates a sealed table with some state.
+     * @param player Player at seat 3.
+     * @return The table.
+     */
+    private static Table createTable(final Player player) {
+        Table table = new Table(10);
+        table.setDealerSeatNr(3);
+        table.setSmallBlindSeatNr(4);
+        table.setBigBlindSeatNr(5);
+        table.setActingSeatNr(6);
+        Seat seat = table.getSeat(3);
+        seat.setPlayer(player);
+        seat.setStake(1000);
+        seat.setBet(20);
+        seat.setCardsVisible(true);
+        seat.getHoleCards().addAll(Card.parse("Ah 2c"));
+        seat.getVisibleCards().addAll(Card.parse("Kd Ks 9h"));
+        Pot pot = new Pot();
+        pot.setAmount(150);
+        pot.getSeatNumbers().addAll(Arrays.asList(3, 5, 9));
+        table.getPots().add(pot);
+        table.seal();
+        return table;
+    }
+
+    /**
+     * Tests that the accessors return the packed state.
+     */
+    @Test
+    public void accessors() {
+        Player player = mock(Player.class);
+        PackedTable packed = new PackedTable(createTable(player));
+        assertEquals(10, packed.getSeatCount());
+        assertEquals(1, packed.getPotCount());
+        assertEquals(3, packed.getDealerSeatNr());
+        assertEquals(4, packed.getSmallBlindSeatNr());
+        assertEquals(5, packed.getBigBlindSeatNr());
+        assertEquals(6, packed.getActingSeatNr());
+        assertSame(player, packed.getPlayer(3));
+        assertNull(packed.getPlayer(4));
+        assertEquals(1000, packed.getStake(3));
+        assertEquals(20, packed.getBet(3));
+        assertTrue(packed.isCardsVisible(3));
+        assertFalse(packed.isCardsVisible(4));
+        assertEquals(Card.parse("Ah 2c"), packed.getHoleCards(3));
+        assertEquals(Card.parse("Kd Ks 9h"), packed.getVisibleCards(3));
+        assertEquals(CardSet.maskOf(Card.parse("Ah 2c")),
+                packed.getHoleCardMask(3));
+        assertEquals(CardSet.maskOf(Card.parse("Kd Ks 9h")),
+                packed.getVisibleCardMask(3));
+        assertEquals(150, packed.getPotAmount(0));
+        assertEquals(1L << 3 | 1L << 5 | 1L << 9, packed.getPotSeatMask(0));
+    }
+
+    /**
+     * Tests that unpacking restores the table.
+     */
+    @Test
+    public void roundTrip() {
+        Player player = mock(Player.class);
+        Table table = new PackedTable(createTable(player)).toTable();
+        assertTrue(table.isSealed());
+        assertEquals(3, table.getDealerSeatNr());
+        assertEquals(4, table.getSmallBlindSeatNr());
+        assertEquals(5, table.getBigBlindSeatNr());
+        assertEquals(6, table.getActingSeatNr());
+        Seat seat = table.getSeat(3);
+        assertSame(player, seat.getPlayer());
+        assertEquals(1000, seat.getStake());
+        assertEquals(20, seat.getBet());
+        assertTrue(seat.isCardsVisible());
+        assertEquals(Card.parse("Ah 2c"), seat.getHoleCards());
+        assertEquals(Card.parse("Kd Ks 9h"), seat.getVisibleCards());
+        assertNull(table.getSeat(0).getPlayer());
+        assertTrue(table.getSeat(0).getHoleCards().isEmpty());
+        assertEquals(1, table.getPots().size());
+        assertEquals(150, table.getPots().get(0).getAmount());
+        assertEquals(Arrays.asList(3, 5, 9),
+                table.getPots().get(0).getSeatNumbers());
+    }
+
+    /**
+     * Tests that equal states give equal packed tables.
+     */
+    @Test
+    public void equalStates() {
+        Player player = mock(Player.class);
+        PackedTable first = new PackedTable(createTable(player));
+        PackedTable second = new PackedTable(createTable(player));
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertFalse(first.equals(new PackedTable(
+                createTable(mock(Player.class)))));
+        assertEquals(first, new PackedTable(first.toTable()));
+    }
+
+    /**
+     * Tests that a table without seats can be packed.
+     */
+    @Test
+    public void noSeats() {
+        Table table = new Table(0);
+        table.seal();
+        assertEquals(0, new PackedTable(table).toTable().getSeatCount());
+    }
+
+    /**
+     * Tests that only sealed tables are packed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresSealed() {
+        new PackedTable(new Table(3));
+    }
+
+    /**
+     * Tests that pots of seats the table does not have are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void potOfMissingSeat() {
+        Table table = new Table(3);
+        Pot pot = new Pot();
+        pot.getSeatNumbers().add(3);
+        table.getPots().add(pot);
+        table.seal();
+        new PackedTable(table);
+    }
+}
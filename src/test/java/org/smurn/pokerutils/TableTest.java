@@ -165,4 +165,73 @@ public class TableTest {
         Table table = new Table(5);
         assertSame(table.getSeats().get(3), table.getSeat(3));
     }
+
+    /**
+     * Tests that a copy-on-write table shares the seats and pots.
+     */
+    @Test
+    public void copyOnWriteShares() {
+        Table table = new Table(5);
+        table.getPots().add(new Pot());
+        table.seal();
+        Table copy = Table.copyOnWrite(table);
+        assertFalse(copy.isSealed());
+        assertSame(table.getSeat(2), copy.getSeat(2));
+        assertSame(table.getPots().get(0), copy.getPots().get(0));
+    }
+
+    /**
+     * Tests that editing a seat copies only that seat.
+     */
+    @Test
+    public void editSeatCopies() {
+        Table table = new Table(5);
+        table.getSeat(2).setStake(170);
+        table.seal();
+        Table copy = Table.copyOnWrite(table);
+        Seat seat = copy.editSeat(2);
+        seat.setStake(30);
+        assertFalse(seat.isSealed());
+        assertSame(seat, copy.getSeat(2));
+        assertSame(seat, copy.editSeat(2));
+        assertSame(table.getSeat(1), copy.getSeat(1));
+        assertEquals(170, table.getSeat(2).getStake());
+        copy.seal();
+        assertEquals(30, copy.getSeats().get(2).getStake());
+    }
+
+    /**
+     * Tests that editing a pot copies only that pot.
+     */
+    @Test
+    public void editPotCopies() {
+        Table table = new Table(5);
+        table.getPots().add(new Pot());
+        table.getPots().add(new Pot());
+        table.getPots().get(1).setAmount(44);
+        table.seal();
+        Table copy = Table.copyOnWrite(table);
+        copy.editPot(1).setAmount(50);
+        assertEquals(44, table.getPots().get(1).getAmount());
+        assertEquals(50, copy.getPots().get(1).getAmount());
+        assertSame(table.getPots().get(0), copy.getPots().get(0));
+    }
+
+    /**
+     * Tests that only sealed tables are shared.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void copyOnWriteRequiresSealed() {
+        Table.copyOnWrite(new Table(5));
+    }
+
+    /**
+     * Tests that a sealed table has no editable seats.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void editSeatSealed() {
+        Table table = new Table(5);
+        table.seal();
+        table.editSeat(0);
+    }
 }
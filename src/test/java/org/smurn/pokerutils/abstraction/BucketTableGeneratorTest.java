@@ -0,0 +1,177 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BucketTableGenerator} and {@link BucketTable}.
+ */
+public class BucketTableGeneratorTest {
+
+    /**
+     * Histograms with all weight in one bin, the bin given per index.
+     */
+    private static final class PointSource implements HistogramSource {
+
+        /** Bin of each index. */
+        private final int[] points;
+        /** Number of bins. */
+        private final int bins;
+
+        /**
+         * Creates an instance.
+         */
+        PointSource(final int[] points, final int bins) {
+            this.points = points;
+            this.bins = bins;
+        }
+
+        @Override
+        public long getSize() {
+            return points.length;
+        }
+
+        @Override
+        public int getBins() {
+            return bins;
+        }
+
+        @Override
+        public void histogram(final long index, final double[] result) {
+            Arrays.fill(result, 0);
+            result[points[(int) index]] = 1;
+        }
+    }
+
+    @Test
+    public void separatedClusters() throws IOException {
+        int[] points = new int[3000];
+        for (int i = 0; i < points.length; i++) {
+            // three clusters around bins 1, 10 and 18.
+            points[i] = new int[]{0, 1, 2, 9, 10, 11, 18, 19}[i % 8];
+        }
+        File file = File.createTempFile("buckets", ".bin");
+        try {
+            new BucketTableGenerator(new PointSource(points, 20), 3, 50, 1,
+                    new ForkJoinPool(2)).write(file);
+            BucketTable table = BucketTable.load(file);
+
+            assertEquals(3, table.getBucketCount());
+            assertEquals(3000, table.getSize());
+            int low = table.getBucket(0);
+            int middle = table.getBucket(3);
+            int high = table.getBucket(6);
+            assertEquals(3, new HashSet<Integer>(
+                    Arrays.asList(low, middle, high)).size());
+            for (int i = 0; i < points.length; i++) {
+                int expected = points[i] < 5 ? low
+                        : points[i] < 15 ? middle : high;
+                assertEquals(expected, table.getBucket(i));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void manyBucketsUseShorts() throws IOException {
+        int[] points = new int[300];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = i;
+        }
+        File file = File.createTempFile("buckets", ".bin");
+        try {
+            new BucketTableGenerator(new PointSource(points, 300), 300, 5,
+                    7, new ForkJoinPool(2)).write(file);
+            BucketTable table = BucketTable.load(file);
+
+            assertEquals(BucketTable.HEADER_SIZE + 2 * 300, file.length());
+            Set<Integer> buckets = new HashSet<Integer>();
+            for (int i = 0; i < points.length; i++) {
+                buckets.add(table.getBucket(i));
+            }
+            assertEquals(300, buckets.size());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void equityBucketsOfSmallIndexer() throws IOException {
+        // the flop histograms of a few indices, clustered into 2 buckets.
+        final EquityHistograms equities = new EquityHistograms(
+                HandIndexer.flop(), 10);
+        final long[] indices = {0, 400000, 800000, 1200000};
+        HistogramSource source = new HistogramSource() {
+
+            @Override
+            public long getSize() {
+                return indices.length;
+            }
+
+            @Override
+            public int getBins() {
+                return equities.getBins();
+            }
+
+            @Override
+            public void histogram(final long index, final double[] result) {
+                equities.histogram(indices[(int) index], result);
+            }
+        };
+        File file = File.createTempFile("buckets", ".bin");
+        try {
+            new BucketTableGenerator(source, 2, 10, 3,
+                    new ForkJoinPool(2)).write(file);
+            BucketTable table = BucketTable.load(file);
+
+            assertEquals(4, table.getSize());
+            for (int i = 0; i < 4; i++) {
+                assertTrue(table.getBucket(i) < 2);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notATable() throws IOException {
+        File file = File.createTempFile("buckets", ".bin");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            out.write(new byte[32]);
+            out.close();
+            BucketTable.load(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void moreBucketsThanHistograms() throws IOException {
+        new BucketTableGenerator(new PointSource(new int[3], 4), 4, 1, 0,
+                new ForkJoinPool(1)).write(new File("unused.bin"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.ranking.LookupLocator;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EquityHistograms}.
+ */
+public class EquityHistogramsTest {
+
+    /**
+     * Parses cards into ordinals.
+     */
+    private static int[] cards(final String cards) {
+        int[] ordinals = new int[7];
+        int count = Card.parseOrdinals(cards, ordinals);
+        int[] result = new int[count];
+        System.arraycopy(ordinals, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Computes the histogram by evaluating every opponent on every
+     * completion of the board.
+     */
+    private static double[] bruteForce(final int[] cards, final int bins) {
+        LookupLocator locator = new LookupLocator();
+        long hero = 1L << cards[0] | 1L << cards[1];
+        long board = 0;
+        for (int i = 2; i < cards.length; i++) {
+            board |= 1L << cards[i];
+        }
+        long dead = hero | board;
+        double[] result = new double[bins];
+        int runouts = 0;
+        for (long runout : completions(dead, 7 - cards.length)) {
+            int strength = locator.evaluate(dead | runout);
+            double score = 0;
+            int opponents = 0;
+            for (int first = 0; first < 52; first++) {
+                for (int second = first + 1; second < 52; second++) {
+                    long villain = 1L << first | 1L << second;
+                    if ((villain & (dead | runout)) != 0) {
+                        continue;
+                    }
+                    int other = locator.evaluate(board | runout | villain);
+                    score += strength > other ? 1
+                            : strength == other ? 0.5 : 0;
+                    opponents++;
+                }
+            }
+            result[Math.min((int) (score / opponents * bins), bins - 1)]++;
+            runouts++;
+        }
+        for (int bin = 0; bin < bins; bin++) {
+            result[bin] /= runouts;
+        }
+        return result;
+    }
+
+    /**
+     * Masks of all sets of up to two cards not in the dead cards.
+     */
+    private static long[] completions(final long dead, final int missing) {
+        if (missing == 0) {
+            return new long[]{0};
+        }
+        long[] result = new long[52 * 52];
+        int size = 0;
+        for (int first = 0; first < 52; first++) {
+            if ((dead & 1L << first) != 0) {
+                continue;
+            }
+            if (missing == 1) {
+                result[size++] = 1L << first;
+                continue;
+            }
+            for (int second = first + 1; second < 52; second++) {
+                if ((dead & 1L << second) == 0) {
+                    result[size++] = 1L << first | 1L << second;
+                }
+            }
+        }
+        long[] trimmed = new long[size];
+        System.arraycopy(result, 0, trimmed, 0, size);
+        return trimmed;
+    }
+
+    /**
+     * Asserts that the histogram agrees with the brute force.
+     */
+    private static void assertAgrees(final HandIndexer indexer,
+            final String cards, final int bins) {
+        double[] actual = new double[bins];
+        new EquityHistograms(indexer, bins).histogram(cards(cards), actual);
+
+        double[] expected = bruteForce(cards(cards), bins);
+        for (int bin = 0; bin < bins; bin++) {
+            assertEquals(expected[bin], actual[bin], 1e-12);
+        }
+    }
+
+    @Test
+    public void flop() {
+        assertAgrees(HandIndexer.flop(), "Ah Th Kh 7h 2d", 10);
+    }
+
+    @Test
+    public void turn() {
+        assertAgrees(HandIndexer.turn(), "8s 7s 9s 6d 2h Kc", 20);
+    }
+
+    @Test
+    public void riverIsSinglePoint() {
+        double[] actual = new double[5];
+        new EquityHistograms(HandIndexer.river(), 5).histogram(
+                cards("As Ks Qs Js Ts 2d 3c"), actual);
+
+        assertEquals(1, actual[4], 0);
+        assertEquals(0, actual[0] + actual[1] + actual[2] + actual[3], 0);
+    }
+
+    @Test
+    public void byIndex() {
+        EquityHistograms histograms = new EquityHistograms(
+                HandIndexer.turn(), 8);
+        int[] cards = cards("Qd Jd Td 5c 5s 2h");
+        double[] actual = new double[8];
+
+        histograms.histogram(HandIndexer.turn().index(cards), actual);
+
+        double[] expected = bruteForce(cards, 8);
+        for (int bin = 0; bin < 8; bin++) {
+            assertEquals(expected[bin], actual[bin], 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void preflopIndexer() {
+        new EquityHistograms(HandIndexer.preflop(), 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCard() {
+        new EquityHistograms(HandIndexer.flop(), 10).histogram(
+                cards("As Ks As 7d 2c"), new double[10]);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.abstraction;
+
+import java.util.Random;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HandIndexer}.
+ */
+public class HandIndexerTest {
+
+    /**
+     * Deals random distinct card ordinals.
+     */
+    private static int[] deal(final Random random, final int count) {
+        int[] deck = new int[52];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        int[] cards = new int[count];
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(deck.length - i);
+            int tmp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = tmp;
+            cards[i] = deck[i];
+        }
+        return cards;
+    }
+
+    /**
+     * Maps every card to another suit.
+     */
+    private static int[] permute(final int[] cards, final int[] suits) {
+        int[] result = new int[cards.length];
+        for (int i = 0; i < cards.length; i++) {
+            result[i] = suits[cards[i] / 13] * 13 + cards[i] % 13;
+        }
+        return result;
+    }
+
+    @Test
+    public void holdemSizes() {
+        assertEquals(169, HandIndexer.preflop().getSize());
+        assertEquals(1286792, HandIndexer.flop().getSize());
+        assertEquals(13960050, HandIndexer.turn().getSize());
+        assertEquals(123156254, HandIndexer.river().getSize());
+    }
+
+    @Test
+    public void holdemSizesPerStreet() {
+        HandIndexer indexer = new HandIndexer(2, 3, 1, 1);
+
+        assertEquals(169, indexer.getSize(0));
+        assertEquals(1286792, indexer.getSize(1));
+        assertEquals(55190538, indexer.getSize(2));
+        assertEquals(2428287420L, indexer.getSize(3));
+    }
+
+    @Test
+    public void preflopClassesAreCovered() {
+        HandIndexer indexer = HandIndexer.preflop();
+        int[] hits = new int[169];
+        for (int first = 0; first < 52; first++) {
+            for (int second = first + 1; second < 52; second++) {
+                hits[(int) indexer.index(new int[]{first, second})]++;
+            }
+        }
+        int pairs = 0;
+        int suited = 0;
+        int offsuit = 0;
+        for (int hit : hits) {
+            pairs += hit == 6 ? 1 : 0;
+            suited += hit == 4 ? 1 : 0;
+            offsuit += hit == 12 ? 1 : 0;
+        }
+        assertEquals(13, pairs);
+        assertEquals(78, suited);
+        assertEquals(78, offsuit);
+    }
+
+    @Test
+    public void flopRepresentativesRoundTrip() {
+        HandIndexer indexer = HandIndexer.flop();
+        int[] cards = new int[5];
+        for (long index = 0; index < indexer.getSize(); index++) {
+            indexer.unindex(1, index, cards);
+            assertEquals(index, indexer.index(cards));
+        }
+    }
+
+    @Test
+    public void riverRepresentativesRoundTrip() {
+        HandIndexer indexer = new HandIndexer(2, 3, 1, 1);
+        Random random = new Random(3);
+        for (int i = 0; i < 100000; i++) {
+            long index = (long) (random.nextDouble() * indexer.getSize());
+            assertEquals(index, indexer.index(indexer.unindex(index)));
+        }
+    }
+
+    @Test
+    public void suitPermutationsKeepIndex() {
+        HandIndexer indexer = HandIndexer.river();
+        Random random = new Random(5);
+        int[][] permutations = {{1, 0, 2, 3}, {3, 2, 1, 0}, {2, 3, 0, 1},
+            {1, 2, 3, 0}};
+        for (int i = 0; i < 20000; i++) {
+            int[] cards = deal(random, 7);
+            long index = indexer.index(cards);
+            for (int[] permutation : permutations) {
+                assertEquals(index, indexer.index(permute(cards,
+                        permutation)));
+            }
+        }
+    }
+
+    @Test
+    public void orderWithinRoundDoesNotMatter() {
+        HandIndexer indexer = HandIndexer.flop();
+        int[] cards = {Card.SA.ordinal(), Card.H7.ordinal(),
+            Card.S2.ordinal(), Card.D9.ordinal(), Card.ST.ordinal()};
+        int[] swapped = {Card.H7.ordinal(), Card.SA.ordinal(),
+            Card.ST.ordinal(), Card.S2.ordinal(), Card.D9.ordinal()};
+
+        assertEquals(indexer.index(cards), indexer.index(swapped));
+    }
+
+    @Test
+    public void roundsAreDistinguished() {
+        HandIndexer indexer = HandIndexer.flop();
+        int[] cards = {Card.SA.ordinal(), Card.SK.ordinal(),
+            Card.S2.ordinal(), Card.H3.ordinal(), Card.D4.ordinal()};
+        int[] moved = {Card.SA.ordinal(), Card.S2.ordinal(),
+            Card.SK.ordinal(), Card.H3.ordinal(), Card.D4.ordinal()};
+
+        assertFalse(indexer.index(cards) == indexer.index(moved));
+    }
+
+    @Test
+    public void indicesPerRound() {
+        HandIndexer indexer = new HandIndexer(2, 3, 1, 1);
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int[] cards = deal(random, 7);
+            long[] indices = new long[4];
+
+            long index = indexer.index(cards, indices);
+
+            assertEquals(index, indices[3]);
+            for (int round = 0; round < 4; round++) {
+                assertEquals(indexer.index(cards, round), indices[round]);
+            }
+            assertEquals(indices[1], HandIndexer.flop().index(cards));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCard() {
+        HandIndexer.flop().index(new int[]{1, 2, 3, 4, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewCards() {
+        HandIndexer.flop().index(new int[]{1, 2, 3, 4});
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexTooLarge() {
+        HandIndexer.preflop().unindex(169);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyRounds() {
+        new HandIndexer(1, 1, 1, 1, 1);
+    }
+}
@@ -161,4 +161,19 @@ public class SitDownChangeTest {
 
         assertTrue("Returned table is not sealed.", after.isSealed());
     }
+
+    /**
+     * Test that the untouched seats are shared with the table before.
+     */
+    @Test
+    public void sharesOtherSeats() {
+        Table before = new Table(10);
+        before.seal();
+
+        Player player = mock(Player.class);
+        Table after = new SitDownChange(player, 4, 123).apply(before);
+
+        assertSame(before.getSeat(3), after.getSeat(3));
+        assertNull(before.getSeat(4).getPlayer());
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link Deck}.
+ */
+public class DeckTest {
+
+    @Test
+    public void cardsNotIn() {
+        long dead = Card.parseMask("2s 3s Ac");
+        int[] cards = Deck.cardsNotIn(dead);
+        assertEquals(49, cards.length);
+        assertEquals(2, cards[0]);
+        assertEquals(50, cards[48]);
+    }
+
+    @Test
+    public void combinations() {
+        long dead = Card.parseMask("As Ks Qs Js Ts 9s 8s");
+        long[] sets = Deck.combinations(dead, 2);
+        assertEquals(45 * 44 / 2, sets.length);
+        Set<Long> distinct = new HashSet<Long>();
+        for (long set : sets) {
+            assertEquals(2, Long.bitCount(set));
+            assertEquals(0, set & dead);
+            distinct.add(set);
+        }
+        assertEquals(sets.length, distinct.size());
+    }
+
+    @Test
+    public void noCards() {
+        long[] sets = Deck.combinations(0, 0);
+        assertEquals(1, sets.length);
+        assertEquals(0, sets[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSize() {
+        Deck.combinations(0, -1);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.ranking.LookupLocator;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ExhaustiveEquityCalculator}.
+ */
+public class ExhaustiveEquityCalculatorTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    /**
+     * Counts the boards won alone per player without any symmetry.
+     */
+    private static long[] bruteForceWins(final CardSet board,
+            final CardSet[] holes) {
+        CardSet used = board;
+        for (CardSet hole : holes) {
+            used = used.union(hole);
+        }
+        Card[] rest = used.complement().toSet().toArray(new Card[0]);
+        long[] wins = new long[holes.length];
+        enumerate(new LookupLocator(), board, holes, rest, 0, wins);
+        return wins;
+    }
+
+    /**
+     * Completes a board recursively and counts the single winners.
+     */
+    private static void enumerate(final LookupLocator locator,
+            final CardSet board, final CardSet[] holes, final Card[] rest,
+            final int start, final long[] wins) {
+        if (board.size() == 5) {
+            int best = -1;
+            int winner = -1;
+            for (int p = 0; p < holes.length; p++) {
+                int strength = locator.evaluate(board.union(holes[p]));
+                if (strength > best) {
+                    best = strength;
+                    winner = p;
+                } else if (strength == best) {
+                    winner = -1;
+                }
+            }
+            if (winner >= 0) {
+                wins[winner]++;
+            }
+            return;
+        }
+        for (int i = start; i < rest.length; i++) {
+            enumerate(locator, board.with(rest[i]), holes, rest, i + 1, wins);
+        }
+    }
+
+    @Test
+    public void preflopAcesAgainstKings() {
+        CardSet[] holes = {cards("As Ah"), cards("Ks Kh")};
+
+        Equity equity = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(holes), CardSet.EMPTY, CardSet.EMPTY);
+
+        assertEquals(1712304, equity.getBoards());
+        long[] wins = bruteForceWins(CardSet.EMPTY, holes);
+        assertEquals(wins[0], equity.getWins(0));
+        assertEquals(wins[1], equity.getWins(1));
+        assertEquals(1.0, equity.getEquity(0) + equity.getEquity(1), 1e-9);
+    }
+
+    @Test
+    public void symmetryDoesNotChangeCounts() {
+        CardSet board = cards("2h 7h Tc");
+        CardSet[] holes = {cards("As Ad"), cards("Ks Kd"), cards("8h 9h")};
+
+        Equity equity = new ExhaustiveEquityCalculator(new ForkJoinPool(2))
+                .calculate(Arrays.asList(holes), board, CardSet.EMPTY);
+
+        assertEquals(903, equity.getBoards());
+        long[] wins = bruteForceWins(board, holes);
+        for (int p = 0; p < holes.length; p++) {
+            assertEquals(wins[p], equity.getWins(p));
+        }
+    }
+
+    @Test
+    public void completeBoard() {
+        Equity equity = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh")),
+                cards("Th Jd Qc 2d 3d"), CardSet.EMPTY);
+
+        assertEquals(1, equity.getBoards());
+        assertEquals(1, equity.getWins(0));
+    }
+
+    @Test
+    public void deadCards() {
+        Equity equity = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh")),
+                cards("Th Jd Qc 2d"), cards("Ad Ac"));
+
+        assertEquals(42, equity.getBoards());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.ranking.LookupLocator;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HandPotentialCalculator}.
+ */
+public class HandPotentialCalculatorTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    /**
+     * Calculates hand strength and potential the straightforward way, by
+     * evaluating every opponent hole cards on every board completion.
+     */
+    private static HandPotential bruteForce(final CardSet holeCards,
+            final CardSet board, final HandRange opponent) {
+        LookupLocator locator = new LookupLocator();
+        long dead = holeCards.getMask() | board.getMask();
+        int heroNow = locator.evaluate(dead);
+        double[] now = new double[3];
+        double[][] change = new double[3][3];
+        double[] possible = new double[3];
+        for (int index = 0; index < HandRange.COMBOS; index++) {
+            long villain = HandRange.getMask(index);
+            double weight = opponent.getWeight(index);
+            if ((villain & dead) != 0 || weight <= 0) {
+                continue;
+            }
+            int current = outcome(heroNow,
+                    locator.evaluate(board.getMask() | villain));
+            now[current] += weight;
+            for (long runout : runouts(dead | villain,
+                    5 - board.size())) {
+                int last = outcome(locator.evaluate(dead | runout),
+                        locator.evaluate(board.getMask() | villain | runout));
+                change[current][last] += weight;
+                possible[current] += weight;
+            }
+        }
+        double strength = (now[0] + now[1] / 2) / (now[0] + now[1] + now[2]);
+        double ppot = ratio(change[2][0] + change[2][1] / 2
+                + change[1][0] / 2, possible[2] + possible[1] / 2);
+        double npot = ratio(change[0][2] + change[0][1] / 2
+                + change[1][2] / 2, possible[0] + possible[1] / 2);
+        return new HandPotential(strength, ppot, npot);
+    }
+
+    /**
+     * Divides, giving 0 if the divisor is 0.
+     */
+    private static double ratio(final double dividend,
+            final double divisor) {
+        return divisor > 0 ? dividend / divisor : 0;
+    }
+
+    /**
+     * Outcome for the hero, 0 ahead, 1 tied, 2 behind.
+     */
+    private static int outcome(final int hero, final int villain) {
+        return hero > villain ? 0 : hero == villain ? 1 : 2;
+    }
+
+    /**
+     * Masks of all sets of up to two cards not in the dead cards.
+     */
+    private static long[] runouts(final long dead, final int missing) {
+        if (missing == 0) {
+            return new long[]{0};
+        }
+        long[] result = new long[52 * 52];
+        int size = 0;
+        for (int first = 0; first < 52; first++) {
+            if ((dead & 1L << first) != 0) {
+                continue;
+            }
+            if (missing == 1) {
+                result[size++] = 1L << first;
+                continue;
+            }
+            for (int second = first + 1; second < 52; second++) {
+                if ((dead & 1L << second) == 0) {
+                    result[size++] = 1L << first | 1L << second;
+                }
+            }
+        }
+        long[] trimmed = new long[size];
+        System.arraycopy(result, 0, trimmed, 0, size);
+        return trimmed;
+    }
+
+    /**
+     * Asserts that the calculator agrees with the brute force.
+     */
+    private static void assertAgrees(final String hero, final String board,
+            final HandRange opponent) {
+        HandPotential expected = bruteForce(cards(hero), cards(board),
+                opponent);
+        HandPotential actual = new HandPotentialCalculator(
+                new ForkJoinPool(2)).calculate(cards(hero), cards(board),
+                opponent);
+        assertEquals(expected.getHandStrength(), actual.getHandStrength(),
+                1e-12);
+        assertEquals(expected.getPositivePotential(),
+                actual.getPositivePotential(), 1e-12);
+        assertEquals(expected.getNegativePotential(),
+                actual.getNegativePotential(), 1e-12);
+    }
+
+    @Test
+    public void turnAgainstAllHoleCards() {
+        assertAgrees("Ah Th", "Kh 7h 7c 2d", HandRange.all());
+    }
+
+    @Test
+    public void flopAgainstWeightedRange() {
+        assertAgrees("8s 7s", "9s 6d 2h",
+                HandRange.parse("TT+:0.5, AJs+, KQo, 99:0.25, T8s"));
+    }
+
+    @Test
+    public void flopAgainstAllHoleCards() {
+        HandPotential actual = new HandPotentialCalculator(
+                new ForkJoinPool(2)).calculate(cards("Ah Th"),
+                cards("Kh 7h 2d"));
+
+        HandPotential expected = bruteForce(cards("Ah Th"),
+                cards("Kh 7h 2d"), HandRange.all());
+        assertEquals(expected.getPositivePotential(),
+                actual.getPositivePotential(), 1e-12);
+        assertEquals(expected.getNegativePotential(),
+                actual.getNegativePotential(), 1e-12);
+        assertEquals(expected.getEffectiveHandStrength(),
+                actual.getEffectiveHandStrength(), 1e-12);
+    }
+
+    @Test
+    public void riverHasNoPotential() {
+        HandPotential actual = new HandPotentialCalculator(
+                new ForkJoinPool(1)).calculate(cards("Ah Kd"),
+                cards("Ac 9d 7c 4s 2h"), HandRange.parse("AQ, 99"));
+
+        HandPotential expected = bruteForce(cards("Ah Kd"),
+                cards("Ac 9d 7c 4s 2h"), HandRange.parse("AQ, 99"));
+        assertEquals(expected.getHandStrength(), actual.getHandStrength(),
+                1e-12);
+        assertEquals(0, actual.getPositivePotential(), 0);
+        assertEquals(0, actual.getNegativePotential(), 0);
+        assertEquals(actual.getHandStrength(),
+                actual.getEffectiveHandStrength(), 1e-12);
+    }
+
+    @Test
+    public void nutsHaveNoPositivePotential() {
+        HandPotential actual = new HandPotentialCalculator(
+                new ForkJoinPool(1)).calculate(cards("As Ks"),
+                cards("Qs Js Ts 2d"));
+
+        assertEquals(1, actual.getHandStrength(), 0);
+        assertEquals(0, actual.getPositivePotential(), 0);
+        assertEquals(0, actual.getNegativePotential(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void preflop() {
+        new HandPotentialCalculator(new ForkJoinPool(1)).calculate(
+                cards("As Ks"), CardSet.EMPTY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void holeCardsOnBoard() {
+        new HandPotentialCalculator(new ForkJoinPool(1)).calculate(
+                cards("As Ks"), cards("As 7d 2c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rangeBlockedByBoard() {
+        new HandPotentialCalculator(new ForkJoinPool(1)).calculate(
+                cards("As Ks"), cards("Qh Jd 2c"), HandRange.parse("QhJd"));
+    }
+}
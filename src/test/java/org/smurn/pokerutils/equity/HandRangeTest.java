@@ -0,0 +1,119 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HandRange}.
+ */
+public class HandRangeTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    @Test
+    public void classes() {
+        HandRange range = HandRange.parse("AKs, TT, 72o");
+        assertEquals(4 + 6 + 12, range.size());
+        assertEquals(1.0, range.getWeight(cards("Ah Kh")), 0);
+        assertEquals(0.0, range.getWeight(cards("Ah Kd")), 0);
+        assertEquals(1.0, range.getWeight(cards("7c 2d")), 0);
+    }
+
+    @Test
+    public void suitedAndOffsuit() {
+        assertEquals(16, HandRange.parse("AK").size());
+    }
+
+    @Test
+    public void pairsAndUp() {
+        HandRange range = HandRange.parse("TT+");
+        assertEquals(5 * 6, range.size());
+        assertEquals(1.0, range.getWeight(cards("As Ad")), 0);
+        assertEquals(0.0, range.getWeight(cards("9s 9d")), 0);
+    }
+
+    @Test
+    public void kickersAndUp() {
+        HandRange range = HandRange.parse("ATs+");
+        assertEquals(4 * 4, range.size());
+        assertEquals(1.0, range.getWeight(cards("Ac Jc")), 0);
+        assertEquals(0.0, range.getWeight(cards("Ac 9c")), 0);
+    }
+
+    @Test
+    public void connectors() {
+        HandRange range = HandRange.parse("76s-54s");
+        assertEquals(3 * 4, range.size());
+        assertEquals(1.0, range.getWeight(cards("6d 5d")), 0);
+        assertEquals(0.0, range.getWeight(cards("8d 7d")), 0);
+    }
+
+    @Test
+    public void kickerSpan() {
+        HandRange range = HandRange.parse("A2s-A5s");
+        assertEquals(4 * 4, range.size());
+        assertEquals(1.0, range.getWeight(cards("Ad 3d")), 0);
+    }
+
+    @Test
+    public void pairSpan() {
+        assertEquals(4 * 6, HandRange.parse("TT-77").size());
+    }
+
+    @Test
+    public void specificCardsWithWeight() {
+        HandRange range = HandRange.parse("AsKd:0.25, QQ, QsQh:0.5");
+        assertEquals(7, range.size());
+        assertEquals(0.25, range.getWeight(cards("As Kd")), 0);
+        assertEquals(0.5, range.getWeight(cards("Qs Qh")), 0);
+        assertEquals(1.0, range.getWeight(cards("Qs Qd")), 0);
+    }
+
+    @Test
+    public void withoutBlockedCards() {
+        HandRange range = HandRange.parse("AA").without(cards("As"));
+        assertEquals(3, range.size());
+    }
+
+    @Test
+    public void all() {
+        assertEquals(HandRange.COMBOS, HandRange.all().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unevenSpan() {
+        HandRange.parse("K2s-Q3s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mixedSpan() {
+        HandRange.parse("AKs-ATo");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidWeight() {
+        HandRange.parse("AKs:2");
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.Rank;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HoleCardClass}.
+ */
+public class HoleCardClassTest {
+
+    @Test
+    public void parseSuited() {
+        HoleCardClass actual = HoleCardClass.parse("AKs");
+        assertEquals(Rank.Ace, actual.getHighRank());
+        assertEquals(Rank.King, actual.getLowRank());
+        assertTrue(actual.isSuited());
+        assertEquals(4, actual.getCombos().size());
+        assertEquals("AKs", actual.toString());
+    }
+
+    @Test
+    public void parseOffsuitInAnyOrder() {
+        HoleCardClass actual = HoleCardClass.parse("7Ao");
+        assertFalse(actual.isSuited());
+        assertEquals(12, actual.getCombos().size());
+        assertEquals("A7o", actual.toString());
+    }
+
+    @Test
+    public void parsePair() {
+        HoleCardClass actual = HoleCardClass.parse("TT");
+        assertTrue(actual.isPair());
+        assertEquals(6, actual.getCombos().size());
+        assertEquals("TT", actual.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseSuitedPair() {
+        HoleCardClass.parse("TTs");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseMissingSuffix() {
+        HoleCardClass.parse("AK");
+    }
+
+    @Test
+    public void ofCards() {
+        assertEquals(HoleCardClass.parse("Q9s"),
+                HoleCardClass.of(Card.H9, Card.HQ));
+        assertEquals(HoleCardClass.parse("Q9o"),
+                HoleCardClass.of(CardSet.of(Card.H9, Card.CQ)));
+    }
+
+    @Test
+    public void combosCoverAllHoleCards() {
+        Set<CardSet> all = new HashSet<CardSet>();
+        for (int index = 0; index < HoleCardClass.COUNT; index++) {
+            HoleCardClass holeCardClass = HoleCardClass.get(index);
+            assertEquals(index, holeCardClass.getIndex());
+            for (CardSet combo : holeCardClass.getCombos()) {
+                assertSame(holeCardClass, HoleCardClass.of(combo));
+                assertTrue(all.add(combo));
+            }
+        }
+        assertEquals(52 * 51 / 2, all.size());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link MonteCarloEquityCalculator}.
+ */
+public class MonteCarloEquityCalculatorTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    @Test
+    public void acesAgainstKings() {
+        Equity equity = new MonteCarloEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh")),
+                CardSet.EMPTY, CardSet.EMPTY, 200000, 1);
+
+        assertEquals(200000, equity.getBoards());
+        assertEquals(0.826, equity.getEquity(0), 0.01);
+        assertEquals(1.0, equity.getEquity(0) + equity.getEquity(1), 1e-9);
+    }
+
+    @Test
+    public void completeBoard() {
+        Equity equity = new MonteCarloEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh"), cards("2c 3c")),
+                cards("Th Jd Qc Kd Ad"), CardSet.EMPTY, 1000, 1);
+
+        assertEquals(0, equity.getWins(0));
+        assertEquals(1000, equity.getTies(0));
+        assertEquals(1000, equity.getTies(1));
+        assertEquals(1000, equity.getTies(2));
+        assertEquals(1.0 / 3, equity.getEquity(2), 1e-9);
+    }
+
+    @Test
+    public void reproducibleAcrossPools() {
+        Equity single = new MonteCarloEquityCalculator(new ForkJoinPool(1))
+                .calculate(Arrays.asList(cards("As Kh"), cards("Qs Qd"),
+                cards("7c 8c")), cards("2c 9c Qh"), cards("Ad"), 100000, 42);
+        Equity parallel = new MonteCarloEquityCalculator(new ForkJoinPool(4))
+                .calculate(Arrays.asList(cards("As Kh"), cards("Qs Qd"),
+                cards("7c 8c")), cards("2c 9c Qh"), cards("Ad"), 100000, 42);
+
+        for (int player = 0; player < 3; player++) {
+            assertEquals(single.getWins(player), parallel.getWins(player));
+            assertEquals(single.getTies(player), parallel.getTies(player));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singlePlayer() {
+        new MonteCarloEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah")),
+                CardSet.EMPTY, CardSet.EMPTY, 1000, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deadCardInUse() {
+        new MonteCarloEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh")),
+                CardSet.EMPTY, cards("Ks"), 1000, 1);
+    }
+}
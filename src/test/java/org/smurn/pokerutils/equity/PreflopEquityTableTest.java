@@ -0,0 +1,136 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PreflopEquityTable} and
+ * {@link PreflopEquityTableGenerator}.
+ */
+public class PreflopEquityTableTest {
+
+    /** Estimated table shared by the tests. */
+    private static byte[] table;
+
+    @BeforeClass
+    public static void generate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PreflopEquityTableGenerator(new MonteCarloEquityCalculator(),
+                200, 1).write(out);
+        table = out.toByteArray();
+    }
+
+    @Test
+    public void exactPairVersusPair() {
+        PreflopEquityTableGenerator generator =
+                new PreflopEquityTableGenerator(
+                new ExhaustiveEquityCalculator());
+        double actual = generator.calculate(HoleCardClass.parse("AA"),
+                HoleCardClass.parse("KK"));
+
+        // average of the exact equities of three suit combinations.
+        double disjoint = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Kd Kc")),
+                CardSet.EMPTY, CardSet.EMPTY).getEquity(0);
+        double shared = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kd")),
+                CardSet.EMPTY, CardSet.EMPTY).getEquity(0);
+        double same = new ExhaustiveEquityCalculator().calculate(
+                Arrays.asList(cards("As Ah"), cards("Ks Kh")),
+                CardSet.EMPTY, CardSet.EMPTY).getEquity(0);
+        assertEquals((6 * disjoint + 24 * shared + 6 * same) / 36, actual,
+                1e-12);
+    }
+
+    @Test
+    public void loadFromFile() throws IOException {
+        File file = File.createTempFile("preflop", ".eq");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(table);
+        } finally {
+            out.close();
+        }
+
+        PreflopEquityTable actual = PreflopEquityTable.load(file);
+
+        assertEquals(2, actual.getPlayerCount());
+        assertEquals(0.82, actual.getEquity(HoleCardClass.parse("AA"),
+                HoleCardClass.parse("KK")), 0.03);
+    }
+
+    @Test
+    public void equitiesAddUpToOne() throws IOException {
+        PreflopEquityTable actual = new PreflopEquityTable(
+                ByteBuffer.wrap(table));
+        for (int a = 0; a < HoleCardClass.COUNT; a += 7) {
+            for (int b = 0; b < HoleCardClass.COUNT; b += 5) {
+                assertEquals(1.0,
+                        actual.getEquity(HoleCardClass.get(a),
+                        HoleCardClass.get(b))
+                        + actual.getEquity(HoleCardClass.get(b),
+                        HoleCardClass.get(a)), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void lookupByCards() throws IOException {
+        PreflopEquityTable actual = new PreflopEquityTable(
+                ByteBuffer.wrap(table));
+        assertEquals(actual.getEquity(HoleCardClass.parse("AKs"),
+                HoleCardClass.parse("22")),
+                actual.getEquity(cards("Ad Kd"), cards("2c 2h")), 0);
+        assertEquals(actual.getEquity(HoleCardClass.parse("AKs"),
+                HoleCardClass.parse("22")),
+                actual.getEquity(HoleCardClass.parse("AKs"),
+                HoleCardClass.parse("22")), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTruncatedTable() throws IOException {
+        new PreflopEquityTable(ByteBuffer.wrap(table, 0, 100).slice());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsTooManyPlayers() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(0, PreflopEquityTable.MAGIC);
+        buffer.putInt(4, PreflopEquityTable.VERSION);
+        buffer.putInt(8, PreflopEquityTable.MAX_PLAYERS + 1);
+        buffer.putInt(12, HoleCardClass.COUNT);
+        new PreflopEquityTable(buffer);
+    }
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RangeEquityCalculator}.
+ */
+public class RangeEquityCalculatorTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    /**
+     * Calculates the exact heads-up equity of two hole cards.
+     */
+    private static Equity exact(final String hero, final String villain,
+            final String board) {
+        return new ExhaustiveEquityCalculator(new ForkJoinPool(2)).calculate(
+                Arrays.asList(cards(hero), cards(villain)), cards(board),
+                CardSet.EMPTY);
+    }
+
+    @Test
+    public void singleCombosAgreeWithExhaustive() {
+        RangeEquity actual = new RangeEquityCalculator(new ForkJoinPool(2))
+                .calculate(HandRange.parse("AhKh"), HandRange.parse("QsQd"),
+                cards("Qh 7h 2c"));
+
+        Equity expected = exact("Ah Kh", "Qs Qd", "Qh 7h 2c");
+        assertEquals(expected.getWinProbability(0),
+                actual.getWinProbability(), 1e-12);
+        assertEquals(expected.getTieProbability(0),
+                actual.getTieProbability(), 1e-12);
+    }
+
+    @Test
+    public void weightedRangeWithCardRemoval() {
+        // Ks Kh is blocked by the board, Qs Qh by the villain.
+        RangeEquity actual = new RangeEquityCalculator(new ForkJoinPool(2))
+                .calculate(HandRange.parse("KcKd:0.5, JcJd, KsKh, QsQh"),
+                HandRange.parse("AsQs"), cards("Kh 8d 5c 2s"));
+
+        double kings = exact("Kc Kd", "As Qs", "Kh 8d 5c 2s").getEquity(0);
+        double jacks = exact("Jc Jd", "As Qs", "Kh 8d 5c 2s").getEquity(0);
+        assertEquals((0.5 * kings + jacks) / 1.5, actual.getEquity(), 1e-12);
+    }
+
+    @Test
+    public void fullRangesOnRiverAreEven() {
+        RangeEquity actual = new RangeEquityCalculator(new ForkJoinPool(1))
+                .calculate(HandRange.all(), HandRange.all(),
+                cards("Ah Kd 8c 7c 2s"));
+
+        assertEquals(0.5, actual.getEquity(), 1e-12);
+        assertEquals(actual.getWinProbability(),
+                actual.getLossProbability(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noCompatibleHoleCards() {
+        new RangeEquityCalculator().calculate(HandRange.parse("AsAh"),
+                HandRange.parse("AsAd"), CardSet.EMPTY.with(Card.C2)
+                .with(Card.C3).with(Card.C4).with(Card.C5).with(Card.C7));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.equity;
+
+import java.util.Random;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.ranking.LookupLocator;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RiverShowdown}.
+ */
+public class RiverShowdownTest {
+
+    /**
+     * Creates a range with random weights, a third of them zero.
+     */
+    private static HandRange randomRange(final Random random) {
+        StringBuilder notation = new StringBuilder();
+        for (int index = 0; index < HandRange.COMBOS; index++) {
+            if (random.nextInt(3) == 0) {
+                continue;
+            }
+            long mask = HandRange.getMask(index);
+            if (notation.length() > 0) {
+                notation.append(", ");
+            }
+            notation.append(code(Long.numberOfTrailingZeros(mask)))
+                    .append(code(63 - Long.numberOfLeadingZeros(mask)))
+                    .append(':').append(random.nextInt(4) / 4.0);
+        }
+        return HandRange.parse(notation.toString());
+    }
+
+    /**
+     * Gets the two character code of a card.
+     */
+    private static String code(final int ordinal) {
+        return "" + "23456789TJQKA".charAt(ordinal % 13)
+                + "shdc".charAt(ordinal / 13);
+    }
+
+    /**
+     * Compares all pairs of hole cards.
+     */
+    private static double[] bruteForce(final HandRange hero,
+            final HandRange villain, final long board) {
+        LookupLocator locator = new LookupLocator();
+        double[] totals = new double[3];
+        for (int h = 0; h < HandRange.COMBOS; h++) {
+            long heroMask = HandRange.getMask(h);
+            if (hero.getWeight(h) == 0 || (heroMask & board) != 0) {
+                continue;
+            }
+            int heroStrength = locator.evaluate(board | heroMask);
+            for (int v = 0; v < HandRange.COMBOS; v++) {
+                long villainMask = HandRange.getMask(v);
+                if ((villainMask & (board | heroMask)) != 0) {
+                    continue;
+                }
+                double weight = hero.getWeight(h) * villain.getWeight(v);
+                int villainStrength = locator.evaluate(board | villainMask);
+                totals[2] += weight;
+                if (heroStrength > villainStrength) {
+                    totals[0] += weight;
+                } else if (heroStrength == villainStrength) {
+                    totals[1] += weight;
+                }
+            }
+        }
+        return totals;
+    }
+
+    @Test
+    public void agreesWithBruteForce() {
+        Random random = new Random(5);
+        for (int i = 0; i < 5; i++) {
+            long board = 0;
+            while (Long.bitCount(board) < 5) {
+                board |= 1L << random.nextInt(52);
+            }
+            HandRange hero = randomRange(random);
+            HandRange villain = randomRange(random);
+
+            RangeEquity actual = new RiverShowdown(CardSet.fromMask(board))
+                    .calculate(hero, villain);
+
+            double[] expected = bruteForce(hero, villain, board);
+            assertEquals(expected[0] / expected[2],
+                    actual.getWinProbability(), 1e-9);
+            assertEquals(expected[1] / expected[2],
+                    actual.getTieProbability(), 1e-9);
+        }
+    }
+
+    @Test
+    public void blockedNuts() {
+        // the villain's only straight flush needs the hero's card.
+        RangeEquity actual = new RiverShowdown(CardSet.fromMask(
+                Card.parseMask("9h Th Jh 2c 3d"))).calculate(
+                HandRange.parse("KhAs"), HandRange.parse("KhQh, 22"));
+
+        assertEquals(0.0, actual.getWinProbability(), 0);
+        assertEquals(1.0, actual.getLossProbability(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incompleteBoard() {
+        new RiverShowdown(CardSet.fromMask(Card.parseMask("9h Th Jh 2c")));
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Test;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.Change;
+import org.smurn.pokerutils.automata.GetUpChange;
+import org.smurn.pokerutils.automata.SitDownChange;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link JournalWriter} and {@link JournalReader}.
+ */
+public class JournalWriterTest {
+
+    /** Players of the changes. */
+    private final ListPlayerCodec players = new ListPlayerCodec(3);
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs = new ChangeCodecs();
+
+    /**
+     * Writes a journal.
+     * @param file The journal.
+     * @param changes Changes to append.
+     * @throws IOException If writing fails.
+     */
+    private void write(final File file, final Change... changes)
+            throws IOException {
+        JournalWriter writer = new JournalWriter(file, codecs, players, 2);
+        try {
+            for (Change change : changes) {
+                writer.append(change);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Tests that the changes are read back in order.
+     */
+    @Test
+    public void roundTrip() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 7, 100000),
+                    new GetUpChange(players.get(0), 3, 500));
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                SitDownChange first = (SitDownChange) reader.next();
+                assertSame(players.get(0), first.getPlayer());
+                assertEquals(3, first.getSeatNr());
+                assertEquals(500, first.getStake());
+                SitDownChange second = (SitDownChange) reader.next();
+                assertSame(players.get(1), second.getPlayer());
+                assertEquals(7, second.getSeatNr());
+                assertEquals(100000, second.getStake());
+                GetUpChange third = (GetUpChange) reader.next();
+                assertSame(players.get(0), third.getPlayer());
+                assertEquals(3, third.getSeatNr());
+                assertEquals(500, third.getStake());
+                assertNull(reader.next());
+                assertEquals(3, reader.getSequence());
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that replaying restores the table.
+     */
+    @Test
+    public void replay() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 7, 800),
+                    new GetUpChange(players.get(0), 3, 500));
+            Table table = new Table(10);
+            table.seal();
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                table = reader.replay(table);
+            } finally {
+                reader.close();
+            }
+            assertNull(table.getSeat(3).getPlayer());
+            assertSame(players.get(1), table.getSeat(7).getPlayer());
+            assertEquals(800, table.getSeat(7).getStake());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that reopening a journal appends to it.
+     */
+    @Test
+    public void reopenAppends() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500));
+            JournalWriter writer = new JournalWriter(file, codecs, players,
+                    1);
+            try {
+                assertEquals(1, writer.getSequence());
+                writer.append(new SitDownChange(players.get(1), 4, 600));
+                assertEquals(2, writer.getSequence());
+            } finally {
+                writer.close();
+            }
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                assertTrue(reader.skip());
+                assertEquals(4, ((SitDownChange) reader.next()).getSeatNr());
+                assertNull(reader.next());
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that a record cut short is ignored and removed when appending.
+     */
+    @Test
+    public void truncatedRecord() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 4, 600));
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(raf.length() - 2);
+            } finally {
+                raf.close();
+            }
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                assertNotNull(reader.next());
+                assertNull(reader.next());
+                assertTrue(reader.isTruncated());
+            } finally {
+                reader.close();
+            }
+            write(file, new SitDownChange(players.get(2), 5, 700));
+            reader = new JournalReader(file, codecs, players);
+            try {
+                assertEquals(3, ((SitDownChange) reader.next()).getSeatNr());
+                assertEquals(5, ((SitDownChange) reader.next()).getSeatNr());
+                assertNull(reader.next());
+                assertFalse(reader.isTruncated());
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Appends bytes to a file.
+     * @param file The file.
+     * @param bytes The bytes.
+     * @throws IOException If writing fails.
+     */
+    private static void appendBytes(final File file, final byte[] bytes)
+            throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length());
+            raf.write(bytes);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reopens a journal with two records, appends a third and checks that
+     * all three are read back.
+     * @param file The journal.
+     * @throws IOException If reading or writing fails.
+     */
+    private void assertAppendsAfterTwo(final File file) throws IOException {
+        JournalWriter writer = new JournalWriter(file, codecs, players, 1);
+        try {
+            assertEquals(2, writer.getSequence());
+            writer.append(new SitDownChange(players.get(2), 5, 700));
+        } finally {
+            writer.close();
+        }
+        JournalReader reader = new JournalReader(file, codecs, players);
+        try {
+            assertEquals(3, ((SitDownChange) reader.next()).getSeatNr());
+            assertEquals(4, ((SitDownChange) reader.next()).getSeatNr());
+            assertEquals(5, ((SitDownChange) reader.next()).getSeatNr());
+            assertNull(reader.next());
+            assertFalse(reader.isTruncated());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that a complete length followed by garbage at the end is
+     * removed when appending.
+     */
+    @Test
+    public void garbageTail() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 4, 600));
+            appendBytes(file, new byte[] {3, 17, 34, 51, 68, 85, 102, 119});
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                assertTrue(reader.skip());
+                assertTrue(reader.skip());
+                reader.skip();
+                fail("corrupt record was read.");
+            } catch (IOException e) {
+                // expected, only the writer removes the garbage.
+            } finally {
+                reader.close();
+            }
+            assertAppendsAfterTwo(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that zeros at the end are not read as records and removed when
+     * appending.
+     */
+    @Test
+    public void zeroTail() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 4, 600));
+            appendBytes(file, new byte[4096]);
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                assertTrue(reader.skip());
+                assertTrue(reader.skip());
+                assertFalse(reader.skip());
+                assertTrue(reader.isTruncated());
+                assertEquals(2, reader.getSequence());
+            } finally {
+                reader.close();
+            }
+            assertAppendsAfterTwo(file);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that zeros between valid records are detected.
+     */
+    @Test(expected = IOException.class)
+    public void zerosBeforeValid() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500));
+            appendBytes(file, new byte[10]);
+            File other = File.createTempFile("journal", ".bin");
+            try {
+                write(other, new SitDownChange(players.get(1), 4, 600));
+                RandomAccessFile raf = new RandomAccessFile(other, "r");
+                try {
+                    byte[] record = new byte[(int) raf.length()
+                            - JournalFormat.HEADER_SIZE];
+                    raf.seek(JournalFormat.HEADER_SIZE);
+                    raf.readFully(record);
+                    appendBytes(file, record);
+                } finally {
+                    raf.close();
+                }
+            } finally {
+                other.delete();
+            }
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                assertTrue(reader.skip());
+                reader.skip();
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that the writer does not remove a corrupt record followed by a
+     * valid one.
+     */
+    @Test(expected = IOException.class)
+    public void corruptRecordBeforeValid() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500),
+                    new SitDownChange(players.get(1), 4, 600));
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(JournalFormat.HEADER_SIZE + 2);
+                raf.write(9);
+            } finally {
+                raf.close();
+            }
+            new JournalWriter(file, codecs, players, 1).close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that a corrupted record is detected.
+     */
+    @Test(expected = IOException.class)
+    public void corruptRecord() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new SitDownChange(players.get(0), 3, 500));
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.seek(JournalFormat.HEADER_SIZE + 2);
+                raf.write(9);
+            } finally {
+                raf.close();
+            }
+            JournalReader reader = new JournalReader(file, codecs, players);
+            try {
+                reader.next();
+            } finally {
+                reader.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Tests that changes without a codec are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownChange() throws IOException {
+        File file = File.createTempFile("journal", ".bin");
+        try {
+            write(file, new Change() {
+
+                @Override
+                public Table apply(final Table table) {
+                    return table;
+                }
+            });
+        } finally {
+            file.delete();
+        }
+    }
+}
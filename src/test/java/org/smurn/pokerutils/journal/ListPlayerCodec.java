@@ -0,0 +1,67 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.smurn.pokerutils.Player;
+import static org.mockito.Mockito.*;
+
+/**
+ * Writes players as their index in a list of mocks.
+ */
+class ListPlayerCodec implements PlayerCodec {
+
+    /** The players. */
+    private final List<Player> players = new ArrayList<Player>();
+
+    /**
+     * Creates an instance.
+     * @param count Number of players.
+     */
+    ListPlayerCodec(final int count) {
+        for (int i = 0; i < count; i++) {
+            players.add(mock(Player.class));
+        }
+    }
+
+    /**
+     * Gets a player.
+     * @param index Index of the player.
+     * @return The player.
+     */
+    Player get(final int index) {
+        return players.get(index);
+    }
+
+    @Override
+    public void write(final Player player, final DataOutput out)
+            throws IOException {
+        Varint.write(out, players.indexOf(player));
+    }
+
+    @Override
+    public Player read(final DataInput in) throws IOException {
+        int index = Varint.read(in);
+        if (index >= players.size()) {
+            throw new IOException("no player " + index + ".");
+        }
+        return players.get(index);
+    }
+}
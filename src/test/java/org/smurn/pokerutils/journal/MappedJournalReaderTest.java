@@ -0,0 +1,359 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.Change;
+import org.smurn.pokerutils.automata.GetUpChange;
+import org.smurn.pokerutils.automata.SitDownChange;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link MappedJournalReader}.
+ */
+public class MappedJournalReaderTest {
+
+    /** Players of the changes. */
+    private final ListPlayerCodec players = new ListPlayerCodec(2);
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs = new ChangeCodecs();
+    /** Empty table. */
+    private Table initial;
+    /** Directory of the journal. */
+    private File directory;
+    /** The journal. */
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        initial = new Table(3);
+        initial.seal();
+        directory = File.createTempFile("journal", "");
+        directory.delete();
+        directory.mkdir();
+        file = new File(directory, "table.journal");
+    }
+
+    @After
+    public void tearDown() {
+        for (File child : directory.listFiles()) {
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Gets the change with a sequence number.
+     * Player 0 sits down and gets up again on seat {@code i % 3} with
+     * {@code i} chips.
+     * @param sequence Sequence number.
+     * @return The change.
+     */
+    private Change change(final int sequence) {
+        int round = sequence / 2;
+        if (sequence % 2 == 0) {
+            return new SitDownChange(players.get(0), round % 3, round);
+        }
+        return new GetUpChange(players.get(0), round % 3, round);
+    }
+
+    /**
+     * Appends changes through a table journal.
+     * @param from Sequence number of the first change.
+     * @param to Sequence number after the last change.
+     * @throws IOException If writing fails.
+     */
+    private void append(final int from, final int to) throws IOException {
+        TableJournal journal = new TableJournal(file, initial, codecs,
+                players, 4, 7);
+        try {
+            for (int i = from; i < to; i++) {
+                journal.apply(change(i));
+            }
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Checks that each change is found.
+     * @param reader The reader.
+     * @param size Expected number of changes.
+     * @throws IOException If reading fails.
+     */
+    private void checkChanges(final MappedJournalReader reader,
+            final int size) throws IOException {
+        assertEquals(size, reader.getSize());
+        for (int i = size - 1; i >= 0; i--) {
+            Change expected = change(i);
+            Change actual = reader.getChange(i);
+            assertSame(expected.getClass(), actual.getClass());
+            if (actual instanceof SitDownChange) {
+                assertEquals(((SitDownChange) expected).getSeatNr(),
+                        ((SitDownChange) actual).getSeatNr());
+                assertEquals(((SitDownChange) expected).getStake(),
+                        ((SitDownChange) actual).getStake());
+            } else {
+                assertEquals(((GetUpChange) expected).getStake(),
+                        ((GetUpChange) actual).getStake());
+            }
+        }
+    }
+
+    /**
+     * Tests that every change is found by its sequence number.
+     */
+    @Test
+    public void getChange() throws IOException {
+        append(0, 50);
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            checkChanges(reader, 50);
+        } finally {
+            reader.close();
+        }
+        assertTrue(new File(directory, "table.journal.index").exists());
+    }
+
+    /**
+     * Tests that a stored index is extended by the changes appended since.
+     */
+    @Test
+    public void extendsIndex() throws IOException {
+        append(0, 20);
+        MappedJournalReader first = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            assertEquals(20, first.getSize());
+        } finally {
+            first.close();
+        }
+        append(20, 45);
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            checkChanges(reader, 45);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that a corrupt index is ignored.
+     */
+    @Test
+    public void corruptIndex() throws IOException {
+        append(0, 30);
+        new MappedJournalReader(file, codecs, players, 8).close();
+        RandomAccessFile raf = new RandomAccessFile(
+                new File(directory, "table.journal.index"), "rw");
+        try {
+            raf.seek(24);
+            raf.writeLong(12345);
+        } finally {
+            raf.close();
+        }
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            checkChanges(reader, 30);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that the table is reconstructed before each change.
+     */
+    @Test
+    public void getTable() throws IOException {
+        append(0, 40);
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            for (int i = 0; i <= 40; i++) {
+                Table table = reader.getTable(i, initial);
+                int round = (i - 1) / 2;
+                for (int seat = 0; seat < 3; seat++) {
+                    boolean seated = i % 2 == 1 && seat == round % 3;
+                    assertEquals(seated ? players.get(0) : null,
+                            table.getSeat(seat).getPlayer());
+                    assertEquals(seated ? round : 0,
+                            table.getSeat(seat).getStake());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that a change cut short is not counted.
+     */
+    @Test
+    public void truncatedChange() throws IOException {
+        append(0, 10);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 1);
+        } finally {
+            raf.close();
+        }
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players);
+        try {
+            checkChanges(reader, 9);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that the index of a replaced journal is not used.
+     */
+    @Test
+    public void replacedJournal() throws IOException {
+        append(0, 40);
+        new MappedJournalReader(file, codecs, players, 8).close();
+        assertTrue(file.delete());
+        JournalWriter writer = new JournalWriter(file, codecs, players, 8);
+        try {
+            for (int i = 0; i < 30; i++) {
+                writer.append(new SitDownChange(players.get(1), i % 3,
+                        1000 * i));
+            }
+        } finally {
+            writer.close();
+        }
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 8);
+        try {
+            assertEquals(30, reader.getSize());
+            for (int i = 0; i < 30; i++) {
+                assertEquals(1000 * i,
+                        ((SitDownChange) reader.getChange(i)).getStake());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that zeros at the end are not counted as changes.
+     */
+    @Test
+    public void zeroTail() throws IOException {
+        append(0, 10);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() + 64);
+        } finally {
+            raf.close();
+        }
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 4);
+        try {
+            checkChanges(reader, 10);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that changes are only scanned up to the one requested and that
+     * a corrupt change after the last index entry is detected once it is
+     * scanned.
+     */
+    @Test
+    public void corruptChange() throws IOException {
+        append(0, 10);
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players, 4);
+        try {
+            reader.getChange(7);
+        } finally {
+            reader.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long offset = raf.length() - 6;
+            raf.seek(offset);
+            int value = raf.read();
+            raf.seek(offset);
+            raf.write(value ^ 1);
+        } finally {
+            raf.close();
+        }
+        reader = new MappedJournalReader(file, codecs, players, 4);
+        try {
+            assertEquals(4, ((SitDownChange) reader.getChange(8)).getStake());
+            reader.getSize();
+            fail("corrupt change was scanned.");
+        } catch (IOException e) {
+            // expected, the last change is corrupt.
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that zeros between changes are detected.
+     */
+    @Test(expected = IOException.class)
+    public void zerosBeforeChange() throws IOException {
+        append(0, 2);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            byte[] records = new byte[(int) raf.length()
+                    - JournalFormat.HEADER_SIZE];
+            raf.seek(JournalFormat.HEADER_SIZE);
+            raf.readFully(records);
+            raf.write(new byte[10]);
+            raf.write(records);
+        } finally {
+            raf.close();
+        }
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players);
+        try {
+            reader.getSize();
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Tests that changes past the end are rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void pastEnd() throws IOException {
+        append(0, 10);
+        MappedJournalReader reader = new MappedJournalReader(file, codecs,
+                players);
+        try {
+            reader.getChange(10);
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.smurn.pokerutils.Table;
+import org.smurn.pokerutils.automata.GetUpChange;
+import org.smurn.pokerutils.automata.IncompatibleTableException;
+import org.smurn.pokerutils.automata.SitDownChange;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link TableJournal}.
+ */
+public class TableJournalTest {
+
+    /** Players of the changes. */
+    private final ListPlayerCodec players = new ListPlayerCodec(4);
+    /** Codecs of the changes. */
+    private final ChangeCodecs codecs = new ChangeCodecs();
+    /** Empty table. */
+    private Table initial;
+    /** Directory of the journal. */
+    private File directory;
+    /** The journal. */
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        initial = new Table(6);
+        initial.seal();
+        directory = File.createTempFile("journal", "");
+        directory.delete();
+        directory.mkdir();
+        file = new File(directory, "table.journal");
+    }
+
+    @After
+    public void tearDown() {
+        for (File child : directory.listFiles()) {
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Opens the journal and sits down the four players.
+     * @return The open journal.
+     * @throws IOException If writing fails.
+     */
+    private TableJournal sitDownAll() throws IOException {
+        TableJournal journal = new TableJournal(file, initial, codecs,
+                players, 1, 3);
+        for (int i = 0; i < 4; i++) {
+            journal.apply(new SitDownChange(players.get(i), i, 100 + i));
+        }
+        return journal;
+    }
+
+    /**
+     * Tests that reopening restores the table.
+     */
+    @Test
+    public void reopen() throws IOException {
+        sitDownAll().close();
+        TableJournal journal = new TableJournal(file, initial, codecs,
+                players, 1, 3);
+        try {
+            assertEquals(4, journal.getSequence());
+            for (int i = 0; i < 4; i++) {
+                assertSame(players.get(i),
+                        journal.getTable().getSeat(i).getPlayer());
+            }
+            Table after = journal.apply(
+                    new GetUpChange(players.get(2), 2, 102));
+            assertNull(after.getSeat(2).getPlayer());
+            assertSame(after, journal.getTable());
+        } finally {
+            journal.close();
+        }
+        Table table = TableJournal.recover(file, initial, codecs, players);
+        assertNull(table.getSeat(2).getPlayer());
+        assertSame(players.get(3), table.getSeat(3).getPlayer());
+        assertEquals(103, table.getSeat(3).getStake());
+    }
+
+    /**
+     * Tests that recovery only reads the changes after the snapshot.
+     */
+    @Test
+    public void replaysTailOnly() throws IOException {
+        sitDownAll().close();
+        assertTrue(new File(directory, "table.journal.3.snapshot").exists());
+        // break the first change, which is covered by the snapshot.
+        corrupt(file, JournalFormat.HEADER_SIZE + 2);
+        Table table = TableJournal.recover(file, initial, codecs, players);
+        for (int i = 0; i < 4; i++) {
+            assertSame(players.get(i), table.getSeat(i).getPlayer());
+        }
+    }
+
+    /**
+     * Tests that a corrupt snapshot is skipped.
+     */
+    @Test
+    public void corruptSnapshot() throws IOException {
+        TableJournal journal = sitDownAll();
+        journal.snapshot();
+        journal.close();
+        corrupt(new File(directory, "table.journal.4.snapshot"), 30);
+        Table table = TableJournal.recover(file, initial, codecs, players);
+        for (int i = 0; i < 4; i++) {
+            assertSame(players.get(i), table.getSeat(i).getPlayer());
+        }
+    }
+
+    /**
+     * Tests that only the last two snapshots are kept.
+     */
+    @Test
+    public void keepsTwoSnapshots() throws IOException {
+        TableJournal journal = sitDownAll();
+        try {
+            for (int i = 0; i < 4; i++) {
+                journal.apply(new GetUpChange(players.get(i), i, 100 + i));
+            }
+        } finally {
+            journal.close();
+        }
+        assertEquals(Arrays.asList(3L, 6L),
+                new SnapshotStore(file, players).list());
+    }
+
+    /**
+     * Tests that snapshots of a deleted journal are not used for a new
+     * journal of the same name.
+     */
+    @Test
+    public void snapshotsOfDeletedJournal() throws IOException {
+        TableJournal journal = sitDownAll();
+        try {
+            journal.apply(new GetUpChange(players.get(0), 0, 100));
+            journal.apply(new GetUpChange(players.get(1), 1, 101));
+        } finally {
+            journal.close();
+        }
+        assertTrue(file.delete());
+        assertEquals(Arrays.asList(3L, 6L),
+                new SnapshotStore(file, players).list());
+
+        journal = new TableJournal(file, initial, codecs, players, 1, 100);
+        try {
+            for (int i = 0; i < 4; i++) {
+                journal.apply(new SitDownChange(players.get(i), 5 - i,
+                        200 + i));
+            }
+            journal.apply(new GetUpChange(players.get(3), 2, 203));
+            journal.apply(new GetUpChange(players.get(2), 3, 202));
+            journal.apply(new SitDownChange(players.get(3), 0, 300));
+        } finally {
+            journal.close();
+        }
+        Table table = TableJournal.recover(file, initial, codecs, players);
+        assertSame(players.get(0), table.getSeat(5).getPlayer());
+        assertSame(players.get(1), table.getSeat(4).getPlayer());
+        assertNull(table.getSeat(3).getPlayer());
+        assertNull(table.getSeat(2).getPlayer());
+        assertSame(players.get(3), table.getSeat(0).getPlayer());
+        assertEquals(300, table.getSeat(0).getStake());
+    }
+
+    /**
+     * Tests that writing a snapshot deletes those of a deleted journal.
+     */
+    @Test
+    public void deletesSnapshotsOfDeletedJournal() throws IOException {
+        TableJournal journal = sitDownAll();
+        try {
+            journal.snapshot();
+        } finally {
+            journal.close();
+        }
+        assertTrue(file.delete());
+        journal = new TableJournal(file, initial, codecs, players, 1, 2);
+        try {
+            journal.apply(new SitDownChange(players.get(0), 5, 200));
+            journal.apply(new SitDownChange(players.get(1), 4, 201));
+        } finally {
+            journal.close();
+        }
+        assertEquals(Arrays.asList(2L),
+                new SnapshotStore(file, players).list());
+    }
+
+    /**
+     * Tests that a complete length followed by garbage at the end does not
+     * prevent reopening the journal.
+     */
+    @Test
+    public void garbageTail() throws IOException {
+        sitDownAll().close();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length());
+            raf.write(new byte[] {3, 17, 34, 51, 68, 85, 102, 119});
+        } finally {
+            raf.close();
+        }
+        Table table = TableJournal.recover(file, initial, codecs, players);
+        assertSame(players.get(3), table.getSeat(3).getPlayer());
+        TableJournal journal = new TableJournal(file, initial, codecs,
+                players, 1, 3);
+        try {
+            assertEquals(4, journal.getSequence());
+            journal.apply(new GetUpChange(players.get(1), 1, 101));
+        } finally {
+            journal.close();
+        }
+        table = TableJournal.recover(file, initial, codecs, players);
+        assertNull(table.getSeat(1).getPlayer());
+        assertSame(players.get(3), table.getSeat(3).getPlayer());
+    }
+
+    /**
+     * Tests that a change that cannot be applied is not written.
+     */
+    @Test
+    public void rejectsIncompatible() throws IOException {
+        TableJournal journal = sitDownAll();
+        try {
+            journal.apply(new SitDownChange(players.get(0), 1, 5));
+            fail();
+        } catch (IncompatibleTableException e) {
+            assertEquals(4, journal.getSequence());
+        } finally {
+            journal.close();
+        }
+    }
+
+    /**
+     * Flips a bit of a file.
+     * @param target The file.
+     * @param offset Offset of the byte.
+     * @throws IOException If writing fails.
+     */
+    private static void corrupt(final File target, final long offset)
+            throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(target, "rw");
+        try {
+            raf.seek(offset);
+            int b = raf.read();
+            raf.seek(offset);
+            raf.write(b ^ 1);
+        } finally {
+            raf.close();
+        }
+    }
+}
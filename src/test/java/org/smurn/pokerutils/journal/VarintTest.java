@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link Varint}.
+ */
+public class VarintTest {
+
+    /**
+     * Tests values of all lengths.
+     */
+    @Test
+    public void roundTrip() throws IOException {
+        int[] values = {0, 1, 127, 128, 16383, 16384, 1 << 28,
+            Integer.MAX_VALUE};
+        int[] sizes = {1, 1, 1, 2, 2, 3, 5, 5};
+        for (int i = 0; i < values.length; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            Varint.write(new DataOutputStream(bytes), values[i]);
+            assertEquals(sizes[i], bytes.size());
+            assertEquals(values[i], Varint.read(new DataInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))));
+        }
+    }
+
+    /**
+     * Tests that values beyond an int are rejected.
+     */
+    @Test(expected = IOException.class)
+    public void overflow() throws IOException {
+        byte[] bytes = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+            0x0f};
+        Varint.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Tests that negative values are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negative() throws IOException {
+        Varint.write(new DataOutputStream(new ByteArrayOutputStream()), -1);
+    }
+}
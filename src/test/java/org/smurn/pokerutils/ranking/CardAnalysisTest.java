@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link CardAnalysis}.
+ */
+public class CardAnalysisTest {
+
+    @Test
+    public void byRankIsStable() {
+        CardAnalysis analysis = new CardAnalysis(
+                Card.parse("4c Ah 4s Kd Ac 4d"));
+
+        assertEquals(Card.parse("Ah Ac Kd 4c 4s 4d"),
+                Arrays.asList(analysis.getByRank()));
+        assertEquals(3, analysis.getRankStart(2));
+        assertEquals(3, analysis.getRankCount(2));
+        assertEquals(12, analysis.highestRank(2));
+        assertEquals(2, analysis.highestRank(3));
+        assertEquals(-1, analysis.highestRank(4));
+    }
+
+    @Test
+    public void bySuitKeepsRankOrder() {
+        CardAnalysis analysis = new CardAnalysis(
+                Card.parse("4c Ah 4s Kd Ac 2h"));
+
+        assertEquals(Card.parse("4s Ah 2h Kd Ac 4c"),
+                Arrays.asList(analysis.getBySuit()));
+        assertEquals(1, analysis.getSuitStart(1));
+        assertEquals(2, analysis.getSuitCount(1));
+        assertEquals(1 << 12 | 1 << 11 | 1 << 2 | 1, analysis.getRankMask());
+    }
+}
@@ -18,6 +18,9 @@ package org.smurn.pokerutils.ranking;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import static org.mockito.Mockito.*;
 import org.smurn.pokerutils.*;
@@ -102,4 +105,69 @@ public class CombinedLocatorTest {
         
         assertEquals(handSecond, actual);
     }
+
+    @Test
+    public void categoryLocatorsAfterOtherLocator(){
+        List<Card> cards = Card.parse("9s 9d 9c 4h 4d 4s Ac");
+        HandLocator mockFirst = mock(HandLocator.class);
+
+        CombinedLocator locator = new CombinedLocator(Arrays.asList(
+                mockFirst, new FourOfAKindLocator(), new FullHouseLocator()));
+        Hand actual = locator.findBestHand(cards);
+
+        verify(mockFirst).findBestHand(cards);
+        assertEquals(new FullHouseLocator().findBestHand(cards), actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void categoryLocatorsCheckCards(){
+        CombinedLocator locator = new CombinedLocator(
+                Arrays.<HandLocator>asList(new PairLocator()));
+        locator.findBestHand(Card.parse("Ah Ad Kh Kd"));
+    }
+
+    @Test
+    public void sharedAcrossThreads() throws InterruptedException {
+        final CombinedLocator locator = new CombinedLocator(
+                Arrays.<HandLocator>asList(new StraightFlushLocator(),
+                new FourOfAKindLocator(), new FullHouseLocator(),
+                new FlushLocator(), new StraightLocator(),
+                new ThreeOfAKindLocator(), new TwoPairLocator(),
+                new PairLocator(), new HighCardLocator()));
+        Random random = new Random(19);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+        final List<List<Card>> hands = new ArrayList<List<Card>>();
+        final List<Hand> expected = new ArrayList<Hand>();
+        for (int i = 0; i < 2000; i++) {
+            Collections.shuffle(deck, random);
+            List<Card> cards = new ArrayList<Card>(deck.subList(0, 7));
+            hands.add(cards);
+            expected.add(locator.findBestHand(cards));
+        }
+
+        final AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t * 500;
+            threads[t] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        int index = (offset + i) % hands.size();
+                        if (!expected.get(index).equals(
+                                locator.findBestHand(hands.get(index)))) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, mismatches.get());
+    }
 }
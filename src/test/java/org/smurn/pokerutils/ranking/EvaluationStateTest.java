@@ -0,0 +1,106 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EvaluationState}.
+ */
+public class EvaluationStateTest {
+
+    @Test
+    public void streetByStreet() {
+        LookupLocator locator = new LookupLocator();
+        EvaluationState state = new EvaluationState()
+                .add(Card.SA).add(Card.HA)
+                .addAll(CardSet.of(Card.parse("Kd 7c 2s")));
+        assertEquals(locator.evaluate(Card.parse("As Ah Kd 7c 2s")),
+                state.getStrength());
+
+        state.add(Card.DA);
+        assertEquals(locator.evaluate(Card.parse("As Ah Kd 7c 2s Ad")),
+                state.getStrength());
+
+        state.add(Card.CK);
+        assertEquals(locator.evaluate(Card.parse("As Ah Kd 7c 2s Ad Kc")),
+                state.getStrength());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        EvaluationState board = new EvaluationState()
+                .addAll(CardSet.of(Card.parse("Kd 7c 2s 9h")));
+        EvaluationState first = board.copy().add(Card.S7);
+        EvaluationState second = board.copy().add(Card.D9);
+
+        assertEquals(4, board.size());
+        assertTrue(first.getCards().contains(Card.S7));
+        assertFalse(second.getCards().contains(Card.S7));
+        assertEquals(CardSet.of(Card.parse("Kd 7c 2s 9h 9d")),
+                second.getCards());
+    }
+
+    @Test
+    public void removeUndoesAdd() {
+        EvaluationState state = new EvaluationState()
+                .addAll(CardSet.of(Card.parse("Kd 7c 2s 9h 3d")));
+        int before = state.getStrength();
+
+        state.add(Card.SK);
+        assertTrue(state.getStrength() > before);
+        state.remove(Card.SK);
+
+        assertEquals(before, state.getStrength());
+    }
+
+    @Test
+    public void agreesWithLocator() {
+        LookupLocator locator = new LookupLocator();
+        Random random = new Random(3);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+
+        for (int i = 0; i < 10000; i++) {
+            Collections.shuffle(deck, random);
+            EvaluationState state = new EvaluationState();
+            for (int size = 1; size <= 7; size++) {
+                state.add(deck.get(size - 1));
+                if (size >= 5) {
+                    assertEquals(locator.evaluate(deck.subList(0, size)),
+                            state.getStrength());
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCard() {
+        new EvaluationState().add(Card.S2).add(Card.S2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void tooFewCards() {
+        new EvaluationState().add(Card.S2).getStrength();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.HandCategory;
+import org.smurn.pokerutils.Rank;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link HandStrength}.
+ */
+public class HandStrengthTest {
+
+    @Test
+    public void valueOfLayout() {
+        int actual = HandStrength.valueOf(HandCategory.Pair,
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Seven, Rank.Two));
+        assertEquals(0x1CB500, actual);
+    }
+
+    @Test
+    public void roundTrip() {
+        List<Rank> ranks = Arrays.asList(Rank.Queen, Rank.Four, Rank.Three);
+        int strength = HandStrength.valueOf(HandCategory.TreeOfAKind, ranks);
+
+        assertEquals(HandCategory.TreeOfAKind,
+                HandStrength.getCategory(strength));
+        assertEquals(ranks, HandStrength.getRanks(strength));
+    }
+
+    @Test
+    public void higherCategoryWins() {
+        int flush = HandStrength.valueOf(HandCategory.Flush,
+                Arrays.asList(Rank.Seven, Rank.Five, Rank.Four, Rank.Three,
+                Rank.Two));
+        int straight = HandStrength.valueOf(HandCategory.Straight,
+                Arrays.asList(Rank.Ace));
+        assertTrue(flush > straight);
+    }
+
+    @Test
+    public void kickerDecides() {
+        int low = HandStrength.valueOf(HandCategory.Pair,
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Seven, Rank.Two));
+        int high = HandStrength.valueOf(HandCategory.Pair,
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Seven, Rank.Three));
+        assertTrue(high > low);
+    }
+
+    @Test
+    public void toHand() {
+        List<Card> cards = Card.parse("Kd Kh 9s 9c 4d 2c 9h");
+        int strength = HandStrength.valueOf(HandCategory.FullHouse,
+                Arrays.asList(Rank.Nine, Rank.King));
+
+        Hand actual = HandStrength.toHand(strength, cards);
+
+        Hand expected = new Hand(HandCategory.FullHouse,
+                Card.parse("Kd Kh 9s 9c 9h"),
+                Arrays.asList(Rank.Nine, Rank.King));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void toHandFlush() {
+        List<Card> cards = Card.parse("Kd Kh 9h 7h 4d 2h 3h");
+        int strength = HandStrength.valueOf(HandCategory.Flush,
+                Arrays.asList(Rank.King, Rank.Nine, Rank.Seven, Rank.Three,
+                Rank.Two));
+
+        Hand actual = HandStrength.toHand(strength, cards);
+
+        Hand expected = new Hand(HandCategory.Flush,
+                Card.parse("Kh 9h 7h 3h 2h"),
+                Arrays.asList(Rank.King, Rank.Nine, Rank.Seven, Rank.Three,
+                Rank.Two));
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void toHandMissingCards() {
+        int strength = HandStrength.valueOf(HandCategory.FourOfAKind,
+                Arrays.asList(Rank.Nine, Rank.King));
+        HandStrength.toHand(strength, Card.parse("Kd Kh 9s 9c 4d 2c 9h"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCategory() {
+        HandStrength.getCategory(0xF00000);
+    }
+}
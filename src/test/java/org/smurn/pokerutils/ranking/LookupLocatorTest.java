@@ -0,0 +1,229 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import org.smurn.pokerutils.Hand;
+import org.smurn.pokerutils.HandCategory;
+import org.smurn.pokerutils.Rank;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LookupLocator}.
+ */
+public class LookupLocatorTest {
+
+    /**
+     * Creates the locator chain the lookup locator has to agree with.
+     */
+    private static HandLocator createChain() {
+        return new CombinedLocator(Arrays.<HandLocator>asList(
+                new StraightFlushLocator(),
+                new FourOfAKindLocator(),
+                new FullHouseLocator(),
+                new FlushLocator(),
+                new StraightLocator(),
+                new ThreeOfAKindLocator(),
+                new TwoPairLocator(),
+                new PairLocator(),
+                new HighCardLocator()));
+    }
+
+    @Test
+    public void highCard() {
+        List<Card> cards = Card.parse("As 7d 3c 2h Kd 9s 4c");
+
+        Hand actual = new LookupLocator().findBestHand(cards);
+
+        Hand expected = new Hand(HandCategory.HighCard,
+                Card.parse("As Kd 9s 7d 4c"),
+                Arrays.asList(Rank.Ace, Rank.King, Rank.Nine, Rank.Seven,
+                Rank.Four));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void fullHouseFromTwoThreeOfAKinds() {
+        List<Card> cards = Card.parse("9s 9d 9c 4h 4d 4s Ac");
+
+        Hand actual = new LookupLocator().findBestHand(cards);
+
+        Hand expected = new Hand(HandCategory.FullHouse,
+                Card.parse("9s 9d 9c 4h 4d"),
+                Arrays.asList(Rank.Nine, Rank.Four));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void straightUsesFirstCardOfRank() {
+        List<Card> cards = Card.parse("5d 6c 7h 8s 8d 9c 2s");
+
+        Hand actual = new LookupLocator().findBestHand(cards);
+
+        Hand expected = new Hand(HandCategory.Straight,
+                Card.parse("5d 6c 7h 8s 9c"),
+                Arrays.asList(Rank.Nine));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void straightFlush() {
+        List<Card> cards = Card.parse("Th Jh Qh Kh Ah 9h Ad");
+
+        Hand actual = new LookupLocator().findBestHand(cards);
+
+        Hand expected = new Hand(HandCategory.StraightFlush,
+                Card.parse("Th Jh Qh Kh Ah"),
+                Arrays.asList(Rank.Ace));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewCards() {
+        new LookupLocator().findBestHand(Card.parse("As Ad Ah Ac"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateCards() {
+        new LookupLocator().findBestHand(Card.parse("As Ad Ah Ac As"));
+    }
+
+    @Test
+    public void agreesWithChain() {
+        HandLocator chain = createChain();
+        HandLocator lookup = new LookupLocator();
+        Random random = new Random(42);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+
+        for (int size = 5; size <= 10; size++) {
+            for (int i = 0; i < 20000; i++) {
+                Collections.shuffle(deck, random);
+                List<Card> cards = deck.subList(0, size);
+                assertEquals(cards.toString(), chain.findBestHand(cards),
+                        lookup.findBestHand(cards));
+            }
+        }
+    }
+
+    @Test
+    public void evaluateAgreesWithChain() {
+        HandLocator chain = createChain();
+        LookupLocator lookup = new LookupLocator();
+        Random random = new Random(7);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+
+        for (int i = 0; i < 20000; i++) {
+            Collections.shuffle(deck, random);
+            List<Card> cards = deck.subList(0, 7);
+            assertEquals(cards.toString(),
+                    HandStrength.valueOf(chain.findBestHand(cards)),
+                    lookup.evaluate(cards));
+        }
+    }
+
+    @Test
+    public void evaluateCardSet() {
+        LookupLocator lookup = new LookupLocator();
+        Random random = new Random(11);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+
+        for (int i = 0; i < 20000; i++) {
+            Collections.shuffle(deck, random);
+            List<Card> cards = deck.subList(0, 7);
+            assertEquals(cards.toString(), lookup.evaluate(cards),
+                    lookup.evaluate(CardSet.of(cards)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooFewCardsInMask() {
+        new LookupLocator().evaluate(CardSet.of(Card.SA, Card.HA).getMask());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bitsAboveLastCardInMask() {
+        new LookupLocator().evaluate(
+                Card.parseMask("2c 3c 4c 5c") | 1L << Card.values().length);
+    }
+
+    @Test
+    public void evaluateAllMasks() {
+        LookupLocator lookup = new LookupLocator();
+        Random random = new Random(13);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+        long[] hands = new long[1000];
+        for (int i = 0; i < hands.length; i++) {
+            Collections.shuffle(deck, random);
+            hands[i] = CardSet.maskOf(deck.subList(0, 5 + i % 3));
+        }
+        int[] strengths = new int[hands.length + 1];
+        strengths[hands.length] = -7;
+
+        lookup.evaluateAll(hands, strengths);
+
+        for (int i = 0; i < hands.length; i++) {
+            assertEquals(lookup.evaluate(hands[i]), strengths[i]);
+        }
+        assertEquals(-7, strengths[hands.length]);
+    }
+
+    @Test
+    public void evaluateAllOrdinals() {
+        LookupLocator lookup = new LookupLocator();
+        Random random = new Random(17);
+        List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+        int[] cards = new int[7 * 500];
+        for (int i = 0; i < cards.length; i += 7) {
+            Collections.shuffle(deck, random);
+            for (int j = 0; j < 7; j++) {
+                cards[i + j] = deck.get(j).ordinal();
+            }
+        }
+        int[] strengths = new int[500];
+
+        lookup.evaluateAll(cards, 7, 100, 500, strengths);
+
+        for (int i = 0; i < 500; i++) {
+            long mask = 0;
+            for (int j = 0; j < 7; j++) {
+                mask |= 1L << cards[i * 7 + j];
+            }
+            assertEquals(i < 100 ? 0 : lookup.evaluate(mask), strengths[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateAllDuplicateOrdinal() {
+        new LookupLocator().evaluateAll(new int[]{1, 2, 3, 4, 4}, 5,
+                new int[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evaluateAllTooFewCards() {
+        new LookupLocator().evaluateAll(new long[]{0xFL}, new int[1]);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ParallelEvaluator}.
+ */
+public class ParallelEvaluatorTest {
+
+    /**
+     * Creates random seven card masks.
+     */
+    private static long[] randomHands(final int count, final long seed) {
+        Random random = new Random(seed);
+        long[] hands = new long[count];
+        for (int i = 0; i < count; i++) {
+            while (Long.bitCount(hands[i]) < 7) {
+                hands[i] |= 1L << random.nextInt(52);
+            }
+        }
+        return hands;
+    }
+
+    @Test
+    public void masksAgreeWithSequential() {
+        long[] hands = randomHands(10007, 1);
+        int[] expected = new int[hands.length];
+        new LookupLocator().evaluateAll(hands, expected);
+
+        int[] actual = new int[hands.length];
+        new ParallelEvaluator(new ForkJoinPool(4), 100).evaluateAll(hands,
+                actual);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void ordinalsAgreeWithSequential() {
+        long[] hands = randomHands(3001, 2);
+        int[] cards = new int[hands.length * 7];
+        for (int i = 0; i < hands.length; i++) {
+            long rest = hands[i];
+            for (int j = 0; j < 7; j++) {
+                cards[i * 7 + j] = Long.numberOfTrailingZeros(rest);
+                rest &= rest - 1;
+            }
+        }
+        int[] expected = new int[hands.length];
+        new LookupLocator().evaluateAll(hands, expected);
+
+        int[] actual = new int[hands.length];
+        new ParallelEvaluator(new ForkJoinPool(3), 64).evaluateAll(cards, 7,
+                actual);
+
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidHandInChunk() {
+        long[] hands = randomHands(1000, 3);
+        hands[777] = 0x1F;
+        hands[778] = 0x3;
+        new ParallelEvaluator(new ForkJoinPool(2), 10).evaluateAll(hands,
+                new int[hands.length]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeMustBePositive() {
+        new ParallelEvaluator(new ForkJoinPool(1), 0);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011 stefan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.smurn.pokerutils.ranking;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.smurn.pokerutils.Card;
+import org.smurn.pokerutils.CardSet;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link Showdown} and
+ * {@link LookupLocator#rankShowdown(CardSet, CardSet[])}.
+ */
+public class ShowdownTest {
+
+    /**
+     * Parses cards into a set.
+     */
+    private static CardSet cards(final String cards) {
+        return CardSet.fromMask(Card.parseMask(cards));
+    }
+
+    @Test
+    public void singleWinner() {
+        Showdown showdown = new LookupLocator().rankShowdown(
+                cards("2h 7d 9c Ks As"),
+                cards("Ah Qd"), cards("Kh Kd"), cards("3c 4c"));
+
+        assertEquals(Arrays.asList(1), showdown.getWinners());
+        assertFalse(showdown.isTie());
+        assertEquals(0, showdown.getPlace(1));
+        assertEquals(1, showdown.getPlace(0));
+        assertEquals(2, showdown.getPlace(2));
+    }
+
+    @Test
+    public void splitPot() {
+        Showdown showdown = new LookupLocator().rankShowdown(
+                cards("Th Jd Qc Ks As"),
+                cards("2h 3d"), cards("2c 3c"), cards("Ah 3h"));
+
+        assertEquals(Arrays.asList(0, 1, 2), showdown.getWinners());
+        assertTrue(showdown.isTie());
+    }
+
+    @Test
+    public void placesHaveNoGaps() {
+        Showdown showdown = new LookupLocator().rankShowdown(
+                cards("2h 7d 9c Ks 4s"),
+                cards("Ah Ad"), cards("Ac As"), cards("3c 3d"), cards("5c 6c"));
+
+        assertEquals(0, showdown.getPlace(0));
+        assertEquals(0, showdown.getPlace(1));
+        assertEquals(1, showdown.getPlace(2));
+        assertEquals(2, showdown.getPlace(3));
+    }
+
+    @Test
+    public void foldedSeat() {
+        Showdown showdown = new LookupLocator().rankShowdown(
+                cards("2h 7d 9c Ks As"),
+                cards("Ah Qd"), null, cards("3c 4c"));
+
+        assertEquals(-1, showdown.getPlace(1));
+        assertEquals(-1, showdown.getStrength(1));
+        assertEquals(Arrays.asList(0), showdown.getWinners());
+    }
+
+    @Test
+    public void collections() {
+        List<List<Card>> hole = Arrays.asList(
+                Card.parse("Ah Qd"), Card.parse("Kh Kd"));
+        Showdown showdown = new LookupLocator().rankShowdown(
+                Card.parse("2h 7d 9c Ks As"), hole);
+
+        assertEquals(Arrays.asList(1), showdown.getWinners());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharedCard() {
+        new LookupLocator().rankShowdown(
+                cards("2h 7d 9c Ks As"), cards("Ah Qd"), cards("Ah Kd"));
+    }
+}
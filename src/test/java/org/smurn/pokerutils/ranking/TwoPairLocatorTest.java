@@ -67,6 +67,20 @@ public class TwoPairLocatorTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void kickerBelowPairs() {
+        List<Card> cards = Card.parse("Kd Kh 9s 9c 4d 2c");
+
+        TwoPairLocator locator = new TwoPairLocator();
+        Hand actual = locator.findBestHand(cards);
+
+        Hand expected = new Hand(HandCategory.TwoPair,
+                Card.parse("Kd Kh 9s 9c 4d"),
+                Arrays.asList(Rank.King, Rank.Nine, Rank.Four));
+
+        assertEquals(expected, actual);
+    }
+
     @Test
     public void manyCards() {
         List<Card> cards = Card.parse("2s 2h 3h 3s 5h 6h 7h 8h 9h Th");